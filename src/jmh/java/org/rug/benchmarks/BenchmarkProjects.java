@@ -0,0 +1,51 @@
+package org.rug.benchmarks;
+
+import org.rug.data.project.IVersion;
+import org.rug.data.project.Project;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the projects bundled in the test data, whose versions are used as input by the benchmarks of the pipeline.
+ * Benchmarks must be run from the root directory of the repository.
+ */
+final class BenchmarkProjects {
+
+    private static final String SOURCES_DIR = "test-data/input/";
+    private static final String GRAPHML_DIR = "test-data/output/arcanOutput/";
+
+    private BenchmarkProjects() {}
+
+    /**
+     * Loads the versions of the given project. The graphs of the versions are not loaded.
+     * @param name the name of the project (either ant or antlr).
+     * @return the project.
+     * @throws IOException if the GraphML files of the project cannot be listed.
+     */
+    static Project load(String name) throws IOException {
+        var project = new Project(name, Project.Type.JAVA);
+        project.addSourceDirectory(SOURCES_DIR + name);
+        project.addGraphMLfiles(GRAPHML_DIR + name);
+        return project;
+    }
+
+    /**
+     * Returns the last version of the given project, which has the largest graph.
+     * @param project the project.
+     * @return the last version.
+     */
+    static IVersion lastVersion(Project project) {
+        return project.versions().last();
+    }
+
+    /**
+     * Returns the versions of the given project in order.
+     * @param project the project.
+     * @return the versions.
+     */
+    static List<IVersion> versions(Project project) {
+        return new ArrayList<>(project.versions());
+    }
+}
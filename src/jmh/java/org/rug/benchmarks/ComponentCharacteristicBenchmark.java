@@ -0,0 +1,51 @@
+package org.rug.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.rug.data.characteristics.ComponentCharacteristicSet;
+import org.rug.data.characteristics.IComponentCharacteristic;
+import org.rug.data.project.IVersion;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every {@link IComponentCharacteristic} separately, computing it on the components of a version.
+ * The change metrics ({@code freqOfChanges}) are computed for git projects only and are therefore not measured,
+ * as the bundled projects are not git repositories; the characteristics derived from them are still measured.
+ * All the characteristics are computed once before measuring, so that the ones reading the values of others find them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComponentCharacteristicBenchmark {
+
+    @Param({"ant", "antlr"})
+    public String project;
+
+    @Param({"numOfClassesInPackage", "linesOfCode", "percCommitsClassChanged", "changeHasOccurredMetric",
+            "percCommitsPackChanged", "totalAmountOfChanges"})
+    public String characteristic;
+
+    private IComponentCharacteristic componentCharacteristic;
+    private IVersion version;
+
+    @Setup(Level.Trial)
+    public void loadVersion() throws IOException {
+        version = BenchmarkProjects.lastVersion(BenchmarkProjects.load(project));
+        var characteristics = new ComponentCharacteristicSet().getCharacteristicSet();
+        characteristics.forEach(c -> c.calculate(version));
+        componentCharacteristic = characteristics.stream()
+                .filter(c -> c.getName().equals(characteristic))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown component characteristic " + characteristic));
+    }
+
+    @Benchmark
+    public IVersion calculate() {
+        componentCharacteristic.calculate(version);
+        return version;
+    }
+}
@@ -0,0 +1,41 @@
+package org.rug.benchmarks;
+
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.openjdk.jmh.annotations.*;
+import org.rug.data.project.IVersion;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link org.rug.data.project.AbstractVersion#getGraph()}, that is reading the GraphML file of a version.
+ * The graph is released before every invocation, so every invocation reads the file again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphLoadingBenchmark {
+
+    @Param({"ant", "antlr"})
+    public String project;
+
+    private IVersion version;
+
+    @Setup(Level.Trial)
+    public void loadProject() throws IOException {
+        version = BenchmarkProjects.lastVersion(BenchmarkProjects.load(project));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearGraph() {
+        version.clearGraph();
+    }
+
+    @Benchmark
+    public Graph getGraph() {
+        return version.getGraph();
+    }
+}
@@ -0,0 +1,75 @@
+package org.rug.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.rug.data.characteristics.comps.LinesOfCodeCounter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the byte-level {@link LinesOfCodeCounter} with the regular expression previously used by
+ * {@link org.rug.data.characteristics.comps.NumberOfLinesOfCode}, over the sources of this project.
+ * Every invocation counts the lines of all the sources, starting from their bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinesOfCodeBenchmark {
+
+    private final Pattern linePattern = Pattern.compile("[^\\s*].*[\\n\\r]+");
+    private final LinesOfCodeCounter nonBlankCounter = new LinesOfCodeCounter(LinesOfCodeCounter.Mode.NON_BLANK);
+    private final LinesOfCodeCounter codeCounter = new LinesOfCodeCounter(LinesOfCodeCounter.Mode.CODE);
+    private List<byte[]> sources;
+
+    @Setup
+    public void readSources() throws IOException {
+        List<Path> files;
+        try (var walk = Files.walk(Paths.get("src", "main", "java"))) {
+            files = walk.filter(p -> p.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+        sources = new ArrayList<>(files.size());
+        for (Path file : files) {
+            sources.add(Files.readAllBytes(file));
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (byte[] source : sources) {
+            var matcher = linePattern.matcher(new String(source, StandardCharsets.UTF_8));
+            long lines = 0;
+            while (matcher.find()) {
+                lines++;
+            }
+            blackhole.consume(lines);
+        }
+    }
+
+    @Benchmark
+    public void nonBlankCounter(Blackhole blackhole) throws MalformedInputException {
+        for (byte[] source : sources) {
+            blackhole.consume(nonBlankCounter.count(ByteBuffer.wrap(source)));
+        }
+    }
+
+    @Benchmark
+    public void commentAwareCounter(Blackhole blackhole) throws MalformedInputException {
+        for (byte[] source : sources) {
+            blackhole.consume(codeCounter.count(ByteBuffer.wrap(source)));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.rug.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
+import org.rug.tracker.JaccardSimilarityLinker;
+import org.rug.tracker.LinkScoreTriple;
+import org.rug.tracker.MinHashSimilarityLinker;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures {@link JaccardSimilarityLinker#bestMatch(List, List)} between the smells of the last two versions of a project,
+ * either scoring every couple of smells of the same type or only the couples sharing at least one element,
+ * and the MinHash linker with and without rescoring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarityLinkerBenchmark {
+
+    @Param({"ant", "antlr"})
+    public String project;
+
+    @Param({"false", "true"})
+    public boolean indexCandidates;
+
+    @Param({"false", "true"})
+    public boolean minHashRescoring;
+
+    private JaccardSimilarityLinker linker;
+    private MinHashSimilarityLinker minHashLinker;
+    private List<SmellSnapshot> currentVersionSmells;
+    private List<SmellSnapshot> nextVersionSmells;
+
+    @Setup(Level.Trial)
+    public void parseSmells() throws IOException {
+        var loaded = BenchmarkProjects.load(project);
+        var versions = BenchmarkProjects.versions(loaded);
+        currentVersionSmells = snapshotsOf(loaded.getArchitecturalSmellsIn(versions.get(versions.size() - 2)));
+        nextVersionSmells = snapshotsOf(loaded.getArchitecturalSmellsIn(versions.get(versions.size() - 1)));
+        linker = new JaccardSimilarityLinker(indexCandidates);
+        minHashLinker = new MinHashSimilarityLinker(minHashRescoring, 1);
+    }
+
+    @Benchmark
+    public Set<LinkScoreTriple> bestMatch() {
+        return linker.bestMatch(currentVersionSmells, nextVersionSmells);
+    }
+
+    /**
+     * Matches the smells with the MinHash linker, in rescoring mode when minHashRescoring is true.
+     */
+    @Benchmark
+    public Set<LinkScoreTriple> minHashBestMatch() {
+        return minHashLinker.bestMatch(currentVersionSmells, nextVersionSmells);
+    }
+
+    private static List<SmellSnapshot> snapshotsOf(List<ArchitecturalSmell> smells) {
+        return smells.stream().map(SmellSnapshot::of).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,59 @@
+package org.rug.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.rug.data.characteristics.ISmellCharacteristic;
+import org.rug.data.smells.ArchitecturalSmell;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures every {@link ISmellCharacteristic} separately, computing it on all the smells of a version that it applies to.
+ * Characteristics caching results per graph (e.g. the PageRank) compute them in the first invocation only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmellCharacteristicBenchmark {
+
+    @Param({"ant", "antlr"})
+    public String project;
+
+    @Param({"size", "avrgNumOfChanges", "overlapRatio", "pageRankMax", "pageRankAvrg", "numOfEdges",
+            "affectedComponentType", "centreComponent", "numOfInheritanceEdges", "numOfPrivateUseEdges",
+            "numOfPublicUseEdges", "avrgEdgeWeight", "affectedDesignLevel", "parentCentrality", "shape",
+            "strength", "instabilityGap", "avrgInternalPathLength", "affectedClassesRatio",
+            "efferentAffectedRatio", "afferentAffectedRatio"})
+    public String characteristic;
+
+    private ISmellCharacteristic smellCharacteristic;
+    private List<ArchitecturalSmell> smells;
+
+    @Setup(Level.Trial)
+    public void parseSmells() throws IOException {
+        var loaded = BenchmarkProjects.load(project);
+        var allSmells = loaded.getArchitecturalSmellsIn(BenchmarkProjects.lastVersion(loaded));
+        smells = allSmells.stream()
+                .filter(smell -> smell.getType().getCharacteristicsSet().stream()
+                        .anyMatch(c -> c.getName().equals(characteristic)))
+                .collect(Collectors.toList());
+        smellCharacteristic = smells.stream()
+                .flatMap(smell -> smell.getType().getCharacteristicsSet().stream())
+                .filter(c -> c.getName().equals(characteristic))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No smell of " + project + " has the characteristic " + characteristic));
+    }
+
+    @Benchmark
+    public void calculate(Blackhole blackhole) {
+        for (ArchitecturalSmell smell : smells) {
+            blackhole.consume(smell.calculateCharacteristic(smellCharacteristic));
+        }
+    }
+}
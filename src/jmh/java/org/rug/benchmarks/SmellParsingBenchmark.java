@@ -0,0 +1,45 @@
+package org.rug.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.rug.data.project.AbstractProject;
+import org.rug.data.project.ArcanDependencyGraphParser;
+import org.rug.data.project.IVersion;
+import org.rug.data.smells.ArchitecturalSmell;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ArcanDependencyGraphParser#getArchitecturalSmellsIn(org.apache.tinkerpop.gremlin.structure.Graph, AbstractProject.Type)}.
+ * Parsing marks the smell nodes of the graph, therefore the graph is read again before every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmellParsingBenchmark {
+
+    @Param({"ant", "antlr"})
+    public String project;
+
+    private IVersion version;
+
+    @Setup(Level.Trial)
+    public void loadProject() throws IOException {
+        version = BenchmarkProjects.lastVersion(BenchmarkProjects.load(project));
+    }
+
+    @Setup(Level.Invocation)
+    public void loadGraph() {
+        version.clearGraph();
+        version.getGraph();
+    }
+
+    @Benchmark
+    public List<ArchitecturalSmell> getArchitecturalSmellsIn() {
+        return ArcanDependencyGraphParser.getArchitecturalSmellsIn(version.getGraph(), AbstractProject.Type.JAVA);
+    }
+}
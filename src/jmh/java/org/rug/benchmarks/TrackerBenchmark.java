@@ -0,0 +1,59 @@
+package org.rug.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.rug.data.characteristics.SmellCharacteristicsEngine;
+import org.rug.data.project.IVersion;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.JaccardSimilarityLinker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ASmellTracker#track(List, IVersion)} over all the versions of a project, with a new tracker for
+ * every invocation. The smells of all the versions are parsed and characterised beforehand, and all the graphs
+ * are kept in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TrackerBenchmark {
+
+    @Param({"ant", "antlr"})
+    public String project;
+
+    @Param({"0", "3"})
+    public int maxNonConsecutiveVersions;
+
+    private List<IVersion> versions;
+    private List<List<ArchitecturalSmell>> smells;
+
+    @Setup(Level.Trial)
+    public void characteriseSmells() throws IOException {
+        var loaded = BenchmarkProjects.load(project);
+        var engine = new SmellCharacteristicsEngine(Runtime.getRuntime().availableProcessors());
+        versions = BenchmarkProjects.versions(loaded);
+        smells = new ArrayList<>(versions.size());
+        for (IVersion version : versions) {
+            var versionSmells = loaded.getArchitecturalSmellsIn(version);
+            engine.calculate(versionSmells);
+            smells.add(versionSmells);
+        }
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public ASmellTracker track() {
+        var tracker = new ASmellTracker(new JaccardSimilarityLinker(), maxNonConsecutiveVersions);
+        for (int i = 0; i < versions.size(); i++) {
+            tracker.track(smells.get(i), versions.get(i));
+        }
+        return tracker;
+    }
+}
@@ -3,10 +3,15 @@ package org.rug;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.rug.args.Args;
+import org.rug.data.characteristics.comps.FileMetricsCache;
+import org.rug.data.characteristics.comps.LinesOfCodeCounter;
 import org.rug.data.project.*;
 import org.rug.persistence.*;
 import org.rug.runners.*;
 import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.CharacteristicsStore;
+import org.rug.tracker.ISimilarityLinker;
+import org.rug.tracker.MinHashSimilarityLinker;
 import org.rug.tracker.SimpleNameJaccardSimilarityLinker;
 
 import java.io.IOException;
@@ -40,7 +45,7 @@ public class Analysis {
         this.runners = new ArrayList<>();
         this.project = buildProjectFromArgs(args);
         this.aSmellTracker = new ASmellTracker(
-                new SimpleNameJaccardSimilarityLinker(),
+                buildSimilarityLinker(args),
                 args.trackNonConsecutiveVersions
         );
         if (args.isGitProject()) {
@@ -49,6 +54,18 @@ public class Analysis {
         init();
     }
 
+    /**
+     * Builds the similarity linker selected by the given arguments.
+     * @param args the arguments.
+     * @return a linker using MinHash signatures if requested, otherwise a linker using the simple names of the elements.
+     */
+    private static ISimilarityLinker buildSimilarityLinker(Args args) {
+        if (args.minHashLinking) {
+            return new MinHashSimilarityLinker(args.minHashRescoring, args.matchingThreads);
+        }
+        return new SimpleNameJaccardSimilarityLinker(!args.exhaustiveLinking, args.matchingThreads);
+    }
+
     /**
      * Initializes a constructor with an already instantiated {@link ASmellTracker}. This object
      * will be passed to the {@link TrackASRunner}, so that the analysis  can be resumed
@@ -91,7 +108,15 @@ public class Analysis {
         }
 
         if (args.runTracker()){
-            runners.add(new TrackASRunner(project, aSmellTracker, args.shouldAnalyseSingleVersion()));
+            var trackRunner = new TrackASRunner(project, aSmellTracker, args.shouldAnalyseSingleVersion(), args.prefetchVersions, args.characteristicsThreads);
+            if (args.fileMetricsCache != null) {
+                trackRunner.setFileMetricsCache(FileMetricsCache.load(Paths.get(args.fileMetricsCache)));
+            }
+            trackRunner.setDiffThreads(args.diffThreads);
+            if (args.commentAwareLinesOfCode) {
+                trackRunner.setLinesOfCodeMode(LinesOfCodeCounter.Mode.CODE);
+            }
+            runners.add(trackRunner);
 
             if (args.similarityScores) {
                 PersistenceHub.register(new SmellSimilarityDataGenerator(args.getSimilarityScoreFile()));
@@ -106,6 +131,17 @@ public class Analysis {
                 PersistenceHub.register(new ComponentMetricGenerator(args.getComponentCharacteristicsFile()));
             }
 
+            if (args.stageMetrics) {
+                PersistenceHub.register(new StageMetricsGenerator(args.getStageMetricsFile()));
+            }
+
+            if (args.columnarCharacteristics) {
+                if (aSmellTracker.getCharacteristicsStore() == null) {
+                    aSmellTracker.setCharacteristicsStore(new CharacteristicsStore());
+                }
+                PersistenceHub.register(new CharacteristicsStoreGenerator(args.getCharacteristicsStoreFile()));
+            }
+
             PersistenceHub.register(new CondensedGraphGenerator(args.getCondensedGraphFile()));
             PersistenceHub.register(new TrackGraphGenerator(args.getTrackGraphFileName()));
         }
@@ -160,7 +196,15 @@ public class Analysis {
 
         IProject project;
         if (args.isGitProject()) {
-            project = new GitProject(args.project.name, args.getGitRepo(), pType);
+            GitProject.SourceMode sourceMode;
+            if (args.gitObjectSources) {
+                sourceMode = GitProject.SourceMode.OBJECT_DATABASE;
+            } else if (args.incrementalSourceIndex) {
+                sourceMode = GitProject.SourceMode.INCREMENTAL_CHECKOUT;
+            } else {
+                sourceMode = GitProject.SourceMode.CHECKOUT;
+            }
+            project = new GitProject(args.project.name, args.getGitRepo(), pType, sourceMode);
             project.addSourceDirectory(args.getGitRepo().getAbsolutePath());
         } else {
             project = new Project(args.project.name, pType);
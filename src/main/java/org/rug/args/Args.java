@@ -42,9 +42,48 @@ public class Args {
     @Parameter(names = {"-pCompoCharact", "-pCC"}, description = "Print the component characteristics/metrics for every analyzed version.")
     public boolean componentCharacteristics;
 
+    @Parameter(names = {"-pStageMetrics", "-pSM"}, description = "Print the time spent in every stage of the tracking (loading, parsing, characterising, matching and writing), the number of smells and the heap used for every analyzed version.")
+    public boolean stageMetrics = false;
+
     @Parameter(names = {"-trackNonConsecSmells", "-tNCS"}, description = "If set greater than 0, this allows to link similar smells appearing in non-consecutive versions. This argument indicates the maximum number of versions to skip.")
     public int trackNonConsecutiveVersions = 0;
 
+    @Parameter(names = {"-exhaustiveLinking", "-eL"}, description = "Score every couple of smells of the same type when linking versions, rather than only the couples sharing at least one affected element. The results are identical, but slower to compute.")
+    public boolean exhaustiveLinking = false;
+
+    @Parameter(names = {"-minHashLinking", "-mHL"}, description = "Score only the couples of smells whose MinHash signatures share a locality-sensitive hashing band, rather than the couples sharing at least one affected element. Faster on smells affecting many elements, but some links may be missed.")
+    public boolean minHashLinking = false;
+
+    @Parameter(names = {"-minHashRescoring", "-mHR"}, description = "When linking with -minHashLinking, score again every couple sharing an affected element for the smells whose best MinHash candidate is close to the linking threshold. Fewer links are missed, but the links are still approximate.")
+    public boolean minHashRescoring = false;
+
+    @Parameter(names = {"-matchingThreads", "-mT"}, description = "The number of threads used to match the smells of consecutive versions. Smells of different types are matched in parallel.")
+    public int matchingThreads = 1;
+
+    @Parameter(names = {"-prefetchVersions", "-pV"}, description = "The number of versions to prepare (load, parse and characterise) on worker threads while a version is being tracked. If 0, versions are processed sequentially.")
+    public int prefetchVersions = 0;
+
+    @Parameter(names = {"-characteristicsThreads", "-chT"}, description = "The number of threads used to compute the characteristics of the smells of a version.")
+    public int characteristicsThreads = 1;
+
+    @Parameter(names = {"-diffThreads", "-dT"}, description = "For git projects, the number of threads used to compute the changes between the commits analysed ahead of tracking. If 0, the changes are computed while tracking, one version at a time.")
+    public int diffThreads = 0;
+
+    @Parameter(names = {"-incrementalSourceIndex", "-iSI"}, description = "For git projects, index the source files once and update the index with the files changed between the commits analysed, rather than indexing the working tree of every commit.")
+    public boolean incrementalSourceIndex = false;
+
+    @Parameter(names = {"-gitObjectSources", "-gOS"}, description = "For git projects, read the sources of every commit from the git object database rather than checking the commit out. Takes precedence over -incrementalSourceIndex.")
+    public boolean gitObjectSources = false;
+
+    @Parameter(names = {"-fileMetricsCache", "-fMC"}, description = "A file where the metrics of the source files (e.g. lines of code) are cached by content across versions and runs. Files whose content is cached are not measured again.")
+    public String fileMetricsCache = null;
+
+    @Parameter(names = {"-commentAwareLOC", "-cLOC"}, description = "Count as lines of code only the lines containing code outside of comments (C, C++ and Java), rather than all the non-blank lines.")
+    public boolean commentAwareLinesOfCode = false;
+
+    @Parameter(names = {"-columnarCharacteristics", "-cCh"}, description = "Store the characteristics of the smells in a separate, run-length encoded file rather than in the condensed graph.")
+    public boolean columnarCharacteristics = false;
+
     @Parameter(names = {"--help", "-h", "-help", "-?"}, help = true)
     public boolean help;
 
@@ -93,6 +132,10 @@ public class Args {
         return getOutputFileName("condensed-graph", "graphml");
     }
 
+    public String getCharacteristicsStoreFile(){
+        return getOutputFileName("characteristics-store", "bin");
+    }
+
     public String getTrackGraphFileName(){
         return getOutputFileName("track-graph", "graphml");
     }
@@ -105,6 +148,10 @@ public class Args {
         return getOutputFileName("component-characteristics", "csv");
     }
 
+    public String getStageMetricsFile(){
+        return getOutputFileName("stage-metrics", "csv");
+    }
+
     private String getOutputFileName(String name, String format){
         String fileName = String.format("%s-%s.%s", name, ( trackNonConsecutiveVersions > 0 ? "consecOnly" : "nonConsec"), format);
         return Paths.get(getTrackASOutDir(), fileName).toString();
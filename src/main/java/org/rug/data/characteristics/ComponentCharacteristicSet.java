@@ -13,10 +13,38 @@ public class ComponentCharacteristicSet {
      * Initializes the set of component characteristics to save in the dependency graph.
      */
     public ComponentCharacteristicSet(){
+        this(null);
+    }
+
+    /**
+     * Initializes the set of component characteristics to save in the dependency graph.
+     * @param metricsCache the cache of the metrics of the source files, shared across versions. May be null.
+     */
+    public ComponentCharacteristicSet(FileMetricsCache metricsCache){
+        this(metricsCache, LinesOfCodeCounter.Mode.NON_BLANK);
+    }
+
+    /**
+     * Initializes the set of component characteristics to save in the dependency graph.
+     * @param metricsCache the cache of the metrics of the source files, shared across versions. May be null.
+     * @param linesOfCodeMode which lines are counted as lines of code.
+     */
+    public ComponentCharacteristicSet(FileMetricsCache metricsCache, LinesOfCodeCounter.Mode linesOfCodeMode){
+        this(metricsCache, linesOfCodeMode, new CommitChangesTable());
+    }
+
+    /**
+     * Initializes the set of component characteristics to save in the dependency graph.
+     * @param metricsCache the cache of the metrics of the source files, shared across versions. May be null.
+     * @param linesOfCodeMode which lines are counted as lines of code.
+     * @param changesTable the changes between the versions analysed, possibly computed ahead of time.
+     */
+    public ComponentCharacteristicSet(FileMetricsCache metricsCache, LinesOfCodeCounter.Mode linesOfCodeMode,
+                                      CommitChangesTable changesTable){
         characteristics = new LinkedHashSet<>();
         characteristics.add(new NumberOfClassesInPackage());
-        characteristics.add(new NumberOfLinesOfCode());
-        characteristics.add(new ChangeMetrics(ChangeMetrics.NAME));
+        characteristics.add(new NumberOfLinesOfCode(metricsCache, linesOfCodeMode));
+        characteristics.add(new ChangeMetrics(ChangeMetrics.NAME, changesTable));
         characteristics.add(new PCCCMetric(ChangeMetrics.NAME));
         characteristics.add(new CHOMetricPackage());
         characteristics.add(new PCPCMetric(ChangeMetrics.NAME));
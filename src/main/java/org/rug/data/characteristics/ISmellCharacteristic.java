@@ -13,4 +13,14 @@ public interface ISmellCharacteristic extends SmellVisitor<String> {
      */
     String getName();
 
+    /**
+     * Whether this characteristic must be the only one accessing the graph of the smell while it is calculated.
+     * This is the case for characteristics that run a graph computer on the graph of the smell, as the graph
+     * cannot be traversed by other threads during the computation.
+     * @return true if the characteristic requires exclusive access to the graph, false by default.
+     */
+    default boolean requiresExclusiveGraphAccess(){
+        return false;
+    }
+
 }
@@ -0,0 +1,216 @@
+package org.rug.data.characteristics;
+
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.rug.data.characteristics.smells.PageRank;
+import org.rug.data.characteristics.smells.PageRankCache;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.metrics.StageMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Computes the characteristics of the smells of a version, possibly in parallel.
+ * The characteristics are stateless traversals of the graph of the version, therefore the smells of a version
+ * are characterised concurrently, each by a single task. Characteristics that require exclusive access to the
+ * graph (see {@link ISmellCharacteristic#requiresExclusiveGraphAccess()}) are calculated while no other characteristic
+ * accesses the same graph. The time spent computing each characteristic is accumulated across all the smells
+ * characterised by this engine. The PageRanks of the versions characterised by this engine are kept in a cache owned by
+ * the engine, so that engines characterising different projects at the same time do not share it.
+ */
+public class SmellCharacteristicsEngine {
+
+    private final static Logger logger = LoggerFactory.getLogger(SmellCharacteristicsEngine.class);
+
+    private final int parallelism;
+    private final Map<String, LongAdder> elapsedNanos;
+    private final Map<String, LongAdder> invocations;
+    private final Map<Graph, ReadWriteLock> graphLocks;
+    private final PageRankCache pageRankCache;
+    private ForkJoinPool pool;
+    private StageMetrics metrics;
+
+    /**
+     * Builds an engine that characterises smells on the calling thread.
+     */
+    public SmellCharacteristicsEngine(){
+        this(1);
+    }
+
+    /**
+     * Builds an engine that characterises smells using the given number of threads.
+     * @param parallelism the number of threads to use. Values lower than 2 disable parallel computation.
+     */
+    public SmellCharacteristicsEngine(int parallelism){
+        this(parallelism, 1);
+    }
+
+    /**
+     * Builds an engine that characterises smells using the given number of threads, and that keeps the PageRank
+     * of the given number of versions.
+     * @param parallelism the number of threads to use. Values lower than 2 disable parallel computation.
+     * @param cachedPageRanks the number of versions whose PageRank is kept in memory, which must be at least the
+     *                        number of versions whose smells are characterised at the same time.
+     */
+    public SmellCharacteristicsEngine(int parallelism, int cachedPageRanks){
+        this.parallelism = Math.max(1, parallelism);
+        this.pageRankCache = new PageRankCache(cachedPageRanks);
+        this.elapsedNanos = new ConcurrentHashMap<>();
+        this.invocations = new ConcurrentHashMap<>();
+        this.graphLocks = Collections.synchronizedMap(new WeakHashMap<>());
+    }
+
+    /**
+     * Computes the characteristics of all the given smells. The results are saved in the characteristics map
+     * of every smell. This method can be called concurrently on the smells of different versions.
+     * @param smells the smells to characterise.
+     */
+    public void calculate(List<ArchitecturalSmell> smells){
+        if (parallelism < 2 || smells.size() < 2) {
+            smells.forEach(this::calculate);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(smells.size());
+        for (ArchitecturalSmell smell : smells) {
+            tasks.add(() -> {
+                calculate(smell);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> task : getPool().invokeAll(tasks)) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing smell characteristics.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Computes the characteristics of the given smell on the calling thread.
+     * @param smell the smell to characterise.
+     */
+    public void calculate(ArchitecturalSmell smell){
+        ReadWriteLock graphLock = graphLocks.computeIfAbsent(smell.getAffectedGraph(), g -> new ReentrantReadWriteLock());
+        var previousCache = PageRank.setCache(pageRankCache);
+        try {
+            calculate(smell, graphLock);
+        } finally {
+            PageRank.setCache(previousCache);
+        }
+    }
+
+    private void calculate(ArchitecturalSmell smell, ReadWriteLock graphLock){
+        for (ISmellCharacteristic characteristic : smell.getType().getCharacteristicsSet()) {
+            Lock lock = characteristic.requiresExclusiveGraphAccess() ? graphLock.writeLock() : graphLock.readLock();
+            long elapsed;
+            lock.lock();
+            try {
+                long start = System.nanoTime();
+                smell.calculateCharacteristic(characteristic);
+                elapsed = System.nanoTime() - start;
+            } finally {
+                lock.unlock();
+            }
+            elapsedNanos.computeIfAbsent(characteristic.getName(), n -> new LongAdder()).add(elapsed);
+            invocations.computeIfAbsent(characteristic.getName(), n -> new LongAdder()).increment();
+            if (metrics != null) {
+                metrics.record("characteristic.smell." + characteristic.getName(), smell.getAffectedVersion(), elapsed);
+            }
+        }
+    }
+
+    /**
+     * Returns the total time spent computing each characteristic, excluding the time spent waiting for access to
+     * the graph. When smells are characterised in parallel, the times of the different threads are summed.
+     * @return a map from the names of the characteristics to the time spent, in milliseconds, sorted by name.
+     */
+    public SortedMap<String, Long> getElapsedTimes(){
+        SortedMap<String, Long> times = new TreeMap<>();
+        elapsedNanos.forEach((name, nanos) -> times.put(name, TimeUnit.NANOSECONDS.toMillis(nanos.sum())));
+        return times;
+    }
+
+    /**
+     * Returns the number of times each characteristic was computed.
+     * @return a map from the names of the characteristics to the number of smells they were computed on, sorted by name.
+     */
+    public SortedMap<String, Long> getInvocationCounts(){
+        SortedMap<String, Long> counts = new TreeMap<>();
+        invocations.forEach((name, count) -> counts.put(name, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Logs the time spent computing each characteristic, from the slowest to the fastest.
+     */
+    public void logElapsedTimes(){
+        var counts = getInvocationCounts();
+        getElapsedTimes().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> logger.info("Characteristic {}: {} ms over {} smells ({} ms per smell)", e.getKey(), e.getValue(),
+                        counts.get(e.getKey()), String.format("%.3f", e.getValue() / (double) Math.max(1, counts.get(e.getKey())))));
+    }
+
+    /**
+     * Sets the metrics where the time spent computing each characteristic on the smells of every version is recorded.
+     * @param metrics the metrics, or null to not record them.
+     */
+    public void setMetrics(StageMetrics metrics){
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the cache of the PageRanks of the versions characterised by this engine.
+     * @return the cache of this engine.
+     */
+    public PageRankCache getPageRankCache(){
+        return pageRankCache;
+    }
+
+    /**
+     * Returns the number of threads used to compute characteristics.
+     * @return the parallelism level of this engine.
+     */
+    public int getParallelism(){
+        return parallelism;
+    }
+
+    /**
+     * Releases the threads used by this engine. The engine can still be used afterwards.
+     */
+    public synchronized void shutdown(){
+        if (pool != null){
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Lazily creates the pool used for parallel computation.
+     * @return the pool.
+     */
+    private synchronized ForkJoinPool getPool(){
+        if (pool == null){
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+}
@@ -2,21 +2,11 @@ package org.rug.data.characteristics.comps;
 
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
-import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.diff.Edit;
-import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.patch.FileHeader;
-import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.rug.data.labels.EdgeLabel;
 import org.rug.data.labels.VertexLabel;
 import org.rug.data.project.GitVersion;
 import org.rug.data.project.IVersion;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.util.*;
 
 /**
@@ -31,32 +21,29 @@ public class ChangeMetrics extends AbstractComponentCharacteristic {
 
     public static final String NAME = "freqOfChanges";
 
-    private final static Logger logger = LoggerFactory.getLogger(ChangeMetrics.class);
-    /**
-     * The similarity measured as a percentage of the bytes between two files to count them as a rename.
-     * Default value used by git is 60.
-     */
-    protected static final int RENAME_SCORE = 50;
-    /**
-     * The maximum number of files to compare within a rename to not reduce performance.
-     * Default value used by git is 1000.
-     */
-    protected static final int RENAME_LIMIT = 500;
-
-
     private SourceCodeRetriever retriever;
     private Map<String, Long> changeHistory;
     private GitVersion previousVersion;
     private GitVersion currentVersion;
 
-    private DiffFormatter diffFormatter;
-    private List<DiffEntry> entries;
+    private final CommitChangesTable changesTable;
+    private CommitChanges changes;
 
     public ChangeMetrics(String name) {
+        this(name, new CommitChangesTable());
+    }
+
+    /**
+     * Builds the change metrics consuming the changes between the versions from the given table.
+     * @param name the name of the frequency of changes metric.
+     * @param changesTable the changes between the versions analysed, possibly computed ahead of time.
+     */
+    public ChangeMetrics(String name, CommitChangesTable changesTable) {
         super(name,
                 VertexLabel.allFiles(),
                 EnumSet.noneOf(EdgeLabel.class));
         this.changeHistory = new HashMap<>(1000);
+        this.changesTable = changesTable;
     }
 
     /**
@@ -70,10 +57,15 @@ public class ChangeMetrics extends AbstractComponentCharacteristic {
             currentVersion = (GitVersion)version;
             retriever = version.getSourceCodeRetriever();
             if (previousVersion != null) {
-                initDiff(currentVersion.getRepository(),
+                changes = changesTable.take(currentVersion.getRepository(),
                         previousVersion.getCommitObjectId(),
                         currentVersion.getCommitObjectId());
-                super.calculate(version);
+                try {
+                    super.calculate(version);
+                } finally {
+                    changes.close();
+                    changes = null;
+                }
             }
             previousVersion = currentVersion;
         }
@@ -89,15 +81,15 @@ public class ChangeMetrics extends AbstractComponentCharacteristic {
             return;
         }
         var pathFileStr = pathFile.get().toString();
-        var changeOpt = getDiffOf(pathFileStr);
+        int change = changes.indexOf(pathFileStr);
 
         var hasChanged = false;
+        long totalAmountOfChanges = 0;
         String key;
-        if (changeOpt.isPresent()){
-            var change = changeOpt.get();
+        if (change >= 0){
             Long oldValue;
-            key = String.format("%s#%s", change.getNewPath(), vertex.value("name"));
-            switch (change.getChangeType()) {
+            key = String.format("%s#%s", changes.getNewPath(change), vertex.value("name"));
+            switch (changes.getChangeType(change)) {
                 case ADD:
                 case MODIFY:
                     hasChanged = true;
@@ -107,7 +99,7 @@ public class ChangeMetrics extends AbstractComponentCharacteristic {
                 case COPY:
                 case RENAME:
                     hasChanged = true;
-                    oldValue = changeHistory.remove(String.format("%s#%s", change.getOldPath(), vertex.value("name")));
+                    oldValue = changeHistory.remove(String.format("%s#%s", changes.getOldPath(change), vertex.value("name")));
                     oldValue = oldValue == null ? 0L : oldValue;
                     changeHistory.put(key, oldValue + 1);
                     break;
@@ -115,10 +107,11 @@ public class ChangeMetrics extends AbstractComponentCharacteristic {
                 default:
                     break;
             }
+            totalAmountOfChanges = changes.getTotalAmountOfChanges(change);
         }else {
             key = String.format("%s#%s", pathFileStr, vertex.value("name"));
         }
-        vertex.property(TACHMetricPackage.NAME, countTotalAmountOfChanges(changeOpt));
+        vertex.property(TACHMetricPackage.NAME, totalAmountOfChanges);
         vertex.property(CHOMetricPackage.NAME, hasChanged);
         vertex.property(this.name, changeHistory.getOrDefault(key, 0L));
     }
@@ -127,68 +120,4 @@ public class ChangeMetrics extends AbstractComponentCharacteristic {
     protected void calculate(Edge edge) {
 
     }
-
-    /**
-     * Computes the list of DiffEntry that contains all the differences between the 2 commits.
-     * Note that this implementation only returns the differences between the two given commit, ignoring any
-     * commit in between.
-     * @param repo The repository in which the commits are.
-     * @param parent The parent commit to which needs to be compared.
-     * @param child The child commit that needs to be compared to the parent commit.
-     */
-    private void initDiff(Repository repo, ObjectId parent, ObjectId child) {
-        if (diffFormatter == null) {
-            diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
-            diffFormatter.setRepository(repo);
-            diffFormatter.setDetectRenames(true);
-        }
-        var renameDetector = diffFormatter.getRenameDetector();
-        renameDetector.setRenameScore(RENAME_SCORE);
-        renameDetector.setRenameLimit(RENAME_LIMIT);
-        try {
-            entries = diffFormatter.scan(parent, child);
-        } catch (IOException e) {
-            logger.error("Could not perform diff between parent commit {} and child {}.", parent.getName(), child.getName());
-            entries = new ArrayList<>();
-        }
-        diffFormatter.close();
-    }
-
-    private long countTotalAmountOfChanges(Optional<DiffEntry> entry) {
-        int linesDeleted = 0, linesAdded = 0, linesModified = 0;
-        if (entry.isPresent()){
-            try {
-                FileHeader fileHeader = diffFormatter.toFileHeader(entry.get());
-                for (Edit edit : fileHeader.toEditList()) {
-                    switch (edit.getType()) {
-                        case INSERT:
-                            linesAdded += edit.getEndB() - edit.getBeginB();
-                            break;
-                        case DELETE:
-                            linesDeleted += edit.getEndA() - edit.getBeginA();
-                            break;
-                        case REPLACE:
-                            linesModified += edit.getEndA() - edit.getBeginA();
-                            break;
-                        case EMPTY:
-                            break;
-                    }
-                }
-            } catch (IOException e) {
-                logger.error("Cannot convert to file header: {}", entry.get().getNewPath());
-            }
-        }else {
-            return 0;
-        }
-        return linesAdded + linesDeleted + 2 * linesModified;
-    }
-
-    /**
-     * Looks in the diff entry of between the current commits to find the given path.
-     * @param pathSuffix the path to use as a suffix.
-     * @return an optional containing a DiffEntry if any path was matched.
-     */
-    private Optional<DiffEntry> getDiffOf(String pathSuffix){
-        return entries.stream().filter(e -> e.getNewPath().endsWith(pathSuffix)).findFirst();
-    }
 }
@@ -0,0 +1,262 @@
+package org.rug.data.characteristics.comps;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The files changed between two commits, with the type of every change and the total amount of lines changed.
+ * When the changes are computed ahead of time, the lines changed by every file are counted right away, and only the
+ * paths, types and line counts are kept rather than the diff entries and their edit lists, so that the changes of
+ * many pairs of commits can be held in memory until they are consumed.
+ * Otherwise, the lines changed by a file are counted only the first time they are requested, since commits may
+ * change tens of thousands of files, most of which are not among the components analysed.
+ * The changes are looked up by any suffix of the new path of the changed file that starts at a path component.
+ */
+public class CommitChanges implements AutoCloseable {
+
+    private final static Logger logger = LoggerFactory.getLogger(CommitChanges.class);
+
+    /**
+     * The similarity measured as a percentage of the bytes between two files to count them as a rename.
+     * Default value used by git is 60.
+     */
+    protected static final int RENAME_SCORE = 50;
+    /**
+     * The maximum number of files to compare within a rename to not reduce performance.
+     * Default value used by git is 1000.
+     */
+    protected static final int RENAME_LIMIT = 500;
+
+    private static final DiffEntry.ChangeType[] CHANGE_TYPES = DiffEntry.ChangeType.values();
+
+    private final ObjectId parent;
+    private final ObjectId child;
+    private final String[] newPaths;
+    private final String[] oldPaths;
+    private final byte[] changeTypes;
+    private final long[] totalAmountOfChanges;
+    private final Map<String, Integer> indexBySuffix;
+
+    // Kept only while the lines changed are counted lazily
+    private Repository repository;
+    private List<DiffEntry> entries;
+    private ObjectReader reader;
+    private DiffFormatter diffFormatter;
+
+    private CommitChanges(ObjectId parent, ObjectId child, List<DiffEntry> entries, long[] totalAmountOfChanges) {
+        this.parent = parent;
+        this.child = child;
+        this.newPaths = new String[entries.size()];
+        this.oldPaths = new String[entries.size()];
+        this.changeTypes = new byte[entries.size()];
+        this.totalAmountOfChanges = totalAmountOfChanges;
+        this.indexBySuffix = new HashMap<>(entries.size() * 4);
+        for (int i = 0; i < entries.size(); i++) {
+            var entry = entries.get(i);
+            newPaths[i] = entry.getNewPath();
+            oldPaths[i] = entry.getOldPath();
+            changeTypes[i] = (byte) entry.getChangeType().ordinal();
+            indexSuffixes(entry.getNewPath(), i);
+        }
+    }
+
+    /**
+     * Computes the changes between the two given commits, detecting renames, and counts the lines changed by every file.
+     * Only the differences between the two commits are computed, ignoring any commit in between. The objects are read
+     * with a new reader, therefore the changes of different pairs of commits of the same repository can be computed concurrently.
+     * @param repository the repository in which the commits are.
+     * @param parent the parent commit to which needs to be compared.
+     * @param child the child commit that needs to be compared to the parent commit.
+     * @return the changes, or no changes if the commits could not be compared.
+     */
+    public static CommitChanges compute(Repository repository, ObjectId parent, ObjectId child) {
+        return compute(repository, parent, child, false);
+    }
+
+    /**
+     * Computes the changes between the two given commits, detecting renames (see {@link #compute(Repository, ObjectId, ObjectId)}).
+     * @param repository the repository in which the commits are.
+     * @param parent the parent commit to which needs to be compared.
+     * @param child the child commit that needs to be compared to the parent commit.
+     * @param lazy whether to count the lines changed by a file only when they are first requested. In this case, the
+     *             diff entries are kept until the changes are closed.
+     * @return the changes, or no changes if the commits could not be compared.
+     */
+    public static CommitChanges compute(Repository repository, ObjectId parent, ObjectId child, boolean lazy) {
+        try (ObjectReader reader = repository.newObjectReader();
+             DiffFormatter diffFormatter = newDiffFormatter(repository, reader)) {
+            List<DiffEntry> entries;
+            try {
+                entries = diffFormatter.scan(parent, child);
+            } catch (IOException e) {
+                logger.error("Could not perform diff between parent commit {} and child {}.", parent.getName(), child.getName());
+                entries = Collections.emptyList();
+            }
+            long[] totalAmountOfChanges = new long[entries.size()];
+            if (lazy) {
+                Arrays.fill(totalAmountOfChanges, -1);
+            } else {
+                for (int i = 0; i < entries.size(); i++) {
+                    totalAmountOfChanges[i] = countTotalAmountOfChanges(diffFormatter, entries.get(i));
+                }
+            }
+            var changes = new CommitChanges(parent, child, entries, totalAmountOfChanges);
+            if (lazy) {
+                changes.repository = repository;
+                changes.entries = entries;
+            }
+            return changes;
+        }
+    }
+
+    private static DiffFormatter newDiffFormatter(Repository repository, ObjectReader reader) {
+        var diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
+        diffFormatter.setReader(reader, repository.getConfig());
+        diffFormatter.setDetectRenames(true);
+        var renameDetector = diffFormatter.getRenameDetector();
+        renameDetector.setRenameScore(RENAME_SCORE);
+        renameDetector.setRenameLimit(RENAME_LIMIT);
+        return diffFormatter;
+    }
+
+    /**
+     * Returns the index of the change of the file whose new path ends with the given suffix. The suffix must start
+     * at a path component (e.g. {@code a/A.java} matches {@code src/a/A.java} but not {@code src/xa/A.java}).
+     * If more files end with the suffix, the first one in the order of the diff is returned.
+     * @param pathSuffix the suffix of the path of the file.
+     * @return the index of the change, or -1 if the file did not change.
+     */
+    public int indexOf(String pathSuffix) {
+        return indexBySuffix.getOrDefault(pathSuffix.replace(File.separatorChar, '/'), -1);
+    }
+
+    /**
+     * Returns the type of the change with the given index.
+     * @param index the index of the change.
+     * @return the change type.
+     */
+    public DiffEntry.ChangeType getChangeType(int index) {
+        return CHANGE_TYPES[changeTypes[index]];
+    }
+
+    /**
+     * Returns the path of the file after the change with the given index.
+     * @param index the index of the change.
+     * @return the new path, as stored in the repository.
+     */
+    public String getNewPath(int index) {
+        return newPaths[index];
+    }
+
+    /**
+     * Returns the path of the file before the change with the given index.
+     * @param index the index of the change.
+     * @return the old path, as stored in the repository.
+     */
+    public String getOldPath(int index) {
+        return oldPaths[index];
+    }
+
+    /**
+     * Returns the total amount of lines changed by the change with the given index. If the lines are counted lazily,
+     * they are counted the first time they are requested and memoised.
+     * @param index the index of the change.
+     * @return the lines added plus the lines deleted plus twice the lines modified.
+     */
+    public synchronized long getTotalAmountOfChanges(int index) {
+        if (totalAmountOfChanges[index] < 0) {
+            if (diffFormatter == null) {
+                reader = repository.newObjectReader();
+                diffFormatter = newDiffFormatter(repository, reader);
+            }
+            totalAmountOfChanges[index] = countTotalAmountOfChanges(diffFormatter, entries.get(index));
+        }
+        return totalAmountOfChanges[index];
+    }
+
+    /**
+     * Releases the diff entries and the reader used to count the lines changed lazily. The lines that were not
+     * counted yet cannot be requested afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        if (diffFormatter != null) {
+            diffFormatter.close();
+            reader.close();
+            diffFormatter = null;
+            reader = null;
+        }
+        entries = null;
+        repository = null;
+    }
+
+    /**
+     * Returns the number of files changed.
+     * @return the number of changes.
+     */
+    public int size() {
+        return newPaths.length;
+    }
+
+    public ObjectId getParent() {
+        return parent;
+    }
+
+    public ObjectId getChild() {
+        return child;
+    }
+
+    /**
+     * Indexes the given path by every suffix that starts at a path component (e.g. {@code src/a/A.java},
+     * {@code a/A.java} and {@code A.java}). Every suffix refers to the first change ending with it, in the order
+     * of the diff. Deleted files have no new path and are not indexed.
+     */
+    private void indexSuffixes(String path, int index) {
+        if (path.equals(DiffEntry.DEV_NULL)) {
+            return;
+        }
+        indexBySuffix.putIfAbsent(path, index);
+        for (int i = path.indexOf('/'); i >= 0; i = path.indexOf('/', i + 1)) {
+            indexBySuffix.putIfAbsent(path.substring(i + 1), index);
+        }
+    }
+
+    private static long countTotalAmountOfChanges(DiffFormatter diffFormatter, DiffEntry entry) {
+        int linesDeleted = 0, linesAdded = 0, linesModified = 0;
+        try {
+            for (Edit edit : diffFormatter.toFileHeader(entry).toEditList()) {
+                switch (edit.getType()) {
+                    case INSERT:
+                        linesAdded += edit.getEndB() - edit.getBeginB();
+                        break;
+                    case DELETE:
+                        linesDeleted += edit.getEndA() - edit.getBeginA();
+                        break;
+                    case REPLACE:
+                        linesModified += edit.getEndA() - edit.getBeginA();
+                        break;
+                    case EMPTY:
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Cannot convert to file header: {}", entry.getNewPath());
+        }
+        return linesAdded + linesDeleted + 2 * linesModified;
+    }
+}
@@ -0,0 +1,140 @@
+package org.rug.data.characteristics.comps;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.rug.data.project.GitVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The changes between the pairs of consecutive commits analysed, consumed by {@link ChangeMetrics} while the versions
+ * are tracked. The changes can be computed ahead of time, in parallel, by {@link #precompute(List, int, int)}: diffing with
+ * rename detection is expensive and the pairs of commits are independent of each other. As the changes of a pair retain
+ * all the paths changed, only a window of pairs following the last one taken is computed ahead of time. The changes of
+ * pairs of commits that were not precomputed are computed when they are first requested.
+ */
+public class CommitChangesTable {
+
+    private final static Logger logger = LoggerFactory.getLogger(CommitChangesTable.class);
+
+    private final Map<String, CompletableFuture<CommitChanges>> changes;
+    private final Deque<Pair> pending;
+    private ExecutorService executor;
+
+    /**
+     * Builds a table that computes the changes between two commits when they are requested.
+     */
+    public CommitChangesTable() {
+        this.changes = new ConcurrentHashMap<>();
+        this.pending = new ArrayDeque<>();
+    }
+
+    /**
+     * Starts computing the changes between the pairs of consecutive versions given on the given number of threads.
+     * At most the given number of pairs are computed, or kept once computed, ahead of the pairs taken: every time the
+     * changes of a pair are taken, the computation of the next pair starts. The method returns immediately, and the
+     * changes of a pair are awaited when they are requested.
+     * @param versions the versions analysed, in order.
+     * @param threads the number of threads used to compute the changes.
+     * @param lookahead the maximum number of pairs computed ahead of the pairs taken. Values lower than the number
+     *                  of threads leave some threads idle.
+     * @return the table of the changes.
+     */
+    public static CommitChangesTable precompute(List<GitVersion> versions, int threads, int lookahead) {
+        var table = new CommitChangesTable();
+        if (versions.size() < 2) {
+            return table;
+        }
+        table.executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, versions.size() - 1)));
+        for (int i = 1; i < versions.size(); i++) {
+            table.pending.add(new Pair(versions.get(i).getRepository(), versions.get(i - 1).getCommitObjectId(),
+                    versions.get(i).getCommitObjectId()));
+        }
+        for (int i = 0; i < Math.max(1, lookahead); i++) {
+            table.submitNext();
+        }
+        logger.info("Computing the changes between {} pairs of commits using {} threads, at most {} pairs ahead.",
+                versions.size() - 1, threads, Math.max(1, lookahead));
+        return table;
+    }
+
+    /**
+     * Starts computing the changes of the next pair of commits not computed yet, if any.
+     */
+    private synchronized void submitNext() {
+        var pair = pending.poll();
+        if (pair == null || executor == null || executor.isShutdown()) {
+            return;
+        }
+        changes.put(key(pair.parent, pair.child),
+                CompletableFuture.supplyAsync(() -> CommitChanges.compute(pair.repository, pair.parent, pair.child), executor));
+    }
+
+    /**
+     * Returns the changes between the two given commits and removes them from this table.
+     * If the changes were not precomputed, they are computed on the calling thread, and the lines changed by every
+     * file are counted only when requested. The changes returned should be closed once consumed.
+     * @param repository the repository in which the commits are.
+     * @param parent the parent commit.
+     * @param child the child commit.
+     * @return the changes between the two commits.
+     */
+    public CommitChanges take(Repository repository, ObjectId parent, ObjectId child) {
+        var future = changes.remove(key(parent, child));
+        if (future == null) {
+            return CommitChanges.compute(repository, parent, child, true);
+        }
+        submitNext();
+        return future.join();
+    }
+
+    /**
+     * Returns the number of pairs of commits whose changes are being computed, or were computed, and were not taken yet.
+     * @return the number of pairs computed ahead of time.
+     */
+    public int size() {
+        return changes.size();
+    }
+
+    /**
+     * Stops computing the changes that were not computed yet. The changes requested afterwards are computed
+     * on the calling thread.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            pending.clear();
+        }
+        changes.values().removeIf(future -> !future.isDone() || future.isCompletedExceptionally());
+    }
+
+    private static String key(ObjectId parent, ObjectId child) {
+        return parent.getName() + ".." + child.getName();
+    }
+
+    /**
+     * A pair of consecutive commits whose changes were not computed yet.
+     */
+    private static class Pair {
+        private final Repository repository;
+        private final ObjectId parent;
+        private final ObjectId child;
+
+        Pair(Repository repository, ObjectId parent, ObjectId child) {
+            this.repository = repository;
+            this.parent = parent;
+            this.child = child;
+        }
+    }
+}
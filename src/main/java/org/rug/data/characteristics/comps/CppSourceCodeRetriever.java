@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.file.Path;
+import java.util.Optional;
 
 /**
  * Retrieves CPP source code.
@@ -37,6 +38,22 @@ public class CppSourceCodeRetriever extends SourceCodeRetriever {
         return src;
     }
 
+    /**
+     * Returns the file of the given element, falling back to the same-name file with the `.c` extension
+     * as {@link #getSource(String, String)} does.
+     * @param elementName the full name of the element.
+     * @param extension the extension to use.
+     * @return the path of the file, or an empty optional if no file is found.
+     */
+    @Override
+    protected Optional<Path> getSourceFileOf(String elementName, String extension) {
+        var file = super.getSourceFileOf(elementName, extension);
+        if (file.isEmpty() && !extension.equals(".c")){
+            file = super.getSourceFileOf(elementName, ".c");
+        }
+        return file;
+    }
+
     @Override
     protected String toFileName(Vertex element) {
         String elementName = element.value("name");
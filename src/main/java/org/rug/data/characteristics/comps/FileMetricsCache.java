@@ -0,0 +1,215 @@
+package org.rug.data.characteristics.comps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A content-addressed cache of the metrics of source files. The metrics of a file are keyed by the identifier of its
+ * content (see {@link SourceCodeRetriever#getContentId(Path)}), therefore files that did not change between versions
+ * are measured only once, independently of their path. The cache can be saved to a file and loaded back, so that
+ * subsequent analyses of the same project reuse it.
+ */
+public class FileMetricsCache {
+
+    private final static Logger logger = LoggerFactory.getLogger(FileMetricsCache.class);
+
+    private static final int MAGIC = 0x464d4331; // FMC1
+
+    private final Path file;
+    private final Map<String, Map<String, Long>> metrics;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Builds an empty cache that is not saved.
+     */
+    public FileMetricsCache() {
+        this(null);
+    }
+
+    /**
+     * Builds an empty cache that is saved to the given file by {@link #save()}.
+     * @param file the file to save this cache to.
+     */
+    public FileMetricsCache(Path file) {
+        this.file = file;
+        this.metrics = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Loads the cache saved in the given file. If the file does not exist or cannot be read, the cache is empty.
+     * @param file the file the cache was saved to, and will be saved to by {@link #save()}.
+     * @return the cache.
+     */
+    public static FileMetricsCache load(Path file) {
+        var cache = new FileMetricsCache(file);
+        if (Files.isRegularFile(file)) {
+            try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                cache.read(in);
+                logger.info("Loaded the metrics of {} files from {}", cache.size(), file);
+            } catch (IOException e) {
+                logger.warn("Could not load the file metrics cache from {}: {}", file, e.getMessage());
+                cache.metrics.clear();
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the value of the given metric for the given content, computing and caching it if absent.
+     * @param contentId the identifier of the content of the file.
+     * @param metric the name of the metric.
+     * @param calculator computes the value of the metric if it is not cached.
+     * @return the value of the metric.
+     */
+    public long computeIfAbsent(String contentId, String metric, LongSupplier calculator) {
+        var fileMetrics = metrics.computeIfAbsent(contentId, id -> new ConcurrentHashMap<>(2));
+        Long value = fileMetrics.get(metric);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        long computed = calculator.getAsLong();
+        fileMetrics.putIfAbsent(metric, computed);
+        return computed;
+    }
+
+    /**
+     * Returns the value of the given metric for the given content, if cached.
+     * @param contentId the identifier of the content of the file.
+     * @param metric the name of the metric.
+     * @return the value of the metric or an empty optional if it is not cached.
+     */
+    public OptionalLong get(String contentId, String metric) {
+        var fileMetrics = metrics.get(contentId);
+        Long value = fileMetrics == null ? null : fileMetrics.get(metric);
+        return value == null ? OptionalLong.empty() : OptionalLong.of(value);
+    }
+
+    /**
+     * Sets the value of the given metric for the given content.
+     * @param contentId the identifier of the content of the file.
+     * @param metric the name of the metric.
+     * @param value the value of the metric.
+     */
+    public void put(String contentId, String metric, long value) {
+        metrics.computeIfAbsent(contentId, id -> new ConcurrentHashMap<>(2)).put(metric, value);
+    }
+
+    /**
+     * Returns the number of distinct contents with cached metrics.
+     * @return the number of files in this cache.
+     */
+    public int size() {
+        return metrics.size();
+    }
+
+    /**
+     * Returns the number of lookups that found the metric in this cache.
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to compute the metric.
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the file this cache is saved to.
+     * @return the file, or null if this cache is not saved.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Saves this cache to the file it was loaded from. The file is replaced only once the cache is completely written.
+     * Does nothing if this cache has no file.
+     * @throws IOException if the cache cannot be written.
+     */
+    public synchronized void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        var parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        var temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                write(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info("Saved the metrics of {} files to {} ({} hits, {} misses)", size(), file, getHits(), getMisses());
+    }
+
+    /**
+     * Writes the metrics as: the names of the metrics, then, for every content, its identifier followed by
+     * the index of the name and the value of each of its metrics.
+     */
+    private void write(DataOutputStream out) throws IOException {
+        Map<String, Map<String, Long>> snapshot = new LinkedHashMap<>();
+        metrics.forEach((id, m) -> snapshot.put(id, new LinkedHashMap<>(m)));
+        Map<String, Integer> names = new LinkedHashMap<>();
+        snapshot.values().forEach(m -> m.keySet().forEach(name -> names.putIfAbsent(name, names.size())));
+        out.writeInt(MAGIC);
+        out.writeInt(names.size());
+        for (String name : names.keySet()) {
+            out.writeUTF(name);
+        }
+        out.writeInt(snapshot.size());
+        for (var entry : snapshot.entrySet()) {
+            var fileMetrics = entry.getValue().entrySet();
+            out.writeUTF(entry.getKey());
+            out.writeInt(fileMetrics.size());
+            for (var metric : fileMetrics) {
+                out.writeInt(names.get(metric.getKey()));
+                out.writeLong(metric.getValue());
+            }
+        }
+    }
+
+    private void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a file metrics cache.");
+        }
+        String[] names = new String[in.readInt()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String contentId = in.readUTF();
+            int metricsCount = in.readInt();
+            Map<String, Long> fileMetrics = new ConcurrentHashMap<>(2);
+            for (int j = 0; j < metricsCount; j++) {
+                int name = in.readInt();
+                if (name < 0 || name >= names.length) {
+                    throw new IOException("Corrupted file metrics cache.");
+                }
+                fileMetrics.put(names[name], in.readLong());
+            }
+            metrics.put(contentId, fileMetrics);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.rug.data.characteristics.comps;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lists and reads source files from the tree of a commit in the object database of a git repository, without
+ * checking out the commit. The files are listed as if the commit was checked out in the working tree of the
+ * repository, so that the paths are the same as those found in the file system after a checkout.
+ * Files are read directly from their blobs, thus stores of different commits of the same repository can be
+ * used concurrently.
+ */
+public class GitObjectFileStore implements ISourceFileStore {
+
+    private final Repository repository;
+    private final ObjectId commit;
+    private final Map<Path, ObjectId> blobs;
+
+    /**
+     * Builds the store of the given commit.
+     * @param repository the repository.
+     * @param commit the commit whose files are listed and read.
+     */
+    public GitObjectFileStore(Repository repository, ObjectId commit) {
+        this.repository = repository;
+        this.commit = commit;
+        this.blobs = new HashMap<>();
+    }
+
+    /**
+     * Lists the regular files of the commit within the given directory. Symbolic links and submodules are ignored.
+     * @param sourcePath the directory to list. If the repository has a working tree, the directory must be within it,
+     *                   otherwise the directory is assumed to be the root of the tree of the commit.
+     * @return the paths of the files, as they would appear in the given directory if the commit was checked out.
+     * @throws IOException if the tree of the commit cannot be read.
+     */
+    @Override
+    public synchronized List<Path> listFiles(Path sourcePath) throws IOException {
+        String prefix = "";
+        if (!repository.isBare()) {
+            Path workTree = repository.getWorkTree().toPath().toAbsolutePath().normalize();
+            Path directory = sourcePath.toAbsolutePath().normalize();
+            if (!directory.startsWith(workTree)) {
+                return new ArrayList<>();
+            }
+            prefix = workTree.relativize(directory).toString().replace(directory.getFileSystem().getSeparator(), "/");
+        }
+
+        List<Path> files = new ArrayList<>();
+        blobs.clear();
+        try (var reader = repository.newObjectReader();
+             var revWalk = new RevWalk(reader);
+             var treeWalk = new TreeWalk(reader)) {
+            treeWalk.addTree(revWalk.parseCommit(commit).getTree());
+            treeWalk.setRecursive(true);
+            if (!prefix.isEmpty()) {
+                treeWalk.setFilter(PathFilter.create(prefix));
+            }
+            int skip = prefix.isEmpty() ? 0 : prefix.length() + 1;
+            while (treeWalk.next()) {
+                FileMode mode = treeWalk.getFileMode(0);
+                String path = treeWalk.getPathString();
+                if (path.length() > skip && (mode.equals(FileMode.REGULAR_FILE) || mode.equals(FileMode.EXECUTABLE_FILE))) {
+                    Path file = sourcePath.resolve(path.substring(skip));
+                    blobs.put(file, treeWalk.getObjectId(0));
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Reads the blob of the given file.
+     * @param file a path returned by {@link #listFiles(Path)}.
+     * @return a read-only buffer holding the bytes of the file.
+     * @throws IOException if the file is not in the tree of the commit or its blob cannot be read.
+     */
+    @Override
+    public ByteBuffer read(Path file) throws IOException {
+        ObjectId blob;
+        synchronized (this) {
+            blob = blobs.get(file);
+        }
+        if (blob == null) {
+            throw new FileNotFoundException(String.format("%s is not in commit %s", file, commit.getName()));
+        }
+        try (var reader = repository.newObjectReader()) {
+            return ByteBuffer.wrap(reader.open(blob, Constants.OBJ_BLOB).getCachedBytes(Integer.MAX_VALUE)).asReadOnlyBuffer();
+        }
+    }
+
+    @Override
+    public synchronized Optional<String> getContentId(Path file) {
+        return Optional.ofNullable(blobs.get(file)).map(ObjectId::getName);
+    }
+
+    /**
+     * Returns the commit whose files are stored.
+     * @return the id of the commit.
+     */
+    public ObjectId getCommit() {
+        return commit;
+    }
+}
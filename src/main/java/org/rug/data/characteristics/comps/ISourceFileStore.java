@@ -0,0 +1,40 @@
+package org.rug.data.characteristics.comps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A store of source files, such as the file system or the tree of a commit, used by a {@link SourceCodeRetriever}
+ * to find and read the files of a project.
+ */
+public interface ISourceFileStore {
+
+    /**
+     * Lists the files within the given directory, recursively.
+     * @param sourcePath the directory to list.
+     * @return the paths of the files, each being the path of the file relative to the source path resolved against
+     * the source path.
+     * @throws IOException if the files cannot be listed.
+     */
+    List<Path> listFiles(Path sourcePath) throws IOException;
+
+    /**
+     * Reads the content of the given file.
+     * @param file a path returned by {@link #listFiles(Path)}.
+     * @return a buffer holding the bytes of the file.
+     * @throws IOException if the file does not exist or cannot be read.
+     */
+    ByteBuffer read(Path file) throws IOException;
+
+    /**
+     * Returns the id of the git blob of the given file, if the store knows it without reading the file.
+     * @param file a path returned by {@link #listFiles(Path)}.
+     * @return the SHA-1 of the blob of the file, or an empty optional if it is not known.
+     */
+    default Optional<String> getContentId(Path file) {
+        return Optional.empty();
+    }
+}
@@ -80,6 +80,11 @@ public class JarSourceCodeRetriever extends SourceCodeRetriever {
         throw new UnsupportedOperationException("Cannot retrieve the path of an element when using JAR as sources.");
     }
 
+    @Override
+    public Optional<Path> getSourceFileOf(Vertex element) {
+        return Optional.empty();
+    }
+
     /**
      * This method sets the jar files where the classes will be looked for.
      * The method clears the currently cached decompiled classes automatically.
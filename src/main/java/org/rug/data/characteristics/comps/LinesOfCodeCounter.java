@@ -0,0 +1,329 @@
+package org.rug.data.characteristics.comps;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Counts the lines of code of UTF-8 encoded sources in a single pass over their bytes, without decoding them.
+ * The bytes can come from any buffer, including memory-mapped files. Malformed UTF-8 input is rejected, as
+ * sources that cannot be decoded have no lines of code.
+ */
+public class LinesOfCodeCounter {
+
+    /**
+     * Defines which lines are counted.
+     */
+    public enum Mode {
+        /**
+         * Counts the lines terminated by a line feed or carriage return that contain at least a character
+         * other than whitespace and asterisks. The count is the same as the number of matches of the pattern
+         * {@code [^\s*].*[\n\r]+} within the decoded source.
+         */
+        NON_BLANK,
+        /**
+         * Counts the lines that contain code outside of the comments of C-like languages (Java, C and C++):
+         * lines holding only whitespace, line comments ({@code //}) or block comments are not counted.
+         * String and character literals are recognised, so comment delimiters within them are ignored.
+         * The last line is counted even if it is not terminated.
+         */
+        CODE
+    }
+
+    private static final int SEARCHING = 0;
+    private static final int IN_LINE = 1;
+
+    private static final int CODE = 0;
+    private static final int SLASH = 1;
+    private static final int LINE_COMMENT = 2;
+    private static final int BLOCK_COMMENT = 3;
+    private static final int BLOCK_COMMENT_STAR = 4;
+    private static final int STRING = 5;
+    private static final int STRING_ESCAPE = 6;
+    private static final int CHAR = 7;
+    private static final int CHAR_ESCAPE = 8;
+
+    private static final VarHandle WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LINE_FEEDS = LOW_BITS * '\n';
+    private static final long CARRIAGE_RETURNS = LOW_BITS * '\r';
+
+    private final Mode mode;
+
+    /**
+     * Builds a counter of the lines that contain code.
+     * @param mode which lines are counted.
+     */
+    public LinesOfCodeCounter(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Counts the lines of code in the remaining bytes of the given buffer. The position of the buffer is not changed.
+     * @param source the UTF-8 encoded source.
+     * @return the number of lines of code.
+     * @throws MalformedInputException if the source is not valid UTF-8.
+     */
+    public long count(ByteBuffer source) throws MalformedInputException {
+        if (source.hasArray()) {
+            int offset = source.arrayOffset() + source.position();
+            return count(source.array(), offset, offset + source.remaining());
+        }
+        byte[] bytes = new byte[source.remaining()];
+        source.duplicate().get(bytes);
+        return count(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Counts the lines of code of the given source.
+     * @param source the source.
+     * @return the number of lines of code.
+     */
+    public long count(String source) {
+        try {
+            return count(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (MalformedInputException e) {
+            throw new IllegalStateException("Encoding a string produced malformed UTF-8.", e);
+        }
+    }
+
+    /**
+     * Counts the lines of code in the given range of bytes.
+     * @param bytes the UTF-8 encoded source.
+     * @param from the index of the first byte, inclusive.
+     * @param to the index of the last byte, exclusive.
+     * @return the number of lines of code.
+     * @throws MalformedInputException if the source is not valid UTF-8.
+     */
+    public long count(byte[] bytes, int from, int to) throws MalformedInputException {
+        return mode == Mode.NON_BLANK ? countNonBlank(bytes, from, to) : countCode(bytes, from, to);
+    }
+
+    /**
+     * A match of {@code [^\s*].*[\n\r]+} starts at any character that is neither whitespace nor an asterisk and
+     * succeeds if the first line terminator following it is a line feed or a carriage return. When the first
+     * terminator is another one (e.g. U+2028), the match fails, but the terminator itself starts the next match,
+     * therefore a line is counted whenever a line feed or carriage return follows a starting character. All bytes
+     * of multi-byte UTF-8 characters are above 0x7F and start a match, as non-ASCII characters do.
+     * Within a line, the bytes are skipped eight at a time until a word holds a line terminator or a non-ASCII byte.
+     */
+    private static long countNonBlank(byte[] bytes, int from, int to) throws MalformedInputException {
+        long lines = 0;
+        int state = SEARCHING;
+        for (int i = from; i < to; i++) {
+            if (state == IN_LINE) {
+                while (i + Long.BYTES <= to && isPlainAscii((long) WORDS.get(bytes, i))) {
+                    i += Long.BYTES;
+                }
+                if (i == to) {
+                    break;
+                }
+            }
+            byte b = bytes[i];
+            if (b < 0) {
+                i += sequenceLength(bytes, i, to) - 1;
+                state = IN_LINE;
+            } else if (state == SEARCHING) {
+                if (!isBlank(b)) {
+                    state = IN_LINE;
+                }
+            } else if (b == '\n' || b == '\r') {
+                lines++;
+                state = SEARCHING;
+            }
+        }
+        return lines;
+    }
+
+    private static long countCode(byte[] bytes, int from, int to) throws MalformedInputException {
+        long lines = 0;
+        int state = CODE;
+        boolean lineHasCode = false;
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b < 0) {
+                // a non-ASCII character, which is processed as any other character that is not whitespace
+                i += sequenceLength(bytes, i, to) - 1;
+                b = 'a';
+            }
+            if (b == '\n' || b == '\r') {
+                if (state == SLASH) {
+                    lineHasCode = true;
+                }
+                if (lineHasCode) {
+                    lines++;
+                    lineHasCode = false;
+                }
+                switch (state) {
+                    case SLASH:
+                    case LINE_COMMENT:
+                        state = CODE;
+                        break;
+                    case BLOCK_COMMENT_STAR:
+                        state = BLOCK_COMMENT;
+                        break;
+                    case STRING_ESCAPE:
+                        state = STRING;
+                        break;
+                    case CHAR_ESCAPE:
+                        state = CHAR;
+                        break;
+                    default:
+                        break;
+                }
+                continue;
+            }
+            switch (state) {
+                case CODE:
+                    if (b == '/') {
+                        state = SLASH;
+                    } else if (b == '"') {
+                        state = STRING;
+                        lineHasCode = true;
+                    } else if (b == '\'') {
+                        state = CHAR;
+                        lineHasCode = true;
+                    } else if (!isWhitespace(b)) {
+                        lineHasCode = true;
+                    }
+                    break;
+                case SLASH:
+                    if (b == '/') {
+                        state = LINE_COMMENT;
+                    } else if (b == '*') {
+                        state = BLOCK_COMMENT;
+                    } else {
+                        // the slash was a division operator
+                        lineHasCode = true;
+                        state = CODE;
+                        i--;
+                    }
+                    break;
+                case LINE_COMMENT:
+                    break;
+                case BLOCK_COMMENT:
+                    if (b == '*') {
+                        state = BLOCK_COMMENT_STAR;
+                    }
+                    break;
+                case BLOCK_COMMENT_STAR:
+                    if (b == '/') {
+                        state = CODE;
+                    } else if (b != '*') {
+                        state = BLOCK_COMMENT;
+                    }
+                    break;
+                case STRING:
+                    if (b == '\\') {
+                        state = STRING_ESCAPE;
+                    } else if (b == '"') {
+                        state = CODE;
+                    }
+                    if (!isWhitespace(b)) {
+                        lineHasCode = true;
+                    }
+                    break;
+                case CHAR:
+                    if (b == '\\') {
+                        state = CHAR_ESCAPE;
+                    } else if (b == '\'') {
+                        state = CODE;
+                    }
+                    lineHasCode = true;
+                    break;
+                case STRING_ESCAPE:
+                    state = STRING;
+                    lineHasCode = true;
+                    break;
+                case CHAR_ESCAPE:
+                    state = CHAR;
+                    lineHasCode = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (state == SLASH) {
+            lineHasCode = true;
+        }
+        return lineHasCode ? lines + 1 : lines;
+    }
+
+    /**
+     * Whether the given eight bytes are all ASCII characters other than line feeds and carriage returns.
+     */
+    private static boolean isPlainAscii(long word) {
+        return ((hasByte(word, LINE_FEEDS) | hasByte(word, CARRIAGE_RETURNS) | word) & HIGH_BITS) == 0;
+    }
+
+    /**
+     * Sets the high bit of the bytes of the given word that are equal to the bytes of the given pattern, when the word
+     * holds ASCII bytes only. Bytes following a matching byte may have their high bit set too.
+     */
+    private static long hasByte(long word, long pattern) {
+        long difference = word ^ pattern;
+        return (difference - LOW_BITS) & ~difference;
+    }
+
+    /**
+     * Whether the given byte is matched by {@code [\s*]}.
+     */
+    private static boolean isBlank(byte b) {
+        return b == '*' || b == '\n' || b == '\r' || isWhitespace(b);
+    }
+
+    /**
+     * Whether the given byte is a whitespace as defined by {@code \s}, excluding line terminators.
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == 0x0B || b == '\f';
+    }
+
+    /**
+     * Returns the length of the UTF-8 sequence of the non-ASCII character starting at the given index, checking
+     * that it is well-formed following the same rules of the decoder of the JDK: overlong encodings, surrogates,
+     * code points above U+10FFFF and truncated sequences are malformed.
+     */
+    private static int sequenceLength(byte[] bytes, int i, int to) throws MalformedInputException {
+        int b = bytes[i] & 0xFF;
+        int length;
+        int lower = 0x80;
+        int upper = 0xBF;
+        if (b >= 0xC2 && b <= 0xDF) {
+            length = 2;
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            length = 3;
+            if (b == 0xE0) {
+                lower = 0xA0;
+            } else if (b == 0xED) {
+                upper = 0x9F;
+            }
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            length = 4;
+            if (b == 0xF0) {
+                lower = 0x90;
+            } else if (b == 0xF4) {
+                upper = 0x8F;
+            }
+        } else {
+            throw new MalformedInputException(1);
+        }
+        if (i + length > to) {
+            throw new MalformedInputException(to - i);
+        }
+        int second = bytes[i + 1] & 0xFF;
+        if (second < lower || second > upper) {
+            throw new MalformedInputException(1);
+        }
+        for (int j = i + 2; j < i + length; j++) {
+            if ((bytes[j] & 0xC0) != 0x80) {
+                throw new MalformedInputException(j - i);
+            }
+        }
+        return length;
+    }
+}
@@ -7,25 +7,55 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.rug.data.labels.EdgeLabel;
 import org.rug.data.labels.VertexLabel;
 import org.rug.data.project.IVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.EnumSet;
-import java.util.regex.Pattern;
 
 /**
  * Counts the lines of code of a given vertex (package or class) and saves the results within
- * the vertex node using {@link #name} as key.
+ * the vertex node using {@link #name} as key. The lines are counted by a {@link LinesOfCodeCounter}
+ * directly on the bytes of the source files.
  */
 public class NumberOfLinesOfCode extends AbstractComponentCharacteristic {
 
+    private final static Logger logger = LoggerFactory.getLogger(NumberOfLinesOfCode.class);
+
     private SourceCodeRetriever sourceRetriever;
+    private FileMetricsCache metricsCache;
+    private LinesOfCodeCounter counter;
+    private String metricName;
 
     /**
      * Instantiates the calculator of LOC.
      */
     public NumberOfLinesOfCode(){
+        this(null);
+    }
+
+    /**
+     * Instantiates the calculator of LOC that counts the lines of every distinct file content only once.
+     * @param metricsCache the cache of the metrics of the files, or null to count the lines of every file.
+     */
+    public NumberOfLinesOfCode(FileMetricsCache metricsCache){
+        this(metricsCache, LinesOfCodeCounter.Mode.NON_BLANK);
+    }
+
+    /**
+     * Instantiates the calculator of LOC that counts the lines of every distinct file content only once.
+     * @param metricsCache the cache of the metrics of the files, or null to count the lines of every file.
+     * @param mode which lines are counted.
+     */
+    public NumberOfLinesOfCode(FileMetricsCache metricsCache, LinesOfCodeCounter.Mode mode){
         super("linesOfCode",
                 VertexLabel.allTypes(),
                 EnumSet.noneOf(EdgeLabel.class));
+        this.metricsCache = metricsCache;
+        this.counter = new LinesOfCodeCounter(mode);
+        // lines counted in different modes are cached separately
+        this.metricName = mode == LinesOfCodeCounter.Mode.NON_BLANK ? name : name + "." + mode.name().toLowerCase();
     }
 
     @Override
@@ -83,15 +113,30 @@ public class NumberOfLinesOfCode extends AbstractComponentCharacteristic {
         this.sourceRetriever = sourceRetriever;
     }
 
-    private Pattern linePattern = Pattern.compile("[^\\s*].*[\\n\\r]+");
     private long countLOC(Vertex element){
-        var sourceCode = sourceRetriever.getSource(element);
+        var file = sourceRetriever.getSourceFileOf(element);
+        if (file.isEmpty()) {
+            // e.g. decompiled sources, which have no file
+            return counter.count(sourceRetriever.getSource(element));
+        }
+        try {
+            if (metricsCache != null) {
+                var contentId = sourceRetriever.getContentId(file.get());
+                return metricsCache.computeIfAbsent(contentId, metricName, () -> countLOC(file.get()));
+            }
+        } catch (IOException e) {
+            logger.debug("Could not identify the content of {}: {}", file.get(), e.getMessage());
+        }
+        return countLOC(file.get());
+    }
 
-        var matcher = linePattern.matcher(sourceCode);
-        var linesOfCode = 0;
-        while(matcher.find())
-            linesOfCode++;
-        return linesOfCode;
+    private long countLOC(Path file){
+        try {
+            return counter.count(sourceRetriever.readFile(file));
+        } catch (IOException e) {
+            logger.error("Could not read source from: {}", file);
+            return 0;
+        }
     }
 
 }
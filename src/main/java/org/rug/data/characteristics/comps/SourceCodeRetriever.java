@@ -1,14 +1,16 @@
 package org.rug.data.characteristics.comps;
 
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectInserter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * This class manages the retrieval of the source code of a class from
@@ -23,6 +25,8 @@ public abstract class SourceCodeRetriever {
     protected Map<String, Optional<Path>> filesCache;
     protected Path sourcePath;
     protected Set<Path> deepPaths;
+    private SuffixIndex suffixIndex;
+    private ISourceFileStore fileStore;
 
     protected final static String NOT_FOUND = "";
 
@@ -34,11 +38,24 @@ public abstract class SourceCodeRetriever {
         this.classesCache = new HashMap<>(200);
         this.filesCache = new HashMap<>(200);
         this.sourcePath = sourcePath;
-        try( var stream = Files.walk(sourcePath)){
-            this.deepPaths = stream.filter(p -> p.toFile().isFile()).collect(Collectors.toSet());
+        this.fileStore = WorkingTreeFileStore.INSTANCE;
+    }
+
+    /**
+     * Lists and indexes all the files in the source path, unless they were already indexed.
+     */
+    private void indexFiles(){
+        if (deepPaths != null) {
+            return;
+        }
+        this.deepPaths = new HashSet<>();
+        try {
+            deepPaths.addAll(fileStore.listFiles(sourcePath));
         } catch (IOException e) {
-            this.deepPaths = new HashSet<>();
+            logger.debug("Could not list the files in {}: {}", sourcePath, e.getMessage());
         }
+        this.suffixIndex = new SuffixIndex();
+        deepPaths.forEach(suffixIndex::add);
     }
 
     /**
@@ -52,7 +69,7 @@ public abstract class SourceCodeRetriever {
             var classFile = getPathOf(elementName, extension);
             try {
                 if (classFile.isPresent()) {
-                    var source = Files.readString(classFile.get());
+                    var source = StandardCharsets.UTF_8.newDecoder().decode(readFile(classFile.get())).toString();
                     classesCache.putIfAbsent(key, source);
                 } else {
                     throw new IOException();
@@ -66,6 +83,70 @@ public abstract class SourceCodeRetriever {
     }
 
 
+    /**
+     * Reads the content of the given file, as found by {@link #getPathOf(String, String)}, from the store of this retriever.
+     * @param file the path of the file to read.
+     * @return a buffer holding the bytes of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public ByteBuffer readFile(Path file) throws IOException {
+        return fileStore.read(file);
+    }
+
+    /**
+     * Returns an identifier of the content of the given file: two files have the same identifier if and only if
+     * their content is the same. The identifier is the id of the git blob of the file, taken from the store
+     * when available or computed from the content of the file otherwise.
+     * @param file the path of the file, as found by {@link #getPathOf(String, String)}.
+     * @return the SHA-1 of the git blob of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public String getContentId(Path file) throws IOException {
+        var storedId = fileStore.getContentId(file);
+        if (storedId.isPresent()) {
+            return storedId.get();
+        }
+        var content = readFile(file);
+        byte[] bytes;
+        int offset = 0;
+        if (content.hasArray()) {
+            bytes = content.array();
+            offset = content.arrayOffset() + content.position();
+        } else {
+            bytes = new byte[content.remaining()];
+            content.duplicate().get(bytes);
+        }
+        try (var formatter = new ObjectInserter.Formatter()) {
+            return formatter.idFor(Constants.OBJ_BLOB, bytes, offset, content.remaining()).getName();
+        }
+    }
+
+    /**
+     * Returns the file whose source is returned by {@link #getSource(Vertex)} for the given element.
+     * @param element the element to find the file of.
+     * @return the path of the file, or an empty optional if the element is retrieved or no file is found.
+     */
+    public Optional<Path> getSourceFileOf(Vertex element) {
+        if (element.values("ClassType", "Type").next().toString().toLowerCase().contains("retrieved")) {
+            return Optional.empty();
+        }
+        var fileName = toFileName(element);
+        var dotIndex = fileName.lastIndexOf(".");
+        var extension = dotIndex < 0 ? "" : fileName.substring(dotIndex);
+        fileName = dotIndex < 0 ? fileName : fileName.substring(0, dotIndex);
+        return getSourceFileOf(fileName, extension);
+    }
+
+    /**
+     * Returns the file whose source is returned by {@link #getSource(String, String)} for the given element.
+     * @param elementName the full name of the element.
+     * @param extension the extension with a . as a prefix.
+     * @return the path of the file, or an empty optional if no file is found.
+     */
+    protected Optional<Path> getSourceFileOf(String elementName, String extension) {
+        return getPathOf(elementName, extension);
+    }
+
     /**
      * Returns the source code of the given vertex element as described by {@link #getSource(String, String)}.
      * @param element the element to retrieve the source code of.
@@ -137,9 +218,16 @@ public abstract class SourceCodeRetriever {
      * @param fileName the file (optionally including the path) to find.
      * @return an optional Path.
      */
-    protected Optional<Path> findFile(String fileName){
+    protected synchronized Optional<Path> findFile(String fileName){
         if (!filesCache.containsKey(fileName)) {
-            Optional<Path> elementFile = deepPaths.stream().filter(p -> p.endsWith(fileName)).findFirst();
+            indexFiles();
+            Path suffix = sourcePath.getFileSystem().getPath(fileName);
+            Optional<Path> elementFile;
+            if (suffix.isAbsolute()) {
+                elementFile = deepPaths.stream().filter(p -> p.endsWith(suffix)).findFirst();
+            } else {
+                elementFile = suffixIndex.find(suffix);
+            }
             filesCache.put(fileName, elementFile);
         }
         return filesCache.getOrDefault(fileName, Optional.empty());
@@ -155,4 +243,166 @@ public abstract class SourceCodeRetriever {
             return Optional.empty();
         return path.map(value -> sourcePath.relativize(value));
     }
+
+    /**
+     * Returns the directory containing the sources retrieved by this retriever.
+     * @return the source path.
+     */
+    public Path getSourcePath(){
+        return sourcePath;
+    }
+
+    /**
+     * Walks the source path again to find the files it currently contains. The cached sources and file lookups are cleared.
+     */
+    public synchronized void reindexFiles(){
+        deepPaths = null;
+        indexFiles();
+        filesCache.clear();
+        classesCache.clear();
+    }
+
+    /**
+     * Sets the store the files of this retriever are listed and read from. By default, files are read from the
+     * file system. The files are indexed again at the next lookup.
+     * @param fileStore the store of the files.
+     */
+    public synchronized void setFileStore(ISourceFileStore fileStore){
+        this.fileStore = fileStore;
+        this.deepPaths = null;
+        this.suffixIndex = null;
+        filesCache.clear();
+        classesCache.clear();
+    }
+
+    /**
+     * Returns the store the files of this retriever are listed and read from.
+     * @return the file store.
+     */
+    public ISourceFileStore getFileStore(){
+        return fileStore;
+    }
+
+    /**
+     * Updates the files known to this retriever, for example after checking out a different commit of the same
+     * working tree. The given paths must be in the same form of the files found by walking the {@link #sourcePath}
+     * (i.e. the relative path of the file resolved against the source path). The cached sources and file lookups
+     * are cleared, as they may refer to files that were changed.
+     * @param removed the files that no longer exist.
+     * @param added the files that were created.
+     */
+    public synchronized void updateFiles(Collection<Path> removed, Collection<Path> added){
+        indexFiles();
+        for (Path path : removed) {
+            if (deepPaths.remove(path)) {
+                suffixIndex.remove(path);
+            }
+        }
+        for (Path path : added) {
+            if (deepPaths.add(path)) {
+                suffixIndex.add(path);
+            }
+        }
+        filesCache.clear();
+        classesCache.clear();
+    }
+
+    /**
+     * A trie over the names of the files in {@link #deepPaths}, read from the file name backwards.
+     * Every node holds the first file added (initially, in the iteration order of {@link #deepPaths}) among
+     * those that end with the suffix leading to the node, so that suffixes are looked up in time proportional
+     * to their depth.
+     */
+    private static class SuffixIndex {
+        private final SuffixNode root = new SuffixNode();
+        private long nextOrder = 0;
+
+        /**
+         * Adds all the suffixes of the given path to the trie.
+         * @param path the path to add.
+         */
+        void add(Path path) {
+            long order = nextOrder++;
+            SuffixNode node = root;
+            for (int i = path.getNameCount() - 1; i >= 0; i--) {
+                if (node.children == null) {
+                    node.children = new HashMap<>(4);
+                }
+                node = node.children.computeIfAbsent(path.getName(i).toString(), n -> new SuffixNode());
+                if (node.first == null) {
+                    node.first = path;
+                    node.firstOrder = order;
+                }
+            }
+            node.path = path;
+            node.order = order;
+        }
+
+        /**
+         * Removes the given path from the trie. The nodes of its suffixes are updated to hold the first of the
+         * remaining paths ending with them, and are dropped if no path ends with them.
+         * @param path the path to remove.
+         */
+        void remove(Path path) {
+            int depth = path.getNameCount();
+            SuffixNode[] nodes = new SuffixNode[depth + 1];
+            nodes[0] = root;
+            for (int i = 1; i <= depth; i++) {
+                var children = nodes[i - 1].children;
+                nodes[i] = children == null ? null : children.get(path.getName(depth - i).toString());
+                if (nodes[i] == null) {
+                    return;
+                }
+            }
+            if (!path.equals(nodes[depth].path)) {
+                return;
+            }
+            nodes[depth].path = null;
+            for (int i = depth; i > 0; i--) {
+                SuffixNode node = nodes[i];
+                node.updateFirst();
+                if (node.first == null) {
+                    nodes[i - 1].children.remove(path.getName(depth - i).toString());
+                }
+            }
+        }
+
+        /**
+         * Finds the first path ending with the given relative suffix, as {@link Path#endsWith(Path)} does.
+         * @param suffix the relative suffix.
+         * @return the first path ending with the suffix, if any.
+         */
+        Optional<Path> find(Path suffix) {
+            SuffixNode node = root;
+            for (int i = suffix.getNameCount() - 1; i >= 0 && node != null; i--) {
+                node = node.children == null ? null : node.children.get(suffix.getName(i).toString());
+            }
+            return node == null || node == root ? Optional.empty() : Optional.ofNullable(node.first);
+        }
+    }
+
+    private static class SuffixNode {
+        private Map<String, SuffixNode> children;
+        private Path path;
+        private long order;
+        private Path first;
+        private long firstOrder;
+
+        /**
+         * Recomputes the first path ending with the suffix of this node from the path ending in this node
+         * and the first paths of the children.
+         */
+        void updateFirst() {
+            first = path;
+            firstOrder = order;
+            if (children != null) {
+                for (SuffixNode child : children.values()) {
+                    if (child.first != null && (first == null || child.firstOrder < firstOrder)) {
+                        first = child.first;
+                        firstOrder = child.firstOrder;
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package org.rug.data.characteristics.comps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Lists and reads source files from the file system.
+ */
+public class WorkingTreeFileStore implements ISourceFileStore {
+
+    public static final WorkingTreeFileStore INSTANCE = new WorkingTreeFileStore();
+
+    private WorkingTreeFileStore(){}
+
+    @Override
+    public List<Path> listFiles(Path sourcePath) throws IOException {
+        try (var stream = Files.walk(sourcePath)) {
+            return stream.filter(p -> p.toFile().isFile()).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public ByteBuffer read(Path file) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file));
+    }
+}
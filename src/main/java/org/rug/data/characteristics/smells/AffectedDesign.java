@@ -4,7 +4,6 @@ import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.rug.data.labels.EdgeLabel;
 import org.rug.data.labels.VertexLabel;
-import org.rug.data.project.ArcanDependencyGraphParser;
 import org.rug.data.smells.ArchitecturalSmell;
 import org.rug.data.smells.CDSmell;
 
@@ -32,7 +31,7 @@ public class AffectedDesign extends AbstractSmellCharacteristic{
             // Then check if all the affected classes of the relevant ones are contained
             // in all the packages of the given smell.
             // If so, the smell is present at both levels.
-            List<ArchitecturalSmell> smellList = ArcanDependencyGraphParser.getArchitecturalSmellsIn(smell.getAffectedGraph());
+            List<ArchitecturalSmell> smellList = smell.getVersionSmells();
             Set<ArchitecturalSmell> classLevelSmells = smellList.stream()
                     .filter(s -> s.getType() == ArchitecturalSmell.Type.CD && s.getLevel().isDesignLevel())
                     .filter(s ->
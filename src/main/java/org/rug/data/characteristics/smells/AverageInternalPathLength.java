@@ -24,6 +24,15 @@ public class AverageInternalPathLength extends AbstractSmellCharacteristic {
         super("avrgInternalPathLength");
     }
 
+    /**
+     * The shortest paths are computed with a graph computer on the graph of the smell.
+     * @return true.
+     */
+    @Override
+    public boolean requiresExclusiveGraphAccess() {
+        return true;
+    }
+
     @Override
     public String visit(HLSmell smell) {
         var g = smell.getAffectedGraph().traversal();
@@ -1,26 +1,10 @@
 package org.rug.data.characteristics.smells;
 
-import org.apache.tinkerpop.gremlin.process.computer.ComputerResult;
-import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram;
-import org.apache.tinkerpop.gremlin.process.traversal.P;
-import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
-import org.apache.tinkerpop.gremlin.structure.Edge;
-import org.apache.tinkerpop.gremlin.structure.Graph;
-import org.apache.tinkerpop.gremlin.structure.Vertex;
-import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.rug.data.labels.EdgeLabel;
-import org.rug.data.labels.VertexLabel;
 import org.rug.data.smells.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+
+import java.util.*;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
 
 /**
@@ -29,8 +13,6 @@ import java.util.stream.DoubleStream;
  */
 public class PageRank extends AbstractSmellCharacteristic {
 
-    private final static Logger logger = LoggerFactory.getLogger(PageRank.class);
-
     private final Function<DoubleStream, Double> rankSelector;
 
 
@@ -100,115 +82,46 @@ public class PageRank extends AbstractSmellCharacteristic {
     private String visitInternal(ArchitecturalSmell smell){
 
         var pageRank = 0d;
-        Graph g = getPageRankGraph(smell);
-        Set<String> affectedElements = smell.getAffectedElements()
+        Map<String, double[]> ranks = getCache().getPageRanks(smell);
+        // distinct values, as the ranks were once collected in a set
+        pageRank = rankSelector.apply(smell.getAffectedElements()
                 .stream().map(vertex -> vertex.value("name").toString())
-                .collect(Collectors.toSet());
-        pageRank = rankSelector.apply(g.traversal().V().has("name", P.within(affectedElements))
-                .values("centrality").toSet()
-                .stream().mapToDouble(value -> (Double)value));
+                .distinct()
+                .map(ranks::get)
+                .filter(Objects::nonNull)
+                .flatMapToDouble(DoubleStream::of)
+                .distinct());
 
         return String.valueOf(pageRank);
     }
 
     /**
-     * Clones the given graph and returns the clone.
-     * @param src the graph to clone
-     * @return the clone
+     * Returns the cache of the PageRanks used by the calling thread, which is the cache bound with
+     * {@link #setCache(PageRankCache)} or, if none, a cache of a single version owned by the thread.
+     * @return the cache to use.
      */
-    private static Graph clone(Graph src, Set<String> vLabels, Set<String> eLabels){
-        Graph des = TinkerGraph.open();
-        Map<Object, Object> mapId = new HashMap<>();
-
-        src.traversal().V().hasLabel(P.within(vLabels)).forEachRemaining(srcVert -> {
-            Vertex toVertex = des.addVertex(srcVert.label());
-            mapId.put(srcVert.id(), toVertex.id());
-            srcVert.properties().forEachRemaining(srcVProp ->{
-                toVertex.property(srcVProp.key(), srcVProp.value());
-            });
-        });
-
-        src.traversal().V().hasLabel(P.within(vLabels)).bothE(eLabels.toArray(new String[0])).forEachRemaining(srcEdge -> {
-            Object outVId = mapId.get(srcEdge.outVertex().id());
-            Object inVId = mapId.get(srcEdge.inVertex().id());
-            Edge toEdge = des.traversal().V().addE(srcEdge.label())
-                    .from(des.vertices(outVId).next())
-                    .to(des.vertices(inVId).next())
-                    .next();
-            srcEdge.properties().forEachRemaining(srcEProp -> {
-                toEdge.property(srcEProp.key(), srcEProp.value());
-            });
-        });
-
-        return des;
-    }
-
-
-    private static Map<Graph, Map<AffectedDesign.Level, Graph>> cachedPageRankGraphs = new HashMap<>();
-
-    private static Graph getPageRankGraph(ArchitecturalSmell smell){
-        Graph smellGraph = smell.getAffectedGraph();
-        if (!cachedPageRankGraphs.containsKey(smellGraph)){
-            cachedPageRankGraphs.clear(); // keep only the graphs of a single version (memory optimization)
-            var innerMap = new HashMap<AffectedDesign.Level, Graph>();
-
-            Graph explodedGraph = explodeGraph(smellGraph);
-
-            var programClasses = PageRankVertexProgram
-                    .build().property("centrality")
-                    .edges(__.outE(EdgeLabel.DEPENDSON.toString()).asAdmin()).create(explodedGraph);
-            var programPackage = PageRankVertexProgram
-                    .build().property("centrality")
-                    .edges(__.outE(EdgeLabel.PACKAGEISAFFERENTOF.toString()).asAdmin()).create(explodedGraph);
-
-            int maxWorkers = Runtime.getRuntime().availableProcessors();
-            try {
-                Future<ComputerResult> futureClasses = explodedGraph
-                        .compute().workers(maxWorkers) // max workers is 4
-                        .program(programClasses)
-                        .submit();
-                Graph g = futureClasses.get().graph();
-                innerMap.put(AffectedDesign.Level.DESIGN, g);
-
-                Future<ComputerResult> futurePackage = explodedGraph
-                        .compute().workers(maxWorkers)
-                        .program(programPackage)
-                        .submit();
-                g = futurePackage.get().graph();
-                innerMap.put(AffectedDesign.Level.ARCHITECTURAL, g);
-                cachedPageRankGraphs.put(smellGraph, innerMap);
-
-            } catch (InterruptedException e) {
-                logger.error("InterruptedException while retrieving computer result: {}", e.getMessage());
-                e.printStackTrace();
-            } catch (ExecutionException e) {
-                logger.error("ExecutionException while retrieving computer result: {}", e.getMessage());
-                e.printStackTrace();
-            }
-        }
-        return cachedPageRankGraphs.get(smellGraph).get(smell.getLevel().isDesignLevel() ? AffectedDesign.Level.DESIGN : AffectedDesign.Level.ARCHITECTURAL);
+    private static PageRankCache getCache(){
+        var cache = boundCaches.get();
+        return cache != null ? cache : defaultCaches.get();
     }
 
-
     /**
-     * Expands the dependsOn edges using the Weight property. For every dependsOn/packageIsAfferentOf edge e with Weight = n, n new edges
-     * will be added to the graph between the nodes connected by e. The original graph is not modified.
-     * @param src the starting graph to expand. This graph is not modified
-     * @return a new graph containing the exploded edges.
+     * Binds the given cache to the calling thread, so that the PageRanks of the smells characterised by this thread
+     * are kept in that cache. Engines characterising the smells of a project bind their own cache, so that analyses
+     * running concurrently do not evict each other's PageRanks.
+     * @param cache the cache to bind, or null to unbind the current one.
+     * @return the cache bound before, or null if none was bound.
      */
-    private static Graph explodeGraph(Graph src){
-
-        Graph dst = clone(src, VertexLabel.getTypesStrings(), EdgeLabel.getAllDependencyStrings());
-
-        dst.traversal().E().has("Weight").toSet().forEach(edge -> {
-            int weight = edge.value("Weight");
-            for (int i = 0; i < weight; i++) {
-                dst.traversal().addE(edge.label())
-                        .from(edge.outVertex()).to(edge.inVertex()).next();
-            }
-            dst.edges(edge).next().remove();
-        });
-
-        return dst;
+    public static PageRankCache setCache(PageRankCache cache){
+        var previous = boundCaches.get();
+        if (cache == null) {
+            boundCaches.remove();
+        } else {
+            boundCaches.set(cache);
+        }
+        return previous;
     }
+
+    private static final ThreadLocal<PageRankCache> boundCaches = new ThreadLocal<>();
+    private static final ThreadLocal<PageRankCache> defaultCaches = ThreadLocal.withInitial(() -> new PageRankCache(1));
 }
@@ -0,0 +1,126 @@
+package org.rug.data.characteristics.smells;
+
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.rug.data.labels.EdgeLabel;
+import org.rug.data.labels.VertexLabel;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Keeps the PageRank of the components of the most recently characterised versions, computed by {@link PageRank}.
+ * Versions whose smells are characterised concurrently need one cached PageRank each, hence the capacity of the
+ * cache must be at least the number of versions characterised at the same time.
+ */
+public class PageRankCache {
+
+    private final static Logger logger = LoggerFactory.getLogger(PageRankCache.class);
+
+    private final int capacity;
+    private final Map<Graph, FutureTask<Map<AffectedDesign.Level, Map<String, double[]>>>> cachedPageRanks = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Builds a cache keeping the PageRank of the given number of versions.
+     * @param capacity the maximum number of versions whose PageRank is kept in memory. Values lower than 1 keep one version.
+     */
+    public PageRankCache(int capacity){
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Returns the maximum number of versions whose PageRank is kept in memory.
+     * @return the capacity of this cache.
+     */
+    public int getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * Returns the number of versions whose PageRank is currently kept in memory.
+     * @return the number of cached versions.
+     */
+    public int size(){
+        synchronized (cachedPageRanks) {
+            return cachedPageRanks.size();
+        }
+    }
+
+    /**
+     * Returns the PageRank of the components of the given smell's version and level, by component name.
+     * The PageRank of a version is computed once, by the first thread requesting it, while the other
+     * threads requesting it wait for the computation to complete. Threads requesting different versions
+     * do not wait for each other.
+     * @param smell the smell whose version and level to return the PageRank of.
+     * @return a map from the names of the components to the ranks of the components with that name.
+     */
+    Map<String, double[]> getPageRanks(ArchitecturalSmell smell){
+        Graph smellGraph = smell.getAffectedGraph();
+        FutureTask<Map<AffectedDesign.Level, Map<String, double[]>>> pageRanks;
+        boolean computeHere = false;
+        synchronized (cachedPageRanks) {
+            pageRanks = cachedPageRanks.get(smellGraph);
+            if (pageRanks == null) {
+                // keep only the ranks of the least recently used versions (memory optimization)
+                var iterator = cachedPageRanks.keySet().iterator();
+                while (cachedPageRanks.size() >= capacity){
+                    iterator.next();
+                    iterator.remove();
+                }
+                pageRanks = new FutureTask<>(() -> computePageRanks(smellGraph));
+                cachedPageRanks.put(smellGraph, pageRanks);
+                computeHere = true;
+            }
+        }
+        if (computeHere) {
+            pageRanks.run();
+        }
+        Map<AffectedDesign.Level, Map<String, double[]>> innerMap;
+        try {
+            innerMap = pageRanks.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the PageRank of the version.", e);
+        } catch (ExecutionException e) {
+            logger.error("Could not compute the PageRank of the version: {}", e.getCause().getMessage());
+            throw new IllegalStateException("Could not compute the PageRank of the version.", e.getCause());
+        }
+        return innerMap.get(smell.getLevel().isDesignLevel() ? AffectedDesign.Level.DESIGN : AffectedDesign.Level.ARCHITECTURAL);
+    }
+
+    /**
+     * Computes the PageRank of the components of the given graph at both design and architectural level.
+     * At design level, the {@link EdgeLabel}.DEPENDSON edges are followed, at architectural level the
+     * {@link EdgeLabel}.PACKAGEISAFFERENTOF edges. Edges count as many times as their Weight property.
+     * @param smellGraph the graph of a version.
+     * @return a map from the level to the ranks of the components by name.
+     */
+    private static Map<AffectedDesign.Level, Map<String, double[]>> computePageRanks(Graph smellGraph){
+        var innerMap = new HashMap<AffectedDesign.Level, Map<String, double[]>>();
+        innerMap.put(AffectedDesign.Level.DESIGN, computePageRanks(smellGraph, EdgeLabel.DEPENDSON));
+        innerMap.put(AffectedDesign.Level.ARCHITECTURAL, computePageRanks(smellGraph, EdgeLabel.PACKAGEISAFFERENTOF));
+        return innerMap;
+    }
+
+    private static Map<String, double[]> computePageRanks(Graph smellGraph, EdgeLabel edgeLabel){
+        var pageRank = new WeightedPageRank(smellGraph, VertexLabel.getTypesStrings(), edgeLabel.toString(), "Weight").compute();
+        var vertices = pageRank.getVertices();
+        var ranks = pageRank.getRanks();
+        Map<String, double[]> ranksByName = new HashMap<>(vertices.size());
+        for (int i = 0; i < ranks.length; i++) {
+            var name = vertices.get(i).<String>property("name");
+            if (name.isPresent()) {
+                double rank = ranks[i];
+                ranksByName.merge(name.value(), new double[]{rank}, (a, b) -> {
+                    double[] merged = Arrays.copyOf(a, a.length + 1);
+                    merged[a.length] = rank;
+                    return merged;
+                });
+            }
+        }
+        return ranksByName;
+    }
+}
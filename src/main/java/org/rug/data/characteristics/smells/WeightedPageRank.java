@@ -0,0 +1,159 @@
+package org.rug.data.characteristics.smells;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.*;
+
+/**
+ * Computes the PageRank of the vertices of a graph following the edges with a given label.
+ * The edges are stored in a compressed sparse row (CSR) adjacency, and the weight of an edge is used as the
+ * multiplicity of the edge, as if the edge were repeated as many times as its weight. This is equivalent to running
+ * the {@link org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram} on a copy of the
+ * graph where every weighted edge is replaced by as many parallel edges as its weight, without copying the graph.
+ * The iterations follow those of the vertex program: the energy of the vertices without outgoing edges and the
+ * energy lost due to the damping factor are teleported uniformly to all the vertices in the next iteration.
+ */
+public class WeightedPageRank {
+
+    public static final double DEFAULT_ALPHA = 0.85;
+    public static final double DEFAULT_EPSILON = 0.00001;
+    public static final int DEFAULT_MAX_ITERATIONS = 20;
+
+    private final List<Vertex> vertices;
+    private final int[] rowStart;
+    private final int[] targets;
+    private final double[] multiplicities;
+    private final double[] outDegrees;
+    private double[] ranks;
+
+    /**
+     * Builds the adjacency of the given graph.
+     * @param graph the graph to rank.
+     * @param vertexLabels the labels of the vertices to rank. Edges from or to other vertices are ignored.
+     * @param edgeLabel the label of the edges to follow.
+     * @param weightKey the property holding the weight of the edges. Edges without this property have weight 1.
+     */
+    public WeightedPageRank(Graph graph, Set<String> vertexLabels, String edgeLabel, String weightKey) {
+        this.vertices = new ArrayList<>();
+        Map<Object, Integer> index = new HashMap<>();
+        graph.vertices().forEachRemaining(v -> {
+            if (vertexLabels.contains(v.label())) {
+                index.put(v.id(), vertices.size());
+                vertices.add(v);
+            }
+        });
+
+        int n = vertices.size();
+        int[] counts = new int[n + 1];
+        List<Edge> edges = new ArrayList<>();
+        graph.edges().forEachRemaining(e -> {
+            if (e.label().equals(edgeLabel)) {
+                Integer source = index.get(e.outVertex().id());
+                if (source != null && index.containsKey(e.inVertex().id())) {
+                    edges.add(e);
+                    counts[source + 1]++;
+                }
+            }
+        });
+
+        this.rowStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            rowStart[i + 1] = rowStart[i] + counts[i + 1];
+        }
+        this.targets = new int[edges.size()];
+        this.multiplicities = new double[edges.size()];
+        this.outDegrees = new double[n];
+        int[] next = Arrays.copyOf(rowStart, n);
+        for (Edge e : edges) {
+            int source = index.get(e.outVertex().id());
+            int position = next[source]++;
+            double multiplicity = e.<Number>property(weightKey).isPresent() ?
+                    Math.max(0, e.<Number>value(weightKey).intValue()) : 1;
+            targets[position] = index.get(e.inVertex().id());
+            multiplicities[position] = multiplicity;
+            outDegrees[source] += multiplicity;
+        }
+    }
+
+    /**
+     * Computes the PageRank using the default damping factor, convergence threshold and maximum number of iterations.
+     * @return this instance.
+     */
+    public WeightedPageRank compute() {
+        return compute(DEFAULT_ALPHA, DEFAULT_EPSILON, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Computes the PageRank of the vertices. Every vertex starts with the same rank and the computation stops when the
+     * sum of the changes of the ranks in an iteration is below the given threshold, or after the given number of iterations.
+     * @param alpha the damping factor.
+     * @param epsilon the convergence threshold.
+     * @param maxIterations the maximum number of iterations.
+     * @return this instance.
+     */
+    public WeightedPageRank compute(double alpha, double epsilon, int maxIterations) {
+        int n = vertices.size();
+        double[] rank = new double[n];
+        double[] incoming = new double[n];
+        double[] nextIncoming = new double[n];
+        double teleportation = 1d;
+        for (int iteration = 1; ; iteration++) {
+            double localTeleportation = teleportation > 0 ? teleportation / n : 0;
+            double error = 0;
+            teleportation = 0;
+            Arrays.fill(nextIncoming, 0);
+            for (int v = 0; v < n; v++) {
+                double newRank = incoming[v] + localTeleportation;
+                error += Math.abs(newRank - rank[v]);
+                rank[v] = newRank;
+                teleportation += (1d - alpha) * newRank;
+                double energy = alpha * newRank;
+                if (outDegrees[v] > 0) {
+                    double share = energy / outDegrees[v];
+                    for (int e = rowStart[v]; e < rowStart[v + 1]; e++) {
+                        nextIncoming[targets[e]] += share * multiplicities[e];
+                    }
+                } else {
+                    teleportation += energy;
+                }
+            }
+            double[] swap = incoming;
+            incoming = nextIncoming;
+            nextIncoming = swap;
+            if (error < epsilon || iteration >= maxIterations) {
+                break;
+            }
+        }
+        this.ranks = rank;
+        return this;
+    }
+
+    /**
+     * Returns the vertices ranked, in the same order of {@link #getRanks()}.
+     * @return an unmodifiable list of vertices.
+     */
+    public List<Vertex> getVertices() {
+        return Collections.unmodifiableList(vertices);
+    }
+
+    /**
+     * Returns the ranks computed by the last call to {@link #compute()}.
+     * @return the rank of every vertex, in the same order of {@link #getVertices()}.
+     */
+    public double[] getRanks() {
+        if (ranks == null) {
+            throw new IllegalStateException("The PageRank was not computed yet.");
+        }
+        return ranks;
+    }
+
+    /**
+     * Returns the number of edges stored in the adjacency. Parallel edges are stored once per edge, independently of their weight.
+     * @return the number of edges.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+}
@@ -26,6 +26,7 @@ public abstract class AbstractProject implements IProject {
     protected String name;
     protected Type projectType;
     protected Function<Path, IVersion> versionInitializer;
+    protected SmellListCache smellListCache;
     /**
      * Instantiates this project and sets the given name.
      * @param name the name of the project.
@@ -34,7 +35,7 @@ public abstract class AbstractProject implements IProject {
         this.name = name;
         this.projectType = projectType;
         this.versionedSystem = new TreeMap<>(versionStringComparator);
-        ArcanDependencyGraphParser.PROJECT_TYPE = projectType;
+        this.smellListCache = new SmellListCache();
     }
 
     /**
@@ -46,12 +47,14 @@ public abstract class AbstractProject implements IProject {
     }
 
     /**
-     * Returns the architectural smells in the given version.
+     * Returns the architectural smells in the given version. The smells are cached by this project, so
+     * the graph of the version is parsed only once while its smells are cached.
      * @param version the version of the system to parse smells from
      * @return the smells as a list.
      */
     public List<ArchitecturalSmell> getArchitecturalSmellsIn(IVersion version){
-        var smells = ArcanDependencyGraphParser.getArchitecturalSmellsIn(version.getGraph(), this.projectType);
+        var smells = smellListCache.get(version.getGraph(),
+                graph -> ArcanDependencyGraphParser.getArchitecturalSmellsIn(graph, this.projectType));
         var versionString = version.getVersionString();
         smells.forEach(as -> as.setAffectedVersion(versionString));
         return smells;
@@ -168,6 +171,22 @@ public abstract class AbstractProject implements IProject {
         return projectType;
     }
 
+    /**
+     * Returns the cache of the smells parsed from the graphs of the versions of this project.
+     * @return the cache of this project.
+     */
+    public SmellListCache getSmellListCache() {
+        return smellListCache;
+    }
+
+    /**
+     * Sets the cache of the smells parsed from the graphs of the versions of this project.
+     * @param smellListCache the cache to use.
+     */
+    public void setSmellListCache(SmellListCache smellListCache) {
+        this.smellListCache = smellListCache;
+    }
+
     /**
      * Adds the given directory of graphML files to the current versioned system.
      * If directory does not exist, this method will fill the current versioned systems
@@ -207,8 +226,12 @@ public abstract class AbstractProject implements IProject {
      */
     protected IVersion addVersion(Path f){
         IVersion version = versionInitializer.apply(f);
-        version = versionedSystem.getOrDefault(version.getVersionString(), version);
-        versionedSystem.putIfAbsent(version.getVersionString(), version);
+        var existing = versionedSystem.putIfAbsent(version.getVersionString(), version);
+        if (existing != null) {
+            return existing;
+        }
+        // The smells of a released graph are never requested again, as the graph is reloaded as a new object.
+        version.addGraphClearedListener(graph -> smellListCache.remove(graph));
         return version;
     }
 
@@ -1,16 +1,16 @@
 package org.rug.data.project;
 
-import org.apache.tinkerpop.gremlin.process.traversal.IO;
-import org.apache.tinkerpop.gremlin.process.traversal.TextP;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.rug.data.characteristics.comps.SourceCodeRetriever;
-import org.rug.data.labels.EdgeLabel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public abstract class AbstractVersion implements IVersion {
 
@@ -22,6 +22,7 @@ public abstract class AbstractVersion implements IVersion {
     private transient Path sourcePath;
     private transient Path graphMLPath;
     protected transient Graph graph;
+    private transient List<Consumer<Graph>> graphClearedListeners;
     private SourceCodeRetriever sourceCodeRetrieval;
 
     /**
@@ -92,7 +93,8 @@ public abstract class AbstractVersion implements IVersion {
 
     /**
      * Lazily loads the Graph from the given GraphML file at the first invocation.
-     * The Graph is then cached for future access.
+     * The Graph is then cached for future access. See {@link ArcanGraphMLReader} for the changes applied
+     * to the graph while reading it.
      * @return the dependency graph of this version.
      */
     @Override
@@ -102,9 +104,7 @@ public abstract class AbstractVersion implements IVersion {
             try {
                 var graphMLfile = graphMLPath.toFile();
                 if (graphMLfile.isFile() && graphMLfile.canRead()) {
-                    this.graph.traversal().io(graphMLPath.toAbsolutePath().toString())
-                            .read().with(IO.reader, IO.graphml).iterate();
-                    ensureCompatibility();
+                    new ArcanGraphMLReader(graph).read(graphMLPath);
                 }else {
                     throw new IOException("");
                 }
@@ -115,43 +115,30 @@ public abstract class AbstractVersion implements IVersion {
         return graph;
     }
 
-    /**
-     * Renames labels and properties to fit the graph model adopted by AStracker.
-     */
-    private void ensureCompatibility(){
-        this.graph.traversal().E()
-                .hasLabel(EdgeLabel.DEPENDSON.toString())
-                .has("weight")
-                .forEachRemaining(e -> {
-                    e.property("Weight", e.value("weight"));
-                    e.property("weight").remove();
-                });
-
-        switchEdgeLabel("isPartOfComponent", EdgeLabel.BELONGSTO.toString());
-        switchEdgeLabel("afferent", EdgeLabel.PACKAGEISAFFERENTOF.toString());
-        this.graph.traversal().V()
-                .has("Type", TextP.containing("retrieved"))
-                .drop().iterate();
-        this.graph.traversal().V()
-                .has("PackageType", TextP.containing("Retrieved"))
-                .drop().iterate();
-        this.graph.traversal().V()
-                .has("ClassType", TextP.containing("Retrieved"))
-                .drop().iterate();
-    }
-
-    private void switchEdgeLabel(String oldLabel, String newLabel){
-        this.graph.traversal().E().hasLabel(oldLabel).forEachRemaining(edge -> {
-            var newEdge = this.graph.traversal().addE(newLabel).from(edge.outVertex()).to(edge.inVertex()).next();
-            edge.properties().forEachRemaining(p -> newEdge.property(p.key(), p.value()));
-        });
-        this.graph.traversal().E().hasLabel(oldLabel).drop().iterate();
+    @Override
+    public void clearGraph(){
+        releaseGraph();
+        getSourceCodeRetriever().clearCache();
     }
 
     @Override
-    public void clearGraph(){
+    public synchronized void addGraphClearedListener(Consumer<Graph> listener){
+        if (graphClearedListeners == null) {
+            graphClearedListeners = new CopyOnWriteArrayList<>();
+        }
+        graphClearedListeners.add(listener);
+    }
+
+    /**
+     * Releases the graph of this version and notifies the listeners registered with
+     * {@link #addGraphClearedListener(Consumer)}.
+     */
+    protected synchronized void releaseGraph(){
+        if (graph != null && graphClearedListeners != null) {
+            var released = graph;
+            graphClearedListeners.forEach(listener -> listener.accept(released));
+        }
         graph = null;
-        getSourceCodeRetriever().clearCache();
     }
 
     @Override
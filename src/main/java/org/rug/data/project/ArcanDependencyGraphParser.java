@@ -16,49 +16,48 @@ import java.util.stream.Collectors;
  */
 public class ArcanDependencyGraphParser {
 
-    public static int MAX_CACHED_GRAPH_COUNT = 1;
-    public static AbstractProject.Type PROJECT_TYPE = AbstractProject.Type.JAVA;
-
     private final static Logger logger = LoggerFactory.getLogger(ArcanDependencyGraphParser.class);
 
-    private final static Map<Graph, List<ArchitecturalSmell>> cachedSmellLists = new HashMap<>();
-
-    public static List<ArchitecturalSmell> getArchitecturalSmellsIn(Graph graph, Project.Type projectType){
-        PROJECT_TYPE = projectType;
-        return getArchitecturalSmellsIn(graph);
+    /**
+     * Given the graph of a Java system, this methods builds a list of Architectural Smells that affect this system.
+     * See {@link #getArchitecturalSmellsIn(Graph, AbstractProject.Type)}.
+     * @param graph the graph of the system.
+     * @return an unmodifiable list containing the parsed smells.
+     */
+    public static List<ArchitecturalSmell> getArchitecturalSmellsIn(Graph graph){
+        return getArchitecturalSmellsIn(graph, AbstractProject.Type.JAVA);
     }
 
     /**
      * Given the graph of a system, this methods builds a list of Architectural Smells that affect this system.
-     * The list is cached internally for future retrievals. A maximum of {@link #MAX_CACHED_GRAPH_COUNT} graphs are
-     * cached to save memory.
+     * The smells are not cached: projects cache the smells of their versions (see {@link SmellListCache}).
+     * Parsing marks the smell nodes of the graph, therefore a graph must be parsed only once and by a single thread.
+     * Graphs of different versions can be parsed concurrently.
      * @param graph the graph of the system.
+     * @param projectType the type of the project the system belongs to.
      * @return an unmodifiable list containing the parsed smells.
      */
-    public static List<ArchitecturalSmell> getArchitecturalSmellsIn(Graph graph){
-        if (!cachedSmellLists.containsKey(graph)){
-            List<ArchitecturalSmell> architecturalSmells = new ArrayList<>();
-            graph.traversal().V().hasLabel(VertexLabel.SMELL.toString()).toList()
-                    .forEach(smellVertex -> {
-                        String smellTypeProperty = smellVertex.value("smellType");
-                        if (smellTypeProperty != null) {
-                            ArchitecturalSmell.Type smellType = ArchitecturalSmell.Type.fromString(smellTypeProperty);
-                            if (!smellVertex.property(CDSmell.VISITED_SMELL_NODE).orElse("false").equals("true")) {
-                                ArchitecturalSmell as = smellType.getInstance(smellVertex, PROJECT_TYPE);
-                                if (as != null)
-                                    architecturalSmells.add(as);
-                                else
-                                    logger.warn("AS type '{}' with id '{}' was ignored.", smellVertex.value("smellType").toString(), smellVertex.id());
-                            }
-                        } else {
-                            logger.warn("No 'smellType' property found for smell vertex {}.", smellVertex);
+    public static List<ArchitecturalSmell> getArchitecturalSmellsIn(Graph graph, AbstractProject.Type projectType){
+        List<ArchitecturalSmell> architecturalSmells = new ArrayList<>();
+        graph.traversal().V().hasLabel(VertexLabel.SMELL.toString()).toList()
+                .forEach(smellVertex -> {
+                    String smellTypeProperty = smellVertex.value("smellType");
+                    if (smellTypeProperty != null) {
+                        ArchitecturalSmell.Type smellType = ArchitecturalSmell.Type.fromString(smellTypeProperty);
+                        if (!smellVertex.property(CDSmell.VISITED_SMELL_NODE).orElse("false").equals("true")) {
+                            ArchitecturalSmell as = smellType.getInstance(smellVertex, projectType);
+                            if (as != null)
+                                architecturalSmells.add(as);
+                            else
+                                logger.warn("AS type '{}' with id '{}' was ignored.", smellVertex.value("smellType").toString(), smellVertex.id());
                         }
-                    });
-            if (cachedSmellLists.size() >= MAX_CACHED_GRAPH_COUNT)
-                cachedSmellLists.clear();
-            cachedSmellLists.putIfAbsent(graph, Collections.unmodifiableList(architecturalSmells));
-        }
-        return cachedSmellLists.get(graph);
+                    } else {
+                        logger.warn("No 'smellType' property found for smell vertex {}.", smellVertex);
+                    }
+                });
+        var smells = Collections.unmodifiableList(architecturalSmells);
+        smells.forEach(as -> as.setVersionSmells(smells));
+        return smells;
     }
 
     /**
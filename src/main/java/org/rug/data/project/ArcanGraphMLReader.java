@@ -0,0 +1,260 @@
+package org.rug.data.project;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.rug.data.labels.EdgeLabel;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Reads the GraphML files produced by Arcan into a graph that fits the graph model adopted by AStracker.
+ * The file is parsed as a stream, and while parsing edge labels and properties are renamed and the vertices
+ * representing retrieved (i.e. external) classes and packages are skipped, together with their edges.
+ * This way, the properties and edges that are not part of the model are never added to the graph.
+ */
+public class ArcanGraphMLReader {
+
+    private static final String VERTEX_LABEL_KEY = "labelV";
+    private static final String EDGE_LABEL_KEY = "labelE";
+
+    private static final Map<String, String> edgeLabels = Map.of(
+            "isPartOfComponent", EdgeLabel.BELONGSTO.toString(),
+            "afferent", EdgeLabel.PACKAGEISAFFERENTOF.toString());
+
+    private final Graph graph;
+    private final Map<String, String> keyNames;
+    private final Map<String, String> keyTypes;
+    private final Map<String, Vertex> vertices;
+    private final Set<String> skippedVertices;
+    private final List<PendingEdge> pendingEdges;
+
+    /**
+     * Builds a reader that adds the elements read to the given graph.
+     * @param graph the graph to add vertices and edges to.
+     */
+    public ArcanGraphMLReader(Graph graph) {
+        this.graph = graph;
+        this.keyNames = new HashMap<>();
+        this.keyTypes = new HashMap<>();
+        this.vertices = new HashMap<>();
+        this.skippedVertices = new HashSet<>();
+        this.pendingEdges = new ArrayList<>();
+    }
+
+    /**
+     * Reads the given GraphML file into the graph of this reader.
+     * @param graphMLFile the file to read.
+     * @throws IOException if the file cannot be read or is not a valid GraphML file.
+     */
+    public void read(Path graphMLFile) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(graphMLFile))) {
+            var factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            var reader = factory.createXMLStreamReader(in);
+            try {
+                read(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(String.format("Could not parse GraphML file %s", graphMLFile), e);
+        }
+    }
+
+    private void read(XMLStreamReader reader) throws XMLStreamException {
+        String id = null, source = null, target = null, label = null;
+        Map<String, Object> properties = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "key":
+                        String keyId = reader.getAttributeValue(null, "id");
+                        keyNames.put(keyId, reader.getAttributeValue(null, "attr.name"));
+                        keyTypes.put(keyId, reader.getAttributeValue(null, "attr.type"));
+                        break;
+                    case "node":
+                    case "edge":
+                        id = reader.getAttributeValue(null, "id");
+                        source = reader.getAttributeValue(null, "source");
+                        target = reader.getAttributeValue(null, "target");
+                        label = null;
+                        properties = new HashMap<>();
+                        break;
+                    case "data":
+                        if (properties == null) {
+                            reader.getElementText();
+                            break;
+                        }
+                        String key = reader.getAttributeValue(null, "key");
+                        String value = reader.getElementText();
+                        String name = keyNames.getOrDefault(key, key);
+                        if (name.equals(VERTEX_LABEL_KEY) || name.equals(EDGE_LABEL_KEY)) {
+                            label = value;
+                        } else {
+                            properties.put(name, typeCastValue(key, value));
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "node":
+                        addVertex(id, label == null ? Vertex.DEFAULT_LABEL : label, properties);
+                        properties = null;
+                        break;
+                    case "edge":
+                        addEdge(new PendingEdge(id, source, target, label == null ? Edge.DEFAULT_LABEL : label, properties));
+                        properties = null;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        for (var edge : pendingEdges) {
+            if (skippedVertices.contains(edge.source) || skippedVertices.contains(edge.target)) {
+                continue;
+            }
+            edge.add(vertices.computeIfAbsent(edge.source, this::createVertex), vertices.computeIfAbsent(edge.target, this::createVertex));
+        }
+        pendingEdges.clear();
+        for (String skipped : skippedVertices) {
+            vertices.remove(skipped).remove();
+        }
+        skippedVertices.clear();
+    }
+
+    private void addVertex(String id, String label, Map<String, Object> properties) {
+        if (isRetrieved(properties)) {
+            // A bare placeholder is added and removed once the file is read, so that the vertices of the graph are
+            // iterated in the same order as if all the vertices were loaded. The order of the smells parsed from the
+            // graph, and thus the outcome of ties when tracking them, depends on it.
+            skippedVertices.add(id);
+            vertices.put(id, createVertex(id));
+            return;
+        }
+        vertices.put(id, graph.addVertex(toKeyValues(id, label, properties, graph.features().vertex().supportsUserSuppliedIds())));
+    }
+
+    private Vertex createVertex(String id) {
+        return graph.addVertex(toKeyValues(id, Vertex.DEFAULT_LABEL, Collections.emptyMap(), graph.features().vertex().supportsUserSuppliedIds()));
+    }
+
+    private void addEdge(PendingEdge edge) {
+        if (skippedVertices.contains(edge.source) || skippedVertices.contains(edge.target)) {
+            return;
+        }
+        edge.label = edgeLabels.getOrDefault(edge.label, edge.label);
+        if (edge.label.equals(EdgeLabel.DEPENDSON.toString()) && edge.properties.containsKey("weight")) {
+            edge.properties.put("Weight", edge.properties.remove("weight"));
+        }
+        Vertex outVertex = vertices.get(edge.source);
+        Vertex inVertex = vertices.get(edge.target);
+        if (outVertex == null || inVertex == null) {
+            // The vertex may still be defined later in the file.
+            pendingEdges.add(edge);
+        } else {
+            edge.add(outVertex, inVertex);
+        }
+    }
+
+    /**
+     * Whether the given properties belong to a vertex representing a class or package that is not part of the system.
+     * @param properties the properties of the vertex.
+     * @return true if the vertex is retrieved, false otherwise.
+     */
+    private boolean isRetrieved(Map<String, Object> properties) {
+        return contains(properties.get("Type"), "retrieved") ||
+                contains(properties.get("PackageType"), "Retrieved") ||
+                contains(properties.get("ClassType"), "Retrieved");
+    }
+
+    private boolean contains(Object value, String text) {
+        return value instanceof String && ((String) value).contains(text);
+    }
+
+    private Object typeCastValue(String key, String value) {
+        String type = keyTypes.get(key);
+        if (type == null) {
+            return value;
+        }
+        switch (type) {
+            case "int":
+                return Integer.valueOf(value);
+            case "long":
+                return Long.valueOf(value);
+            case "float":
+                return Float.valueOf(value);
+            case "double":
+                return Double.valueOf(value);
+            case "boolean":
+                return Boolean.valueOf(value);
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Builds the array of keys and values used to add an element to the graph.
+     * @param id the identifier of the element.
+     * @param label the label of the element, or null to omit it.
+     * @param properties the properties of the element.
+     * @param withId whether to include the identifier.
+     * @return an array of alternating keys and values.
+     */
+    private static Object[] toKeyValues(String id, String label, Map<String, Object> properties, boolean withId) {
+        Object[] keyValues = new Object[properties.size() * 2 + (withId ? 2 : 0) + (label != null ? 2 : 0)];
+        int i = 0;
+        if (withId) {
+            keyValues[i++] = T.id;
+            keyValues[i++] = id;
+        }
+        if (label != null) {
+            keyValues[i++] = T.label;
+            keyValues[i++] = label;
+        }
+        for (var entry : properties.entrySet()) {
+            keyValues[i++] = entry.getKey();
+            keyValues[i++] = entry.getValue();
+        }
+        return keyValues;
+    }
+
+    /**
+     * An edge read from the file, whose vertices may not have been read yet.
+     */
+    private class PendingEdge {
+        private final String id;
+        private final String source;
+        private final String target;
+        private String label;
+        private final Map<String, Object> properties;
+
+        PendingEdge(String id, String source, String target, String label, Map<String, Object> properties) {
+            this.id = id;
+            this.source = source;
+            this.target = target;
+            this.label = label;
+            this.properties = properties;
+        }
+
+        void add(Vertex outVertex, Vertex inVertex) {
+            boolean withId = id != null && graph.features().edge().supportsUserSuppliedIds();
+            outVertex.addEdge(label, inVertex, toKeyValues(id, null, properties, withId));
+        }
+    }
+}
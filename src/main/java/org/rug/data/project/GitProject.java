@@ -11,6 +11,7 @@ import java.io.IOException;
 public class GitProject extends AbstractProject {
 
     private Git git;
+    private SourceMode sourceMode;
 
     /**
      * Instantiates this project and sets the given name.
@@ -31,7 +32,20 @@ public class GitProject extends AbstractProject {
      * @param projectType the type of the project (programming language).
      */
     public GitProject(String name, File gitDir, Type projectType) {
+        this(name, gitDir, projectType, SourceMode.CHECKOUT);
+    }
+
+    /**
+     * Instantiates this project and sets the given name.
+     *
+     * @param name        the name of the project.
+     * @param gitDir      the .git directory or the directory containing the .git directory.
+     * @param projectType the type of the project (programming language).
+     * @param sourceMode  how the versions retrieve the sources of their commit.
+     */
+    public GitProject(String name, File gitDir, Type projectType, SourceMode sourceMode) {
         super(name, projectType, new StringCommitComparator());
+        this.sourceMode = sourceMode;
         try {
             this.git = Git.open(gitDir);
         } catch (IOException e) {
@@ -42,9 +56,22 @@ public class GitProject extends AbstractProject {
     @Override
     public void addSourceDirectory(String sourceMainDir) {
         var srcDirPath = new File(sourceMainDir).toPath();
-        super.versionInitializer = (f) ->
-                new GitVersion(f, git.getRepository(), git.checkout(),
-                        projectType.getSourceCodeRetrieverInstance(srcDirPath));
+        switch (sourceMode) {
+            case INCREMENTAL_CHECKOUT:
+                var sourceTree = new GitSourceTree(git.getRepository(), projectType.getSourceCodeRetrieverInstance(srcDirPath));
+                super.versionInitializer = (f) -> new GitVersion(f, sourceTree, git.checkout());
+                break;
+            case OBJECT_DATABASE:
+                super.versionInitializer = (f) -> new GitVersion(f, git.getRepository(),
+                        () -> projectType.getSourceCodeRetrieverInstance(srcDirPath));
+                break;
+            case CHECKOUT:
+            default:
+                super.versionInitializer = (f) ->
+                        new GitVersion(f, git.getRepository(), git.checkout(),
+                                projectType.getSourceCodeRetrieverInstance(srcDirPath));
+                break;
+        }
     }
 
 
@@ -58,6 +85,25 @@ public class GitProject extends AbstractProject {
         return false;
     }
 
+    /**
+     * Defines how the versions of a git project retrieve the sources of their commit.
+     */
+    public enum SourceMode {
+        /**
+         * Every version checks out its commit and indexes the working tree.
+         */
+        CHECKOUT,
+        /**
+         * Every version checks out its commit and the versions share a single index of the working tree, updated
+         * with the files changed between the commits checked out.
+         */
+        INCREMENTAL_CHECKOUT,
+        /**
+         * Every version reads the files of its commit from the object database, without checking it out.
+         */
+        OBJECT_DATABASE
+    }
+
 
 
 }
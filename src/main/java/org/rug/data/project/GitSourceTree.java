@@ -0,0 +1,155 @@
+package org.rug.data.project;
+
+import org.eclipse.jgit.api.CheckoutCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.rug.data.characteristics.comps.SourceCodeRetriever;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The working tree of a git project, shared by all its versions together with a single source code retriever.
+ * When a version checks out its commit, the files indexed by the retriever are updated with the files added and
+ * deleted between the commit previously checked out and the new one, rather than walking the whole working tree again.
+ */
+public class GitSourceTree {
+
+    private final static Logger logger = LoggerFactory.getLogger(GitSourceTree.class);
+
+    private final Repository repository;
+    private final SourceCodeRetriever retriever;
+    private final Path workTree;
+    private final Path sourcePath;
+    private ObjectId checkedOutCommit;
+
+    /**
+     * Builds the tree of the given repository. The files of the retriever are assumed to be those of the commit
+     * currently checked out (HEAD).
+     * @param repository the repository.
+     * @param retriever the retriever of the sources in the working tree of the repository.
+     */
+    public GitSourceTree(Repository repository, SourceCodeRetriever retriever) {
+        this.repository = repository;
+        this.retriever = retriever;
+        this.workTree = repository.getWorkTree().toPath().toAbsolutePath().normalize();
+        this.sourcePath = retriever.getSourcePath().toAbsolutePath().normalize();
+        try {
+            this.checkedOutCommit = repository.resolve(Constants.HEAD);
+        } catch (IOException e) {
+            logger.warn("Could not resolve the HEAD of the repository: {}", e.getMessage());
+            this.checkedOutCommit = null;
+        }
+    }
+
+    /**
+     * Checks out the given commit, unless it is already checked out, and updates the files of the retriever.
+     * @param checkoutCommand the command to use for the checkout.
+     * @param commitName the SHA-1 of the commit to check out.
+     * @return the retriever of the sources of the given commit.
+     * @throws GitAPIException if the commit cannot be checked out.
+     */
+    public synchronized SourceCodeRetriever checkout(CheckoutCommand checkoutCommand, String commitName) throws GitAPIException {
+        ObjectId commit = ObjectId.fromString(commitName);
+        if (!commit.equals(checkedOutCommit)) {
+            checkoutCommand.setName(commitName);
+            checkoutCommand.setForced(true);
+            checkoutCommand.call();
+            updateFiles(checkedOutCommit, commit);
+            checkedOutCommit = commit;
+        }
+        return retriever;
+    }
+
+    /**
+     * Returns the repository of this tree.
+     * @return the repository.
+     */
+    public Repository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Returns the retriever shared by the versions of the project.
+     * @return the source code retriever.
+     */
+    public SourceCodeRetriever getRetriever() {
+        return retriever;
+    }
+
+    /**
+     * Updates the files of the retriever with the differences between the two given commits.
+     * If the differences cannot be computed, the working tree is walked again.
+     * @param from the commit previously checked out, or null if unknown.
+     * @param to the commit checked out.
+     */
+    private void updateFiles(ObjectId from, ObjectId to) {
+        if (from == null) {
+            retriever.reindexFiles();
+            return;
+        }
+        List<Path> removed = new ArrayList<>();
+        List<Path> added = new ArrayList<>();
+        try (var reader = repository.newObjectReader();
+             var revWalk = new RevWalk(reader);
+             var treeWalk = new TreeWalk(reader)) {
+            treeWalk.setRecursive(true);
+            treeWalk.addTree(revWalk.parseCommit(from).getTree());
+            treeWalk.addTree(revWalk.parseCommit(to).getTree());
+            for (DiffEntry entry : DiffEntry.scan(treeWalk)) {
+                switch (entry.getChangeType()) {
+                    case ADD:
+                    case COPY:
+                        addPath(added, entry.getNewPath(), entry.getNewMode());
+                        break;
+                    case DELETE:
+                        addPath(removed, entry.getOldPath(), entry.getOldMode());
+                        break;
+                    case RENAME:
+                        addPath(removed, entry.getOldPath(), entry.getOldMode());
+                        addPath(added, entry.getNewPath(), entry.getNewMode());
+                        break;
+                    case MODIFY:
+                    default:
+                        // a file may be replaced by a submodule or vice versa
+                        if (!entry.getOldMode().equals(entry.getNewMode())) {
+                            addPath(removed, entry.getOldPath(), entry.getOldMode());
+                            addPath(added, entry.getNewPath(), entry.getNewMode());
+                        }
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not compute the files changed between commits {} and {}, indexing the working tree: {}",
+                    from.getName(), to.getName(), e.getMessage());
+            retriever.reindexFiles();
+            return;
+        }
+        logger.debug("Updating source files: {} removed, {} added.", removed.size(), added.size());
+        retriever.updateFiles(removed, added);
+    }
+
+    /**
+     * Adds the given repository path to the list of paths, in the form used by the retriever, if it
+     * refers to a file within the source path of the retriever.
+     */
+    private void addPath(List<Path> paths, String repositoryPath, FileMode mode) {
+        if (mode.equals(FileMode.GITLINK) || mode.equals(FileMode.TREE) || mode.equals(FileMode.MISSING)) {
+            return;
+        }
+        Path file = workTree.resolve(repositoryPath).normalize();
+        if (file.startsWith(sourcePath)) {
+            paths.add(retriever.getSourcePath().resolve(sourcePath.relativize(file)));
+        }
+    }
+}
@@ -6,9 +6,11 @@ import org.eclipse.jgit.api.CheckoutCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
+import org.rug.data.characteristics.comps.GitObjectFileStore;
 import org.rug.data.characteristics.comps.SourceCodeRetriever;
 
 import java.nio.file.Path;
+import java.util.function.Supplier;
 
 public class GitVersion extends AbstractVersion {
 
@@ -16,6 +18,9 @@ public class GitVersion extends AbstractVersion {
 
     private transient Repository repository;
     private transient CheckoutCommand checkoutCommand;
+    private transient GitSourceTree sourceTree;
+    private transient Supplier<SourceCodeRetriever> retrieverSupplier;
+    private transient SourceCodeRetriever objectRetriever;
     private String commitName;
     private boolean isCheckedOut;
 
@@ -26,9 +31,47 @@ public class GitVersion extends AbstractVersion {
         this.isCheckedOut = false;
     }
 
+    /**
+     * Builds a version whose sources are retrieved from the given working tree, shared with the other versions of the project.
+     * @param path the path of the GraphML file of this version.
+     * @param sourceTree the working tree shared by the versions of the project.
+     * @param checkoutCommand the command used to check out the commit of this version.
+     */
+    public GitVersion(Path path, GitSourceTree sourceTree, CheckoutCommand checkoutCommand){
+        this(path, sourceTree.getRepository(), checkoutCommand, sourceTree.getRetriever());
+        this.sourceTree = sourceTree;
+    }
+
+    /**
+     * Builds a version whose sources are read from the tree of its commit in the object database of the repository,
+     * without checking out the commit. Versions built this way can retrieve their sources concurrently.
+     * @param path the path of the GraphML file of this version.
+     * @param repository the repository of the project.
+     * @param retrieverSupplier supplies a new retriever of the sources of the project in the working tree of the repository.
+     */
+    public GitVersion(Path path, Repository repository, Supplier<SourceCodeRetriever> retrieverSupplier){
+        this(path, repository, null, null);
+        this.retrieverSupplier = retrieverSupplier;
+    }
+
 
     @Override
     public synchronized SourceCodeRetriever getSourceCodeRetriever() {
+        if (retrieverSupplier != null) {
+            if (objectRetriever == null) {
+                objectRetriever = retrieverSupplier.get();
+                objectRetriever.setFileStore(new GitObjectFileStore(repository, getCommitObjectId()));
+            }
+            return objectRetriever;
+        }
+        if (sourceTree != null) {
+            try {
+                return sourceTree.checkout(checkoutCommand, commitName);
+            } catch (GitAPIException e) {
+                logger.error("Could not checkout commit {} due a JGit unrecoverable exception: {}", commitName, e.getMessage());
+                throw new IllegalArgumentException("Could not checkout the given commit: " + commitName, e);
+            }
+        }
         if (!isCheckedOut) {
                 checkoutCommand.setName(commitName);
                 checkoutCommand.setForced(true);
@@ -44,6 +87,20 @@ public class GitVersion extends AbstractVersion {
         return super.getSourceCodeRetriever();
     }
 
+    /**
+     * Releases the graph of this version. When the sources are read from the object database, the index of
+     * the files of the commit is released too and is rebuilt if the sources are retrieved again.
+     */
+    @Override
+    public synchronized void clearGraph() {
+        if (retrieverSupplier != null) {
+            releaseGraph();
+            objectRetriever = null;
+        } else {
+            super.clearGraph();
+        }
+    }
+
     /**
      * Parses a file name (presumably of a GraphML file) that contains information
      * about the version in the following format:
@@ -4,6 +4,7 @@ import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.rug.data.characteristics.comps.SourceCodeRetriever;
 
 import java.nio.file.Path;
+import java.util.function.Consumer;
 
 /**
  * Represents a version of the system under analysis. The version is a single analyzable unit.
@@ -72,6 +73,13 @@ public interface IVersion extends Comparable<IVersion> {
      */
     void clearGraph();
 
+    /**
+     * Registers an action to run with the graph of this version when the graph is released by {@link #clearGraph()}.
+     * Projects use it to release the data they derived from the graph.
+     * @param listener the action, which receives the released graph.
+     */
+    void addGraphClearedListener(Consumer<Graph> listener);
+
     /**
      * The date of this version.
      * @return the date of this version as a string
@@ -0,0 +1,198 @@
+package org.rug.data.project;
+
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache of the smells parsed from the graphs of the versions of a project.
+ * The least recently used lists are evicted once the approximate size retained by the cached graphs and smells exceeds
+ * a maximum weight. The most recently parsed list is always kept, even if it alone exceeds the maximum weight.
+ * A graph is parsed only once even if its smells are requested concurrently: the other threads wait for the result.
+ * Projects remove the smells of a version from the cache when the version releases its graph (see {@link IVersion#clearGraph()}),
+ * as a released graph is never requested again.
+ */
+public class SmellListCache {
+
+    private final static Logger logger = LoggerFactory.getLogger(SmellListCache.class);
+
+    /**
+     * The default maximum weight of a cache, in bytes.
+     */
+    public static long DEFAULT_MAX_WEIGHT = 512L * 1024 * 1024;
+
+    /**
+     * The approximate number of bytes retained by a vertex, an edge and a smell, including their properties.
+     */
+    static final long VERTEX_WEIGHT = 512;
+    static final long EDGE_WEIGHT = 256;
+    static final long SMELL_WEIGHT = 1024;
+
+    private final long maxWeight;
+    private final Map<Graph, Entry> entries;
+    private long weight;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /**
+     * Builds a cache with the {@link #DEFAULT_MAX_WEIGHT}.
+     */
+    public SmellListCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * Builds a cache that evicts the least recently used lists when their weight exceeds the given one.
+     * @param maxWeight the maximum weight of the cache, in bytes.
+     */
+    public SmellListCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    /**
+     * Returns the smells of the given graph, parsing them with the given parser if they are not cached.
+     * @param graph the graph of a version.
+     * @param parser parses the smells of the graph.
+     * @return the smells of the graph, as returned by the parser.
+     */
+    public List<ArchitecturalSmell> get(Graph graph, Function<Graph, List<ArchitecturalSmell>> parser) {
+        Entry entry;
+        boolean parse = false;
+        synchronized (this) {
+            entry = entries.get(graph);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(graph, entry);
+                parse = true;
+            }
+        }
+        if (!parse) {
+            hits.increment();
+            try {
+                return entry.smells.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        misses.increment();
+        List<ArchitecturalSmell> smells;
+        try {
+            smells = parser.apply(graph);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                entries.remove(graph, entry);
+            }
+            entry.smells.completeExceptionally(e);
+            throw e;
+        }
+        entry.smells.complete(smells);
+        long entryWeight = weigh(graph, smells);
+        synchronized (this) {
+            if (entries.get(graph) == entry) {
+                entry.weight = entryWeight;
+                weight += entryWeight;
+                evict(entry);
+            }
+        }
+        return smells;
+    }
+
+    /**
+     * Removes the smells of the given graph from this cache, for example because the graph was released by its version.
+     * A graph being parsed is removed too, and its smells are not cached once parsed.
+     * @param graph the graph of a version.
+     */
+    public synchronized void remove(Graph graph) {
+        Entry entry = entries.remove(graph);
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+
+    /**
+     * Removes all the lists from this cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Returns the number of lists in this cache, including those being parsed.
+     * @return the number of cached lists.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the approximate number of bytes retained by the graphs and smells in this cache.
+     * @return the weight of the cache.
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Evicts the least recently used lists that were completely parsed, except the given one,
+     * until the weight of the cache is below the maximum.
+     */
+    private void evict(Entry keep) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry != keep && entry.smells.isDone()) {
+                iterator.remove();
+                weight -= entry.weight;
+                evictions.increment();
+            }
+        }
+        logger.debug("Cached smell lists: {}, weight: {} bytes.", entries.size(), weight);
+    }
+
+    /**
+     * Approximates the number of bytes retained by the given graph and its smells.
+     */
+    private static long weigh(Graph graph, List<ArchitecturalSmell> smells) {
+        return IteratorUtils.count(graph.vertices()) * VERTEX_WEIGHT
+                + IteratorUtils.count(graph.edges()) * EDGE_WEIGHT
+                + smells.size() * SMELL_WEIGHT;
+    }
+
+    private static class Entry {
+        private final CompletableFuture<List<ArchitecturalSmell>> smells = new CompletableFuture<>();
+        private long weight;
+    }
+}
@@ -13,8 +13,10 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
@@ -38,6 +40,7 @@ public abstract class ArchitecturalSmell {
     protected Set<Vertex> affectedElements;
     protected Set<String> affectedElementsNames;
     protected Graph affectedGraph;
+    private List<ArchitecturalSmell> versionSmells;
 
     protected Map<String, String> characteristicsMap;
 
@@ -52,9 +55,10 @@ public abstract class ArchitecturalSmell {
         assert smell.label().equals(VertexLabel.SMELL.toString());
         this.id = Long.parseLong(smell.id().toString());
         this.type = type;
-        this.characteristicsMap = new HashMap<>();
+        this.characteristicsMap = new ConcurrentHashMap<>();
         this.affectedGraph = smell.graph();
         this.affectedVersion = null;
+        this.versionSmells = Collections.singletonList(this);
         setLevel(smell);
         setAffectedElements(smell);
         setSmellNodes(smell);
@@ -133,9 +137,22 @@ public abstract class ArchitecturalSmell {
     public void calculateCharacteristics(){
         Set<ISmellCharacteristic> characteristicsSets = this.type.getCharacteristicsSet();
         for (ISmellCharacteristic characteristic : characteristicsSets){
-            String value = this.accept(characteristic);
+            calculateCharacteristic(characteristic);
+        }
+    }
+
+    /**
+     * Calculates the given characteristic on this smell and saves the result in the map of characteristics.
+     * Different characteristics of the same smell can be calculated concurrently.
+     * @param characteristic the characteristic to calculate.
+     * @return the value computed, or null if the characteristic did not compute any value.
+     */
+    public String calculateCharacteristic(ISmellCharacteristic characteristic){
+        String value = this.accept(characteristic);
+        if (value != null) {
             characteristicsMap.put(characteristic.getName(), value);
         }
+        return value;
     }
 
     /**
@@ -146,7 +163,8 @@ public abstract class ArchitecturalSmell {
     public abstract <T> T accept(SmellVisitor<T> visitor);
 
     /**
-     * Get the map of the currently computed characteristics.
+     * Get the map of the currently computed characteristics. The map can be safely read while characteristics are
+     * being computed.
      * @return an unmodifiable map containing the results of the characteristics.
      * The keys of the map are the name of the characteristics whereas the values is the computed value for that key.
      */
@@ -210,6 +228,22 @@ public abstract class ArchitecturalSmell {
         this.affectedVersion = affectedVersion;
     }
 
+    /**
+     * Returns all the smells parsed from the graph affected by this smell, including this smell.
+     * @return an unmodifiable list of smells.
+     */
+    public List<ArchitecturalSmell> getVersionSmells() {
+        return versionSmells;
+    }
+
+    /**
+     * Sets the smells parsed from the graph affected by this smell.
+     * @param versionSmells the list of all the smells of the graph, including this smell.
+     */
+    public void setVersionSmells(List<ArchitecturalSmell> versionSmells) {
+        this.versionSmells = versionSmells;
+    }
+
     /**
      * Returns the traversal of the graph affected by this smell.
      * @return the traversal
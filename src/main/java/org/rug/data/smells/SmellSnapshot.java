@@ -0,0 +1,208 @@
+package org.rug.data.smells;
+
+import org.rug.data.SmellVisitor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable copy of the data of an {@link ArchitecturalSmell} needed to track it through the following versions.
+ * Unlike the smell it is taken from, a snapshot holds no reference to the vertices of the graph of the version the
+ * smell was detected in, therefore tracking the snapshots of the smells of previous versions does not retain their
+ * graphs in memory. The names of the elements are interned, as the same elements are affected by the smells of
+ * many versions. A snapshot must be taken once the characteristics of the smell were computed.
+ */
+public final class SmellSnapshot {
+
+    private static final String[] NO_NAMES = new String[0];
+
+    private final long id;
+    private final ArchitecturalSmell.Type type;
+    private final ArchitecturalSmell.Level level;
+    private final CDSmell.Shape shape;
+    private final String affectedVersion;
+    private final String centreName;
+    private final String[] affectedElementsNames;
+    private final String[] dependenciesNames;
+    private final int affectedElementsCount;
+    private final Map<String, String> characteristics;
+
+    private SmellSnapshot(ArchitecturalSmell smell, CDSmell.Shape shape, String centreName, Set<String> dependenciesNames) {
+        this.id = smell.getId();
+        this.type = smell.getType();
+        this.level = smell.getLevel();
+        this.shape = shape;
+        this.affectedVersion = smell.getAffectedVersion();
+        this.centreName = centreName == null ? null : centreName.intern();
+        this.affectedElementsNames = intern(smell.getAffectedElementsNames());
+        this.dependenciesNames = intern(dependenciesNames);
+        this.affectedElementsCount = smell.getAffectedElements().size();
+        this.characteristics = Map.copyOf(smell.getCharacteristicsMap());
+    }
+
+    private SmellSnapshot(long id, ArchitecturalSmell.Type type, ArchitecturalSmell.Level level, CDSmell.Shape shape,
+                          String affectedVersion, String centreName, String[] affectedElementsNames,
+                          String[] dependenciesNames, int affectedElementsCount, Map<String, String> characteristics) {
+        this.id = id;
+        this.type = type;
+        this.level = level;
+        this.shape = shape;
+        this.affectedVersion = affectedVersion;
+        this.centreName = centreName == null ? null : centreName.intern();
+        this.affectedElementsNames = intern(Arrays.asList(affectedElementsNames));
+        this.dependenciesNames = intern(Arrays.asList(dependenciesNames));
+        this.affectedElementsCount = affectedElementsCount;
+        this.characteristics = Map.copyOf(characteristics);
+    }
+
+    /**
+     * Takes a snapshot of the given smell.
+     * @param smell the smell, with its characteristics already computed.
+     * @return the snapshot of the smell.
+     */
+    public static SmellSnapshot of(ArchitecturalSmell smell) {
+        return smell.accept(SNAPSHOT_TAKER);
+    }
+
+    /**
+     * Rebuilds a snapshot from the data returned by the getters of another snapshot, for example when the snapshot
+     * is read from a checkpoint of the tracker.
+     * @param id the id of the smell.
+     * @param type the type of the smell.
+     * @param level the level of the smell.
+     * @param shape the shape of a CD smell, or null.
+     * @param affectedVersion the version the smell was detected in.
+     * @param centreName the name of the centre of a single element smell, or null.
+     * @param affectedElementsNames the distinct names of the affected elements.
+     * @param dependenciesNames the distinct names of the dependencies causing the smell.
+     * @param affectedElementsCount the number of affected vertices.
+     * @param characteristics the characteristics of the smell.
+     * @return the snapshot.
+     */
+    public static SmellSnapshot restore(long id, ArchitecturalSmell.Type type, ArchitecturalSmell.Level level, CDSmell.Shape shape,
+                                        String affectedVersion, String centreName, String[] affectedElementsNames,
+                                        String[] dependenciesNames, int affectedElementsCount, Map<String, String> characteristics) {
+        return new SmellSnapshot(id, type, level, shape, affectedVersion, centreName, affectedElementsNames,
+                dependenciesNames, affectedElementsCount, characteristics);
+    }
+
+    /**
+     * Returns the id of the node that represented the smell in the graph of its version.
+     * @return the id of the smell.
+     */
+    public long getId() {
+        return id;
+    }
+
+    public ArchitecturalSmell.Type getType() {
+        return type;
+    }
+
+    public ArchitecturalSmell.Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the shape of a cycle.
+     * @return the shape of a CD smell, or null if the smell is not a CD.
+     */
+    public CDSmell.Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Returns the version the smell was detected in.
+     * @return the version, or an empty string if it was not set.
+     */
+    public String getAffectedVersion() {
+        return affectedVersion;
+    }
+
+    /**
+     * Returns the name of the element causing a single element smell (see {@link SingleElementSmell#getCentreName()}).
+     * @return the name of the centre, or null if the smell is not a single element smell.
+     */
+    public String getCentreName() {
+        return centreName;
+    }
+
+    /**
+     * Returns the names of the elements affected by the smell.
+     * @return an unmodifiable list of distinct names.
+     */
+    public List<String> getAffectedElementsNames() {
+        return Collections.unmodifiableList(Arrays.asList(affectedElementsNames));
+    }
+
+    /**
+     * Returns the names of the dependencies of the centre of the smell that cause the smell: the incoming and
+     * outgoing dependencies of a HL smell and the bad dependencies of a UD smell.
+     * @return an unmodifiable list of distinct names, empty for the other types of smells.
+     */
+    public List<String> getDependenciesNames() {
+        return Collections.unmodifiableList(Arrays.asList(dependenciesNames));
+    }
+
+    /**
+     * Returns the number of vertices affected by the smell, which may be higher than the number of names
+     * if distinct vertices have the same name.
+     * @return the number of affected elements.
+     */
+    public int getAffectedElementsCount() {
+        return affectedElementsCount;
+    }
+
+    /**
+     * Returns the characteristics of the smell computed when the snapshot was taken.
+     * @return an unmodifiable map from the names of the characteristics to their values.
+     */
+    public Map<String, String> getCharacteristicsMap() {
+        return characteristics;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ID: %d, Type: %s, Affected: %s", id, type, Arrays.toString(affectedElementsNames));
+    }
+
+    private static String[] intern(Collection<String> names) {
+        if (names.isEmpty()) {
+            return NO_NAMES;
+        }
+        String[] interned = new String[names.size()];
+        int i = 0;
+        for (String name : names) {
+            interned[i++] = name.intern();
+        }
+        return interned;
+    }
+
+    private static final SmellVisitor<SmellSnapshot> SNAPSHOT_TAKER = new SmellVisitor<>() {
+        @Override
+        public SmellSnapshot visit(CDSmell smell) {
+            return new SmellSnapshot(smell, smell.getShape(), null, Collections.emptySet());
+        }
+
+        @Override
+        public SmellSnapshot visit(HLSmell smell) {
+            Set<String> dependencies = new LinkedHashSet<>(smell.getInDepNames());
+            dependencies.addAll(smell.getOutDepNames());
+            return new SmellSnapshot(smell, null, smell.getCentreName(), dependencies);
+        }
+
+        @Override
+        public SmellSnapshot visit(UDSmell smell) {
+            return new SmellSnapshot(smell, null, smell.getCentreName(), smell.getBadDepNames());
+        }
+
+        @Override
+        public SmellSnapshot visit(GCSmell smell) {
+            return new SmellSnapshot(smell, null, smell.getCentreName(), Collections.emptySet());
+        }
+    };
+}
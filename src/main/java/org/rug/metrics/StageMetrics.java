@@ -0,0 +1,300 @@
+package org.rug.metrics;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe registry of the timers, counters and gauges measured while analysing the versions of a project.
+ * Every meter is identified by a dot-separated name, following the naming convention of Micrometer
+ * (e.g. {@code graph.load} or {@code characteristic.smell.size}), and by the version it was measured on,
+ * so that the stage that regressed on a given version can be found.
+ * Meters that are not specific to a version are measured on {@link #ALL_VERSIONS}.
+ */
+public class StageMetrics {
+
+    /**
+     * The version label of the meters that are not specific to a version.
+     */
+    public static final String ALL_VERSIONS = "all";
+
+    /**
+     * The name of the gauge measuring the bytes used on the heap.
+     */
+    public static final String HEAP_USED = "jvm.memory.used";
+
+    /**
+     * The kinds of meters.
+     */
+    public enum Type {
+        /**
+         * Measures the number of times a stage was executed and the time spent executing it.
+         */
+        TIMER,
+        /**
+         * Measures a monotonically increasing amount.
+         */
+        COUNTER,
+        /**
+         * Measures the last value observed.
+         */
+        GAUGE
+    }
+
+    private final Map<Key, Meter> meters;
+    private final Map<String, Long> versionOrder;
+    private final AtomicLong sequence;
+
+    public StageMetrics() {
+        this.meters = new ConcurrentHashMap<>();
+        this.versionOrder = new ConcurrentHashMap<>();
+        this.sequence = new AtomicLong();
+    }
+
+    /**
+     * Executes the given stage and records the time spent executing it, even if it fails.
+     * @param name the name of the timer.
+     * @param version the version the stage is executed on.
+     * @param stage the stage to execute.
+     * @param <T> the type of the result of the stage.
+     * @return the result of the stage.
+     */
+    public <T> T time(String name, String version, Supplier<T> stage) {
+        long start = System.nanoTime();
+        try {
+            return stage.get();
+        } finally {
+            record(name, version, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executes the given stage and records the time spent executing it, even if it fails.
+     * @param name the name of the timer.
+     * @param version the version the stage is executed on.
+     * @param stage the stage to execute.
+     */
+    public void time(String name, String version, Runnable stage) {
+        long start = System.nanoTime();
+        try {
+            stage.run();
+        } finally {
+            record(name, version, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records an execution of a stage that took the given time.
+     * @param name the name of the timer.
+     * @param version the version the stage was executed on.
+     * @param nanos the time spent, in nanoseconds.
+     */
+    public void record(String name, String version, long nanos) {
+        var meter = meter(name, version, Type.TIMER);
+        meter.count.increment();
+        meter.total.add(nanos);
+        meter.max.accumulate(nanos);
+    }
+
+    /**
+     * Increments a counter by the given amount.
+     * @param name the name of the counter.
+     * @param version the version the amount was counted on.
+     * @param amount the amount to add.
+     */
+    public void increment(String name, String version, long amount) {
+        var meter = meter(name, version, Type.COUNTER);
+        meter.count.increment();
+        meter.total.add(amount);
+    }
+
+    /**
+     * Sets the value of a gauge, replacing the previous one.
+     * @param name the name of the gauge.
+     * @param version the version the value was observed on.
+     * @param value the value observed.
+     */
+    public void gauge(String name, String version, long value) {
+        var meter = meter(name, version, Type.GAUGE);
+        meter.count.increment();
+        meter.value = value;
+    }
+
+    /**
+     * Records the bytes currently used on the heap in the {@link #HEAP_USED} gauge.
+     * @param version the version being analysed.
+     */
+    public void recordHeapUsage(String version) {
+        var runtime = Runtime.getRuntime();
+        gauge(HEAP_USED, version, runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    /**
+     * Returns a snapshot of the meters, grouped by version in the order the versions were first measured.
+     * Within a version, the meters are in the order they were first measured.
+     * @return the measurements of every meter.
+     */
+    public List<Measurement> getMeasurements() {
+        List<Map.Entry<Key, Meter>> entries = new ArrayList<>(meters.entrySet());
+        entries.sort(Comparator.<Map.Entry<Key, Meter>>comparingLong(e -> versionOrder.get(e.getKey().version))
+                .thenComparingLong(e -> e.getValue().order));
+        List<Measurement> measurements = new ArrayList<>(entries.size());
+        for (var entry : entries) {
+            var meter = entry.getValue();
+            long value = meter.type == Type.GAUGE ? meter.value : meter.total.sum();
+            measurements.add(new Measurement(entry.getKey().name, entry.getKey().version, meter.type,
+                    meter.count.sum(), value, meter.type == Type.TIMER ? meter.max.get() : value));
+        }
+        return measurements;
+    }
+
+    /**
+     * Returns the total time spent in every stage, summed over all the versions.
+     * @return a map from the names of the timers to the time spent, in milliseconds, sorted by name.
+     */
+    public SortedMap<String, Long> getTotalTimes() {
+        SortedMap<String, Long> nanos = new TreeMap<>();
+        meters.forEach((key, meter) -> {
+            if (meter.type == Type.TIMER) {
+                nanos.merge(key.name, meter.total.sum(), Long::sum);
+            }
+        });
+        nanos.replaceAll((name, total) -> TimeUnit.NANOSECONDS.toMillis(total));
+        return nanos;
+    }
+
+    /**
+     * Logs the total time spent in every stage, from the slowest to the fastest.
+     * @param logger the logger to use.
+     */
+    public void logTotalTimes(Logger logger) {
+        getTotalTimes().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> logger.info("Stage {}: {} ms", e.getKey(), e.getValue()));
+    }
+
+    /**
+     * Removes all the meters.
+     */
+    public void clear() {
+        meters.clear();
+        versionOrder.clear();
+    }
+
+    private Meter meter(String name, String version, Type type) {
+        var meter = meters.computeIfAbsent(new Key(name, version), k -> {
+            versionOrder.computeIfAbsent(version, v -> sequence.getAndIncrement());
+            return new Meter(type, sequence.getAndIncrement());
+        });
+        if (meter.type != type) {
+            throw new IllegalArgumentException(String.format("Meter %s is a %s, not a %s.", name, meter.type, type));
+        }
+        return meter;
+    }
+
+    /**
+     * The measurement of a meter on a version.
+     */
+    public static final class Measurement {
+        private final String name;
+        private final String version;
+        private final Type type;
+        private final long count;
+        private final long total;
+        private final long max;
+
+        private Measurement(String name, String version, Type type, long count, long total, long max) {
+            this.name = name;
+            this.version = version;
+            this.type = type;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * Returns the number of times the meter was updated.
+         * @return the number of executions of a timer, the number of increments of a counter or the number of values
+         * observed by a gauge.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the total value of the meter.
+         * @return the nanoseconds spent in a timer, the sum of a counter or the last value of a gauge.
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * Returns the maximum value of the meter.
+         * @return the nanoseconds spent in the longest execution of a timer, or the total of the other meters.
+         */
+        public long getMax() {
+            return max;
+        }
+    }
+
+    private static final class Key {
+        private final String name;
+        private final String version;
+
+        private Key(String name, String version) {
+            this.name = name;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return name.equals(key.name) && version.equals(key.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + version.hashCode();
+        }
+    }
+
+    private static final class Meter {
+        private final Type type;
+        private final long order;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        private volatile long value;
+
+        private Meter(Type type, long order) {
+            this.type = type;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.rug.persistence;
+
+import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.CharacteristicsStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes on file the store containing the characteristics of the smells tracked, if the tracker uses one.
+ */
+public class CharacteristicsStoreGenerator implements IDataGenerator<ASmellTracker> {
+
+    private final static Logger logger = LoggerFactory.getLogger(CharacteristicsStoreGenerator.class);
+
+    private File outputFile;
+    private CharacteristicsStore store;
+
+    public CharacteristicsStoreGenerator(String outputFile) {
+        this.outputFile = new File(outputFile);
+    }
+
+    @Override
+    public void accept(ASmellTracker object) {
+        store = object.getCharacteristicsStore();
+    }
+
+    @Override
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    @Override
+    public void writeOnFile() {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.writeTo(outputFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            logger.error("Could not write the characteristics store on file {}", outputFile);
+        }
+    }
+
+    @Override
+    public void close() {}
+}
@@ -3,6 +3,7 @@ package org.rug.persistence;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.VersionRuns;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,18 +30,19 @@ public class ComponentAffectedByGenerator extends CSVDataGenerator<ASmellTracker
     @Override
     public void accept(ASmellTracker object) {
         GraphTraversalSource g = object.getCondensedGraph().traversal();
+        VersionRuns runs = new VersionRuns(object.getCondensedGraph());
         header.addAll(Arrays.asList("name", "type", "version", "affectedByUniqueSmellId"));
 
         g.V().hasLabel(ASmellTracker.COMPONENT).forEachRemaining(c ->{
             var edges = c.edges(Direction.IN, ASmellTracker.AFFECTS);
-            edges.forEachRemaining(edge -> {
+            edges.forEachRemaining(edge -> runs.versionsOf(edge).forEach(versionIndex -> {
                 var record = new ArrayList<String>();
                 record.add(c.value(ASmellTracker.NAME).toString());
                 record.add(c.value(ASmellTracker.COMPONENT_TYPE).toString());
-                record.add(edge.value(ASmellTracker.VERSION).toString());
+                record.add(runs.getVersions().get(versionIndex));
                 record.add(edge.outVertex().value(ASmellTracker.UNIQUE_SMELL_ID).toString());
                 records.add(record);
-            });
+            }));
         });
     }
 }
@@ -57,6 +57,15 @@ public class PersistenceHub {
         }
     }
 
+    /**
+     * Checks whether an instance of the given generator class is registered.
+     * @param generator the class of the generator
+     * @return true if data sent to the generator is generated, false if it is ignored
+     */
+    public static boolean isRegistered(Class<? extends IDataGenerator> generator){
+        return generatorInstances.containsKey(generator);
+    }
+
     public static void clearAll(){
         generatorInstances.clear();
     }
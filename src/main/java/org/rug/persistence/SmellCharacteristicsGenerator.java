@@ -9,11 +9,14 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.rug.data.project.IProject;
 import org.rug.data.project.IVersion;
 import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.CharacteristicsStore;
+import org.rug.tracker.VersionRuns;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Function;
 
 import static org.rug.tracker.ASmellTracker.*;
 
@@ -51,12 +54,16 @@ public class SmellCharacteristicsGenerator extends CSVDataGenerator<ASmellTracke
     public void accept(ASmellTracker object) {
         Graph simplifiedGraph = object.getCondensedGraph();
         GraphTraversalSource g = simplifiedGraph.traversal();
+        CharacteristicsStore store = object.getCharacteristicsStore();
 
         Set<String> smellKeys = new TreeSet<>(g.V().hasLabel("smell").propertyMap().tryNext().orElse(Collections.emptyMap()).keySet());
         header.add("project");
         header.addAll(smellKeys);
         Set<String> characteristicKeys = new TreeSet<>();
         g.V().hasLabel("characteristic").forEachRemaining(v -> characteristicKeys.addAll(v.keys()));
+        if (store != null) {
+            characteristicKeys.addAll(store.getCharacteristicNames());
+        }
         header.add("version");
         header.add("versionIndex");
         header.add("versionDate");
@@ -64,13 +71,17 @@ public class SmellCharacteristicsGenerator extends CSVDataGenerator<ASmellTracke
         header.addAll(characteristicKeys);
         header.add("affectedElements");
 
+        VersionRuns runs = new VersionRuns(simplifiedGraph);
         Set<Vertex> smells = g.V().hasLabel(SMELL).toSet();
         smells.forEach(smell -> {
             List<String> commonRecord = new ArrayList<>();
             commonRecord.add(project.getName());
             smellKeys.forEach(k -> commonRecord.add(smell.value(k).toString()));
 
-            var affects = g.V(smell).outE(AFFECTS).toSet();
+            Map<String, List<String>> affects = new HashMap<>();
+            g.V(smell).outE(AFFECTS).forEachRemaining(e -> runs.versionsOf(e).forEach(versionIndex ->
+                    affects.computeIfAbsent(runs.getVersions().get(versionIndex), v -> new ArrayList<>())
+                            .add(e.inVertex().value(NAME).toString())));
 
             g.V(smell).outE(HAS_CHARACTERISTIC).as("e")
                     .inV().as("v")
@@ -78,23 +89,48 @@ public class SmellCharacteristicsGenerator extends CSVDataGenerator<ASmellTracke
                     .forEachRemaining(variables -> {
                         Edge incomingEdge = (Edge)variables.get("e");
                         Vertex characteristic = (Vertex)variables.get("v");
-                        List<String> completeRecord = new ArrayList<>(commonRecord);
-                        String versionString = incomingEdge.value(VERSION).toString();
-                        IVersion version = project.getVersion(versionString);
-                        completeRecord.add(versionString);
-                        completeRecord.add(String.valueOf(version.getVersionIndex()));
-                        completeRecord.add(version.getVersionDate());
-                        completeRecord.add(incomingEdge.value(SMELL_ID).toString());
-                        characteristicKeys.forEach(k -> completeRecord.add(characteristic.property(k).orElse("NA").toString()));
-                        var affected = Arrays.toString(affects.stream()
-                                .filter(e -> e.value(VERSION).equals(versionString))
-                                .map(e -> e.inVertex().value(NAME).toString()).sorted().toArray());
-                        completeRecord.add(affected);
-                        writeRecordOnFile(completeRecord);
+                        var smellIds = VersionRuns.smellIdsOf(incomingEdge).iterator();
+                        for (long versionIndex : runs.versionsOf(incomingEdge)) {
+                            writeRecord(commonRecord, runs.getVersions().get(versionIndex), smellIds.next(),
+                                    characteristicKeys, k -> characteristic.property(k).orElse("NA").toString(), affects);
+                        }
                     });
+
+            if (store != null) {
+                long uniqueSmellId = smell.value(UNIQUE_SMELL_ID);
+                for (long versionIndex : store.versionsOf(uniqueSmellId)) {
+                    var characteristics = store.getCharacteristics(uniqueSmellId, versionIndex);
+                    writeRecord(commonRecord, store.getVersions().get(versionIndex), String.valueOf(store.getSmellId(uniqueSmellId, versionIndex)),
+                            characteristicKeys, k -> characteristics.getOrDefault(k, "NA"), affects);
+                }
+            }
         });
     }
 
+    /**
+     * Completes the given record of a smell with the data of the given version and writes it on file.
+     * @param commonRecord the values of the smell that do not change across versions.
+     * @param versionString the version.
+     * @param smellId the ID of the smell within the version.
+     * @param characteristicKeys the names of the characteristics to write.
+     * @param characteristic returns the value of a characteristic of the smell in the version.
+     * @param affects the names of the components affected by the smell in each version.
+     */
+    private void writeRecord(List<String> commonRecord, String versionString, String smellId, Set<String> characteristicKeys,
+                             Function<String, String> characteristic, Map<String, List<String>> affects){
+        List<String> completeRecord = new ArrayList<>(commonRecord);
+        IVersion version = project.getVersion(versionString);
+        completeRecord.add(versionString);
+        completeRecord.add(String.valueOf(version.getVersionIndex()));
+        completeRecord.add(version.getVersionDate());
+        completeRecord.add(smellId);
+        characteristicKeys.forEach(k -> completeRecord.add(characteristic.apply(k)));
+        var affected = Arrays.toString(affects.getOrDefault(versionString, Collections.emptyList()).stream()
+                .sorted().toArray());
+        completeRecord.add(affected);
+        writeRecordOnFile(completeRecord);
+    }
+
     /**
      * Writes an individual record directly on file.
      * @param record the record to write as a list of values (i.e. the columns).
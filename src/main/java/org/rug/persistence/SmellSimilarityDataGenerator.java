@@ -1,13 +1,14 @@
 package org.rug.persistence;
 
-import org.rug.data.smells.CDSmell;
 import org.rug.tracker.ASmellTracker;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Generates the data for the similarity scores computed by a tracker.
+ * When the linker matches identical smells before scoring (see {@link org.rug.tracker.JaccardSimilarityLinker#setExactMatching(boolean)}),
+ * the couples of identical smells are written with their score of 1.0, but the couples formed by one of these smells
+ * and any other smell are not scored and hence not written.
  */
 public class SmellSimilarityDataGenerator extends CSVDataGenerator<ASmellTracker>{
 
@@ -42,14 +43,13 @@ public class SmellSimilarityDataGenerator extends CSVDataGenerator<ASmellTracker
      */
     @Override
     public void accept(ASmellTracker tracker) {
-        var scorer = tracker.getScorer();
-        var bestMatch = scorer.bestMatch();
-        for (var triple : scorer.getUnlinkedMatchScores()) {
-            List<Object> affectedA = triple.getA().getAffectedElements().stream().map(v -> v.value("name").toString()).collect(Collectors.toList());
-            List<Object> affectedB = triple.getB().getAffectedElements().stream().map(v -> v.value("name").toString()).collect(Collectors.toList());
-
-            String shapeA = triple.getA() instanceof CDSmell ? ((CDSmell) triple.getA()).getShape().toString() : "NA";
-            String shapeB = triple.getB() instanceof CDSmell ? ((CDSmell) triple.getB()).getShape().toString() : "NA";
+        var bestMatch = tracker.getLastBestMatch();
+        for (var triple : tracker.getLastMatchScores()) {
+            List<String> affectedA = triple.getA().getAffectedElementsNames();
+            List<String> affectedB = triple.getB().getAffectedElementsNames();
+
+            String shapeA = triple.getA().getShape() != null ? triple.getA().getShape().toString() : "NA";
+            String shapeB = triple.getB().getShape() != null ? triple.getB().getShape().toString() : "NA";
 
             records.add(List.of(
                     triple.getA().getAffectedVersion(),
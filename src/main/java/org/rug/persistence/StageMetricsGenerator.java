@@ -0,0 +1,49 @@
+package org.rug.persistence;
+
+import org.rug.metrics.StageMetrics;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the time spent in every stage of the analysis of every version, together with the other meters
+ * (e.g. the number of smells and the heap used) measured on every version.
+ */
+public class StageMetricsGenerator extends CSVDataGenerator<StageMetrics> {
+
+    public StageMetricsGenerator(String outputFile) {
+        super(outputFile);
+    }
+
+    /**
+     * Returns the header of the underlying data. The times of timers are in milliseconds.
+     *
+     * @return a array containing the headers.
+     */
+    @Override
+    public String[] getHeader() {
+        return new String[]{"version", "metric", "type", "count", "total", "max"};
+    }
+
+    /**
+     * Accepts the metrics to write, replacing the measurements accepted before.
+     *
+     * @param metrics the metrics of the analysis.
+     */
+    @Override
+    public void accept(StageMetrics metrics) {
+        records.clear();
+        for (var m : metrics.getMeasurements()) {
+            boolean timer = m.getType() == StageMetrics.Type.TIMER;
+            records.add(Arrays.asList(m.getVersion(), m.getName(), m.getType().name().toLowerCase(),
+                    String.valueOf(m.getCount()),
+                    timer ? toMillis(m.getTotal()) : String.valueOf(m.getTotal()),
+                    timer ? toMillis(m.getMax()) : String.valueOf(m.getMax())));
+        }
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -1,14 +1,29 @@
 package org.rug.runners;
 
 import org.rug.data.characteristics.ComponentCharacteristicSet;
+import org.rug.data.characteristics.IComponentCharacteristic;
+import org.rug.data.characteristics.SmellCharacteristicsEngine;
+import org.rug.data.characteristics.comps.CommitChangesTable;
+import org.rug.data.characteristics.comps.FileMetricsCache;
+import org.rug.data.characteristics.comps.LinesOfCodeCounter;
+import org.rug.data.project.AbstractProject;
+import org.rug.data.project.GitVersion;
 import org.rug.data.project.IProject;
+import org.rug.data.project.IVersion;
 import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.util.Pair;
+import org.rug.metrics.StageMetrics;
 import org.rug.persistence.*;
 import org.rug.tracker.ASmellTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Models the execution of the tracking tool.
@@ -20,51 +35,307 @@ public class TrackASRunner extends ToolRunner {
     private ASmellTracker tracker;
     private IProject project;
     private boolean trackNonConsecutiveVersions;
+    private int prefetchWindow;
+    private SmellCharacteristicsEngine characteristicsEngine;
+    private FileMetricsCache fileMetricsCache;
+    private LinesOfCodeCounter.Mode linesOfCodeMode = LinesOfCodeCounter.Mode.NON_BLANK;
+    private int diffThreads;
+    private StageMetrics metrics;
 
     public TrackASRunner(
             IProject project,
             ASmellTracker tracker,
             boolean trackNonConsecutiveVersions
+    ) {
+        this(project, tracker, trackNonConsecutiveVersions, 0);
+    }
+
+    /**
+     * Builds a runner that prepares the versions following the one being tracked on worker threads.
+     * Preparing a version means loading its graph, parsing its smells and computing the characteristics of its
+     * components and smells. Only the tracking itself is executed in order, on the calling thread.
+     * @param project the project to track.
+     * @param tracker the tracker to use.
+     * @param trackNonConsecutiveVersions whether the tracker tracks smells through non-consecutive versions.
+     * @param prefetchWindow the maximum number of versions prepared while a version is being tracked.
+     *                       At most this many versions plus one are kept in memory. If zero, versions are
+     *                       prepared and tracked sequentially.
+     */
+    public TrackASRunner(
+            IProject project,
+            ASmellTracker tracker,
+            boolean trackNonConsecutiveVersions,
+            int prefetchWindow
+    ) {
+        this(project, tracker, trackNonConsecutiveVersions, prefetchWindow, 1);
+    }
+
+    /**
+     * Builds a runner that prepares the versions following the one being tracked on worker threads and computes
+     * the characteristics of the smells of every version in parallel.
+     * @param project the project to track.
+     * @param tracker the tracker to use.
+     * @param trackNonConsecutiveVersions whether the tracker tracks smells through non-consecutive versions.
+     * @param prefetchWindow the maximum number of versions prepared while a version is being tracked.
+     * @param characteristicsThreads the number of threads used to compute the characteristics of the smells of a version.
+     */
+    public TrackASRunner(
+            IProject project,
+            ASmellTracker tracker,
+            boolean trackNonConsecutiveVersions,
+            int prefetchWindow,
+            int characteristicsThreads
     ) {
         super("trackas", "");
         this.project = project;
         this.trackNonConsecutiveVersions = trackNonConsecutiveVersions;
         this.tracker = tracker;
+        this.prefetchWindow = prefetchWindow;
+        // Every version in the window needs its PageRank cached while being characterised
+        this.characteristicsEngine = new SmellCharacteristicsEngine(characteristicsThreads, prefetchWindow + 1);
+        setMetrics(new StageMetrics());
     }
 
     @Override
     public int run() {
-        var componentCharacteristics = new ComponentCharacteristicSet().getCharacteristicSet();
+        var changesTable = precomputeChanges();
+        var componentCharacteristics = new ComponentCharacteristicSet(fileMetricsCache, linesOfCodeMode, changesTable).getCharacteristicSet();
         logger.info("Starting tracking architectural smells of {} for {} versions", project.getName(), project.numberOfVersions());
         logger.info("Tracking non consecutive versions: {}", trackNonConsecutiveVersions ? "yes" : "no");
 
-        project.forEach((version, index) -> {
-            logger.info("Tracking version {} (n. {} of {})", version.getVersionString(), index, project.numberOfVersions());
-            List<ArchitecturalSmell> smells = project.getArchitecturalSmellsIn(version);
-
-            logger.debug("Computing component characteristics...");
-            componentCharacteristics.forEach(c -> c.calculate(version));
-            logger.debug("Computing smell characteristics...");
-            smells.forEach(ArchitecturalSmell::calculateCharacteristics);
+        try {
+            if (prefetchWindow > 0) {
+                trackPipelined(componentCharacteristics);
+            } else {
+                project.forEach((version, index) -> {
+                    logger.info("Tracking version {} (n. {} of {})", version.getVersionString(), index, project.numberOfVersions());
+                    List<ArchitecturalSmell> smells = parse(version);
 
-            logger.debug("Tracking smells...");
-            tracker.track(smells, version);
+                    logger.debug("Computing component characteristics...");
+                    calculate(componentCharacteristics, version);
+                    logger.debug("Computing smell characteristics...");
+                    characteristicsEngine.calculate(smells);
 
-            logger.info("Linked {} smells out of a total of {} in this version.", tracker.smellsLinked(), smells.size());
-            logger.debug("Sending characteristics to data generators...");
-            PersistenceHub.sendToAndWrite(SmellSimilarityDataGenerator.class, tracker);
-            PersistenceHub.sendToAndWrite(ComponentMetricGenerator.class, version);
-            version.clearGraph();
-        });
+                    track(version, smells);
+                });
+            }
+        } finally {
+            changesTable.shutdown();
+            characteristicsEngine.shutdown();
+            tracker.getScorer().shutdown();
+        }
+        logger.info("Time spent computing smell characteristics (using {} threads):", characteristicsEngine.getParallelism());
+        characteristicsEngine.logElapsedTimes();
+        logger.info("Time spent in every stage:");
+        metrics.logTotalTimes(logger);
+        if (project instanceof AbstractProject) {
+            var smellLists = ((AbstractProject) project).getSmellListCache();
+            logger.info("Parsed smell lists: {} hits, {} misses, {} evictions.", smellLists.getHits(), smellLists.getMisses(), smellLists.getEvictions());
+        }
+        if (fileMetricsCache != null) {
+            try {
+                fileMetricsCache.save();
+            } catch (IOException e) {
+                logger.error("Could not save the file metrics cache to {}: {}", fileMetricsCache.getFile(), e.getMessage());
+            }
+        }
 
         logger.info("Tracking complete, processing data...");
-        PersistenceHub.sendToAndWrite(SmellCharacteristicsGenerator.class, tracker);
-        PersistenceHub.sendToAndWrite(ComponentAffectedByGenerator.class, tracker);
-        PersistenceHub.sendToAndWrite(TrackGraphGenerator.class, tracker);
-        PersistenceHub.sendToAndWrite(CondensedGraphGenerator.class, tracker);
+        write(SmellCharacteristicsGenerator.class, tracker, StageMetrics.ALL_VERSIONS);
+        write(ComponentAffectedByGenerator.class, tracker, StageMetrics.ALL_VERSIONS);
+        write(TrackGraphGenerator.class, tracker, StageMetrics.ALL_VERSIONS);
+        write(CondensedGraphGenerator.class, tracker, StageMetrics.ALL_VERSIONS);
+        write(CharacteristicsStoreGenerator.class, tracker, StageMetrics.ALL_VERSIONS);
+        metrics.recordHeapUsage(StageMetrics.ALL_VERSIONS);
+        PersistenceHub.sendToAndWrite(StageMetricsGenerator.class, metrics);
         return 0;
     }
 
+    /**
+     * Loads the graph of the given version and parses its smells, timing both stages.
+     * @param version the version to parse.
+     * @return the smells of the version.
+     */
+    private List<ArchitecturalSmell> parse(IVersion version){
+        var versionString = version.getVersionString();
+        metrics.time("graph.load", versionString, version::getGraph);
+        return metrics.time("smells.parse", versionString, () -> project.getArchitecturalSmellsIn(version));
+    }
+
+    /**
+     * Computes the given characteristics on the components of the given version, timing each characteristic.
+     * @param componentCharacteristics the characteristics to compute.
+     * @param version the version to characterise.
+     */
+    private void calculate(Set<IComponentCharacteristic> componentCharacteristics, IVersion version){
+        var versionString = version.getVersionString();
+        componentCharacteristics.forEach(c ->
+                metrics.time("characteristic.component." + c.getName(), versionString, () -> c.calculate(version)));
+    }
+
+    /**
+     * Sends the given data to the given generator and writes it, timing the generation if the generator is registered.
+     * Generators writing on file asynchronously are timed until the data is handed over to the writer.
+     * @param generator the class of the generator.
+     * @param data the data to generate.
+     * @param version the version the data refers to.
+     */
+    private <T> void write(Class<? extends IDataGenerator<T>> generator, T data, String version){
+        if (PersistenceHub.isRegistered(generator)) {
+            metrics.time("generator." + generator.getSimpleName(), version, () -> PersistenceHub.sendToAndWrite(generator, data));
+        }
+    }
+
+    /**
+     * Starts computing the changes between the consecutive versions of the project on {@link #diffThreads} threads,
+     * if the project is a git project. Only a window of versions ahead of the versions characterised is computed.
+     * @return the table of the changes, empty if the changes are not computed ahead of time.
+     */
+    private CommitChangesTable precomputeChanges(){
+        if (diffThreads <= 0) {
+            return new CommitChangesTable();
+        }
+        List<GitVersion> versions = new ArrayList<>();
+        for (IVersion version : project) {
+            if (!(version instanceof GitVersion)) {
+                return new CommitChangesTable();
+            }
+            versions.add((GitVersion) version);
+        }
+        // The changes of a version are taken when its components are characterised, at most prefetchWindow + 1 versions
+        // ahead of the version being tracked, hence the threads are kept busy without computing all the changes at once.
+        return CommitChangesTable.precompute(versions, diffThreads, diffThreads + prefetchWindow + 1);
+    }
+
+    /**
+     * Tracks the given smells and sends the results of the version to the data generators.
+     * @param version the version the smells were detected in.
+     * @param smells the smells, with their characteristics already computed.
+     */
+    private void track(IVersion version, List<ArchitecturalSmell> smells){
+        var versionString = version.getVersionString();
+        logger.debug("Tracking smells...");
+        metrics.time("tracker.track", versionString, () -> tracker.track(smells, version));
+
+        long linked = tracker.smellsLinked();
+        logger.info("Linked {} smells out of a total of {} in this version.", linked, smells.size());
+        smells.forEach(smell -> metrics.increment("smells." + smell.getType(), versionString, 1));
+        metrics.increment("smells.linked", versionString, linked);
+        logger.debug("Sending characteristics to data generators...");
+        write(SmellSimilarityDataGenerator.class, tracker, versionString);
+        write(ComponentMetricGenerator.class, version, versionString);
+        metrics.recordHeapUsage(versionString);
+        version.clearGraph();
+    }
+
+    /**
+     * Tracks the versions of the project while the next {@link #prefetchWindow} versions are prepared on worker threads.
+     * Graphs are loaded, smells are parsed and smell characteristics are computed in parallel. Component characteristics
+     * are computed on a single thread in version order, as they depend on the previous versions (e.g. change metrics)
+     * and on the source code checked out for the version.
+     * @param componentCharacteristics the characteristics to compute on the components of every version.
+     */
+    private void trackPipelined(Set<IComponentCharacteristic> componentCharacteristics){
+        ExecutorService workers = Executors.newFixedThreadPool(prefetchWindow);
+        ExecutorService componentsExecutor = Executors.newSingleThreadExecutor();
+        Deque<Pair<IVersion, CompletableFuture<List<ArchitecturalSmell>>>> window = new ArrayDeque<>(prefetchWindow + 1);
+        CompletableFuture<Void> previousComponents = CompletableFuture.completedFuture(null);
+        Iterator<IVersion> versions = project.iterator();
+        long index = 1;
+        try {
+            while (versions.hasNext() || !window.isEmpty()) {
+                while (versions.hasNext() && window.size() <= prefetchWindow) {
+                    IVersion version = versions.next();
+                    var parsed = CompletableFuture.supplyAsync(() -> parse(version), workers);
+                    var components = parsed.thenAcceptBothAsync(previousComponents, (smells, previous) -> {
+                        logger.debug("Computing component characteristics of version {}...", version.getVersionString());
+                        calculate(componentCharacteristics, version);
+                    }, componentsExecutor);
+                    var characterised = components.thenApplyAsync(nothing -> {
+                        var smells = parsed.join();
+                        logger.debug("Computing smell characteristics of version {}...", version.getVersionString());
+                        characteristicsEngine.calculate(smells);
+                        return smells;
+                    }, workers);
+                    previousComponents = components;
+                    window.addLast(new Pair<>(version, characterised));
+                }
+                var next = window.removeFirst();
+                IVersion version = next.getA();
+                logger.info("Tracking version {} (n. {} of {})", version.getVersionString(), index++, project.numberOfVersions());
+                track(version, next.getB().join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            workers.shutdownNow();
+            componentsExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the engine computing the characteristics of the smells, which holds the time spent on every characteristic.
+     * @return the characteristics engine of this runner.
+     */
+    public SmellCharacteristicsEngine getCharacteristicsEngine() {
+        return characteristicsEngine;
+    }
+
+    /**
+     * Sets the cache of the metrics of the source files used to compute the component characteristics.
+     * The cache is saved once the tracking is complete.
+     * @param fileMetricsCache the cache, or null to measure every file of every version.
+     */
+    public void setFileMetricsCache(FileMetricsCache fileMetricsCache) {
+        this.fileMetricsCache = fileMetricsCache;
+    }
+
+    /**
+     * Returns the cache of the metrics of the source files.
+     * @return the cache, or null if files are not cached.
+     */
+    public FileMetricsCache getFileMetricsCache() {
+        return fileMetricsCache;
+    }
+
+    /**
+     * Sets which lines of the source files are counted as lines of code.
+     * @param linesOfCodeMode the counting mode.
+     */
+    public void setLinesOfCodeMode(LinesOfCodeCounter.Mode linesOfCodeMode) {
+        this.linesOfCodeMode = linesOfCodeMode;
+    }
+
+    /**
+     * Sets the number of threads used to compute the changes between the commits of a git project ahead of tracking.
+     * @param diffThreads the number of threads. If 0, the changes are computed while tracking, one version at a time.
+     */
+    public void setDiffThreads(int diffThreads) {
+        this.diffThreads = diffThreads;
+    }
+
+    /**
+     * Returns the metrics recording the time spent in every stage of the tracking of every version,
+     * the number of smells of every version and the heap used after tracking it.
+     * @return the metrics of this runner.
+     */
+    public StageMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics where the stages of the tracking are recorded, shared with the characteristics engine and the tracker.
+     * @param metrics the metrics.
+     */
+    public void setMetrics(StageMetrics metrics) {
+        this.metrics = metrics;
+        this.characteristicsEngine.setMetrics(metrics);
+        this.tracker.setMetrics(metrics);
+    }
+
     @Override
     protected void preProcess() {}
 
@@ -1,7 +1,5 @@
 package org.rug.statefulness;
 
-import org.apache.tinkerpop.gremlin.process.traversal.IO;
-import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.rug.data.project.IProject;
 import org.rug.data.project.IVersion;
 import org.rug.tracker.ASmellTracker;
@@ -9,22 +7,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.nio.file.Paths;
-
-import static org.rug.tracker.ASmellTracker.TAIL;
-import static org.rug.tracker.ASmellTracker.VERSION;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Saves the state of the object that performs the tracking of smells from one version to the next.
  * This allows to recover an analysis from the last version analysed.
+ * The state is saved as a binary checkpoint (see {@link TrackerCheckpoint}). States saved by previous releases, made of
+ * the serialized tracker and of the GraphML files of its graphs, are not supported: the analysis of those projects must
+ * be restarted.
  */
 public class ASmellTrackerStateManager {
 
     private final static Logger logger = LoggerFactory.getLogger(ASmellTrackerStateManager.class);
 
-    private File condensedGraph;
-    private File trackGraph;
-    private File trackerFile;
+    private File checkpointFile;
+    private boolean compressCheckpoints = true;
 
     /**
      * Instantiate a state manager using the given directory to save the serialized tracker.
@@ -48,91 +47,76 @@ public class ASmellTrackerStateManager {
             dir.delete();
             throw new IllegalArgumentException("Tracker state directory argument must be a directory.");
         }
-        this.condensedGraph = Paths.get(dir.getAbsolutePath(), "condensed.graphml").toFile();
-        this.trackGraph = Paths.get(dir.getAbsolutePath(), "track.graphml").toFile();
-        this.trackerFile = Paths.get(dir.getAbsolutePath(), "tracker.seo").toFile();
-        createFilesIfNotExisting();
+        this.checkpointFile = Paths.get(dir.getAbsolutePath(), "tracker.ckpt").toFile();
     }
 
     /**
-     * Save the state of the given tracker on file.
+     * Save the state of the given tracker on file. The tracker is not modified, hence it can keep tracking the
+     * following versions.
      * @param tracker the object to serialize.
      */
     public void saveState(ASmellTracker tracker) {
-        try(var outStream = new ObjectOutputStream(new FileOutputStream(trackerFile))) {
-            outStream.writeObject(tracker);
-            tracker.getTrackGraph().traversal().V().properties(ASmellTracker.SMELL_OBJECT).drop().iterate();
-            tracker.getTrackGraph().traversal().io(trackGraph.getAbsolutePath()).with(IO.writer, IO.graphml).write().iterate();
-            tracker.getCondensedGraph().traversal().io(condensedGraph.getAbsolutePath()).with(IO.writer, IO.graphml).write().iterate();
+        // The checkpoint is written to a temporary file first, so that the previous state survives a failed save.
+        var temporaryFile = new File(checkpointFile.getAbsolutePath() + ".tmp");
+        try(var outStream = new BufferedOutputStream(new FileOutputStream(temporaryFile), 1 << 16)) {
+            TrackerCheckpoint.write(tracker, outStream, compressCheckpoints);
+        } catch (IOException e) {
+            e.printStackTrace();
+            logger.error("Saving the state of the ASmellTracker failed.");
+            temporaryFile.delete();
+            return;
+        }
+        try {
+            Files.move(temporaryFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
             e.printStackTrace();
             logger.error("Saving the state of the ASmellTracker failed.");
         }
     }
 
+    /**
+     * Returns whether a checkpoint of the tracker was saved in the directory of this manager. Projects analysed by
+     * previous releases have no checkpoint, and their analysis must be restarted.
+     * @return true if {@link #loadState(IProject, IVersion)} can recover the tracker, false otherwise.
+     */
+    public boolean hasSavedState() {
+        return checkpointFile.length() > 0;
+    }
+
+    /**
+     * Sets whether the checkpoints saved from now on are compressed. Enabled by default.
+     * @param compressCheckpoints whether to compress the checkpoints.
+     */
+    public void setCompressCheckpoints(boolean compressCheckpoints) {
+        this.compressCheckpoints = compressCheckpoints;
+    }
+
     /**
      * Instantiate a new the tracker with a recovered state ready to analyse the next version of the given project.
      * @param project the project.
      * @param lastVersionAnalysed the last version in the project that was analysed.
      * @return a new instance of AStracker that can analyse the remaining version in the given project.
-     * @throws IOException if deserialization fails.
-     * @throws ClassNotFoundException if deserialization fails.
+     * @throws IOException if no checkpoint was saved or reading it fails.
+     * @throws IllegalStateException if the last version tracked in the checkpoint is not the given version.
      */
-    public ASmellTracker loadState(IProject project, IVersion lastVersionAnalysed) throws IOException, ClassNotFoundException {
+    public ASmellTracker loadState(IProject project, IVersion lastVersionAnalysed) throws IOException {
+        if (!hasSavedState()) {
+            throw new IOException(String.format("No checkpoint of the tracker was found in %s.", checkpointFile.getAbsolutePath()));
+        }
         ASmellTracker tracker;
-        try(var inpStream = new ObjectInputStream(new FileInputStream(trackerFile))) {
-           tracker = (ASmellTracker) inpStream.readObject();
-           tracker.initializeCache();
-           logger.debug("Tracker was loaded from file");
-        } catch (Exception e) {
-            e.printStackTrace();
-            logger.error("Could not load the tracker from file. Using new tracker instead.");
-            return new ASmellTracker();
+        try (var inpStream = new BufferedInputStream(new FileInputStream(checkpointFile), 1 << 16)) {
+            tracker = TrackerCheckpoint.read(inpStream);
         }
-
-        tracker.setCondensedGraph(TinkerGraph.open());
-        tracker.getCondensedGraph().traversal().io(condensedGraph.getAbsolutePath()).with(IO.reader, IO.graphml).read().iterate();
-        tracker.setTrackGraph(TinkerGraph.open());
-        tracker.getTrackGraph().traversal().io(trackGraph.getAbsolutePath()).with(IO.reader, IO.graphml).read().iterate();
-
-        tracker.setTail(tracker.getTrackGraph().traversal().V().hasLabel(TAIL).next());
-
-        var uniqueSmellsMap = tracker.getUniqueSmellsMap();
-        tracker.getCondensedGraph().traversal().V()
-                .has(ASmellTracker.UNIQUE_SMELL_ID)
-                .forEachRemaining( v -> uniqueSmellsMap.put(v.value(ASmellTracker.UNIQUE_SMELL_ID), v));
-
-        var lastVersionSmellVertices = tracker.getTrackGraph().traversal().V().hasLabel(TAIL).out().has(VERSION, lastVersionAnalysed.getVersionString()).toSet();
-        var lastVersionSmells = project.getArchitecturalSmellsIn(lastVersionAnalysed);
-
-        assert lastVersionSmells.size() == lastVersionSmellVertices.size();
-
-        for (var smell : lastVersionSmells){
-            var smellVertex = lastVersionSmellVertices.stream()
-                    .filter(v -> v.value(ASmellTracker.SMELL_ID).equals(smell.getId()))
-                    .findFirst();
-            if (smellVertex.isEmpty()){
-                logger.error("Unable to find a match for smell with ID: {}", smell.getId());
-                continue;
-            }
-            smellVertex.get().property(ASmellTracker.SMELL_OBJECT, smell);
+        String checkpointVersion = tracker.currentVersion();
+        var checkpointVersionIndex = tracker.getTrackGraph().traversal().V().hasLabel(ASmellTracker.TAIL)
+                .next().<Long>property(ASmellTracker.LATEST_VERSION_INDEX);
+        if (!checkpointVersion.equals(lastVersionAnalysed.getVersionString())
+                || (checkpointVersionIndex.isPresent() && checkpointVersionIndex.value() != lastVersionAnalysed.getVersionIndex())) {
+            throw new IllegalStateException(String.format(
+                    "Cannot load state for project %s: the checkpoint ends with version %s, but the last version analysed is %s.",
+                    project.getName(), checkpointVersion, lastVersionAnalysed.getVersionString()));
         }
-
+        logger.debug("Tracker was loaded from checkpoint");
         return tracker;
     }
-
-    /**
-     * Helper class that will create the neccesary versioning files if they don't exist
-     * already in order to save the state of the analysis.
-     */
-    private void createFilesIfNotExisting() {
-        try {
-            if (!this.condensedGraph.exists()) this.condensedGraph.createNewFile();
-            if (!this.trackGraph.exists()) this.trackGraph.createNewFile();
-            if (!this.trackerFile.exists()) this.trackerFile.createNewFile();
-        } catch (IOException e) {
-            e.printStackTrace();
-            logger.error("Could not create the versioning files for the ASmellTrackerStateManager");
-        }
-    }
 }
@@ -0,0 +1,679 @@
+package org.rug.statefulness;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.CDSmell;
+import org.rug.data.smells.SmellSnapshot;
+import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.CharacteristicsStore;
+import org.rug.tracker.ISimilarityLinker;
+import org.rug.tracker.JaccardSimilarityLinker;
+import org.rug.tracker.MinHashSimilarityLinker;
+import org.rug.tracker.SimpleNameJaccardSimilarityLinker;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads and writes a binary checkpoint of the state of an {@link ASmellTracker}: the tracker section (i.e. the
+ * configuration of the linker, the next unique smell ID, the frontier of the dynasties, the dormant smells and the
+ * characteristics store), the track graph, holding the snapshots of the latest smells of the dynasties, and the
+ * condensed graph. Every field is written explicitly, so that checkpoints do not depend on Java serialization.
+ *
+ * A checkpoint starts with a header made of the magic number, the version of the format and a byte of flags,
+ * stating whether the rest of the checkpoint is compressed with Deflate. The header is followed by a sequence of sections,
+ * each made of its type and of its content split in chunks, and terminated by the end section. Every chunk is preceded by
+ * its length and the content ends with an empty chunk, so that sections are streamed without being buffered whole and
+ * their size is not bounded. Readers skip the sections they do not know, so that sections can be added without changing
+ * the version of the format.
+ * Within a section, strings are written once and referenced by their position afterwards, as the same keys, labels,
+ * versions and element names are repeated many times within the graphs.
+ */
+public final class TrackerCheckpoint {
+
+    /**
+     * The first bytes of every checkpoint ("ASTK").
+     */
+    public static final int MAGIC = 0x4153544B;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final short FORMAT_VERSION = 2;
+
+    private static final byte COMPRESSED = 1;
+
+    private static final byte END_SECTION = 0;
+    private static final byte TRACKER_SECTION = 1;
+    private static final byte TRACK_GRAPH_SECTION = 2;
+    private static final byte CONDENSED_GRAPH_SECTION = 3;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte LONG_VALUE = 2;
+    private static final byte INTEGER_VALUE = 3;
+    private static final byte DOUBLE_VALUE = 4;
+    private static final byte FLOAT_VALUE = 5;
+    private static final byte BOOLEAN_VALUE = 6;
+    private static final byte SNAPSHOT_VALUE = 7;
+
+    private static final byte JACCARD_LINKER = 1;
+    private static final byte SIMPLE_NAME_LINKER = 2;
+    private static final byte MIN_HASH_LINKER = 3;
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private TrackerCheckpoint() {}
+
+    /**
+     * Writes a checkpoint of the given tracker. The tracker and its graphs are not modified.
+     * @param tracker the tracker.
+     * @param out the stream to write to, which is not closed.
+     * @param compress whether to compress the sections of the checkpoint.
+     * @throws IOException if writing fails.
+     */
+    public static void write(ASmellTracker tracker, OutputStream out, boolean compress) throws IOException {
+        var header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeShort(FORMAT_VERSION);
+        header.writeByte(compress ? COMPRESSED : 0);
+        header.flush();
+
+        var deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        try {
+            OutputStream body = compress ? new DeflaterOutputStream(new NonClosingOutputStream(out), deflater, CHUNK_SIZE)
+                                         : new BufferedOutputStream(new NonClosingOutputStream(out), CHUNK_SIZE);
+            try (var data = new DataOutputStream(body)) {
+                try (var section = new Encoder(new SectionOutputStream(data, TRACKER_SECTION))) {
+                    encodeTracker(section, tracker);
+                }
+                try (var section = new Encoder(new SectionOutputStream(data, TRACK_GRAPH_SECTION))) {
+                    encodeGraph(section, tracker.getTrackGraph());
+                }
+                try (var section = new Encoder(new SectionOutputStream(data, CONDENSED_GRAPH_SECTION))) {
+                    encodeGraph(section, tracker.getCondensedGraph());
+                }
+                data.writeByte(END_SECTION);
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Reads a tracker from the given checkpoint. The tracker is ready to track the version following the last
+     * version tracked before writing the checkpoint.
+     * @param in the stream to read from, which is not closed.
+     * @return the tracker.
+     * @throws IOException if reading fails or the stream is not a checkpoint written in a supported format.
+     */
+    public static ASmellTracker read(InputStream in) throws IOException {
+        var header = new DataInputStream(in);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("The stream is not a checkpoint of a tracker.");
+        }
+        short version = header.readShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(String.format("Unsupported checkpoint format version %d.", version));
+        }
+        boolean compressed = (header.readByte() & COMPRESSED) != 0;
+        var inflater = compressed ? new Inflater() : null;
+
+        TrackerFields fields = null;
+        Graph trackGraph = null;
+        Graph condensedGraph = null;
+        try {
+            var data = new DataInputStream(compressed ? new InflaterInputStream(in, inflater, CHUNK_SIZE)
+                                                      : new BufferedInputStream(in, CHUNK_SIZE));
+            for (byte type = data.readByte(); type != END_SECTION; type = data.readByte()) {
+                try (var section = new Decoder(new SectionInputStream(data))) {
+                    switch (type) {
+                        case TRACKER_SECTION:
+                            fields = decodeTracker(section);
+                            break;
+                        case TRACK_GRAPH_SECTION:
+                            trackGraph = decodeGraph(section);
+                            break;
+                        case CONDENSED_GRAPH_SECTION:
+                            condensedGraph = decodeGraph(section);
+                            break;
+                        default:
+                            // Sections added by later revisions of the format are skipped when closed.
+                            break;
+                    }
+                }
+            }
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+        if (fields == null || trackGraph == null || condensedGraph == null) {
+            throw new IOException("The checkpoint is incomplete.");
+        }
+
+        var tracker = new ASmellTracker(fields.linker, fields.maxNonConsecutiveVersions);
+        tracker.setNextUniqueSmellId(fields.nextUniqueSmellId);
+        tracker.setCharacteristicsStore(fields.characteristicsStore);
+        tracker.setCondensedGraph(condensedGraph);
+        tracker.setTrackGraph(trackGraph);
+        tracker.setTail(trackGraph.traversal().V().hasLabel(ASmellTracker.TAIL).next());
+        List<Vertex> frontier = new ArrayList<>(fields.frontierIds.size());
+        for (Object id : fields.frontierIds) {
+            frontier.add(vertexOf(trackGraph, id));
+        }
+        Map<Vertex, Long> dormantSmells = new LinkedHashMap<>();
+        for (var dormantSmell : fields.dormantSmells.entrySet()) {
+            dormantSmells.put(vertexOf(trackGraph, dormantSmell.getKey()), dormantSmell.getValue());
+        }
+        tracker.setFrontier(frontier, dormantSmells);
+        var uniqueSmellsMap = tracker.getUniqueSmellsMap();
+        condensedGraph.traversal().V()
+                .has(ASmellTracker.UNIQUE_SMELL_ID)
+                .forEachRemaining(v -> uniqueSmellsMap.put(v.value(ASmellTracker.UNIQUE_SMELL_ID), v));
+        return tracker;
+    }
+
+    private static Vertex vertexOf(Graph trackGraph, Object id) throws IOException {
+        var vertices = trackGraph.vertices(id);
+        if (!vertices.hasNext()) {
+            throw new IOException(String.format("The smell %s of the frontier is not in the track graph.", id));
+        }
+        return vertices.next();
+    }
+
+    private static void encodeTracker(Encoder encoder, ASmellTracker tracker) throws IOException {
+        encodeLinker(encoder, tracker.getScorer());
+        encoder.out.writeInt(tracker.getMaxNonConsecutiveVersions());
+        encoder.out.writeLong(tracker.getNextUniqueSmellId());
+        var frontier = tracker.getFrontierVertices();
+        encoder.out.writeInt(frontier.size());
+        for (Vertex vertex : frontier) {
+            encoder.writeValue(vertex.id());
+        }
+        var dormantSmells = tracker.getDormantSmells();
+        encoder.out.writeInt(dormantSmells.size());
+        for (var dormantSmell : dormantSmells.entrySet()) {
+            encoder.writeValue(dormantSmell.getKey().id());
+            encoder.out.writeLong(dormantSmell.getValue());
+        }
+        var store = tracker.getCharacteristicsStore();
+        encoder.out.writeBoolean(store != null);
+        if (store != null) {
+            store.writeTo(encoder.out);
+        }
+    }
+
+    private static TrackerFields decodeTracker(Decoder decoder) throws IOException {
+        var fields = new TrackerFields();
+        fields.linker = decodeLinker(decoder);
+        fields.maxNonConsecutiveVersions = decoder.in.readInt();
+        fields.nextUniqueSmellId = decoder.in.readLong();
+        int frontierSize = decoder.in.readInt();
+        fields.frontierIds = new ArrayList<>(frontierSize);
+        for (int i = 0; i < frontierSize; i++) {
+            fields.frontierIds.add(decoder.readValue());
+        }
+        int dormantCount = decoder.in.readInt();
+        fields.dormantSmells = new LinkedHashMap<>();
+        for (int i = 0; i < dormantCount; i++) {
+            fields.dormantSmells.put(decoder.readValue(), decoder.in.readLong());
+        }
+        if (decoder.in.readBoolean()) {
+            fields.characteristicsStore = CharacteristicsStore.readFrom(decoder.in);
+        }
+        return fields;
+    }
+
+    /**
+     * Writes the type of the given linker and the parameters it was built with.
+     * Only the linkers of this tool are supported, as their configuration must be known to be written.
+     */
+    private static void encodeLinker(Encoder encoder, ISimilarityLinker linker) throws IOException {
+        var out = encoder.out;
+        if (linker.getClass() == MinHashSimilarityLinker.class) {
+            var minHash = (MinHashSimilarityLinker) linker;
+            out.writeByte(MIN_HASH_LINKER);
+            out.writeInt(minHash.getBands());
+            out.writeInt(minHash.getRows());
+            out.writeBoolean(minHash.isRescoring());
+            out.writeDouble(minHash.getMargin());
+        } else if (linker.getClass() == SimpleNameJaccardSimilarityLinker.class) {
+            out.writeByte(SIMPLE_NAME_LINKER);
+        } else if (linker.getClass() == JaccardSimilarityLinker.class) {
+            out.writeByte(JACCARD_LINKER);
+        } else {
+            throw new IOException(String.format("The linker %s cannot be written in a checkpoint.", linker.getClass().getName()));
+        }
+        var jaccard = (JaccardSimilarityLinker) linker;
+        out.writeDouble(jaccard.getFewElementsThreshold());
+        out.writeDouble(jaccard.getMoreElementsThreshold());
+        out.writeInt(jaccard.getFewElements());
+        out.writeBoolean(jaccard.isIndexCandidates());
+        out.writeInt(jaccard.getParallelism());
+        out.writeBoolean(jaccard.isExactMatching());
+    }
+
+    private static ISimilarityLinker decodeLinker(Decoder decoder) throws IOException {
+        var in = decoder.in;
+        byte type = in.readByte();
+        int bands = 0, rows = 0;
+        boolean rescoring = false;
+        double margin = 0;
+        if (type == MIN_HASH_LINKER) {
+            bands = in.readInt();
+            rows = in.readInt();
+            rescoring = in.readBoolean();
+            margin = in.readDouble();
+        }
+        double fewElementsThreshold = in.readDouble();
+        double moreElementsThreshold = in.readDouble();
+        int fewElements = in.readInt();
+        boolean indexCandidates = in.readBoolean();
+        int parallelism = in.readInt();
+        boolean exactMatching = in.readBoolean();
+        JaccardSimilarityLinker linker;
+        switch (type) {
+            case MIN_HASH_LINKER:
+                // The thresholds of this linker are the defaults of the simple name linker.
+                linker = new MinHashSimilarityLinker(bands, rows, rescoring, margin, parallelism);
+                break;
+            case SIMPLE_NAME_LINKER:
+                linker = new SimpleNameJaccardSimilarityLinker(fewElementsThreshold, moreElementsThreshold, fewElements, indexCandidates, parallelism);
+                break;
+            case JACCARD_LINKER:
+                linker = new JaccardSimilarityLinker(fewElementsThreshold, moreElementsThreshold, fewElements, indexCandidates, parallelism);
+                break;
+            default:
+                throw new IOException(String.format("Unknown linker type %d in checkpoint.", type));
+        }
+        linker.setExactMatching(exactMatching);
+        return linker;
+    }
+
+    private static void encodeGraph(Encoder encoder, Graph graph) throws IOException {
+        encoder.out.writeLong(graph.traversal().V().count().next());
+        var vertices = graph.vertices();
+        while (vertices.hasNext()) {
+            Vertex vertex = vertices.next();
+            encoder.writeElement(vertex);
+            encoder.writeProperties(vertex.properties());
+        }
+        encoder.out.writeLong(graph.traversal().E().count().next());
+        var edges = graph.edges();
+        while (edges.hasNext()) {
+            Edge edge = edges.next();
+            encoder.writeElement(edge);
+            encoder.writeValue(edge.outVertex().id());
+            encoder.writeValue(edge.inVertex().id());
+            encoder.writeProperties(edge.properties());
+        }
+    }
+
+    private static Graph decodeGraph(Decoder decoder) throws IOException {
+        Graph graph = TinkerGraph.open();
+        Map<Object, Vertex> vertices = new HashMap<>();
+        long vertexCount = decoder.in.readLong();
+        for (long i = 0; i < vertexCount; i++) {
+            Object id = decoder.readValue();
+            Vertex vertex = graph.addVertex(T.id, id, T.label, decoder.readString());
+            int propertyCount = decoder.in.readInt();
+            for (int p = 0; p < propertyCount; p++) {
+                vertex.property(decoder.readString(), decoder.readValue());
+            }
+            vertices.put(id, vertex);
+        }
+        long edgeCount = decoder.in.readLong();
+        for (long i = 0; i < edgeCount; i++) {
+            Object id = decoder.readValue();
+            String label = decoder.readString();
+            Vertex outVertex = vertices.get(decoder.readValue());
+            Vertex inVertex = vertices.get(decoder.readValue());
+            Edge edge = outVertex.addEdge(label, inVertex, T.id, id);
+            int propertyCount = decoder.in.readInt();
+            for (int p = 0; p < propertyCount; p++) {
+                edge.property(decoder.readString(), decoder.readValue());
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * The fields of the tracker section, kept until the graphs they refer to are read.
+     */
+    private static class TrackerFields {
+        private ISimilarityLinker linker;
+        private int maxNonConsecutiveVersions;
+        private long nextUniqueSmellId;
+        private List<Object> frontierIds;
+        private Map<Object, Long> dormantSmells;
+        private CharacteristicsStore characteristicsStore;
+    }
+
+    /**
+     * Writes the values of a section, replacing the strings already written with their position.
+     */
+    private static class Encoder implements Closeable {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Encoder(SectionOutputStream section) {
+            this.out = new DataOutputStream(section);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        void writeElement(Element element) throws IOException {
+            writeValue(element.id());
+            writeString(element.label());
+        }
+
+        void writeProperties(Iterator<? extends Property<Object>> properties) throws IOException {
+            List<Property<Object>> list = new ArrayList<>();
+            properties.forEachRemaining(list::add);
+            out.writeInt(list.size());
+            for (var property : list) {
+                writeString(property.key());
+                writeValue(property.value());
+            }
+        }
+
+        void writeString(String value) throws IOException {
+            Integer position = strings.get(value);
+            if (position != null) {
+                out.writeInt(position);
+            } else {
+                strings.put(value, strings.size());
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(-1 - bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        void writeStrings(Collection<String> values) throws IOException {
+            out.writeInt(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL_VALUE);
+            } else if (value instanceof String) {
+                out.writeByte(STRING_VALUE);
+                writeString((String) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG_VALUE);
+                out.writeLong((Long) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INTEGER_VALUE);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE_VALUE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT_VALUE);
+                out.writeFloat((Float) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN_VALUE);
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof SmellSnapshot) {
+                out.writeByte(SNAPSHOT_VALUE);
+                writeSnapshot((SmellSnapshot) value);
+            } else {
+                throw new IOException(String.format("Values of type %s cannot be written in a checkpoint.", value.getClass().getName()));
+            }
+        }
+
+        private void writeSnapshot(SmellSnapshot smell) throws IOException {
+            out.writeLong(smell.getId());
+            writeString(smell.getType().name());
+            writeString(smell.getLevel().name());
+            writeValue(smell.getShape() == null ? null : smell.getShape().name());
+            writeValue(smell.getAffectedVersion());
+            writeValue(smell.getCentreName());
+            writeStrings(smell.getAffectedElementsNames());
+            writeStrings(smell.getDependenciesNames());
+            out.writeInt(smell.getAffectedElementsCount());
+            var characteristics = new TreeMap<>(smell.getCharacteristicsMap());
+            out.writeInt(characteristics.size());
+            for (var characteristic : characteristics.entrySet()) {
+                writeString(characteristic.getKey());
+                writeString(characteristic.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads the values written by an {@link Encoder}.
+     */
+    private static class Decoder implements Closeable {
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+
+        Decoder(SectionInputStream section) {
+            this.in = new DataInputStream(section);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        String readString() throws IOException {
+            int position = in.readInt();
+            if (position >= 0) {
+                return strings.get(position);
+            }
+            byte[] bytes = new byte[-1 - position];
+            in.readFully(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        String[] readStrings() throws IOException {
+            String[] values = new String[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readString();
+            }
+            return values;
+        }
+
+        Object readValue() throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case NULL_VALUE:
+                    return null;
+                case STRING_VALUE:
+                    return readString();
+                case LONG_VALUE:
+                    return in.readLong();
+                case INTEGER_VALUE:
+                    return in.readInt();
+                case DOUBLE_VALUE:
+                    return in.readDouble();
+                case FLOAT_VALUE:
+                    return in.readFloat();
+                case BOOLEAN_VALUE:
+                    return in.readBoolean();
+                case SNAPSHOT_VALUE:
+                    return readSnapshot();
+                default:
+                    throw new IOException(String.format("Unknown value type %d in checkpoint.", type));
+            }
+        }
+
+        private SmellSnapshot readSnapshot() throws IOException {
+            long id = in.readLong();
+            var type = ArchitecturalSmell.Type.valueOf(readString());
+            var level = ArchitecturalSmell.Level.valueOf(readString());
+            var shape = (String) readValue();
+            var affectedVersion = (String) readValue();
+            var centreName = (String) readValue();
+            var affectedElementsNames = readStrings();
+            var dependenciesNames = readStrings();
+            int affectedElementsCount = in.readInt();
+            int characteristicsCount = in.readInt();
+            Map<String, String> characteristics = new HashMap<>(characteristicsCount * 2);
+            for (int i = 0; i < characteristicsCount; i++) {
+                characteristics.put(readString(), readString());
+            }
+            return SmellSnapshot.restore(id, type, level, shape == null ? null : CDSmell.Shape.valueOf(shape),
+                    affectedVersion, centreName, affectedElementsNames, dependenciesNames, affectedElementsCount, characteristics);
+        }
+    }
+
+    /**
+     * Writes the content of a section in chunks, each preceded by its length. Closing this stream writes the
+     * remaining chunk and the empty chunk ending the section, without closing the stream of the checkpoint.
+     */
+    private static class SectionOutputStream extends OutputStream {
+        private final DataOutputStream data;
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+        private int size;
+        private boolean closed;
+
+        SectionOutputStream(DataOutputStream data, byte type) throws IOException {
+            this.data = data;
+            data.writeByte(type);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (size == chunk.length) {
+                writeChunk();
+            }
+            chunk[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (size == chunk.length) {
+                    writeChunk();
+                }
+                int n = Math.min(len, chunk.length - size);
+                System.arraycopy(b, off, chunk, size, n);
+                size += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        private void writeChunk() throws IOException {
+            data.writeInt(size);
+            data.write(chunk, 0, size);
+            size = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                if (size > 0) {
+                    writeChunk();
+                }
+                data.writeInt(0);
+            }
+        }
+    }
+
+    /**
+     * Reads the chunks of a section written by a {@link SectionOutputStream}. Closing this stream skips the rest
+     * of the section, without closing the stream of the checkpoint.
+     */
+    private static class SectionInputStream extends InputStream {
+        private final DataInputStream data;
+        private int remaining;
+        private boolean ended;
+
+        SectionInputStream(DataInputStream data) {
+            this.data = data;
+        }
+
+        /**
+         * Moves to the next chunk if the current one was read whole.
+         * @return false if the section ended.
+         */
+        private boolean nextChunk() throws IOException {
+            while (remaining == 0 && !ended) {
+                remaining = data.readInt();
+                if (remaining < 0) {
+                    throw new IOException("Corrupted section in checkpoint.");
+                }
+                ended = remaining == 0;
+            }
+            return !ended;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!nextChunk()) {
+                return -1;
+            }
+            remaining--;
+            return data.readUnsignedByte();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int n = data.read(b, off, Math.min(len, remaining));
+            if (n < 0) {
+                throw new EOFException();
+            }
+            remaining -= n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            while (nextChunk()) {
+                data.skipNBytes(remaining);
+                remaining = 0;
+            }
+        }
+    }
+
+    /**
+     * Prevents the stream of a checkpoint from being closed together with the streams compressing its sections.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -3,18 +3,21 @@ package org.rug.tracker;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.rug.data.project.IVersion;
 import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
+import org.rug.metrics.StageMetrics;
 
 import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.*;
 
 /**
  * Tracks incrementally the architectural smells and saves them internally.
@@ -46,6 +49,8 @@ public class ASmellTracker implements Serializable{
     public static final String LAST_DETECTED_INDEX  = "lastDetectedIndex";
     public static final String LAST_DETECTED_DATE = "lastDetectedDate";
     public static final String SMELL_ID = "smellId";
+    public static final String SMELL_IDS = "smellIds";
+    public static final String END_VERSION_INDEX = "endVersionIndex";
     public static final String COMPONENT_TYPE = "componentType";
     public static final String TAIL = "tail";
     public static final String COMPONENT_CHARACTERISTIC = "componentCharacteristic";
@@ -55,8 +60,14 @@ public class ASmellTracker implements Serializable{
     private transient Graph trackGraph;
     private transient Graph condensedGraph;
     private transient Map<Long, Vertex> uniqueSmellsMap;
-    private transient Map<String, CachedVertex> updatedAffectedElementsCache;
+    private transient CondensedGraphWriter condensedGraphWriter;
     private transient Vertex tail;
+    private transient Map<SmellSnapshot, Vertex> frontier;
+    private transient DormantSmellPool dormantPool;
+    private transient Set<LinkScoreTriple> lastBestMatch;
+    private transient List<LinkScoreTriple> lastMatchScores;
+    private transient StageMetrics metrics;
+    private CharacteristicsStore characteristicsStore;
     private long uniqueSmellID;
     private final ISimilarityLinker scorer;
     private final DecimalFormat decimal;
@@ -74,6 +85,7 @@ public class ASmellTracker implements Serializable{
     public ASmellTracker(ISimilarityLinker scorer, int maxNonConsecutiveVersions){
         this.trackGraph = TinkerGraph.open();
         this.tail = trackGraph.traversal().addV(TAIL).next();
+        this.frontier = new IdentityHashMap<>();
         this.condensedGraph = TinkerGraph.open();
         this.uniqueSmellID = 1L;
         this.scorer = scorer;
@@ -98,61 +110,102 @@ public class ASmellTracker implements Serializable{
      * @param version the version of the given system
      */
     public void track(List<ArchitecturalSmell> smellsInVersion, IVersion version){
-        List<ArchitecturalSmell> nextVersionSmells = new ArrayList<>(smellsInVersion);
+        // Only snapshots of the smells are tracked, so that the graph of this version can be released once tracked.
+        Map<SmellSnapshot, ArchitecturalSmell> detectedSmells = new IdentityHashMap<>(smellsInVersion.size());
+        List<SmellSnapshot> nextVersionSmells = new ArrayList<>(smellsInVersion.size());
+        for (ArchitecturalSmell smell : smellsInVersion) {
+            SmellSnapshot snapshot = SmellSnapshot.of(smell);
+            detectedSmells.put(snapshot, smell);
+            nextVersionSmells.add(snapshot);
+        }
 
         GraphTraversalSource g1 = trackGraph.traversal();
 
+        lastBestMatch = new LinkedHashSet<>();
+        lastMatchScores = new ArrayList<>();
         if (g1.V(tail).outE().hasNext()) {
-            List<ArchitecturalSmell> currentVersionSmells;
+            // Only the smells of the latest version are matched against every smell of this version, whereas the
+            // smells that were not detected in the latest version are kept in the dormant pool.
+            List<SmellSnapshot> currentVersionSmells = g1.V(tail).out().has(VERSION, tail.value(LATEST_VERSION).toString()).values(SMELL_OBJECT)
+                    .toStream().map(o -> (SmellSnapshot) o).collect(Collectors.toList());
+
+            // The pool must be rebuilt, if needed, before the tail is linked to the smells of this version.
+            DormantSmellPool pool = trackNonConsecutiveVersions ? getDormantPool() : null;
+            Set<SmellSnapshot> linkedSmells = Collections.newSetFromMap(new IdentityHashMap<>());
+            link(currentVersionSmells, nextVersionSmells, version, detectedSmells, linkedSmells);
+            currentVersionSmells.removeIf(linkedSmells::contains);
+            nextVersionSmells.removeIf(linkedSmells::contains);
             if (trackNonConsecutiveVersions) {
-                currentVersionSmells = g1.V(tail).out().values(SMELL_OBJECT)
-                        .toStream().map(o -> (ArchitecturalSmell) o).collect(Collectors.toList());
-            }else {
-                currentVersionSmells = g1.V(tail).out().has(VERSION, tail.value(LATEST_VERSION).toString()).values(SMELL_OBJECT)
-                        .toStream().map(o -> (ArchitecturalSmell) o).collect(Collectors.toList());
-            }
-
-            Set<LinkScoreTriple> bestMatch = scorer.bestMatch(currentVersionSmells, nextVersionSmells);
-            logger.debug("Matching complete for {} pairs.", bestMatch.size());
-            bestMatch.forEach(t -> {
-                // If this fails it means that a successor has already been found, which should never happen!
-                Vertex predecessor = g1.V(tail).out().has(SMELL_OBJECT, t.getA()).next();
-                Vertex successor = g1.addV(SMELL)
-                        .property(VERSION, version.getVersionString())
-                        .property(VERSION_INDEX, version.getVersionIndex())
-                        .property(VERSION_DATE, version.getVersionDate())
-                        .property(SMELL_ID, t.getB().getId())
-                        .property(SMELL_OBJECT, t.getB())
-                        .property(UNIQUE_SMELL_ID, predecessor.value(UNIQUE_SMELL_ID))
-                        .property(NON_CONSEC_VERSIONS, 0)
-                        .next();
-                g1.V(tail).outE().where(otherV().is(predecessor)).drop().iterate();
-                String eLabel = tail.value(LATEST_VERSION).equals(predecessor.value(VERSION)) ? EVOLVED_FROM : REAPPEARED;
-                g1.addE(eLabel).property(SIMILARITY, decimal.format(t.getC())).from(successor).to(predecessor).next();
-                g1.addE(LATEST_VERSION).from(tail).to(successor).next();
-                currentVersionSmells.remove(t.getA());
-                nextVersionSmells.remove(t.getB());
-
-                g1.V(predecessor).drop().iterate();
-            });
-            if (!trackNonConsecutiveVersions) {
+                pool.expire(version.getVersionIndex()).forEach(smell -> getFrontier().remove(smell).remove());
+                // Dormant smells are matched only against the smells that were not linked to a smell of the latest version.
+                List<SmellSnapshot> dormantSmells = pool.candidatesOf(nextVersionSmells);
+                if (!dormantSmells.isEmpty()) {
+                    link(dormantSmells, nextVersionSmells, version, detectedSmells, linkedSmells);
+                    dormantSmells.stream().filter(linkedSmells::contains).forEach(pool::remove);
+                    nextVersionSmells.removeIf(linkedSmells::contains);
+                }
+                currentVersionSmells.forEach(smell -> pool.add(smell, versionIndexOf(getFrontier().get(smell))));
+            } else {
                 currentVersionSmells.forEach(this::endDynasty);
             }
 
         }
-        nextVersionSmells.forEach(s -> addNewDynasty(s, version));
+        nextVersionSmells.forEach(s -> addNewDynasty(s, detectedSmells.get(s), version));
         tail.property(LATEST_VERSION, version.getVersionString());
         tail.property(LATEST_VERSION_INDEX, version.getVersionIndex());
-        logger.debug("Updating condensed graph.");
-        updateCondensedGraph();
+        logger.debug("Updating {} smells and affected components into the condensed graph.", getCondensedGraphWriter().size());
+        getMetrics().time("tracker.condensedGraph", version.getVersionString(), () -> getCondensedGraphWriter().write(version));
+    }
+
+    /**
+     * Links the given smells tracked so far to the most similar smells detected in the given version.
+     * @param trackedSmells the smells at the end of their dynasty.
+     * @param nextVersionSmells the smells detected in the given version.
+     * @param version the version.
+     * @param detectedSmells the map from the snapshots of the smells detected in the version to the smells.
+     * @param linkedSmells the set where the smells linked are added.
+     */
+    private void link(List<SmellSnapshot> trackedSmells, List<SmellSnapshot> nextVersionSmells, IVersion version,
+                      Map<SmellSnapshot, ArchitecturalSmell> detectedSmells, Set<SmellSnapshot> linkedSmells) {
+        GraphTraversalSource g1 = trackGraph.traversal();
+        Set<LinkScoreTriple> bestMatch = getMetrics().time("tracker.matching", version.getVersionString(),
+                () -> scorer.bestMatch(trackedSmells, nextVersionSmells));
+        logger.debug("Matching complete for {} pairs.", bestMatch.size());
+        lastBestMatch.addAll(bestMatch);
+        lastMatchScores.addAll(scorer.getUnlinkedMatchScores());
+        Map<SmellSnapshot, Vertex> frontier = getFrontier();
+        bestMatch.forEach(t -> {
+            // If this fails it means that a successor has already been found, which should never happen!
+            Vertex predecessor = Objects.requireNonNull(frontier.remove(t.getA()));
+            Vertex successor = g1.addV(SMELL)
+                    .property(VERSION, version.getVersionString())
+                    .property(VERSION_INDEX, version.getVersionIndex())
+                    .property(VERSION_DATE, version.getVersionDate())
+                    .property(SMELL_ID, t.getB().getId())
+                    .property(SMELL_OBJECT, t.getB())
+                    .property(UNIQUE_SMELL_ID, predecessor.value(UNIQUE_SMELL_ID))
+                    .property(NON_CONSEC_VERSIONS, 0)
+                    .next();
+            predecessor.edges(Direction.IN, LATEST_VERSION).forEachRemaining(Edge::remove);
+            String eLabel = tail.value(LATEST_VERSION).equals(predecessor.value(VERSION)) ? EVOLVED_FROM : REAPPEARED;
+            successor.addEdge(eLabel, predecessor, SIMILARITY, decimal.format(t.getC()));
+            tail.addEdge(LATEST_VERSION, successor);
+            frontier.put(t.getB(), successor);
+            getCondensedGraphWriter().add(successor.value(UNIQUE_SMELL_ID), detectedSmells.get(t.getB()));
+            linkedSmells.add(t.getA());
+            linkedSmells.add(t.getB());
+
+            predecessor.remove();
+        });
     }
 
     /**
      * Begins a new dynasty for the given AS at the given starting version
-     * @param s the starter of the dynasty
+     * @param s the snapshot of the starter of the dynasty
+     * @param smell the starter of the dynasty
      * @param version the version
      */
-    private void addNewDynasty(ArchitecturalSmell s, IVersion version) {
+    private void addNewDynasty(SmellSnapshot s, ArchitecturalSmell smell, IVersion version) {
         GraphTraversalSource g = trackGraph.traversal();
         Vertex successor = g.addV(SMELL)
                 .property(VERSION, version.getVersionString())
@@ -163,20 +216,21 @@ public class ASmellTracker implements Serializable{
                 .property(UNIQUE_SMELL_ID, uniqueSmellID++)
                 .property(NON_CONSEC_VERSIONS, 0)
                 .next();
-        g.addE(LATEST_VERSION).from(tail).to(successor).next();
+        tail.addEdge(LATEST_VERSION, successor);
+        getFrontier().put(s, successor);
+        getCondensedGraphWriter().add(successor.value(UNIQUE_SMELL_ID), smell);
     }
 
     /**
      * Concludes the dynasty of the given smell (last smell in the dynasty)
      * @param smell the smell
      */
-    private void endDynasty(ArchitecturalSmell smell) {
-        GraphTraversalSource g = trackGraph.traversal();
-        Vertex lastHeir = g.V().has(SMELL_OBJECT, smell).next();
+    private void endDynasty(SmellSnapshot smell) {
+        Vertex lastHeir = getFrontier().get(smell);
         int nonConsecVersions = lastHeir.<Integer>value(NON_CONSEC_VERSIONS) + 1;
         if (nonConsecVersions > maxNonConsecutiveVersions){
-            g.V(tail).outE().where(otherV().is(lastHeir)).drop().iterate();
-            g.V(lastHeir).drop().iterate();
+            getFrontier().remove(smell);
+            lastHeir.remove();
         } else {
             lastHeir.property(NON_CONSEC_VERSIONS, nonConsecVersions);
         }
@@ -199,89 +253,57 @@ public class ASmellTracker implements Serializable{
     }
 
     /**
-     * Updates the condensed graph from the current state of trackGraph.
+     * Returns the writer used to update the condensed graph with the smells detected in each version.
+     * The writer is created lazily, so that it indexes the condensed graph currently set in this tracker.
+     * @return the writer.
      */
-    private void updateCondensedGraph(){
-        GraphTraversalSource gt = trackGraph.traversal();
-        GraphTraversalSource gs = condensedGraph.traversal();
-
-        Set<Vertex> smellsInVersion = gt.V().hasLabel(TAIL).out().toSet();
-
-        logger.debug("Updating {} smells and affected components into the condensed graph.", smellsInVersion.size());
-
-        for(var smellVertex : smellsInVersion){
-            Long smellUID = smellVertex.value(UNIQUE_SMELL_ID);
-            var smellVersionString = smellVertex.value(VERSION);
-            var smellVersionIndex = smellVertex.value(VERSION_INDEX);
-            var smellVersionDate = smellVertex.value(VERSION_DATE);
-            ArchitecturalSmell smellObject = smellVertex.value(SMELL_OBJECT);
-            String affectedComponentType = smellObject.getLevel().toString();
-
-            var condensedSmell = uniqueSmellsMap.computeIfAbsent(smellUID, (sUIDKey) -> gs.addV(SMELL)
-                            .property(UNIQUE_SMELL_ID, smellUID)
-                            .property(FIRST_APPEARED, smellVersionString)
-                            .property(FIRST_APPEARED_INDEX, smellVersionIndex)
-                            .property(FIRST_APPEARED_DATE, smellVersionDate).next());
-
-            if (!condensedSmell.property(SMELL_TYPE).isPresent()){
-                condensedSmell.property(SMELL_TYPE, smellObject.getType().toString());
-            }
-            Vertex characteristics = gs.addV(CHARACTERISTIC).next();
-            smellObject.getCharacteristicsMap().forEach(characteristics::property);
-
-            gs.addE(HAS_CHARACTERISTIC).from(condensedSmell).to(characteristics)
-                    .property(VERSION, smellVersionString)
-                    .property(VERSION_INDEX, smellVersionIndex)
-                    .property(VERSION_DATE, smellVersionDate)
-                    .property(SMELL_ID, smellObject.getId()).next();
-            
-            for(var affectedComp : smellObject.getAffectedElements()) {
-                String name = affectedComp.value(NAME);
-                var component = updatedAffectedElementsCache.computeIfAbsent(name, (key) -> new CachedVertex(gs.addV(COMPONENT)
-                        .property(NAME, name)
-                        .property(COMPONENT_TYPE, affectedComponentType).next()));
-                if (!component.updated){
-                    var cce = gs.V(component.vertex).outE(HAS_CHARACTERISTIC)
-                            .has(VERSION, smellVersionString.toString())
-                            .tryNext();
-                    if (cce.isEmpty()) {
-                        var componentCharacteristic = gs.addV(COMPONENT_CHARACTERISTIC).next();
-                        affectedComp.keys().stream().filter(k -> !k.equals(NAME)).forEach(k ->
-                                componentCharacteristic.property(k, affectedComp.value(k))
-                        );
-                        gs.addE(HAS_CHARACTERISTIC).from(component.vertex).to(componentCharacteristic)
-                                .property(VERSION, smellVersionString)
-                                .property(VERSION_INDEX, smellVersionIndex)
-                                .property(VERSION_DATE, smellVersionDate)
-                                .next();
-                    }
-                    component.updated = true;
-                }
-                gs.addE(AFFECTS).from(condensedSmell).to(component.vertex)
-                        .property(VERSION, smellVersionString)
-                        .property(VERSION_INDEX, smellVersionIndex)
-                        .property(VERSION_DATE, smellVersionDate)
-                        .next();
-            }
+    private CondensedGraphWriter getCondensedGraphWriter() {
+        if (condensedGraphWriter == null){
+            condensedGraphWriter = new CondensedGraphWriter(condensedGraph, uniqueSmellsMap, characteristicsStore);
+        }
+        return condensedGraphWriter;
+    }
 
-            long age = condensedSmell.<Long>property(AGE).orElse(0L);
-            condensedSmell.property(AGE, ++age);
-            condensedSmell.property(LAST_DETECTED, smellVersionString);
-            condensedSmell.property(LAST_DETECTED_INDEX, smellVersionIndex);
-            condensedSmell.property(LAST_DETECTED_DATE, smellVersionDate);
+    /**
+     * Releases the writer of the condensed graph, after writing what it still holds into the graph.
+     */
+    private void releaseCondensedGraphWriter() {
+        if (condensedGraphWriter != null){
+            condensedGraphWriter.flush();
+            condensedGraphWriter = null;
         }
-        updatedAffectedElementsCache.clear(); // reset cache for next version
     }
 
     /**
-     * Retrieves the condensed graph.
+     * Retrieves the condensed graph. The runs of versions still open are written up to the latest version tracked.
      * @return the graph representing the tracked smells including their characteristics and components affected
      * with their own characteristics.
      */
     public Graph getCondensedGraph(){
+        if (condensedGraphWriter != null){
+            condensedGraphWriter.flush();
+        }
         return condensedGraph;
     }
 
+    /**
+     * Returns the store holding the characteristics of the tracked smells.
+     * @return the store, or null if the characteristics are saved in the condensed graph.
+     */
+    public CharacteristicsStore getCharacteristicsStore() {
+        return characteristicsStore;
+    }
+
+    /**
+     * Sets the store where the characteristics of the smells tracked from now on are saved, in place of the
+     * characteristic vertices of the condensed graph.
+     * @param characteristicsStore the store, or null to save the characteristics in the condensed graph.
+     */
+    public void setCharacteristicsStore(CharacteristicsStore characteristicsStore) {
+        this.characteristicsStore = characteristicsStore;
+        releaseCondensedGraphWriter();
+    }
+
     /**
      * Get the graph object used to perform the tracking.
      * @return the track graph.
@@ -290,24 +312,167 @@ public class ASmellTracker implements Serializable{
         return trackGraph;
     }
 
+    /**
+     * Returns the metrics where the time spent matching the smells of every version and updating the condensed graph
+     * is recorded. The metrics are not serialized with this tracker.
+     * @return the metrics of this tracker.
+     */
+    public StageMetrics getMetrics(){
+        if (metrics == null){
+            metrics = new StageMetrics();
+        }
+        return metrics;
+    }
+
+    public void setMetrics(StageMetrics metrics){
+        this.metrics = metrics;
+    }
+
     /**
      * Returns the number of smells linked in the current iteration.
      * @return the number of smells linked.
      */
     public long smellsLinked(){
-        return this.getScorer().bestMatch().size();
+        return getLastBestMatch().size();
+    }
+
+    /**
+     * Returns the couples of smells linked in the latest version tracked, including the smells that reappeared
+     * after skipping some versions.
+     * @return the set of linked couples.
+     */
+    public Set<LinkScoreTriple> getLastBestMatch() {
+        return lastBestMatch == null ? Collections.emptySet() : lastBestMatch;
+    }
+
+    /**
+     * Returns the couples of smells scored in the latest version tracked that satisfy the threshold of the scorer
+     * (see {@link ISimilarityLinker#getUnlinkedMatchScores()}), including the couples of dormant smells.
+     * @return the list of scored couples.
+     */
+    public List<LinkScoreTriple> getLastMatchScores() {
+        return lastMatchScores == null ? Collections.emptyList() : lastMatchScores;
+    }
+
+    /**
+     * Returns the number of smells that were not detected in the latest version tracked but may still reappear
+     * in the next versions.
+     * @return the number of dormant smells.
+     */
+    public int getDormantSmellsCount() {
+        return trackNonConsecutiveVersions ? getDormantPool().size() : 0;
+    }
+
+    /**
+     * Returns the vertices of the track graph representing the latest smell of every dynasty still tracked.
+     * @return the vertices linked to the tail.
+     */
+    public Collection<Vertex> getFrontierVertices() {
+        return Collections.unmodifiableCollection(getFrontier().values());
+    }
+
+    /**
+     * Returns the vertices of the smells that were not detected in the latest version tracked but may still reappear
+     * in the next versions, in the order they were last detected.
+     * @return an ordered map from the vertices of the dormant smells to the index of the version they were last detected in.
+     */
+    public Map<Vertex, Long> getDormantSmells() {
+        Map<Vertex, Long> dormantSmells = new LinkedHashMap<>();
+        if (trackNonConsecutiveVersions) {
+            getDormantPool().getSmells().forEach((smell, versionIndex) -> dormantSmells.put(getFrontier().get(smell), versionIndex));
+        }
+        return dormantSmells;
+    }
+
+    /**
+     * Sets the latest smell of every dynasty still tracked and the dormant smells among them, in place of rebuilding
+     * them from the track graph. This must be called after the track graph and the tail are set.
+     * @param frontierVertices the vertices of the track graph linked to the tail.
+     * @param dormantSmells the vertices of the dormant smells, with the index of the version they were last detected in.
+     */
+    public void setFrontier(Collection<Vertex> frontierVertices, Map<Vertex, Long> dormantSmells) {
+        this.frontier = new IdentityHashMap<>();
+        frontierVertices.forEach(v -> frontier.put(v.value(SMELL_OBJECT), v));
+        this.dormantPool = new DormantSmellPool(maxNonConsecutiveVersions);
+        dormantSmells.forEach((v, versionIndex) -> dormantPool.add(v.value(SMELL_OBJECT), versionIndex));
+    }
+
+    /**
+     * Returns the unique ID that will be assigned to the next dynasty of smells.
+     * @return the next unique smell ID.
+     */
+    public long getNextUniqueSmellId() {
+        return uniqueSmellID;
+    }
+
+    /**
+     * Sets the unique ID that will be assigned to the next dynasty of smells, for example after loading the state of this tracker.
+     * @param nextUniqueSmellId the next unique smell ID.
+     */
+    public void setNextUniqueSmellId(long nextUniqueSmellId) {
+        this.uniqueSmellID = nextUniqueSmellId;
+    }
+
+    /**
+     * Returns how many versions a smell can skip before its dynasty is closed.
+     * @return the maximum number of non-consecutive versions, 0 if smells are tracked only through consecutive versions.
+     */
+    public int getMaxNonConsecutiveVersions() {
+        return maxNonConsecutiveVersions;
     }
 
     public void setTrackGraph(Graph trackGraph) {
         this.trackGraph = trackGraph;
+        this.frontier = null;
+        this.dormantPool = null;
     }
 
     public void setCondensedGraph(Graph condensedGraph) {
+        releaseCondensedGraphWriter();
         this.condensedGraph = condensedGraph;
     }
 
     public void setTail(Vertex tail) {
         this.tail = tail;
+        this.frontier = null;
+        this.dormantPool = null;
+    }
+
+    /**
+     * Returns the map from the latest smell of every dynasty still tracked to the vertex representing it in the
+     * track graph (i.e. the vertices linked to the tail). The map is rebuilt from the track graph when the graph or
+     * the tail are replaced, for example after loading the state of this tracker.
+     * @return an identity-based map from smell snapshots to vertices.
+     */
+    private Map<SmellSnapshot, Vertex> getFrontier() {
+        if (frontier == null){
+            frontier = new IdentityHashMap<>();
+            tail.vertices(Direction.OUT, LATEST_VERSION).forEachRemaining(v ->
+                    v.<SmellSnapshot>property(SMELL_OBJECT).ifPresent(smell -> frontier.put(smell, v)));
+        }
+        return frontier;
+    }
+
+    /**
+     * Returns the pool of the smells linked to the tail that were not detected in the latest version tracked.
+     * Like the frontier, the pool is rebuilt from the track graph when the graph or the tail are replaced.
+     * @return the pool of dormant smells.
+     */
+    private DormantSmellPool getDormantPool() {
+        if (dormantPool == null){
+            dormantPool = new DormantSmellPool(maxNonConsecutiveVersions);
+            String latestVersion = tail.property(LATEST_VERSION).orElse(NA).toString();
+            tail.vertices(Direction.OUT, LATEST_VERSION).forEachRemaining(v -> {
+                if (v.property(SMELL_OBJECT).isPresent() && !latestVersion.equals(v.value(VERSION))) {
+                    dormantPool.add(v.value(SMELL_OBJECT), versionIndexOf(v));
+                }
+            });
+        }
+        return dormantPool;
+    }
+
+    private static long versionIndexOf(Vertex smell) {
+        return ((Number) smell.value(VERSION_INDEX)).longValue();
     }
 
     /**
@@ -321,29 +486,6 @@ public class ASmellTracker implements Serializable{
 
     public void initializeCache() {
         this.uniqueSmellsMap = new HashMap<>(5000);
-        this.updatedAffectedElementsCache = new HashMap<>(5000);
-    }
-
-    /**
-     * Encapsulates a vertex to quickly check whether it was updated or not.
-     */
-    private static class CachedVertex {
-        boolean updated;
-        Vertex vertex;
-
-        public CachedVertex(Vertex vertex) {
-            this.vertex = vertex;
-            updated = false;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            return this.vertex.equals(o);
-        }
-
-        @Override
-        public int hashCode() {
-            return vertex.hashCode();
-        }
+        releaseCondensedGraphWriter();
     }
 }
@@ -1,7 +1,6 @@
 package org.rug.tracker;
 
-import org.rug.data.smells.ArchitecturalSmell;
-import org.rug.data.smells.CDSmell;
+import org.rug.data.smells.SmellSnapshot;
 
 import java.util.*;
 
@@ -18,8 +17,8 @@ public class BestMatchSet implements Set<LinkScoreTriple> {
 
     private Set<LinkScoreTriple> triples = new LinkedHashSet<>();
 
-    private Set<ArchitecturalSmell> current = new LinkedHashSet<>();
-    private Set<ArchitecturalSmell> next = new LinkedHashSet<>();
+    private Set<SmellSnapshot> current = new LinkedHashSet<>();
+    private Set<SmellSnapshot> next = new LinkedHashSet<>();
 
     /**
      * Initializes this set by adding all the elements to the internal collection.
@@ -177,12 +176,12 @@ public class BestMatchSet implements Set<LinkScoreTriple> {
                     replace(currentTriple, otherTriple);
                     return true;
                 } else if (currentMaintainsType && otherMaintainsType) {
-                    if (currentTriple.getA() instanceof CDSmell &&
-                            currentTriple.getB() instanceof CDSmell &&
-                            otherTriple.getA() instanceof CDSmell &&
-                            otherTriple.getB() instanceof CDSmell) {
-                        var currentMaintainsShape = ((CDSmell) currentTriple.getA()).getShape() == ((CDSmell) currentTriple.getB()).getShape();
-                        var otherMaintainsShape = ((CDSmell) currentTriple.getA()).getShape() == ((CDSmell) currentTriple.getB()).getShape();
+                    if (currentTriple.getA().getShape() != null &&
+                            currentTriple.getB().getShape() != null &&
+                            otherTriple.getA().getShape() != null &&
+                            otherTriple.getB().getShape() != null) {
+                        var currentMaintainsShape = currentTriple.getA().getShape() == currentTriple.getB().getShape();
+                        var otherMaintainsShape = currentTriple.getA().getShape() == currentTriple.getB().getShape();
                         if (!currentMaintainsShape && otherMaintainsShape) {
                             replace(currentTriple, otherTriple);
                             return true;
@@ -0,0 +1,436 @@
+package org.rug.tracker;
+
+import org.rug.data.project.IVersion;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Stores the characteristics of the tracked smells in every version they were detected in.
+ * Characteristics are stored in columns, one per characteristic name, and every column keeps, for each unique
+ * smell ID, the runs of consecutive versions (by version index) in which the characteristic did not change.
+ * Values are encoded as longs or doubles when their string representation can be restored exactly, otherwise
+ * they are coded through a dictionary of the distinct values of the column.
+ * This store can be used in place of the characteristic vertices of the condensed graph.
+ */
+public class CharacteristicsStore implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TreeMap<Long, String> versionStrings;
+    private final Map<Long, String> versionDates;
+    private final Map<String, Column> columns;
+    private final Column smellIds;
+    private long lastVersionIndex;
+    private long previousVersionIndex;
+
+    /**
+     * Builds an empty store.
+     */
+    public CharacteristicsStore(){
+        this.versionStrings = new TreeMap<>();
+        this.versionDates = new HashMap<>();
+        this.columns = new TreeMap<>();
+        this.smellIds = new Column();
+        this.lastVersionIndex = Long.MIN_VALUE;
+        this.previousVersionIndex = Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds the characteristics of a smell detected in the given version. Versions must be added in order of
+     * version index.
+     * @param uniqueSmellId the unique ID of the dynasty of the smell.
+     * @param version the version the smell was detected in.
+     * @param smellId the ID of the smell within the given version.
+     * @param characteristics the characteristics of the smell in the given version.
+     */
+    public void add(long uniqueSmellId, IVersion version, long smellId, Map<String, String> characteristics){
+        long versionIndex = version.getVersionIndex();
+        if (versionIndex != lastVersionIndex){
+            if (versionIndex < lastVersionIndex){
+                throw new IllegalArgumentException("Versions must be added in order of version index.");
+            }
+            previousVersionIndex = lastVersionIndex;
+            lastVersionIndex = versionIndex;
+            versionStrings.put(versionIndex, version.getVersionString());
+            versionDates.put(versionIndex, version.getVersionDate());
+        }
+        smellIds.add(uniqueSmellId, versionIndex, previousVersionIndex, Long.toString(smellId));
+        characteristics.forEach((name, value) -> columns.computeIfAbsent(name, n -> new Column())
+                .add(uniqueSmellId, versionIndex, previousVersionIndex, value));
+    }
+
+    /**
+     * Returns the unique IDs of the smells in this store.
+     * @return a set of unique smell IDs.
+     */
+    public Set<Long> getSmells(){
+        return Collections.unmodifiableSet(smellIds.runs.keySet());
+    }
+
+    /**
+     * Returns the names of the characteristics stored, sorted alphabetically.
+     * @return a set of characteristic names.
+     */
+    public Set<String> getCharacteristicNames(){
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    /**
+     * Returns the version indexes the given smell was detected in.
+     * @param uniqueSmellId the unique ID of the smell.
+     * @return a sorted set of version indexes, empty if the smell is not in this store.
+     */
+    public SortedSet<Long> versionsOf(long uniqueSmellId){
+        SortedSet<Long> versions = new TreeSet<>();
+        Runs runs = smellIds.runs.get(uniqueSmellId);
+        if (runs != null){
+            for (int i = 0; i < runs.size; i++){
+                versions.addAll(versionStrings.subMap(runs.from[i], true, runs.to[i], true).keySet());
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Returns the characteristics of the given smell in the given version.
+     * @param uniqueSmellId the unique ID of the smell.
+     * @param versionIndex the index of the version.
+     * @return a map from characteristic names to their values, empty if the smell was not detected in the version.
+     */
+    public Map<String, String> getCharacteristics(long uniqueSmellId, long versionIndex){
+        Map<String, String> characteristics = new HashMap<>();
+        columns.forEach((name, column) -> {
+            String value = column.get(uniqueSmellId, versionIndex);
+            if (value != null){
+                characteristics.put(name, value);
+            }
+        });
+        return characteristics;
+    }
+
+    /**
+     * Returns the ID the given smell had in the given version.
+     * @param uniqueSmellId the unique ID of the smell.
+     * @param versionIndex the index of the version.
+     * @return the ID of the smell within the version, or -1 if the smell was not detected in the version.
+     */
+    public long getSmellId(long uniqueSmellId, long versionIndex){
+        String id = smellIds.get(uniqueSmellId, versionIndex);
+        return id == null ? -1 : Long.parseLong(id);
+    }
+
+    /**
+     * Returns the versions stored.
+     * @return a sorted map from version indexes to version strings.
+     */
+    public SortedMap<Long, String> getVersions(){
+        return Collections.unmodifiableSortedMap(versionStrings);
+    }
+
+    /**
+     * Returns the date of the version with the given index.
+     * @param versionIndex the index of the version.
+     * @return the date of the version, or null if the version is not stored.
+     */
+    public String getVersionDate(long versionIndex){
+        return versionDates.get(versionIndex);
+    }
+
+    /**
+     * Returns the total number of runs stored in all the columns. This is the number of values actually kept
+     * in memory.
+     * @return the number of runs.
+     */
+    public long runCount(){
+        return columns.values().stream().mapToLong(Column::runCount).sum() + smellIds.runCount();
+    }
+
+    /**
+     * Writes this store on the given file.
+     * @param file the file to write.
+     * @throws IOException if writing fails.
+     */
+    public void writeTo(File file) throws IOException {
+        try (var outStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))){
+            outStream.writeObject(this);
+        }
+    }
+
+    /**
+     * Reads a store previously written with {@link #writeTo(File)}.
+     * @param file the file to read.
+     * @return the store read.
+     * @throws IOException if reading fails.
+     * @throws ClassNotFoundException if the file does not contain a store.
+     */
+    public static CharacteristicsStore readFrom(File file) throws IOException, ClassNotFoundException {
+        try (var inpStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))){
+            return (CharacteristicsStore) inpStream.readObject();
+        }
+    }
+
+    /**
+     * Writes the content of this store on the given output, field by field.
+     * @param out the output to write to.
+     * @throws IOException if writing fails.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(versionStrings.size());
+        for (var version : versionStrings.entrySet()){
+            out.writeLong(version.getKey());
+            writeString(out, version.getValue());
+            writeString(out, versionDates.get(version.getKey()));
+        }
+        out.writeLong(lastVersionIndex);
+        out.writeLong(previousVersionIndex);
+        smellIds.writeTo(out);
+        out.writeInt(columns.size());
+        for (var column : columns.entrySet()){
+            writeString(out, column.getKey());
+            column.getValue().writeTo(out);
+        }
+    }
+
+    /**
+     * Reads a store previously written with {@link #writeTo(DataOutput)}.
+     * @param in the input to read from.
+     * @return the store read.
+     * @throws IOException if reading fails.
+     */
+    public static CharacteristicsStore readFrom(DataInput in) throws IOException {
+        var store = new CharacteristicsStore();
+        int versionCount = in.readInt();
+        for (int i = 0; i < versionCount; i++){
+            long versionIndex = in.readLong();
+            store.versionStrings.put(versionIndex, readString(in));
+            store.versionDates.put(versionIndex, readString(in));
+        }
+        store.lastVersionIndex = in.readLong();
+        store.previousVersionIndex = in.readLong();
+        store.smellIds.readFrom(in);
+        int columnCount = in.readInt();
+        for (int i = 0; i < columnCount; i++){
+            var column = new Column();
+            store.columns.put(readString(in), column);
+            column.readFrom(in);
+        }
+        return store;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null){
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0){
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * How the values of a column are encoded into longs.
+     */
+    private enum Encoding { LONG, DOUBLE, DICTIONARY }
+
+    /**
+     * The values of a single characteristic for all the smells.
+     */
+    private static class Column implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Encoding encoding;
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final Map<Long, Runs> runs = new HashMap<>();
+
+        /**
+         * Adds the value of the given smell in the given version, extending the last run of the smell if the smell
+         * had the same value in the previous version stored.
+         */
+        void add(long uniqueSmellId, long versionIndex, long previousVersionIndex, String value){
+            if (encoding == null){
+                encoding = encodingOf(value);
+            } else if (encoding != Encoding.DICTIONARY && encodingOf(value) != encoding){
+                toDictionary();
+            }
+            long code = encode(value);
+            Runs smellRuns = runs.computeIfAbsent(uniqueSmellId, id -> new Runs());
+            int last = smellRuns.size - 1;
+            if (last >= 0 && smellRuns.to[last] == previousVersionIndex && smellRuns.values[last] == code){
+                smellRuns.to[last] = versionIndex;
+            } else if (last < 0 || smellRuns.to[last] != versionIndex){
+                smellRuns.append(versionIndex, code);
+            }
+        }
+
+        String get(long uniqueSmellId, long versionIndex){
+            Runs smellRuns = runs.get(uniqueSmellId);
+            if (smellRuns == null){
+                return null;
+            }
+            int run = smellRuns.find(versionIndex);
+            return run < 0 ? null : decode(encoding, smellRuns.values[run]);
+        }
+
+        long runCount(){
+            return runs.values().stream().mapToLong(r -> r.size).sum();
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeByte(encoding == null ? -1 : encoding.ordinal());
+            out.writeInt(dictionary.size());
+            for (String value : dictionary){
+                writeString(out, value);
+            }
+            out.writeInt(runs.size());
+            for (var smellRuns : runs.entrySet()){
+                out.writeLong(smellRuns.getKey());
+                Runs r = smellRuns.getValue();
+                out.writeInt(r.size);
+                for (int i = 0; i < r.size; i++){
+                    out.writeLong(r.from[i]);
+                    out.writeLong(r.to[i]);
+                    out.writeLong(r.values[i]);
+                }
+            }
+        }
+
+        void readFrom(DataInput in) throws IOException {
+            byte ordinal = in.readByte();
+            encoding = ordinal < 0 ? null : Encoding.values()[ordinal];
+            int dictionarySize = in.readInt();
+            for (int i = 0; i < dictionarySize; i++){
+                String value = readString(in);
+                codes.put(value, dictionary.size());
+                dictionary.add(value);
+            }
+            int smellCount = in.readInt();
+            for (int s = 0; s < smellCount; s++){
+                long uniqueSmellId = in.readLong();
+                Runs r = new Runs();
+                int size = in.readInt();
+                for (int i = 0; i < size; i++){
+                    long from = in.readLong();
+                    long to = in.readLong();
+                    r.append(from, in.readLong());
+                    r.to[i] = to;
+                }
+                runs.put(uniqueSmellId, r);
+            }
+        }
+
+        private Encoding encodingOf(String value){
+            try {
+                if (Long.toString(Long.parseLong(value)).equals(value)){
+                    return Encoding.LONG;
+                }
+            } catch (NumberFormatException e){
+                // not a long
+            }
+            try {
+                if (Double.toString(Double.parseDouble(value)).equals(value)){
+                    return Encoding.DOUBLE;
+                }
+            } catch (NumberFormatException e){
+                // not a double
+            }
+            return Encoding.DICTIONARY;
+        }
+
+        private long encode(String value){
+            switch (encoding){
+                case LONG:
+                    return Long.parseLong(value);
+                case DOUBLE:
+                    return Double.doubleToLongBits(Double.parseDouble(value));
+                default:
+                    return codes.computeIfAbsent(value, v -> {
+                        dictionary.add(v);
+                        return dictionary.size() - 1;
+                    });
+            }
+        }
+
+        private String decode(Encoding encoding, long code){
+            switch (encoding){
+                case LONG:
+                    return Long.toString(code);
+                case DOUBLE:
+                    return Double.toString(Double.longBitsToDouble(code));
+                default:
+                    return dictionary.get((int) code);
+            }
+        }
+
+        /**
+         * Re-encodes the values already stored in this column through the dictionary. This happens when a value
+         * cannot be encoded with the encoding chosen for the first values of the column.
+         */
+        private void toDictionary(){
+            Encoding previous = encoding;
+            encoding = Encoding.DICTIONARY;
+            for (Runs smellRuns : runs.values()){
+                for (int i = 0; i < smellRuns.size; i++){
+                    smellRuns.values[i] = encode(decode(previous, smellRuns.values[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * The runs of a smell within a column. A run spans the versions from {@code from} to {@code to} (inclusive)
+     * during which the smell was detected in every version stored and had the same value.
+     */
+    private static class Runs implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private long[] from = new long[2];
+        private long[] to = new long[2];
+        private long[] values = new long[2];
+        private int size;
+
+        void append(long versionIndex, long value){
+            if (size == from.length){
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            from[size] = versionIndex;
+            to[size] = versionIndex;
+            values[size] = value;
+            size++;
+        }
+
+        /**
+         * Finds the run containing the given version index.
+         * @param versionIndex the version index.
+         * @return the position of the run, or -1 if no run contains the version index.
+         */
+        int find(long versionIndex){
+            int low = 0, high = size - 1;
+            while (low <= high){
+                int mid = (low + high) >>> 1;
+                if (to[mid] < versionIndex){
+                    low = mid + 1;
+                } else if (from[mid] > versionIndex){
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package org.rug.tracker;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.rug.data.project.IVersion;
+import org.rug.data.smells.ArchitecturalSmell;
+
+import java.util.*;
+
+import static org.rug.tracker.ASmellTracker.*;
+
+/**
+ * Writes the smells detected in a version into the condensed graph.
+ * The smells of a version are accumulated with {@link #add(long, ArchitecturalSmell)} and written in one pass by
+ * {@link #write(IVersion)}. Components are looked up by name from an index built once from the condensed graph.
+ * The {@link ASmellTracker#HAS_CHARACTERISTIC} and {@link ASmellTracker#AFFECTS} edges are run-length encoded: a single edge
+ * spans the consecutive tracked versions where a smell (or component) has the same characteristics, or where a smell
+ * affects the same component, and its {@link ASmellTracker#END_VERSION_INDEX} is moved forward while the run lasts.
+ * Each tracked version is written as a {@link ASmellTracker#VERSION} vertex, so that {@link VersionRuns} can expand the
+ * runs into the versions they span.
+ * If a {@link CharacteristicsStore} is given, the characteristics of smells are written into the store instead.
+ */
+class CondensedGraphWriter {
+
+    private final Graph condensedGraph;
+    private final Map<Long, Vertex> uniqueSmellsMap;
+    private final CharacteristicsStore characteristicsStore;
+    private final Map<String, Vertex> components;
+    private final Map<Long, CharacteristicRun> smellRuns;
+    private final Map<String, CharacteristicRun> componentRuns;
+    private final Map<Long, Map<String, Edge>> affectsRuns;
+
+    private long[] uniqueSmellIds;
+    private ArchitecturalSmell[] smells;
+    private int size;
+
+    /**
+     * Builds a writer for the given condensed graph. The runs that end in the last version written into
+     * the condensed graph are resumed, so that they can be extended by the next version.
+     * @param condensedGraph the condensed graph to write to.
+     * @param uniqueSmellsMap the map from unique smell IDs to the smell vertices in the condensed graph.
+     * @param characteristicsStore the store where to write the characteristics of smells, or null to write them
+     *                             into the condensed graph.
+     */
+    CondensedGraphWriter(Graph condensedGraph, Map<Long, Vertex> uniqueSmellsMap, CharacteristicsStore characteristicsStore) {
+        this.condensedGraph = condensedGraph;
+        this.uniqueSmellsMap = uniqueSmellsMap;
+        this.characteristicsStore = characteristicsStore;
+        this.components = new HashMap<>();
+        this.smellRuns = new HashMap<>();
+        this.componentRuns = new HashMap<>();
+        this.affectsRuns = new HashMap<>();
+        this.uniqueSmellIds = new long[64];
+        this.smells = new ArchitecturalSmell[64];
+        this.size = 0;
+        long lastVersionIndex = Long.MIN_VALUE;
+        var vertices = condensedGraph.vertices();
+        while (vertices.hasNext()) {
+            Vertex v = vertices.next();
+            if (v.label().equals(COMPONENT)) {
+                components.put(v.value(NAME), v);
+            } else if (v.label().equals(VERSION)) {
+                lastVersionIndex = Math.max(lastVersionIndex, v.value(VERSION_INDEX));
+            }
+        }
+        if (lastVersionIndex != Long.MIN_VALUE) {
+            resumeRuns(lastVersionIndex);
+        }
+    }
+
+    /**
+     * Resumes the runs whose edges end in the given version.
+     * @param lastVersionIndex the index of the last version written into the condensed graph.
+     */
+    private void resumeRuns(long lastVersionIndex){
+        condensedGraph.edges().forEachRemaining(e -> {
+            if (!e.property(END_VERSION_INDEX).isPresent() || e.<Long>value(END_VERSION_INDEX) != lastVersionIndex) {
+                return;
+            }
+            Vertex owner = e.outVertex();
+            if (e.label().equals(AFFECTS)) {
+                affectsRuns.computeIfAbsent(owner.value(UNIQUE_SMELL_ID), uid -> new HashMap<>()).put(e.inVertex().value(NAME), e);
+            } else if (e.label().equals(HAS_CHARACTERISTIC) && owner.label().equals(SMELL)) {
+                smellRuns.put(owner.value(UNIQUE_SMELL_ID), new CharacteristicRun(e));
+            } else if (e.label().equals(HAS_CHARACTERISTIC)) {
+                componentRuns.put(owner.value(NAME), new CharacteristicRun(e));
+            }
+        });
+    }
+
+    /**
+     * Adds the given smell to the smells to write for the current version.
+     * @param uniqueSmellId the unique ID of the dynasty of the smell.
+     * @param smell the smell detected in the current version.
+     */
+    void add(long uniqueSmellId, ArchitecturalSmell smell){
+        if (size == smells.length){
+            uniqueSmellIds = Arrays.copyOf(uniqueSmellIds, size * 2);
+            smells = Arrays.copyOf(smells, size * 2);
+        }
+        uniqueSmellIds[size] = uniqueSmellId;
+        smells[size] = smell;
+        size++;
+    }
+
+    /**
+     * Returns the number of smells added since the last write.
+     * @return the number of smells to write.
+     */
+    int size(){
+        return size;
+    }
+
+    /**
+     * Writes the smells added since the last write into the condensed graph.
+     * @param version the version the smells were detected in.
+     */
+    void write(IVersion version){
+        String versionString = version.getVersionString();
+        long versionIndex = version.getVersionIndex();
+        String versionDate = version.getVersionDate();
+        Set<String> updatedComponents = new HashSet<>();
+        condensedGraph.addVertex(T.label, VERSION,
+                VERSION, versionString,
+                VERSION_INDEX, versionIndex,
+                VERSION_DATE, versionDate);
+
+        for (int i = 0; i < size; i++) {
+            long smellUID = uniqueSmellIds[i];
+            ArchitecturalSmell smellObject = smells[i];
+            String affectedComponentType = smellObject.getLevel().toString();
+
+            Vertex condensedSmell = uniqueSmellsMap.computeIfAbsent(smellUID, uid -> condensedGraph.addVertex(T.label, SMELL,
+                    UNIQUE_SMELL_ID, smellUID,
+                    FIRST_APPEARED, versionString,
+                    FIRST_APPEARED_INDEX, versionIndex,
+                    FIRST_APPEARED_DATE, versionDate));
+            if (!condensedSmell.property(SMELL_TYPE).isPresent()){
+                condensedSmell.property(SMELL_TYPE, smellObject.getType().toString());
+            }
+
+            if (characteristicsStore != null) {
+                characteristicsStore.add(smellUID, version, smellObject.getId(), smellObject.getCharacteristicsMap());
+            } else {
+                var run = smellRuns.computeIfAbsent(smellUID, uid -> new CharacteristicRun());
+                run.next(condensedSmell, new HashMap<>(smellObject.getCharacteristicsMap()), CHARACTERISTIC, version);
+                run.addSmellId(smellObject.getId());
+            }
+
+            Map<String, Edge> previousAffects = affectsRuns.getOrDefault(smellUID, Collections.emptyMap());
+            Map<String, Edge> currentAffects = new HashMap<>();
+
+            for (Vertex affectedComp : smellObject.getAffectedElements()) {
+                String name = affectedComp.value(NAME);
+                Vertex component = components.computeIfAbsent(name, n -> condensedGraph.addVertex(T.label, COMPONENT,
+                        NAME, name,
+                        COMPONENT_TYPE, affectedComponentType));
+                if (updatedComponents.add(name)) {
+                    Map<String, Object> componentProperties = new HashMap<>();
+                    affectedComp.keys().stream().filter(k -> !k.equals(NAME)).forEach(k ->
+                            componentProperties.put(k, affectedComp.value(k)));
+                    componentRuns.computeIfAbsent(name, n -> new CharacteristicRun())
+                            .next(component, componentProperties, COMPONENT_CHARACTERISTIC, version);
+                }
+                if (currentAffects.containsKey(name)) {
+                    continue;
+                }
+                Edge affects = previousAffects.get(name);
+                if (affects != null) {
+                    affects.property(END_VERSION_INDEX, versionIndex);
+                } else {
+                    affects = condensedSmell.addEdge(AFFECTS, component,
+                            VERSION, versionString,
+                            VERSION_INDEX, versionIndex,
+                            VERSION_DATE, versionDate,
+                            END_VERSION_INDEX, versionIndex);
+                }
+                currentAffects.put(name, affects);
+            }
+            affectsRuns.put(smellUID, currentAffects);
+
+            long age = condensedSmell.<Long>property(AGE).orElse(0L);
+            condensedSmell.property(AGE, ++age);
+            condensedSmell.property(LAST_DETECTED, versionString);
+            condensedSmell.property(LAST_DETECTED_INDEX, versionIndex);
+            condensedSmell.property(LAST_DETECTED_DATE, versionDate);
+        }
+
+        // Runs of smells and components that were not updated in this version are interrupted.
+        Set<Long> updatedSmells = new HashSet<>(size);
+        for (int i = 0; i < size; i++) {
+            updatedSmells.add(uniqueSmellIds[i]);
+        }
+        smellRuns.entrySet().removeIf(run -> {
+            if (updatedSmells.contains(run.getKey())) {
+                return false;
+            }
+            run.getValue().flushSmellIds();
+            return true;
+        });
+        affectsRuns.keySet().retainAll(updatedSmells);
+        componentRuns.keySet().retainAll(updatedComponents);
+        Arrays.fill(smells, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Writes the IDs of the smells of the runs still open into their edges, so that the condensed graph can be read
+     * or exported. The IDs are otherwise written only when a run ends.
+     */
+    void flush(){
+        smellRuns.values().forEach(CharacteristicRun::flushSmellIds);
+    }
+
+    /**
+     * The edge from a smell or component to the characteristics it has in consecutive versions.
+     * The IDs of a smell in the versions of the run are accumulated in the run and written into the
+     * {@link ASmellTracker#SMELL_IDS} property of the edge when the run ends or the writer is flushed.
+     */
+    private class CharacteristicRun {
+        private Map<String, ?> values;
+        private Edge edge;
+        private final StringBuilder smellIds = new StringBuilder();
+        private boolean smellIdsChanged;
+
+        CharacteristicRun(){ }
+
+        /**
+         * Resumes the run of the given edge.
+         * @param edge the edge of the run.
+         */
+        CharacteristicRun(Edge edge){
+            Map<String, Object> values = new HashMap<>();
+            edge.inVertex().properties().forEachRemaining(p -> values.put(p.key(), p.value()));
+            this.values = values;
+            this.edge = edge;
+            edge.<String>property(SMELL_IDS).ifPresent(smellIds::append);
+        }
+
+        /**
+         * Adds the ID of the smell in the last version of the run.
+         * @param smellId the ID of the smell.
+         */
+        void addSmellId(long smellId){
+            if (smellIds.length() > 0) {
+                smellIds.append(',');
+            }
+            smellIds.append(smellId);
+            smellIdsChanged = true;
+        }
+
+        /**
+         * Writes the IDs of the smell added since the last flush into the edge of the run.
+         */
+        void flushSmellIds(){
+            if (smellIdsChanged) {
+                edge.property(SMELL_IDS, smellIds.toString());
+                smellIdsChanged = false;
+            }
+        }
+
+        /**
+         * Extends the run to the given version if the characteristics are unchanged, otherwise starts a new run
+         * with a new characteristic vertex.
+         * @param owner the smell or component vertex.
+         * @param values the characteristics in the given version.
+         * @param label the label of the characteristic vertex.
+         * @param version the version.
+         * @return true if a new run was started, false if the current run was extended.
+         */
+        boolean next(Vertex owner, Map<String, ?> values, String label, IVersion version){
+            if (edge != null && values.equals(this.values)){
+                edge.property(END_VERSION_INDEX, version.getVersionIndex());
+                return false;
+            }
+            if (edge != null) {
+                flushSmellIds();
+                smellIds.setLength(0);
+            }
+            Vertex vertex = condensedGraph.addVertex(label);
+            values.forEach(vertex::property);
+            this.values = values;
+            this.edge = owner.addEdge(HAS_CHARACTERISTIC, vertex,
+                    VERSION, version.getVersionString(),
+                    VERSION_INDEX, version.getVersionIndex(),
+                    VERSION_DATE, version.getVersionDate(),
+                    END_VERSION_INDEX, version.getVersionIndex());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.rug.tracker;
+
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Holds the smells that were not detected in the latest version tracked, but that may still reappear in the following
+ * versions when tracking smells through non-consecutive versions.
+ * The smells are indexed by type and by the simple names of their affected elements and dependencies, so that only the
+ * dormant smells sharing an element with a new smell are scored against it. Since every linker compares either the
+ * full or the simple names of these elements, the smells excluded this way have a similarity of zero.
+ * The smells expire, in the order they were last detected, once more than the given number of versions were skipped.
+ */
+public class DormantSmellPool {
+
+    private final int maxSkippedVersions;
+    private final Map<SmellSnapshot, Entry> entries;
+    private final Map<ArchitecturalSmell.Type, Map<String, Set<Entry>>> index;
+    private final PriorityQueue<Entry> expiryQueue;
+
+    /**
+     * Orders the smells by the version they were last detected in and by their id, so that the order does not depend
+     * on the order the smells were added in, nor on whether the pool was rebuilt from the track graph.
+     */
+    private static final Comparator<Entry> DETECTION_ORDER = Comparator.<Entry>comparingLong(e -> e.versionIndex)
+            .thenComparingLong(e -> e.smell.getId());
+
+    /**
+     * Builds an empty pool.
+     * @param maxSkippedVersions the maximum number of versions a smell can skip before expiring.
+     */
+    public DormantSmellPool(int maxSkippedVersions) {
+        this.maxSkippedVersions = maxSkippedVersions;
+        this.entries = new IdentityHashMap<>();
+        this.index = new EnumMap<>(ArchitecturalSmell.Type.class);
+        this.expiryQueue = new PriorityQueue<>(DETECTION_ORDER);
+    }
+
+    /**
+     * Adds a smell to this pool.
+     * @param smell the smell.
+     * @param versionIndex the index of the version the smell was last detected in.
+     */
+    public void add(SmellSnapshot smell, long versionIndex) {
+        var entry = new Entry(smell, versionIndex);
+        if (entries.putIfAbsent(smell, entry) != null)
+            return;
+        var typeIndex = index.computeIfAbsent(smell.getType(), t -> new HashMap<>());
+        for (String name : entry.names) {
+            typeIndex.computeIfAbsent(name, n -> new LinkedHashSet<>()).add(entry);
+        }
+        expiryQueue.add(entry);
+    }
+
+    /**
+     * Removes a smell from this pool, for example after it was linked to a smell of the latest version.
+     * @param smell the smell.
+     * @return true if the smell was in this pool.
+     */
+    public boolean remove(SmellSnapshot smell) {
+        var entry = entries.remove(smell);
+        if (entry == null)
+            return false;
+        var typeIndex = index.get(smell.getType());
+        for (String name : entry.names) {
+            var postings = typeIndex.get(name);
+            postings.remove(entry);
+            if (postings.isEmpty()) {
+                typeIndex.remove(name);
+            }
+        }
+        // The entry is left in the expiry queue and skipped once polled.
+        entry.removed = true;
+        return true;
+    }
+
+    /**
+     * Removes the smells that can no longer reappear in the version with the given index, that is the smells that
+     * would skip more than the maximum number of versions.
+     * @param versionIndex the index of the version being tracked.
+     * @return the smells removed, in the order they were last detected.
+     */
+    public List<SmellSnapshot> expire(long versionIndex) {
+        List<SmellSnapshot> expired = new ArrayList<>();
+        while (!expiryQueue.isEmpty() && versionIndex - expiryQueue.peek().versionIndex - 1 > maxSkippedVersions) {
+            var entry = expiryQueue.poll();
+            if (!entry.removed) {
+                remove(entry.smell);
+                expired.add(entry.smell);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the smells in this pool having the same type and at least one element in common with any of the given smells.
+     * @param smells the smells to find the candidates of.
+     * @return the candidates, in the order they were last detected.
+     */
+    public List<SmellSnapshot> candidatesOf(List<SmellSnapshot> smells) {
+        Set<Entry> candidates = new HashSet<>();
+        for (SmellSnapshot smell : smells) {
+            var typeIndex = index.get(smell.getType());
+            if (typeIndex == null)
+                continue;
+            namesOf(smell).forEach(name -> {
+                var postings = typeIndex.get(name);
+                if (postings != null) {
+                    candidates.addAll(postings);
+                }
+            });
+        }
+        List<Entry> sorted = new ArrayList<>(candidates);
+        sorted.sort(DETECTION_ORDER);
+        List<SmellSnapshot> result = new ArrayList<>(sorted.size());
+        sorted.forEach(e -> result.add(e.smell));
+        return result;
+    }
+
+    /**
+     * Returns the smells in this pool, in the order they were last detected.
+     * @return an ordered map from the smells to the index of the version they were last detected in.
+     */
+    public Map<SmellSnapshot, Long> getSmells() {
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(DETECTION_ORDER);
+        Map<SmellSnapshot, Long> smells = new LinkedHashMap<>();
+        sorted.forEach(e -> smells.put(e.smell, e.versionIndex));
+        return smells;
+    }
+
+    /**
+     * Returns the number of smells in this pool.
+     * @return the number of dormant smells.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the simple names of the centre of the given smell, of the elements it affects and of its dependencies.
+     * @param smell the smell.
+     * @return a stream of distinct names.
+     */
+    private static Stream<String> namesOf(SmellSnapshot smell) {
+        var names = Stream.concat(smell.getAffectedElementsNames().stream(), smell.getDependenciesNames().stream());
+        if (smell.getCentreName() != null) {
+            names = Stream.concat(Stream.of(smell.getCentreName()), names);
+        }
+        return names.map(name -> name.substring(name.lastIndexOf('.') + 1))
+                .distinct();
+    }
+
+    private static final class Entry {
+        private final SmellSnapshot smell;
+        private final long versionIndex;
+        private final String[] names;
+        private boolean removed;
+
+        private Entry(SmellSnapshot smell, long versionIndex) {
+            this.smell = smell;
+            this.versionIndex = versionIndex;
+            this.names = namesOf(smell).toArray(String[]::new);
+        }
+    }
+}
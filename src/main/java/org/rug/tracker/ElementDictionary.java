@@ -0,0 +1,92 @@
+package org.rug.tracker;
+
+import org.rug.data.smells.SmellSnapshot;
+
+import java.util.*;
+
+/**
+ * Interns the names of the elements affected by the smells of two versions into integer identifiers.
+ * The elements of every smell are stored once as a sorted array of identifiers, so that the similarity
+ * between two smells can be computed without allocating new sets.
+ */
+class ElementDictionary {
+
+    private final Map<String, Integer> ids;
+    private final Map<SmellSnapshot, int[]> elements;
+
+    /**
+     * Builds an empty dictionary.
+     */
+    ElementDictionary(){
+        this.ids = new HashMap<>();
+        this.elements = new IdentityHashMap<>();
+    }
+
+    /**
+     * Interns the given names of the elements of the given smell. Smells already added are not updated.
+     * @param smell the smell.
+     * @param names the distinct names of the elements of the smell.
+     * @return the sorted identifiers of the elements of the smell.
+     */
+    int[] add(SmellSnapshot smell, Collection<String> names){
+        return elements.computeIfAbsent(smell, s -> {
+            int[] smellElements = new int[names.size()];
+            int i = 0;
+            for (String name : names){
+                smellElements[i++] = ids.computeIfAbsent(name, n -> ids.size());
+            }
+            Arrays.sort(smellElements);
+            return smellElements;
+        });
+    }
+
+    /**
+     * Returns the identifiers of the elements of the given smell.
+     * @param smell a smell previously added to this dictionary.
+     * @return the sorted identifiers of the elements of the smell, or null if the smell was never added.
+     */
+    int[] elementsOf(SmellSnapshot smell){
+        return elements.get(smell);
+    }
+
+    /**
+     * Returns the number of distinct names interned by this dictionary. Identifiers range from zero to this
+     * value (exclusive).
+     * @return the number of names.
+     */
+    int size(){
+        return ids.size();
+    }
+
+    /**
+     * Counts the elements in common between the two given sorted arrays of identifiers.
+     * @param a the first sorted array.
+     * @param b the second sorted array.
+     * @return the size of the intersection.
+     */
+    static int intersectionSize(int[] a, int[] b){
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length){
+            if (a[i] < b[j]){
+                i++;
+            } else if (a[i] > b[j]){
+                j++;
+            } else {
+                count++; i++; j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Calculates the Jaccard similarity between the two given sorted arrays of identifiers.
+     * @param a the first sorted array.
+     * @param b the second sorted array.
+     * @return the Jaccard similarity, or zero if both arrays are empty.
+     */
+    static double jaccard(int[] a, int[] b){
+        int intersectionSize = intersectionSize(a, b);
+        int denominator = a.length + b.length - intersectionSize;
+        return denominator == 0 ? 0 : intersectionSize / (double)denominator;
+    }
+}
@@ -1,6 +1,6 @@
 package org.rug.tracker;
 
-import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
 
 import java.io.Serializable;
 import java.util.List;
@@ -21,7 +21,7 @@ public interface ISimilarityLinker extends Serializable {
      * @return a descending sorted list of triples where the first value of the list is the current smell element,
      * the second is the next version element, and the third value of the triple is the similarity score.
      */
-    Set<LinkScoreTriple> bestMatch(List<ArchitecturalSmell> currentVersionSmells, List<ArchitecturalSmell> nextVersionSmells);
+    Set<LinkScoreTriple> bestMatch(List<SmellSnapshot> currentVersionSmells, List<SmellSnapshot> nextVersionSmells);
 
     /**
      * Returns the last best match set computed. See {@link #bestMatch(List, List)} for more info.
@@ -34,4 +34,9 @@ public interface ISimilarityLinker extends Serializable {
      */
     List<LinkScoreTriple> getUnlinkedMatchScores();
 
+    /**
+     * Releases the threads used by this linker, if any. The linker can still be used afterwards.
+     */
+    default void shutdown() {}
+
 }
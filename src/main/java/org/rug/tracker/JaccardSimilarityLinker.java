@@ -1,11 +1,15 @@
 package org.rug.tracker;
 
-import org.rug.data.SmellVisitor;
-import org.rug.data.smells.*;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
 
 /**
  *  The Jaccard coefficient measures similarity between finite sample sets,
@@ -16,66 +20,263 @@ import java.util.*;
  *  version may not be assigned to the one with the highest simalirity since that smell may have already
  *  have been assigned. Moreover, smells with a similarity under the given threshold are not linked.
  */
-public class JaccardSimilarityLinker implements ISimilarityLinker, SmellVisitor<Set<String>> {
+public class JaccardSimilarityLinker implements ISimilarityLinker {
+
+    private static final int MIN_CHUNK_SIZE = 256;
 
     private final double fewElementsThreshold;
     private final double moreElementsThreshold;
     private final int fewElements;
+    private final boolean indexCandidates;
+    private final int parallelism;
+    private boolean exactMatching;
     private transient List<LinkScoreTriple> unlinkedMatchScores;
     private transient Set<LinkScoreTriple> bestMatch;
+    private transient Map<SmellSnapshot, Collection<String>> visitedElements;
+    private transient Map<SmellSnapshot, Long> fingerprints;
+    private transient ForkJoinPool pool;
     /**
      * Builds this linker with the given threshold.
      * @param fewElementsThreshold the threshold value to use for discarding couples with not enough similarity. This
      *                             threshold is applied when the number of affected elements is less than <code>fewElements</code>.
      * @param moreElementsThreshold the threshold to use for discarding when the affected elements are more than few elements.
+     * @param indexCandidates whether to score only the couples of smells sharing at least one element (see {@link #bestMatch(List, List)}).
+     * @param parallelism the number of threads to use for matching. Values lower than 2 disable parallel matching.
      */
-    public JaccardSimilarityLinker(double fewElementsThreshold, double moreElementsThreshold, int fewElements) {
+    public JaccardSimilarityLinker(double fewElementsThreshold, double moreElementsThreshold, int fewElements, boolean indexCandidates, int parallelism) {
         this.fewElementsThreshold = fewElementsThreshold;
         this.moreElementsThreshold = moreElementsThreshold;
         this.fewElements = fewElements;
+        this.indexCandidates = indexCandidates;
+        this.parallelism = Math.max(1, parallelism);
+        this.exactMatching = true;
         this.unlinkedMatchScores = new ArrayList<>();
         this.bestMatch = new HashSet<>(0);
+        this.visitedElements = new IdentityHashMap<>();
+        this.fingerprints = new IdentityHashMap<>();
+    }
+
+    /**
+     * Builds this linker with the given threshold. Every couple of smells with the same type is scored.
+     * @param fewElementsThreshold the threshold value to use for discarding couples with not enough similarity. This
+     *                             threshold is applied when the number of affected elements is less than <code>fewElements</code>.
+     * @param moreElementsThreshold the threshold to use for discarding when the affected elements are more than few elements.
+     */
+    public JaccardSimilarityLinker(double fewElementsThreshold, double moreElementsThreshold, int fewElements) {
+        this(fewElementsThreshold, moreElementsThreshold, fewElements, false, 1);
     }
 
     /**
      * Builds a linker with few elements equal to 5, few elements threshold equal to 0.6, and more elements threshold equal to 0.75.
      * These thresholds were chosen to protect smells with low elements to be excluded from calculation since variations
      * of a single element when the size is less than three has a great variation on the score computed.
+     * @param indexCandidates whether to score only the couples of smells sharing at least one element.
+     * @param parallelism the number of threads to use for matching.
      */
-    public JaccardSimilarityLinker(){this(0.6, 0.67, 5);}
+    public JaccardSimilarityLinker(boolean indexCandidates, int parallelism){this(0.6, 0.67, 5, indexCandidates, parallelism);}
+
+    /**
+     * Builds a linker with few elements equal to 5, few elements threshold equal to 0.6, and more elements threshold equal to 0.75.
+     * Matching is performed on the calling thread.
+     * @param indexCandidates whether to score only the couples of smells sharing at least one element.
+     */
+    public JaccardSimilarityLinker(boolean indexCandidates){this(indexCandidates, 1);}
+
+    /**
+     * Builds a linker with few elements equal to 5, few elements threshold equal to 0.6, and more elements threshold equal to 0.75.
+     * Every couple of smells with the same type is scored.
+     */
+    public JaccardSimilarityLinker(){this(false);}
 
     /**
      * Calculates the best match for every pair of smell in the two given lists and returns an ordered list
      * of pair of smells that can be linked together according to the strategy of this similarity linker.
      * Values that do not satisfy the given threshold are also excluded.
+     * When candidate indexing is enabled, only the couples of smells of the same type that share at least one
+     * element are scored. Since the remaining couples have a similarity of zero, they would be discarded by any positive
+     * threshold, and the result is identical to the one obtained by scoring every couple.
+     * When exact matching is enabled (see {@link #setExactMatching(boolean)}), the smells that are identical to a
+     * single smell of the other version are linked first, with a similarity of 1.0, and only the remaining smells are scored.
      * @param currentVersionSmells the smells of this version
      * @param nextVersionSmells the smells of the next version
      * @return a descending sorted list of triples where the first value of the list is the current smell element,
      * the second is the next version element, and the third value of the triple is the similarity score.
      */
     @Override
-    public Set<LinkScoreTriple> bestMatch(List<ArchitecturalSmell> currentVersionSmells, List<ArchitecturalSmell> nextVersionSmells) {
-        List<LinkScoreTriple> matchList = new ArrayList<>();
-        for(ArchitecturalSmell s1 : currentVersionSmells) {
-            for (ArchitecturalSmell s2 : nextVersionSmells) {
-                if (s1.getType() == s2.getType()) {
-                    double similarityScore = calculateJaccardSimilarity(s1, s2);
-                    matchList.add(new LinkScoreTriple(s1, s2, similarityScore));
-                }
+    public Set<LinkScoreTriple> bestMatch(List<SmellSnapshot> currentVersionSmells, List<SmellSnapshot> nextVersionSmells) {
+        ElementDictionary dictionary = internElements(currentVersionSmells, nextVersionSmells);
+        List<LinkScoreTriple> identical = exactMatching ? matchIdentical(currentVersionSmells, nextVersionSmells, dictionary) : List.of();
+        List<SmellSnapshot> residualCurrent = currentVersionSmells;
+        List<SmellSnapshot> residualNext = nextVersionSmells;
+        if (!identical.isEmpty()) {
+            Set<SmellSnapshot> matched = Collections.newSetFromMap(new IdentityHashMap<>(identical.size() * 2));
+            identical.forEach(t -> { matched.add(t.getA()); matched.add(t.getB()); });
+            residualCurrent = currentVersionSmells.stream().filter(s -> !matched.contains(s)).collect(Collectors.toList());
+            residualNext = nextVersionSmells.stream().filter(s -> !matched.contains(s)).collect(Collectors.toList());
+        }
+        List<LinkScoreTriple> matchList = new ArrayList<>(identical);
+        List<LinkScoreTriple> linked = new ArrayList<>(identical);
+        if (parallelism > 1) {
+            var partitions = getPool().invoke(new MatchAllTask(residualCurrent, residualNext, dictionary));
+            partitions.forEach(p -> { matchList.addAll(p.matchList); linked.addAll(p.linked); });
+        } else {
+            var scored = scoreAndFilter(residualCurrent, scorerOf(residualNext, dictionary));
+            matchList.addAll(scored);
+            linked.addAll(scored);
+        }
+        if (parallelism > 1 || !identical.isEmpty()) {
+            var order = new IdentityHashMap<SmellSnapshot, Integer>(currentVersionSmells.size());
+            for (int i = 0; i < currentVersionSmells.size(); i++){
+                order.putIfAbsent(currentVersionSmells.get(i), i);
             }
+            // Restore the order of the sequential implementation, so that ties are resolved in the same way.
+            Comparator<LinkScoreTriple> byCurrentSmell = Comparator.comparing(t -> order.get(t.getA()));
+            matchList.sort(byCurrentSmell);
+            linked.sort(byCurrentSmell);
         }
-        matchList.removeIf( t ->  {
-            double variableThreshold = t.getA().getAffectedElements().size() <= fewElements ? fewElementsThreshold : moreElementsThreshold;
-            return variableThreshold > t.getC();
-        });
+        linked.sort(Comparator.comparing(t -> (LinkScoreTriple)t).reversed());
         unlinkedMatchScores.clear();
         unlinkedMatchScores.addAll(matchList);
-        matchList.sort(Comparator.comparing(t -> (LinkScoreTriple)t).reversed());
-        bestMatch = new JaccardTripleSet(matchList);
+        bestMatch = new JaccardTripleSet(linked);
         //bestMatch = new BestMatchSet(matchList);
         return bestMatch;
     }
 
+    /**
+     * Links the smells of the current version to the identical smells of the next version by joining them on their
+     * fingerprints (see {@link #fingerprintOf(SmellSnapshot, Collection)}). Only the fingerprints shared by exactly one
+     * smell of each version are linked, and the elements of the two smells are compared to rule out collisions.
+     * Since two smells have a similarity of 1.0 only if they have the same elements, a smell linked this way has no
+     * other couple that could be preferred to the one returned, and scoring the remaining smells yields the same links.
+     * The only exception are cycles with the same elements and different shapes, where the cycle with the same shape is preferred.
+     * @param currentVersionSmells the smells of this version
+     * @param nextVersionSmells the smells of the next version
+     * @param dictionary the dictionary containing the elements of the given smells
+     * @return the couples of identical smells, with a similarity of 1.0, in the order of the smells of this version.
+     */
+    private List<LinkScoreTriple> matchIdentical(List<SmellSnapshot> currentVersionSmells, List<SmellSnapshot> nextVersionSmells,
+                                                 ElementDictionary dictionary){
+        if (Math.max(fewElementsThreshold, moreElementsThreshold) > 1) {
+            return List.of();
+        }
+        // Maps every fingerprint to the position of the only smell having it, or to -1 if many smells have it.
+        Map<Long, Integer> nextByFingerprint = new HashMap<>(nextVersionSmells.size() * 2);
+        for (int i = 0; i < nextVersionSmells.size(); i++){
+            nextByFingerprint.merge(fingerprints.get(nextVersionSmells.get(i)), i, (a, b) -> -1);
+        }
+        Map<Long, Integer> currentByFingerprint = new HashMap<>(currentVersionSmells.size() * 2);
+        for (int i = 0; i < currentVersionSmells.size(); i++){
+            currentByFingerprint.merge(fingerprints.get(currentVersionSmells.get(i)), i, (a, b) -> -1);
+        }
+        List<LinkScoreTriple> identical = new ArrayList<>();
+        for (int i = 0; i < currentVersionSmells.size(); i++){
+            SmellSnapshot s1 = currentVersionSmells.get(i);
+            long fingerprint = fingerprints.get(s1);
+            Integer j = nextByFingerprint.get(fingerprint);
+            if (j == null || j < 0 || currentByFingerprint.get(fingerprint) != i)
+                continue;
+            SmellSnapshot s2 = nextVersionSmells.get(j);
+            int[] elements1 = dictionary.elementsOf(s1);
+            if (elements1.length > 0 && s1.getType() == s2.getType() && s1.getShape() == s2.getShape()
+                    && Arrays.equals(elements1, dictionary.elementsOf(s2))){
+                identical.add(new LinkScoreTriple(s1, s2, 1.0));
+            }
+        }
+        return identical;
+    }
+
+    /**
+     * Scores the couples of smells of the given list with the given scorer and removes the couples that do not satisfy the threshold.
+     * @param currentVersionSmells the smells of this version
+     * @param scorer the scorer of the smells of the next version
+     * @return the list of scored couples that satisfy the threshold, in the order they were visited.
+     */
+    private List<LinkScoreTriple> scoreAndFilter(List<SmellSnapshot> currentVersionSmells, Scorer scorer){
+        List<LinkScoreTriple> matchList = scorer.score(currentVersionSmells);
+        matchList.removeIf(t -> thresholdOf(t.getA()) > t.getC());
+        return matchList;
+    }
+
+    /**
+     * Builds the scorer of the couples of smells that may satisfy the threshold: every couple of smells of
+     * the same type or, when candidate indexing is enabled, only the couples sharing at least one element.
+     * The scorer is built once for the smells of the next version and shared by the chunks of the smells of this
+     * version that are scored in parallel.
+     * @param nextVersionSmells the smells of the next version
+     * @param dictionary the dictionary containing the elements of the given smells
+     * @return the scorer of the smells of the next version.
+     */
+    Scorer scorerOf(List<SmellSnapshot> nextVersionSmells, ElementDictionary dictionary){
+        if (indexCandidates && Math.min(fewElementsThreshold, moreElementsThreshold) > 0) {
+            return new CandidateIndex(nextVersionSmells, dictionary)::score;
+        } else {
+            return currentVersionSmells -> scoreAll(currentVersionSmells, nextVersionSmells, dictionary);
+        }
+    }
+
+    /**
+     * Returns the minimum similarity a couple of smells must have to be linked.
+     * @param smell the smell of the current version.
+     * @return the threshold applied to the couples of the given smell, depending on the number of its affected elements.
+     */
+    double thresholdOf(SmellSnapshot smell){
+        return smell.getAffectedElementsCount() <= fewElements ? fewElementsThreshold : moreElementsThreshold;
+    }
+
+    /**
+     * Interns the elements of the smells of the two given versions into a new dictionary.
+     * The elements returned by {@link #elementsOf(SmellSnapshot)}, and their fingerprints, are cached for the smells of both versions, so that smells that
+     * are compared again in the next invocation (i.e. the smells of the next version and the smells that were not linked)
+     * are not visited again.
+     * @param currentVersionSmells the smells of this version
+     * @param nextVersionSmells the smells of the next version
+     * @return the dictionary containing the elements of all the given smells.
+     */
+    private ElementDictionary internElements(List<SmellSnapshot> currentVersionSmells, List<SmellSnapshot> nextVersionSmells){
+        Map<SmellSnapshot, Collection<String>> previouslyVisited = visitedElements;
+        Map<SmellSnapshot, Long> previousFingerprints = fingerprints;
+        visitedElements = new IdentityHashMap<>(currentVersionSmells.size() + nextVersionSmells.size());
+        fingerprints = new IdentityHashMap<>(currentVersionSmells.size() + nextVersionSmells.size());
+        ElementDictionary dictionary = new ElementDictionary();
+        for (var smells : List.of(currentVersionSmells, nextVersionSmells)) {
+            for (SmellSnapshot smell : smells) {
+                Collection<String> names = previouslyVisited.get(smell);
+                if (names == null) {
+                    names = elementsOf(smell);
+                }
+                visitedElements.put(smell, names);
+                dictionary.add(smell, names);
+                if (exactMatching) {
+                    Long fingerprint = previousFingerprints.get(smell);
+                    fingerprints.put(smell, fingerprint != null ? fingerprint : fingerprintOf(smell, names));
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * Scores every couple of smells of the same type.
+     * @param currentVersionSmells the smells of this version
+     * @param nextVersionSmells the smells of the next version
+     * @param dictionary the dictionary containing the elements of the given smells
+     * @return the list of scored couples, in the order they were visited.
+     */
+    private List<LinkScoreTriple> scoreAll(List<SmellSnapshot> currentVersionSmells, List<SmellSnapshot> nextVersionSmells,
+                                           ElementDictionary dictionary){
+        List<LinkScoreTriple> matchList = new ArrayList<>();
+        for(SmellSnapshot s1 : currentVersionSmells) {
+            int[] elements1 = dictionary.elementsOf(s1);
+            for (SmellSnapshot s2 : nextVersionSmells) {
+                if (s1.getType() == s2.getType()) {
+                    double similarityScore = ElementDictionary.jaccard(elements1, dictionary.elementsOf(s2));
+                    matchList.add(new LinkScoreTriple(s1, s2, similarityScore));
+                }
+            }
+        }
+        return matchList;
+    }
+
     @Override
     public Set<LinkScoreTriple> bestMatch() {
         return bestMatch;
@@ -87,9 +288,9 @@ public class JaccardSimilarityLinker implements ISimilarityLinker, SmellVisitor<
      * @param smell2 the second smell
      * @return the Jaccard similarity score of the two smells
      */
-    public double calculateJaccardSimilarity(ArchitecturalSmell smell1, ArchitecturalSmell smell2){
-        Set<String> A = smell1.accept(this);
-        Set<String> B = smell2.accept(this);
+    public double calculateJaccardSimilarity(SmellSnapshot smell1, SmellSnapshot smell2){
+        Set<String> A = new HashSet<>(elementsOf(smell1));
+        Set<String> B = new HashSet<>(elementsOf(smell2));
 
         int intersectionSize = intersect(A,B).size();
         int denominator = (A.size() + B.size() - intersectionSize);
@@ -108,54 +309,286 @@ public class JaccardSimilarityLinker implements ISimilarityLinker, SmellVisitor<
         Set<S> c = new HashSet<>(a); c.retainAll(b); return c;
     }
 
+    /**
+     * Enables or disables linking identical smells before scoring the remaining ones. Enabled by default.
+     * @param exactMatching whether to link the smells with the same fingerprint without scoring them.
+     */
+    public void setExactMatching(boolean exactMatching) {
+        this.exactMatching = exactMatching;
+    }
+
+    /**
+     * Returns whether the smells identical to a single smell of the other version are linked without scoring them.
+     * @return true if exact matching is enabled.
+     */
+    public boolean isExactMatching() {
+        return exactMatching;
+    }
+
+    /**
+     * Returns the number of threads used for matching.
+     * @return the parallelism level of this linker.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Releases the threads used for matching. The linker can still be used afterwards.
+     */
+    @Override
+    public synchronized void shutdown() {
+        if (pool != null){
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Lazily creates the pool used for parallel matching.
+     * @return the pool.
+     */
+    private synchronized ForkJoinPool getPool() {
+        if (pool == null){
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    public double getFewElementsThreshold() {
+        return fewElementsThreshold;
+    }
+
+    public double getMoreElementsThreshold() {
+        return moreElementsThreshold;
+    }
+
+    public int getFewElements() {
+        return fewElements;
+    }
+
+    /**
+     * Returns whether only the couples of smells sharing at least one element are scored.
+     * @return true if candidates are indexed.
+     */
+    public boolean isIndexCandidates() {
+        return indexCandidates;
+    }
+
     @Override
     public List<LinkScoreTriple> getUnlinkedMatchScores() {
         return unlinkedMatchScores;
     }
 
     /**
-     * Visit the given smell.
-     *
-     * @param smell the CD smell to visit.
+     * Returns the names of the elements of the given smell that are compared to link it: the elements affected by
+     * CD and GC smells, and the centre of HL and UD smells.
+     * @param smell the smell.
+     * @return the names of the elements of the smell.
      */
-    @Override
-    public Set<String> visit(CDSmell smell) {
-        return smell.getAffectedElementsNames();
+    protected Collection<String> elementsOf(SmellSnapshot smell) {
+        switch (smell.getType()) {
+            case HL:
+            case UD:
+                return Collections.singleton(smell.getCentreName());
+            default:
+                return smell.getAffectedElementsNames();
+        }
     }
 
     /**
-     * Visit the given smell.
-     *
-     * @param smell the HL smell to visit.
+     * Returns the fingerprint of the given smell, computed from its type, its shape and the elements compared to link it.
+     * @param smell the smell.
+     * @param elements the elements of the smell returned by {@link #elementsOf(SmellSnapshot)}.
+     * @return the fingerprint of the smell.
      */
-    @Override
-    public Set<String> visit(HLSmell smell) {
-        Set<String> elements = new HashSet<>();
-        elements.add(smell.getCentreName());
-        return elements;
+    protected long fingerprintOf(SmellSnapshot smell, Collection<String> elements) {
+        return SmellFingerprint.of(smell.getType(), smell.getShape(), elements);
     }
 
     /**
-     * Visit the given smell.
-     *
-     * @param smell the UD smell to visit.
+     * Scores the smells of a version, or of a chunk of them, against the smells of the next version.
      */
-    @Override
-    public Set<String> visit(UDSmell smell) {
-        Set<String> elements = new HashSet<>();
-        elements.add(smell.getCentreName());
-        return elements;
+    @FunctionalInterface
+    interface Scorer {
+        /**
+         * Scores the given smells against the smells of the next version.
+         * @param currentVersionSmells the smells to score.
+         * @return the list of scored couples, in the order they were visited.
+         */
+        List<LinkScoreTriple> score(List<SmellSnapshot> currentVersionSmells);
     }
 
-    @Override
-    public Set<String> visit(GCSmell smell) {
-        return smell.getAffectedElementsNames();
+    /**
+     * An inverted index, built for every smell type, that maps every element to the position of the smells of the
+     * next version that contain it. Only the couples of smells of the same type that share at least one element are
+     * scored, and they are visited in the same order as {@link #scoreAll(List, List, ElementDictionary)}, so that
+     * couples with the same score are sorted in the same way.
+     * The index is not modified once built, hence it can be shared by the chunks of smells scored in parallel.
+     */
+    static class CandidateIndex {
+        private final List<SmellSnapshot> nextVersionSmells;
+        private final ElementDictionary dictionary;
+        // The postings of every element are stored as linked lists within the arrays smellAt and nextPosting,
+        // starting from the position stored in firstPosting[type][element].
+        private final int[][] firstPosting;
+        private final int[] smellAt;
+        private final int[] nextPosting;
+
+        CandidateIndex(List<SmellSnapshot> nextVersionSmells, ElementDictionary dictionary){
+            this.nextVersionSmells = nextVersionSmells;
+            this.dictionary = dictionary;
+            this.firstPosting = new int[ArchitecturalSmell.Type.values().length][];
+            int postingsCount = 0;
+            for (SmellSnapshot s2 : nextVersionSmells){
+                postingsCount += dictionary.elementsOf(s2).length;
+            }
+            this.smellAt = new int[postingsCount];
+            this.nextPosting = new int[postingsCount];
+            int posting = 0;
+            for (int i = 0; i < nextVersionSmells.size(); i++){
+                SmellSnapshot s2 = nextVersionSmells.get(i);
+                int type = s2.getType().ordinal();
+                if (firstPosting[type] == null){
+                    firstPosting[type] = new int[dictionary.size()];
+                    Arrays.fill(firstPosting[type], -1);
+                }
+                for (int element : dictionary.elementsOf(s2)){
+                    smellAt[posting] = i;
+                    nextPosting[posting] = firstPosting[type][element];
+                    firstPosting[type][element] = posting++;
+                }
+            }
+        }
+
+        /**
+         * Scores the given smells against the smells of the next version sharing at least one element with them.
+         * @param currentVersionSmells the smells of this version
+         * @return the list of scored couples, in the order they were visited.
+         */
+        List<LinkScoreTriple> score(List<SmellSnapshot> currentVersionSmells){
+            List<LinkScoreTriple> matchList = new ArrayList<>();
+            BitSet candidates = new BitSet(nextVersionSmells.size());
+            for (SmellSnapshot s1 : currentVersionSmells){
+                int[] typePostings = firstPosting[s1.getType().ordinal()];
+                if (typePostings == null)
+                    continue;
+                int[] elements1 = dictionary.elementsOf(s1);
+                candidates.clear();
+                for (int element : elements1){
+                    for (int p = typePostings[element]; p >= 0; p = nextPosting[p]){
+                        candidates.set(smellAt[p]);
+                    }
+                }
+                for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)){
+                    SmellSnapshot s2 = nextVersionSmells.get(j);
+                    double similarityScore = ElementDictionary.jaccard(elements1, dictionary.elementsOf(s2));
+                    matchList.add(new LinkScoreTriple(s1, s2, similarityScore));
+                }
+            }
+            return matchList;
+        }
+    }
+
+    /**
+     * The result of matching the smells of a single partition.
+     */
+    private static class PartitionMatch {
+        final List<LinkScoreTriple> matchList;
+        final Set<LinkScoreTriple> linked;
+
+        PartitionMatch(List<LinkScoreTriple> matchList, Set<LinkScoreTriple> linked) {
+            this.matchList = matchList;
+            this.linked = linked;
+        }
+    }
+
+    /**
+     * Splits the smells of the two versions by type, since smells of different types are never linked, and
+     * matches every partition independently.
+     */
+    private class MatchAllTask extends RecursiveTask<List<PartitionMatch>> {
+        private final List<SmellSnapshot> currentVersionSmells;
+        private final List<SmellSnapshot> nextVersionSmells;
+        private final ElementDictionary dictionary;
+
+        MatchAllTask(List<SmellSnapshot> currentVersionSmells, List<SmellSnapshot> nextVersionSmells, ElementDictionary dictionary) {
+            this.currentVersionSmells = currentVersionSmells;
+            this.nextVersionSmells = nextVersionSmells;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        protected List<PartitionMatch> compute() {
+            Map<ArchitecturalSmell.Type, List<SmellSnapshot>> current = currentVersionSmells.stream()
+                    .collect(Collectors.groupingBy(SmellSnapshot::getType, () -> new EnumMap<>(ArchitecturalSmell.Type.class), Collectors.toList()));
+            Map<ArchitecturalSmell.Type, List<SmellSnapshot>> next = nextVersionSmells.stream()
+                    .collect(Collectors.groupingBy(SmellSnapshot::getType, () -> new EnumMap<>(ArchitecturalSmell.Type.class), Collectors.toList()));
+            List<MatchPartitionTask> tasks = new ArrayList<>();
+            current.forEach((type, smells) -> {
+                if (next.containsKey(type)) {
+                    tasks.add(new MatchPartitionTask(smells, next.get(type), dictionary));
+                }
+            });
+            return ForkJoinTask.invokeAll(tasks).stream().map(ForkJoinTask::join).collect(Collectors.toList());
+        }
     }
 
+    /**
+     * Matches the smells of a single type. The smells of the current version are split in chunks that are scored
+     * in parallel by the same scorer, whereas the greedy selection of the links is performed once all the couples were scored.
+     */
+    private class MatchPartitionTask extends RecursiveTask<PartitionMatch> {
+        private final List<SmellSnapshot> currentVersionSmells;
+        private final List<SmellSnapshot> nextVersionSmells;
+        private final ElementDictionary dictionary;
+
+        MatchPartitionTask(List<SmellSnapshot> currentVersionSmells, List<SmellSnapshot> nextVersionSmells, ElementDictionary dictionary) {
+            this.currentVersionSmells = currentVersionSmells;
+            this.nextVersionSmells = nextVersionSmells;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        protected PartitionMatch compute() {
+            int chunkSize = Math.max(MIN_CHUNK_SIZE, (currentVersionSmells.size() + parallelism - 1) / parallelism);
+            Scorer scorer = scorerOf(nextVersionSmells, dictionary);
+            List<ScoreChunkTask> chunks = new ArrayList<>();
+            for (int from = 0; from < currentVersionSmells.size(); from += chunkSize) {
+                int to = Math.min(from + chunkSize, currentVersionSmells.size());
+                chunks.add(new ScoreChunkTask(currentVersionSmells.subList(from, to), scorer));
+            }
+            List<LinkScoreTriple> matchList = new ArrayList<>();
+            ForkJoinTask.invokeAll(chunks).forEach(chunk -> matchList.addAll(chunk.join()));
+            List<LinkScoreTriple> sorted = new ArrayList<>(matchList);
+            sorted.sort(Comparator.comparing(t -> (LinkScoreTriple)t).reversed());
+            return new PartitionMatch(matchList, new JaccardTripleSet(sorted));
+        }
+    }
+
+    /**
+     * Scores a chunk of the smells of the current version against the smells of the next version.
+     */
+    private class ScoreChunkTask extends RecursiveTask<List<LinkScoreTriple>> {
+        private final List<SmellSnapshot> currentVersionSmells;
+        private final Scorer scorer;
+
+        ScoreChunkTask(List<SmellSnapshot> currentVersionSmells, Scorer scorer) {
+            this.currentVersionSmells = currentVersionSmells;
+            this.scorer = scorer;
+        }
+
+        @Override
+        protected List<LinkScoreTriple> compute() {
+            return scoreAndFilter(currentVersionSmells, scorer);
+        }
+    }
 
     private void readObject(ObjectInputStream os) throws IOException, ClassNotFoundException{
         os.defaultReadObject();
         unlinkedMatchScores = new ArrayList<>();
         bestMatch = new HashSet<>();
+        visitedElements = new IdentityHashMap<>();
+        fingerprints = new IdentityHashMap<>();
     }
 }
@@ -1,6 +1,6 @@
 package org.rug.tracker;
 
-import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -15,8 +15,8 @@ public class JaccardTripleSet extends LinkedHashSet<LinkScoreTriple> {
 
     static final long serialVersionUID = 6703014914L;
 
-    private Set<ArchitecturalSmell> current;
-    private Set<ArchitecturalSmell> next;
+    private Set<SmellSnapshot> current;
+    private Set<SmellSnapshot> next;
 
     public JaccardTripleSet(Collection<? extends LinkScoreTriple> c) {
         this();
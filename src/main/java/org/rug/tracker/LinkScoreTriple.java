@@ -1,6 +1,6 @@
 package org.rug.tracker;
 
-import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
 import org.rug.data.util.Triple;
 
 /**
@@ -8,9 +8,9 @@ import org.rug.data.util.Triple;
  * on the smells.
  * Two triples are the same if any of the two smells are the same (respecting positions).
  */
-public class LinkScoreTriple extends Triple<ArchitecturalSmell, ArchitecturalSmell, Double> implements Comparable<LinkScoreTriple> {
+public class LinkScoreTriple extends Triple<SmellSnapshot, SmellSnapshot, Double> implements Comparable<LinkScoreTriple> {
 
-    public LinkScoreTriple(ArchitecturalSmell smell, ArchitecturalSmell smell2, Double aDouble) {
+    public LinkScoreTriple(SmellSnapshot smell, SmellSnapshot smell2, Double aDouble) {
         super(smell, smell2, aDouble);
     }
 
@@ -0,0 +1,211 @@
+package org.rug.tracker;
+
+import org.rug.data.smells.SmellSnapshot;
+
+import java.util.*;
+
+/**
+ * This linker approximates the candidate generation of {@link SimpleNameJaccardSimilarityLinker} with MinHash
+ * signatures and locality-sensitive hashing (LSH), so that the couples of smells affecting hundreds of elements
+ * (e.g. GC and large CD smells) that share only a few elements are not scored.
+ * The signature of every smell is made of the minimum values of <code>bands * rows</code> hash functions over its elements,
+ * and is split in <code>bands</code> bands of <code>rows</code> values each. Two smells of the same type are scored with
+ * the exact Jaccard similarity only if they have the same values in at least one band, which happens with probability
+ * <code>1 - (1 - s^rows)^bands</code> for two smells with similarity <code>s</code>.
+ * With the default 20 bands of 3 rows, couples with a similarity of 0.6 are scored with a probability of 0.99,
+ * and couples with a similarity of 0.1 with a probability of 0.02.
+ *
+ * Since candidates may be missed, the links are not guaranteed to be the same as the exact linker, in any mode.
+ * In rescoring mode, the smells of the current version whose best candidate does not exceed their threshold by at least
+ * the given margin are scored again against every smell sharing an element, as the exact linker does with candidate
+ * indexing. This recovers most of the smells that would otherwise be left unlinked, but a couple missed by LSH may
+ * still score higher than the best candidate of a smell that is not scored again, and change its link.
+ */
+public class MinHashSimilarityLinker extends SimpleNameJaccardSimilarityLinker {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final int bands;
+    private final int rows;
+    private final boolean rescoring;
+    private final double margin;
+
+    /**
+     * Builds this linker with the default thresholds (see {@link #SimpleNameJaccardSimilarityLinker()}).
+     * @param bands the number of bands of the signatures.
+     * @param rows the number of values in every band.
+     * @param rescoring whether to score again, against every smell sharing an element, the smells whose best candidate
+     *                  is within the given margin from the threshold. The links are still approximate.
+     * @param margin the margin from the threshold under which smells are scored again, in rescoring mode.
+     * @param parallelism the number of threads to use for matching.
+     */
+    public MinHashSimilarityLinker(int bands, int rows, boolean rescoring, double margin, int parallelism) {
+        super(true, parallelism);
+        if (bands < 1 || rows < 1) {
+            throw new IllegalArgumentException("The number of bands and rows must be positive.");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.rescoring = rescoring;
+        this.margin = margin;
+    }
+
+    /**
+     * Builds this linker with 20 bands of 3 rows, and a margin of 0.1 in rescoring mode.
+     * @param rescoring whether to score again the smells whose best candidate is close to the threshold.
+     * @param parallelism the number of threads to use for matching.
+     */
+    public MinHashSimilarityLinker(boolean rescoring, int parallelism) {
+        this(20, 3, rescoring, 0.1, parallelism);
+    }
+
+    /**
+     * Builds this linker with 20 bands of 3 rows in approximate mode. Matching is performed on the calling thread.
+     */
+    public MinHashSimilarityLinker() {
+        this(false, 1);
+    }
+
+    /**
+     * Builds the scorer of the couples of smells of the same type that share at least one band of their signatures
+     * and, in rescoring mode, falls back to scoring the smells whose best candidate is too close to the threshold against
+     * every smell sharing an element. The couples are visited in the same order as the exact linker.
+     * The buckets of the bands, and the inverted index used in rescoring mode, are built once and shared by the chunks
+     * of smells scored in parallel.
+     * @param nextVersionSmells the smells of the next version
+     * @param dictionary the dictionary containing the elements of the given smells
+     * @return the scorer of the smells of the next version.
+     */
+    @Override
+    Scorer scorerOf(List<SmellSnapshot> nextVersionSmells, ElementDictionary dictionary) {
+        // Maps the hash of every band of the smells of the next version (and of their type) to their positions.
+        List<Map<Long, List<Integer>>> buckets = new ArrayList<>(bands);
+        for (int b = 0; b < bands; b++) {
+            buckets.add(new HashMap<>());
+        }
+        for (int i = 0; i < nextVersionSmells.size(); i++) {
+            SmellSnapshot s2 = nextVersionSmells.get(i);
+            long[] bandHashes = bandHashesOf(s2, dictionary.elementsOf(s2));
+            if (bandHashes == null)
+                continue;
+            for (int b = 0; b < bands; b++) {
+                buckets.get(b).computeIfAbsent(bandHashes[b], h -> new ArrayList<>(1)).add(i);
+            }
+        }
+
+        CandidateIndex index = rescoring ? new CandidateIndex(nextVersionSmells, dictionary) : null;
+
+        return currentVersionSmells -> {
+            // The couples of every smell, or null for the smells that are scored again against the inverted index.
+            List<List<LinkScoreTriple>> scoredBySmell = new ArrayList<>(currentVersionSmells.size());
+            List<SmellSnapshot> rescoredSmells = new ArrayList<>();
+            BitSet candidates = new BitSet(nextVersionSmells.size());
+            for (SmellSnapshot s1 : currentVersionSmells) {
+                int[] elements1 = dictionary.elementsOf(s1);
+                long[] bandHashes = bandHashesOf(s1, elements1);
+                candidates.clear();
+                if (bandHashes != null) {
+                    for (int b = 0; b < bands; b++) {
+                        var bucket = buckets.get(b).get(bandHashes[b]);
+                        if (bucket != null) {
+                            bucket.forEach(candidates::set);
+                        }
+                    }
+                }
+                List<LinkScoreTriple> scored = new ArrayList<>(candidates.cardinality());
+                double bestScore = 0;
+                for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)) {
+                    SmellSnapshot s2 = nextVersionSmells.get(j);
+                    if (s1.getType() != s2.getType())
+                        continue;
+                    double similarityScore = ElementDictionary.jaccard(elements1, dictionary.elementsOf(s2));
+                    bestScore = Math.max(bestScore, similarityScore);
+                    scored.add(new LinkScoreTriple(s1, s2, similarityScore));
+                }
+                if (rescoring && bestScore < thresholdOf(s1) + margin) {
+                    rescoredSmells.add(s1);
+                    scored = null;
+                }
+                scoredBySmell.add(scored);
+            }
+
+            // The couples scored again are grouped by smell, in the same order as the smells scored again.
+            List<LinkScoreTriple> rescored = rescoredSmells.isEmpty() ? List.of() : index.score(rescoredSmells);
+            List<LinkScoreTriple> matchList = new ArrayList<>();
+            int next = 0;
+            for (int i = 0; i < currentVersionSmells.size(); i++) {
+                var scored = scoredBySmell.get(i);
+                if (scored != null) {
+                    matchList.addAll(scored);
+                } else {
+                    SmellSnapshot s1 = currentVersionSmells.get(i);
+                    while (next < rescored.size() && rescored.get(next).getA() == s1) {
+                        matchList.add(rescored.get(next++));
+                    }
+                }
+            }
+            return matchList;
+        };
+    }
+
+    /**
+     * Computes the MinHash signature of the given elements and hashes every band of it, together with the type of the smell.
+     * @param smell the smell.
+     * @param elements the identifiers of the elements of the smell.
+     * @return the hashes of the bands of the signature, or null if the smell has no elements.
+     */
+    private long[] bandHashesOf(SmellSnapshot smell, int[] elements) {
+        if (elements.length == 0)
+            return null;
+        long[] bandHashes = new long[bands];
+        for (int b = 0; b < bands; b++) {
+            long bandHash = mix(smell.getType().ordinal() + SEED * (b + 1));
+            for (int r = 0; r < rows; r++) {
+                long seed = SEED * (b * rows + r + 1);
+                long min = Long.MAX_VALUE;
+                for (int element : elements) {
+                    min = Math.min(min, mix(element ^ seed));
+                }
+                bandHash = mix(bandHash ^ min);
+            }
+            bandHashes[b] = bandHash;
+        }
+        return bandHashes;
+    }
+
+    /**
+     * The finalizer of the SplitMix64 generator, used as a family of hash functions.
+     * @param x the value to hash.
+     * @return the hash of the value.
+     */
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the margin from the threshold under which smells are scored again, in rescoring mode.
+     * @return the margin.
+     */
+    public double getMargin() {
+        return margin;
+    }
+
+    /**
+     * Returns whether the smells whose best candidate is close to the threshold are scored again against every smell
+     * sharing an element.
+     * @return true if this linker is in rescoring mode.
+     */
+    public boolean isRescoring() {
+        return rescoring;
+    }
+}
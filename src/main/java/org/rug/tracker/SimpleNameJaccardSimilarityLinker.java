@@ -1,11 +1,10 @@
 package org.rug.tracker;
 
-import org.rug.data.smells.CDSmell;
-import org.rug.data.smells.HLSmell;
-import org.rug.data.smells.UDSmell;
+import org.rug.data.smells.SmellSnapshot;
 
-import java.util.Set;
+import java.util.Collection;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This linker uses the simple names of the classes and or packages rather than their full name.
@@ -31,6 +30,19 @@ public class SimpleNameJaccardSimilarityLinker extends JaccardSimilarityLinker {
         super(fewElementsThreshold, moreElementsThreshold, fewElements);
     }
 
+    /**
+     * Builds this linker with the given thresholds.
+     * @param fewElementsThreshold the threshold applied when the number of affected elements is less than <code>fewElements</code>.
+     * @param moreElementsThreshold the threshold applied when the affected elements are more than few elements.
+     * @param fewElements the number of elements under which a smell has few elements.
+     * @param indexCandidates whether to score only the couples of smells sharing at least one element.
+     * @param parallelism the number of threads to use for matching.
+     */
+    public SimpleNameJaccardSimilarityLinker(double fewElementsThreshold, double moreElementsThreshold, int fewElements,
+                                             boolean indexCandidates, int parallelism) {
+        super(fewElementsThreshold, moreElementsThreshold, fewElements, indexCandidates, parallelism);
+    }
+
     /**
      * Builds a linker with few elements equal to 3, few elements threshold equal to 0.6, and more elements threshold equal to 0.75.
      * These thresholds were chose to protect smells with low elements to be excluded from calculation since variations
@@ -40,44 +52,44 @@ public class SimpleNameJaccardSimilarityLinker extends JaccardSimilarityLinker {
     }
 
     /**
-     * Visit the given smell and returns the element of a CD by class or package name.
-     *
-     * @param smell the CD smell to visit.
+     * Builds a linker with the default thresholds (see {@link #SimpleNameJaccardSimilarityLinker()}).
+     * @param indexCandidates whether to score only the couples of smells sharing at least one element.
      */
-    @Override
-    public Set<String> visit(CDSmell smell) {
-        return smell.getAffectedElementsNames().stream()
-                .map(this::getSimpleName)
-                .collect(Collectors.toSet());
+    public SimpleNameJaccardSimilarityLinker(boolean indexCandidates) {
+        super(indexCandidates);
     }
 
     /**
-     * Visit the given smell.
-     *
-     * @param smell the HL smell to visit.
+     * Builds a linker with the default thresholds (see {@link #SimpleNameJaccardSimilarityLinker()}).
+     * @param indexCandidates whether to score only the couples of smells sharing at least one element.
+     * @param parallelism the number of threads to use for matching.
      */
-    @Override
-    public Set<String> visit(HLSmell smell) {
-        Set<String> names = smell.getAffectedElementsNames();
-        names.addAll(smell.getInDepNames());
-        names.addAll(smell.getOutDepNames());
-        names = names.stream()
-                .map(this::getSimpleName)
-                .collect(Collectors.toSet());
-        return names;
+    public SimpleNameJaccardSimilarityLinker(boolean indexCandidates, int parallelism) {
+        super(indexCandidates, parallelism);
     }
 
     /**
-     * Visit the given smell.
+     * Returns the simple names of the elements affected by CD smells, and of the elements affected by HL and UD smells
+     * together with the dependencies causing them.
      *
-     * @param smell the UD smell to visit.
+     * @param smell the smell.
+     * @return the names of the elements of the smell.
      */
     @Override
-    public Set<String> visit(UDSmell smell) {
-        Set<String> names = smell.getAffectedElementsNames();
-        names.addAll(smell.getBadDepNames());
-        names = names.stream().map(this::getSimpleName).collect(Collectors.toSet());
-        return names;
+    protected Collection<String> elementsOf(SmellSnapshot smell) {
+        switch (smell.getType()) {
+            case CD:
+                return smell.getAffectedElementsNames().stream()
+                        .map(this::getSimpleName)
+                        .collect(Collectors.toSet());
+            case HL:
+            case UD:
+                return Stream.concat(smell.getAffectedElementsNames().stream(), smell.getDependenciesNames().stream())
+                        .map(this::getSimpleName)
+                        .collect(Collectors.toSet());
+            default:
+                return super.elementsOf(smell);
+        }
     }
 
     /**
@@ -0,0 +1,57 @@
+package org.rug.tracker;
+
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.CDSmell;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Computes a 64-bit fingerprint of a smell from its type, its shape and the names of its elements.
+ * The fingerprint does not depend on the order of the names, nor on the JVM or on the run that computes it,
+ * hence the same smell has the same fingerprint in every version it affects.
+ * The fingerprint is computed with the 64-bit FNV-1a hash function, therefore different smells may
+ * collide and smells with the same fingerprint must still be compared to assert they are identical.
+ */
+public final class SmellFingerprint {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private SmellFingerprint() {}
+
+    /**
+     * Computes the fingerprint of a smell.
+     * @param type the type of the smell.
+     * @param shape the shape of the smell, or null if the smell is not a CD.
+     * @param names the distinct names of the elements of the smell.
+     * @return the fingerprint of the smell.
+     */
+    public static long of(ArchitecturalSmell.Type type, CDSmell.Shape shape, Collection<String> names) {
+        String[] sorted = names.toArray(new String[0]);
+        Arrays.sort(sorted);
+        long hash = hash(OFFSET_BASIS, type.name());
+        hash = hash(hash, shape == null ? "" : shape.name());
+        for (String name : sorted) {
+            hash = hash(hash, name);
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the length of the given value before its characters, so that the boundaries between
+     * consecutive values are part of the hash (e.g. "ab", "c" and "a", "bc" are hashed differently).
+     */
+    private static long hash(long hash, String value) {
+        int length = value.length();
+        for (int shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ ((length >>> shift) & 0xff)) * PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xff)) * PRIME;
+            hash = (hash ^ (c >>> 8)) * PRIME;
+        }
+        return hash;
+    }
+}
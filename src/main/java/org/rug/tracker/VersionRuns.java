@@ -0,0 +1,70 @@
+package org.rug.tracker;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
+import java.util.*;
+
+import static org.rug.tracker.ASmellTracker.*;
+
+/**
+ * Expands the edges of a condensed graph into the versions they span.
+ * The {@link ASmellTracker#HAS_CHARACTERISTIC} and {@link ASmellTracker#AFFECTS} edges are written once per run of
+ * consecutive tracked versions: an edge starts in the version {@link ASmellTracker#VERSION_INDEX} and ends in the
+ * version {@link ASmellTracker#END_VERSION_INDEX}, spanning every tracked version in between. The tracked versions
+ * are the {@link ASmellTracker#VERSION} vertices of the condensed graph. Edges without an end span a single version,
+ * as in the condensed graphs written before runs were introduced.
+ */
+public class VersionRuns {
+
+    private final TreeMap<Long, String> versions;
+
+    /**
+     * Reads the tracked versions of the given condensed graph from its version vertices and from the first
+     * version of its edges, which covers the graphs written before version vertices were introduced.
+     * @param condensedGraph the condensed graph.
+     */
+    public VersionRuns(Graph condensedGraph) {
+        this.versions = new TreeMap<>();
+        condensedGraph.traversal().V().hasLabel(VERSION)
+                .forEachRemaining(v -> versions.put(v.value(VERSION_INDEX), v.value(VERSION)));
+        condensedGraph.traversal().E()
+                .has(VERSION)
+                .has(VERSION_INDEX)
+                .forEachRemaining(e -> versions.putIfAbsent(e.value(VERSION_INDEX), e.value(VERSION)));
+    }
+
+    /**
+     * The tracked versions as a map where the keys are the indexes and the values are the string representation.
+     * @return a map of versions indexes and names of versions.
+     */
+    public TreeMap<Long, String> getVersions() {
+        return versions;
+    }
+
+    /**
+     * Returns the indexes of the versions spanned by the given edge, in ascending order.
+     * @param edge a {@link ASmellTracker#HAS_CHARACTERISTIC} or {@link ASmellTracker#AFFECTS} edge.
+     * @return the version indexes.
+     */
+    public NavigableSet<Long> versionsOf(Edge edge) {
+        long start = edge.value(VERSION_INDEX);
+        long end = edge.<Long>property(END_VERSION_INDEX).orElse(start);
+        var spanned = new TreeSet<>(versions.subMap(start, true, end, true).keySet());
+        spanned.add(start);
+        return spanned;
+    }
+
+    /**
+     * Returns the IDs of the smell within each version spanned by the given {@link ASmellTracker#HAS_CHARACTERISTIC}
+     * edge of a smell, in the same order as {@link #versionsOf(Edge)}.
+     * @param edge an edge from a smell to its characteristics.
+     * @return the smell IDs.
+     */
+    public static List<String> smellIdsOf(Edge edge) {
+        if (edge.property(SMELL_IDS).isPresent()) {
+            return Arrays.asList(edge.<String>value(SMELL_IDS).split(","));
+        }
+        return Collections.singletonList(edge.value(SMELL_ID).toString());
+    }
+}
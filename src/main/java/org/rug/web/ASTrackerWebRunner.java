@@ -6,7 +6,9 @@ import org.apache.logging.log4j.Logger;
 import org.rug.Analysis;
 import org.rug.args.Args;
 import org.rug.data.project.IProject;
+import org.rug.metrics.StageMetrics;
 import org.rug.persistence.PersistenceHub;
+import org.rug.runners.TrackASRunner;
 import org.rug.statefulness.ASmellTrackerStateManager;
 import org.rug.statefulness.ProjectStateManager;
 import org.rug.web.credentials.Credentials;
@@ -26,6 +28,7 @@ public class ASTrackerWebRunner {
     private final static Logger logger = LogManager.getLogger(ASTrackerWebRunner.class);
 
     private ArgumentMapper mapper;
+    private StageMetrics metrics;
     private static final Path arcanJavaJar = Paths.get("arcan/Arcan-1.4.0-SNAPSHOT/Arcan-1.4.0-SNAPSHOT.jar");
     private static final Path arcanCppJar  = Paths.get("arcan/Arcan-c-1.3.1-SNAPSHOT-jar-with-dependencies.jar");
     public static final Path outputDirectory = Paths.get("./output-folder");
@@ -64,6 +67,7 @@ public class ASTrackerWebRunner {
         }
 
         this.mapper = new ArgumentMapper(arcanJavaJar, arcanCppJar, outputDirectory, clonedReposDirectory, requestParameter, credentials);
+        this.metrics = new StageMetrics();
     }
 
     /**
@@ -79,10 +83,20 @@ public class ASTrackerWebRunner {
         Analysis analysis;
 
         var projectStatesDirectory = Paths.get(statesDirectory.toString(), getProjectName()).toString();
+        args.fileMetricsCache = Paths.get(projectStatesDirectory, "file-metrics.bin").toString();
+        args.stageMetrics = true;
+        args.columnarCharacteristics = true;
         var projectStateManager = new ProjectStateManager(projectStatesDirectory);
         var aSmellTrackerStateManager = new ASmellTrackerStateManager(projectStatesDirectory);
 
-        if (projectStateManager.wasAnalysedBefore()) {
+        boolean resume = projectStateManager.wasAnalysedBefore();
+        if (resume && !aSmellTrackerStateManager.hasSavedState()) {
+            // States saved by previous releases cannot be loaded, so the analysis starts again and saves a checkpoint.
+            logger.warn("No checkpoint of the tracker was found in {}. The analysis is restarted from the first version.", projectStatesDirectory);
+            resume = false;
+        }
+
+        if (resume) {
 
             IProject project = buildProjectFromArgs(args);
             project.addGraphMLfiles(arcanOutput.toString()+ '/'+ args.project.name);
@@ -110,7 +124,10 @@ public class ASTrackerWebRunner {
         boolean errorsOccurred = false;
         String errorRunnerName = "";
         for (var r : analysis.getRunners()) {
-            int exitCode = r.run();
+            if (r instanceof TrackASRunner) {
+                ((TrackASRunner) r).setMetrics(metrics);
+            }
+            int exitCode = metrics.time("runner." + r.getToolName(), StageMetrics.ALL_VERSIONS, r::run);
             errorsOccurred = exitCode != 0;
             if (errorsOccurred) {
                 errorRunnerName = r.getToolName();
@@ -155,4 +172,12 @@ public class ASTrackerWebRunner {
     public String getProjectName(){
         return this.mapper.getProjectName();
     }
+
+    /**
+     * Returns the metrics of the last run: the time spent by every runner and in every stage of the tracking.
+     * @return the metrics of the analysis.
+     */
+    public StageMetrics getMetrics(){
+        return metrics;
+    }
 }
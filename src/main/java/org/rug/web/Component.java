@@ -3,6 +3,7 @@ package org.rug.web;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.VersionRuns;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,11 +25,20 @@ public class Component extends VersionSpanningNode {
      * @param component the vertex.
      */
     public Component(Vertex component) {
+        this(component, new VersionRuns(component.graph()));
+    }
+
+    /**
+     * Build the component starting from a component vertex from the condensed graph.
+     * @param component the vertex.
+     * @param runs the versions of the condensed graph the vertex belongs to.
+     */
+    public Component(Vertex component, VersionRuns runs) {
         this.name = component.value(ASmellTracker.NAME);
         this.type = component.value(ASmellTracker.COMPONENT_TYPE);
         this.affectedBy = new TreeMap<>();
-        setCharacteristics(component);
-        setAffectedBy(component);
+        setCharacteristics(component, runs);
+        setAffectedBy(component, runs);
     }
 
     /**
@@ -55,27 +65,30 @@ public class Component extends VersionSpanningNode {
         return affectedBy;
     }
 
-    private void setAffectedBy(Vertex component){
+    private void setAffectedBy(Vertex component, VersionRuns runs){
         var graph = component.graph();
         var affectsEdges = graph.traversal().V(component).inE(ASmellTracker.AFFECTS).toSet();
         for (Edge edge : affectsEdges) {
-            affectedBy.compute(edge.value(ASmellTracker.VERSION_INDEX), (k, v) -> {
-                if (v == null){
-                    v = new ArrayList<>();
-                }
-                v.add(edge.outVertex().value(ASmellTracker.UNIQUE_SMELL_ID));
-                return v;
-            });
+            for (long affectedVersion : runs.versionsOf(edge)) {
+                affectedBy.compute(affectedVersion, (k, v) -> {
+                    if (v == null){
+                        v = new ArrayList<>();
+                    }
+                    v.add(edge.outVertex().value(ASmellTracker.UNIQUE_SMELL_ID));
+                    return v;
+                });
+            }
         }
     }
 
-    private void setCharacteristics(Vertex component){
+    private void setCharacteristics(Vertex component, VersionRuns runs){
         var graph = component.graph();
         var hasCharactEdges = graph.traversal().V(component).outE(ASmellTracker.HAS_CHARACTERISTIC).toSet();
         for (Edge edge : hasCharactEdges) {
-            long affectedVersion = edge.value(ASmellTracker.VERSION_INDEX);
-            spanningVersions.add(affectedVersion);
-            characteristics.put(affectedVersion, propertiesToMap(edge.inVertex()));
+            for (long affectedVersion : runs.versionsOf(edge)) {
+                spanningVersions.add(affectedVersion);
+                characteristics.put(affectedVersion, propertiesToMap(edge.inVertex()));
+            }
         }
     }
 }
@@ -0,0 +1,49 @@
+package org.rug.web;
+
+import org.rug.metrics.StageMetrics;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exposes the metrics of the last analysis of every project: the time spent by every runner and in every
+ * stage of the tracking of every version, the number of smells and the heap used.
+ */
+@RestController
+public class MetricsController {
+
+    private final static Map<String, StageMetrics> projectMetrics = new ConcurrentHashMap<>();
+
+    /**
+     * Publishes the metrics of an analysis, replacing those of the previous analysis of the same project.
+     * @param project the name of the project analysed.
+     * @param metrics the metrics of the analysis.
+     */
+    public static void publish(String project, StageMetrics metrics) {
+        projectMetrics.put(project, metrics);
+    }
+
+    /**
+     * Returns the measurements of the last analysis of every project, or of the given project only.
+     * Times are in nanoseconds.
+     * @param project the name of the project, or empty for all the projects.
+     * @return a map from the names of the projects to their measurements, sorted by name.
+     */
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, List<StageMetrics.Measurement>> metrics(@RequestParam(value = "project", defaultValue = "") String project) {
+        Map<String, List<StageMetrics.Measurement>> measurements = new TreeMap<>();
+        projectMetrics.forEach((name, metrics) -> {
+            if (project.isEmpty() || project.equals(name)) {
+                measurements.put(name, metrics.getMeasurements());
+            }
+        });
+        return measurements;
+    }
+}
@@ -3,6 +3,8 @@ package org.rug.web;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.CharacteristicsStore;
+import org.rug.tracker.VersionRuns;
 
 import java.util.*;
 
@@ -37,6 +39,27 @@ public class Smell extends VersionSpanningNode{
      * @param smell the vertex.
      */
     public Smell(Vertex smell) {
+        this(smell, null);
+    }
+
+    /**
+     * Build this smell starting from a vertex representing a smell in the condensed graph and reading
+     * its characteristics from the given store.
+     * @param smell the vertex.
+     * @param store the store containing the characteristics of the smells, or null if they are saved in the condensed graph.
+     */
+    public Smell(Vertex smell, CharacteristicsStore store) {
+        this(smell, store, new VersionRuns(smell.graph()));
+    }
+
+    /**
+     * Build this smell starting from a vertex representing a smell in the condensed graph and reading
+     * its characteristics from the given store.
+     * @param smell the vertex.
+     * @param store the store containing the characteristics of the smells, or null if they are saved in the condensed graph.
+     * @param runs the versions of the condensed graph the vertex belongs to.
+     */
+    public Smell(Vertex smell, CharacteristicsStore store, VersionRuns runs) {
         this.id = smell.value(ASmellTracker.UNIQUE_SMELL_ID);
         this.type = toLabel(smell.value(ASmellTracker.SMELL_TYPE));
         this.age = smell.value(ASmellTracker.AGE);
@@ -47,8 +70,11 @@ public class Smell extends VersionSpanningNode{
         this.lastDateDetected = smell.value(ASmellTracker.LAST_DETECTED_DATE);
         this.firstDateAppeared = smell.value(ASmellTracker.FIRST_APPEARED_DATE);
         this.affectedComponents = new TreeMap<>();
-        setAffectedComponents(smell);
-        setCharacteristics(smell);
+        setAffectedComponents(smell, runs);
+        setCharacteristics(smell, runs);
+        if (store != null) {
+            setCharacteristics(store);
+        }
     }
 
     /**
@@ -143,29 +169,38 @@ public class Smell extends VersionSpanningNode{
         return undashed.length() < 8 ? undashed : undashed.substring(0, 8);
     }
 
-    private void setCharacteristics(Vertex smell){
+    private void setCharacteristics(Vertex smell, VersionRuns runs){
         var graph = smell.graph();
         var hasCharactEdges = graph.traversal().V(smell).outE(ASmellTracker.HAS_CHARACTERISTIC).toSet();
         for (Edge edge : hasCharactEdges) {
-            long affectedVersion = edge.value(ASmellTracker.VERSION_INDEX);
+            for (long affectedVersion : runs.versionsOf(edge)) {
+                spanningVersions.add(affectedVersion);
+                characteristics.put(affectedVersion, propertiesToMap(edge.inVertex()));
+            }
+        }
+    }
+
+    private void setCharacteristics(CharacteristicsStore store){
+        for (long affectedVersion : store.versionsOf(id)) {
             spanningVersions.add(affectedVersion);
-            characteristics.put(affectedVersion, propertiesToMap(edge.inVertex()));
+            characteristics.put(affectedVersion, store.getCharacteristics(id, affectedVersion));
         }
     }
 
-    private void setAffectedComponents(Vertex smell){
+    private void setAffectedComponents(Vertex smell, VersionRuns runs){
         var graph = smell.graph();
         var hasCharactEdges = graph.traversal().V(smell).outE(ASmellTracker.AFFECTS).toSet();
         for (Edge edge : hasCharactEdges) {
-            long affectedVersion = edge.value(ASmellTracker.VERSION_INDEX);
-            spanningVersions.add(affectedVersion);
-            affectedComponents.compute(affectedVersion, (k, v) -> {
-                if (v == null){
-                    v = new ArrayList<>();
-                }
-                v.add(edge.inVertex().value(ASmellTracker.NAME));
-                return v;
-            });
+            for (long affectedVersion : runs.versionsOf(edge)) {
+                spanningVersions.add(affectedVersion);
+                affectedComponents.compute(affectedVersion, (k, v) -> {
+                    if (v == null){
+                        v = new ArrayList<>();
+                    }
+                    v.add(edge.inVertex().value(ASmellTracker.NAME));
+                    return v;
+                });
+            }
         }
     }
 
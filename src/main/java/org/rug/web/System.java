@@ -3,6 +3,8 @@ package org.rug.web;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.CharacteristicsStore;
+import org.rug.tracker.VersionRuns;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -21,6 +23,8 @@ public class System {
     private final List<Component>   components = new ArrayList<>(100);
 
     private final Graph graph;
+    private final CharacteristicsStore store;
+    private final VersionRuns runs;
 
     /**
      * Returns an empty system.
@@ -35,12 +39,23 @@ public class System {
      * @param graph a condensed graph.
      */
     public System(String name, Graph graph){
+        this(name, graph, null);
+    }
+
+    /**
+     * Build the system starting from the given condensed graph and the store of the characteristics of its smells.
+     * @param graph a condensed graph.
+     * @param store the store containing the characteristics of the smells, or null if they are saved in the condensed graph.
+     */
+    public System(String name, Graph graph, CharacteristicsStore store){
         this.name = name;
         this.graph = graph;
-        this.graph.traversal().E()
-                .has(ASmellTracker.VERSION)
-                .has(ASmellTracker.VERSION_INDEX)
-                .forEachRemaining(e -> versions.put(e.value(ASmellTracker.VERSION_INDEX), e.value(ASmellTracker.VERSION)));
+        this.store = store;
+        this.runs = new VersionRuns(graph);
+        if (store != null) {
+            versions.putAll(store.getVersions());
+        }
+        versions.putAll(runs.getVersions());
     }
 
     /**
@@ -49,7 +64,7 @@ public class System {
      */
     public List<Smell> getSmells() {
         if (smells.isEmpty()){
-            graph.traversal().V().hasLabel(ASmellTracker.SMELL).forEachRemaining(v -> smells.add(new Smell(v)));
+            graph.traversal().V().hasLabel(ASmellTracker.SMELL).forEachRemaining(v -> smells.add(new Smell(v, store, runs)));
         }
         return smells;
     }
@@ -72,7 +87,7 @@ public class System {
      */
     public List<Component> getComponents() {
         if (components.isEmpty()){
-            graph.traversal().V().hasLabel(ASmellTracker.COMPONENT).forEachRemaining(v -> components.add(new Component(v)));
+            graph.traversal().V().hasLabel(ASmellTracker.COMPONENT).forEachRemaining(v -> components.add(new Component(v, runs)));
         }
         return components;
     }
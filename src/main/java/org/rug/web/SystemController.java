@@ -3,6 +3,7 @@ package org.rug.web;
 import com.fasterxml.jackson.databind.util.JSONWrappedObject;
 import org.apache.tinkerpop.gremlin.process.traversal.IO;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.rug.tracker.CharacteristicsStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Scope;
@@ -193,7 +194,17 @@ public class SystemController {
 
             var graph = TinkerGraph.open();
             graph.traversal().io(graphFile.toAbsolutePath().toString()).read().with(IO.reader, IO.graphml).iterate();
-            cachedSystems.put(systemName, new System(systemName, graph));
+
+            CharacteristicsStore store = null;
+            var storeFile = Paths.get(String.format("%s/%s/characteristics-store-nonConsec.bin", ASTrackerWebRunner.trackASoutput.toAbsolutePath(), systemName));
+            if (Files.exists(storeFile)){
+                try {
+                    store = CharacteristicsStore.readFrom(storeFile.toFile());
+                } catch (IOException | ClassNotFoundException e) {
+                    logger.warn("Could not load the characteristics store of {}", systemName);
+                }
+            }
+            cachedSystems.put(systemName, new System(systemName, graph, store));
             logger.debug("Successfully loaded {}", systemName);
         }
         return Optional.of(cachedSystems.get(systemName));
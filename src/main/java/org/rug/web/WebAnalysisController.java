@@ -46,6 +46,7 @@ public class WebAnalysisController {
             result.setProject(runner.getProjectName());
             result.setTimeElapsed(end - start);
             result.setMessage("No message.");
+            MetricsController.publish(runner.getProjectName(), runner.getMetrics());
         } catch (Exception e) {
             logger.error("Internal server error: {}", e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,86 @@
+package org.rug.simpletests;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the temporary files and directories used by a test class, so that they can all be deleted
+ * once the tests are complete, and writes the sources and commits of the temporary git repositories.
+ */
+public class TestFiles {
+
+    /**
+     * The names of the classes looked up in the temporary repositories, including the names of classes
+     * that are deleted or moved between commits and simple names matching more than one class.
+     */
+    public final static String[] classes = {"a.A", "b.B", "c.C", "d.B", "B", "A", "C", "e.E", "src.e.E", "E"};
+
+    private final List<Path> paths = new ArrayList<>();
+
+    public Path createTempDirectory(String prefix) throws IOException {
+        Path dir = Files.createTempDirectory(prefix);
+        paths.add(dir);
+        return dir;
+    }
+
+    public Path createTempFile(String prefix, String suffix) throws IOException {
+        Path file = Files.createTempFile(prefix, suffix);
+        paths.add(file);
+        return file;
+    }
+
+    /**
+     * Deletes every file and directory created so far. Symbolic links are deleted, not followed.
+     * @throws IOException if a file cannot be deleted.
+     */
+    public void deleteAll() throws IOException {
+        for (Path path : paths) {
+            if (Files.notExists(path)) {
+                continue;
+            }
+            List<Path> contents;
+            try (var walk = Files.walk(path)) {
+                contents = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            }
+            for (Path p : contents) {
+                Files.delete(p);
+            }
+        }
+        paths.clear();
+    }
+
+    /**
+     * Writes the given content on a file, creating its parent directories.
+     * @param dir the directory the file is in.
+     * @param file the path of the file, relative to the directory.
+     * @param content the content of the file.
+     * @throws IOException if writing fails.
+     */
+    public static void write(Path dir, String file, String content) throws IOException {
+        Path path = dir.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+
+    /**
+     * Commits every file added, changed or deleted in the working tree of the given repository.
+     * @param git the repository.
+     * @param message the commit message.
+     * @return the commit.
+     * @throws GitAPIException if committing fails.
+     */
+    public static RevCommit commit(Git git, String message) throws GitAPIException {
+        git.add().addFilepattern(".").call();
+        git.add().setUpdate(true).addFilepattern(".").call();
+        return git.commit().setMessage(message).setAuthor("test", "test@example.com").setCommitter("test", "test@example.com").call();
+    }
+}
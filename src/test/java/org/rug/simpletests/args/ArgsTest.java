@@ -10,7 +10,7 @@ class ArgsTest {
     @Test
     void shouldFindAllOptions() {
         Args args = new Args();
-        String[] argsArr = "-o test -p project -i test -rA test -dRT -jP -rS -rF -sAO -pS -pC -pCC -tNCS 1 -v -sv -branch master -startDate 123 -nDays 3".split(" ");
+        String[] argsArr = "-o test -p project -i test -rA test -dRT -jP -rS -rF -sAO -pS -pC -pCC -pSM -tNCS 1 -eL -mHL -mHR -mT 4 -pV 2 -chT 3 -dT 2 -iSI -gOS -fMC cache.bin -cLOC -cCh -v -sv -branch master -startDate 123 -nDays 3".split(" ");
         JCommander jc = JCommander.newBuilder().addObject(args).build();
         jc.setProgramName("hello");
         jc.parse(argsArr);
@@ -28,12 +28,26 @@ class ArgsTest {
         assertTrue(args.smellCharacteristics);
         assertTrue(args.similarityScores);
         assertTrue(args.componentCharacteristics);
+        assertTrue(args.stageMetrics);
         assertFalse(args.isGitProject());
         assertTrue(args.shouldAnalyseSingleVersion());
+        assertTrue(args.exhaustiveLinking);
+        assertTrue(args.minHashLinking);
+        assertTrue(args.minHashRescoring);
+        assertEquals(4, args.matchingThreads);
+        assertEquals(2, args.prefetchVersions);
+        assertEquals(3, args.characteristicsThreads);
+        assertEquals(2, args.diffThreads);
+        assertTrue(args.incrementalSourceIndex);
+        assertTrue(args.gitObjectSources);
+        assertEquals("cache.bin", args.fileMetricsCache);
+        assertTrue(args.commentAwareLinesOfCode);
+        assertTrue(args.columnarCharacteristics);
         assertNull(args.getGitRepo());
         assertNotNull(args.getArcanJarFile());
         assertFalse(args.getSimilarityScoreFile().isEmpty());
         assertFalse(args.getSmellCharacteristicsFile().isEmpty());
+        assertFalse(args.getStageMetricsFile().isEmpty());
         assertFalse(args.getAffectedComponentsFile().isEmpty());
         assertFalse(args.getCondensedGraphFile().isEmpty());
         assertFalse(args.getTrackGraphFileName().isEmpty());
@@ -0,0 +1,89 @@
+package org.rug.simpletests.data.project;
+
+import org.apache.tinkerpop.gremlin.process.traversal.IO;
+import org.apache.tinkerpop.gremlin.process.traversal.TextP;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.labels.EdgeLabel;
+import org.rug.data.project.ArcanGraphMLReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class ArcanGraphMLReaderTest {
+
+    @Test
+    void streamedGraphMatchesLoadedAndConvertedGraph() throws IOException {
+        List<Path> files;
+        try (var paths = Files.walk(Paths.get("./test-data/output/arcanOutput"))) {
+            files = paths.filter(p -> p.toString().endsWith(".graphml")).collect(Collectors.toList());
+        }
+        assertFalse(files.isEmpty());
+        for (var file : files) {
+            var expected = TinkerGraph.open();
+            expected.traversal().io(file.toAbsolutePath().toString()).read().with(IO.reader, IO.graphml).iterate();
+            convert(expected);
+
+            var actual = TinkerGraph.open();
+            new ArcanGraphMLReader(actual).read(file);
+
+            assertEquals(vertices(expected), vertices(actual), file.toString());
+            assertEquals(edges(expected), edges(actual), file.toString());
+        }
+    }
+
+    /**
+     * Applies to the given graph the changes done by the tool before reading graphs as a stream.
+     */
+    private void convert(Graph graph) {
+        graph.traversal().E().hasLabel(EdgeLabel.DEPENDSON.toString()).has("weight").forEachRemaining(e -> {
+            e.property("Weight", e.value("weight"));
+            e.property("weight").remove();
+        });
+        switchEdgeLabel(graph, "isPartOfComponent", EdgeLabel.BELONGSTO.toString());
+        switchEdgeLabel(graph, "afferent", EdgeLabel.PACKAGEISAFFERENTOF.toString());
+        graph.traversal().V().has("Type", TextP.containing("retrieved")).drop().iterate();
+        graph.traversal().V().has("PackageType", TextP.containing("Retrieved")).drop().iterate();
+        graph.traversal().V().has("ClassType", TextP.containing("Retrieved")).drop().iterate();
+    }
+
+    private void switchEdgeLabel(Graph graph, String oldLabel, String newLabel) {
+        graph.traversal().E().hasLabel(oldLabel).forEachRemaining(edge -> {
+            var newEdge = graph.traversal().addE(newLabel).from(edge.outVertex()).to(edge.inVertex()).next();
+            edge.properties().forEachRemaining(p -> newEdge.property(p.key(), p.value()));
+        });
+        graph.traversal().E().hasLabel(oldLabel).drop().iterate();
+    }
+
+    private Map<Object, String> vertices(Graph graph) {
+        Map<Object, String> vertices = new HashMap<>();
+        graph.vertices().forEachRemaining(v -> vertices.put(v.id(), v.label() + propertiesOf(v)));
+        return vertices;
+    }
+
+    private List<String> edges(Graph graph) {
+        List<String> edges = new ArrayList<>();
+        graph.edges().forEachRemaining(e -> edges.add(e.outVertex().id() + " " + e.label() + " " + e.inVertex().id() + propertiesOf(e)));
+        Collections.sort(edges);
+        return edges;
+    }
+
+    private Map<String, Object> propertiesOf(Element element) {
+        Map<String, Object> properties = new TreeMap<>();
+        element.properties().forEachRemaining(p -> properties.put(p.key(), p.value()));
+        return properties;
+    }
+}
@@ -0,0 +1,93 @@
+package org.rug.simpletests.data.project;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.characteristics.comps.GitObjectFileStore;
+import org.rug.data.characteristics.comps.JavaSourceCodeRetriever;
+import org.rug.data.project.GitVersion;
+import org.rug.simpletests.TestFiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestFiles.classes;
+import static org.rug.simpletests.TestFiles.commit;
+import static org.rug.simpletests.TestFiles.write;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class GitObjectFileStoreTest {
+
+    private final TestFiles files = new TestFiles();
+
+    @AfterAll
+    void deleteTempFiles() throws IOException {
+        files.deleteAll();
+    }
+
+    @Test
+    void objectSourcesMatchCheckedOutSources() throws IOException, GitAPIException {
+        Path repoDir = files.createTempDirectory("git-object-store");
+        try (Git git = Git.init().setDirectory(repoDir.toFile()).call()) {
+            List<RevCommit> commits = new ArrayList<>();
+            write(repoDir, "src/a/A.java", "class A {}\n");
+            write(repoDir, "src/b/B.java", "class B {}\n");
+            write(repoDir, "README", "not a source\n");
+            commits.add(commit(git, "first"));
+
+            Files.delete(repoDir.resolve("src/a/A.java"));
+            write(repoDir, "src/c/C.java", "class C {}\n");
+            write(repoDir, "src/b/B.java", "class B { int x; }\n");
+            commits.add(commit(git, "second"));
+
+            Files.createDirectories(repoDir.resolve("src/d"));
+            Files.move(repoDir.resolve("src/b/B.java"), repoDir.resolve("src/d/B.java"));
+            write(repoDir, "src/e/E.java", "class E { String s = \"è\"; }\n");
+            commits.add(commit(git, "third"));
+
+            var sourcePath = repoDir.resolve("src");
+            for (RevCommit commit : commits) {
+                git.checkout().setName(commit.getName()).setForced(true).call();
+                var walked = new JavaSourceCodeRetriever(sourcePath);
+                var store = new GitObjectFileStore(git.getRepository(), commit);
+                var stored = new JavaSourceCodeRetriever(sourcePath);
+                stored.setFileStore(store);
+                try (var walk = Files.walk(sourcePath)) {
+                    assertEquals(new HashSet<>(walk.filter(Files::isRegularFile).collect(Collectors.toList())),
+                            new HashSet<>(store.listFiles(sourcePath)));
+                }
+                for (String name : classes) {
+                    assertEquals(walked.getPathOf(name, ".java"), stored.getPathOf(name, ".java"), name);
+                    assertEquals(walked.getSource(name, ".java"), stored.getSource(name, ".java"), name);
+                }
+            }
+            assertThrows(IOException.class, () -> new GitObjectFileStore(git.getRepository(), commits.get(0))
+                    .read(sourcePath.resolve("c/C.java")));
+
+            // reading the sources of a version leaves the working tree untouched
+            var head = git.getRepository().resolve("HEAD");
+            var version = new GitVersion(Paths.get(String.format("graph-1-01_01_2020-%s.graphml", commits.get(0).getName())),
+                    git.getRepository(), () -> new JavaSourceCodeRetriever(sourcePath));
+            assertEquals("class A {}\n", version.getSourceCodeRetriever().getSource("a.A", ".java"));
+            var file = version.getSourceCodeRetriever().getPathOf("b.B", ".java");
+            assertTrue(file.isPresent());
+            assertEquals("class B {}\n", StandardCharsets.UTF_8.decode(version.getSourceCodeRetriever().readFile(file.get())).toString());
+            assertEquals(head, git.getRepository().resolve("HEAD"));
+            assertFalse(Files.exists(sourcePath.resolve("a/A.java")));
+            assertTrue(Files.exists(sourcePath.resolve("d/B.java")));
+        }
+    }
+}
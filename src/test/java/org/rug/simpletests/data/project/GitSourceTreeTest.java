@@ -0,0 +1,77 @@
+package org.rug.simpletests.data.project;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.characteristics.comps.JavaSourceCodeRetriever;
+import org.rug.data.project.GitSourceTree;
+import org.rug.data.project.GitVersion;
+import org.rug.simpletests.TestFiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestFiles.classes;
+import static org.rug.simpletests.TestFiles.commit;
+import static org.rug.simpletests.TestFiles.write;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class GitSourceTreeTest {
+
+    private final TestFiles files = new TestFiles();
+
+    @AfterAll
+    void deleteTempFiles() throws IOException {
+        files.deleteAll();
+    }
+
+    @Test
+    void incrementalIndexMatchesWalkedIndex() throws IOException, GitAPIException {
+        Path repoDir = files.createTempDirectory("git-source-tree");
+        try (Git git = Git.init().setDirectory(repoDir.toFile()).call()) {
+            List<RevCommit> commits = new ArrayList<>();
+            write(repoDir, "a/A.java", "class A {}");
+            write(repoDir, "b/B.java", "class B {}");
+            commits.add(commit(git, "first"));
+
+            Files.delete(repoDir.resolve("a/A.java"));
+            write(repoDir, "c/C.java", "class C {}");
+            write(repoDir, "b/B.java", "class B { int x; }");
+            commits.add(commit(git, "second"));
+
+            Files.createDirectories(repoDir.resolve("d"));
+            Files.move(repoDir.resolve("b/B.java"), repoDir.resolve("d/B.java"));
+            write(repoDir, "src/e/E.java", "class E {}");
+            commits.add(commit(git, "third"));
+
+            var sourcePath = Paths.get(repoDir.toString(), ".");
+            var tree = new GitSourceTree(git.getRepository(), new JavaSourceCodeRetriever(sourcePath));
+            int[] order = {0, 1, 2, 0, 2, 1};
+            for (int i : order) {
+                var commit = commits.get(i);
+                var retriever = tree.checkout(git.checkout(), commit.getName());
+                var walked = new JavaSourceCodeRetriever(sourcePath);
+                for (String name : classes) {
+                    assertEquals(walked.getPathOf(name, ".java"), retriever.getPathOf(name, ".java"), name + " in commit " + i);
+                    assertEquals(walked.getSource(name, ".java"), retriever.getSource(name, ".java"), name + " in commit " + i);
+                }
+            }
+
+            var version = new GitVersion(Paths.get(String.format("graph-1-01_01_2020-%s.graphml", commits.get(1).getName())),
+                    tree, git.checkout());
+            assertSame(tree.getRetriever(), version.getSourceCodeRetriever());
+            assertTrue(version.getSourceCodeRetriever().getPathOf("c.C", ".java").isPresent());
+            assertTrue(version.getSourceCodeRetriever().getPathOf("d.B", ".java").isEmpty());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.rug.simpletests.data.project;
+
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.project.Project;
+import org.rug.data.project.SmellListCache;
+import org.rug.data.smells.ArchitecturalSmell;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class SmellListCacheTest {
+
+    @Test
+    void smellsAreParsedOncePerGraph() {
+        var cache = new SmellListCache();
+        var parsed = new AtomicInteger();
+        Function<Graph, List<ArchitecturalSmell>> parser = g -> {
+            parsed.incrementAndGet();
+            return Collections.emptyList();
+        };
+        var first = graph(10);
+        var second = graph(10);
+        var smells = cache.get(first, parser);
+        assertSame(smells, cache.get(first, parser));
+        cache.get(second, parser);
+        assertEquals(2, parsed.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+        assertTrue(cache.getWeight() > 0);
+    }
+
+    @Test
+    void leastRecentlyUsedListsAreEvictedByWeight() {
+        var graphs = new ArrayList<Graph>();
+        for (int i = 0; i < 3; i++) {
+            graphs.add(graph(100));
+        }
+        var probe = new SmellListCache();
+        probe.get(graphs.get(0), g -> Collections.emptyList());
+        long graphWeight = probe.getWeight();
+
+        var cache = new SmellListCache(graphWeight * 2);
+        cache.get(graphs.get(0), g -> Collections.emptyList());
+        cache.get(graphs.get(1), g -> Collections.emptyList());
+        cache.get(graphs.get(0), g -> Collections.emptyList());
+        cache.get(graphs.get(2), g -> Collections.emptyList());
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(graphWeight * 2, cache.getWeight());
+
+        var parsed = new AtomicInteger();
+        cache.get(graphs.get(0), g -> { parsed.incrementAndGet(); return Collections.emptyList(); });
+        assertEquals(0, parsed.get(), "The most recently used graph must not be evicted");
+        cache.get(graphs.get(1), g -> { parsed.incrementAndGet(); return Collections.emptyList(); });
+        assertEquals(1, parsed.get(), "The least recently used graph must be evicted");
+
+        var tiny = new SmellListCache(1);
+        var smells = tiny.get(graphs.get(0), g -> Collections.emptyList());
+        assertSame(smells, tiny.get(graphs.get(0), g -> Collections.emptyList()));
+    }
+
+    @Test
+    void concurrentRequestsShareTheParsedList() throws Exception {
+        var cache = new SmellListCache();
+        var graph = graph(10);
+        var parsed = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<List<ArchitecturalSmell>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        started.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return cache.get(graph, g -> {
+                        parsed.incrementAndGet();
+                        return Collections.unmodifiableList(new ArrayList<>());
+                    });
+                }, executor));
+            }
+            started.countDown();
+            var first = results.get(0).get();
+            for (var result : results) {
+                assertSame(first, result.get());
+            }
+            assertEquals(1, parsed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void projectsParseTheirVersionsOnce() throws IOException {
+        var project = new Project("antlr", Project.Type.JAVA);
+        project.addSourceDirectory("./test-data/input/antlr");
+        project.addGraphMLfiles("./test-data/output/arcanOutput/antlr");
+        var version = project.versions().first();
+        var smells = project.getArchitecturalSmellsIn(version);
+        assertFalse(smells.isEmpty());
+        assertSame(smells, project.getArchitecturalSmellsIn(version));
+        assertEquals(1, project.getSmellListCache().getMisses());
+        assertEquals(1, project.getSmellListCache().getHits());
+        smells.forEach(smell -> assertSame(smells, smell.getVersionSmells()));
+        version.clearGraph();
+    }
+
+    @Test
+    void clearedVersionsAreRemoved() throws IOException {
+        var project = new Project("antlr", Project.Type.JAVA);
+        project.addSourceDirectory("./test-data/input/antlr");
+        project.addGraphMLfiles("./test-data/output/arcanOutput/antlr");
+        var cache = project.getSmellListCache();
+        var first = project.versions().first();
+        var second = project.getVersionWith(2);
+        project.getArchitecturalSmellsIn(first);
+        project.getArchitecturalSmellsIn(second);
+        assertEquals(2, cache.size());
+        long secondWeight = cache.getWeight();
+
+        first.clearGraph();
+        assertEquals(1, cache.size());
+        assertTrue(cache.getWeight() < secondWeight);
+        second.clearGraph();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+        assertEquals(0, cache.getEvictions());
+
+        var cleared = new SmellListCache();
+        var graph = graph(10);
+        cleared.get(graph, g -> Collections.emptyList());
+        cleared.remove(graph);
+        var parsed = new AtomicInteger();
+        cleared.get(graph, g -> { parsed.incrementAndGet(); return Collections.emptyList(); });
+        assertEquals(1, parsed.get());
+    }
+
+    private Graph graph(int vertices) {
+        var graph = TinkerGraph.open();
+        for (int i = 0; i < vertices; i++) {
+            graph.addVertex("package");
+        }
+        return graph;
+    }
+}
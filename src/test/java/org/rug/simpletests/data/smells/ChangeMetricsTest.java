@@ -2,22 +2,52 @@ package org.rug.simpletests.data.smells;
 
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.TextP;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.characteristics.comps.CHOMetricPackage;
 import org.rug.data.characteristics.comps.ChangeMetrics;
+import org.rug.data.characteristics.comps.CommitChangesTable;
+import org.rug.data.characteristics.comps.JavaSourceCodeRetriever;
 import org.rug.data.characteristics.comps.PCCCMetric;
+import org.rug.data.characteristics.comps.TACHMetricPackage;
 import org.rug.data.labels.VertexLabel;
 import org.rug.data.project.AbstractProject;
 import org.rug.data.project.GitProject;
+import org.rug.data.project.GitVersion;
+import org.rug.simpletests.TestFiles;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.rug.simpletests.TestFiles.commit;
+import static org.rug.simpletests.TestFiles.write;
 
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @Tag("unitTests")
 public class ChangeMetricsTest {
 
+    private final TestFiles files = new TestFiles();
+
+    @AfterAll
+    void deleteTempFiles() throws IOException {
+        files.deleteAll();
+    }
+
     @Test
     void testCalculate() throws IOException {
         // With this command line you can see the commits that modified a given file:
@@ -55,4 +85,81 @@ public class ChangeMetricsTest {
                 .toSet()
                 .forEach(v -> System.out.println(String.format("%s -> %.2f", v.value("name"), v.<Double>value(PCCCMetric.NAME))));
     }
+
+    @Test
+    void testChangesAreMatchedBySourcePath() throws IOException, GitAPIException {
+        Path repoDir = files.createTempDirectory("change-metrics");
+        try (Git git = Git.init().setDirectory(repoDir.toFile()).call()) {
+            write(repoDir, "a/A.java", "class A {\n}\n");
+            write(repoDir, "b/BA.java", "class BA {\n}\n");
+            var first = commit(git, "first");
+
+            write(repoDir, "a/A.java", "class A {\n  int x;\n  int y;\n}\n");
+            write(repoDir, "c/C.java", "class C {\n  int x;\n  int y;\n  int z;\n}\n");
+            write(repoDir, "xa/A.java", "class A {\n}\n");
+            var second = commit(git, "second");
+
+            Files.createDirectories(repoDir.resolve("d"));
+            Files.move(repoDir.resolve("c/C.java"), repoDir.resolve("d/C.java"));
+            write(repoDir, "b/BA.java", "class BA {\n  int x;\n}\n");
+            write(repoDir, "xa/A.java", "class A {\n  int x;\n}\n");
+            var third = commit(git, "third");
+
+            var commits = List.of(first, second, third);
+            assertChangesOf(new ChangeMetrics(ChangeMetrics.NAME), git, repoDir, commits);
+
+            var versions = new ArrayList<GitVersion>();
+            for (int i = 0; i < commits.size(); i++) {
+                versions.add(version(git, repoDir, i + 1, commits.get(i)));
+            }
+            var changesTable = CommitChangesTable.precompute(versions, 2, 2);
+            assertChangesOf(new ChangeMetrics(ChangeMetrics.NAME, changesTable), git, repoDir, commits);
+            changesTable.shutdown();
+            // A window of one pair computes the next pair only once the previous one is taken.
+            changesTable = CommitChangesTable.precompute(versions, 2, 1);
+            assertEquals(1, changesTable.size());
+            assertChangesOf(new ChangeMetrics(ChangeMetrics.NAME, changesTable), git, repoDir, commits);
+            assertEquals(0, changesTable.size());
+            changesTable.shutdown();
+        }
+    }
+
+    private void assertChangesOf(ChangeMetrics changes, Git git, Path sourcePath, List<RevCommit> commits) {
+        changes.calculate(version(git, sourcePath, 1, commits.get(0), "a.A", "b.BA"));
+        var v2 = version(git, sourcePath, 2, commits.get(1), "a.A", "b.BA", "c.C", "xa.A");
+        changes.calculate(v2);
+        assertChanges(v2.getGraph(), "a.A", 1, 2, true);
+        assertChanges(v2.getGraph(), "b.BA", 0, 0, false);
+        assertChanges(v2.getGraph(), "c.C", 1, 5, true);
+        assertChanges(v2.getGraph(), "xa.A", 1, 2, true);
+
+        var v3 = version(git, sourcePath, 3, commits.get(2), "a.A", "b.BA", "d.C", "xa.A");
+        changes.calculate(v3);
+        assertChanges(v3.getGraph(), "a.A", 1, 0, false);
+        assertChanges(v3.getGraph(), "b.BA", 1, 1, true);
+        assertChanges(v3.getGraph(), "d.C", 1, 0, true);
+        assertChanges(v3.getGraph(), "xa.A", 2, 1, true);
+    }
+
+    private void assertChanges(Graph graph, String className, long frequency, long totalAmount, boolean changed) {
+        Vertex vertex = graph.traversal().V().has("name", className).next();
+        assertEquals(frequency, (long) vertex.value(ChangeMetrics.NAME), className);
+        assertEquals(totalAmount, (long) vertex.value(TACHMetricPackage.NAME), className);
+        assertEquals(changed, vertex.value(CHOMetricPackage.NAME), className);
+    }
+
+    private GitVersion version(Git git, Path sourcePath, int index, RevCommit commit, String... classes) {
+        var classGraph = TinkerGraph.open();
+        for (String name : classes) {
+            classGraph.addVertex(VertexLabel.CLASS.toString()).property("name", name);
+            classGraph.traversal().V().has("name", name).next().property("ClassType", "SystemClass");
+        }
+        var graphFile = Paths.get(String.format("graph-%d-01_01_2020-%s.graphml", index, commit.getName()));
+        return new GitVersion(graphFile, git.getRepository(), () -> new JavaSourceCodeRetriever(sourcePath)) {
+            @Override
+            public synchronized Graph getGraph() {
+                return classGraph;
+            }
+        };
+    }
 }
@@ -0,0 +1,102 @@
+package org.rug.simpletests.data.smells;
+
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.characteristics.comps.FileMetricsCache;
+import org.rug.data.characteristics.comps.JavaSourceCodeRetriever;
+import org.rug.data.characteristics.comps.NumberOfLinesOfCode;
+import org.rug.simpletests.TestFiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestFiles.write;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class FileMetricsCacheTest {
+
+    private final TestFiles files = new TestFiles();
+
+    @AfterAll
+    void deleteTempFiles() throws IOException {
+        files.deleteAll();
+    }
+
+    private static final String[] classes = {"a.A", "b.B", "c.C"};
+
+    @Test
+    void cachedLinesOfCodeMatchCountedLinesOfCode() throws IOException {
+        Path dir = files.createTempDirectory("file-metrics-cache");
+        Path first = dir.resolve("v1");
+        Path second = dir.resolve("v2");
+        write(first, "a/A.java", "class A {\n  int x;\n\n}\n");
+        write(first, "b/B.java", "class B {\n}\n");
+        write(second, "a/A.java", "class A {\n  int x;\n\n}\n");
+        write(second, "b/B.java", "class B {\n  int y;\n}\n");
+        write(second, "c/C.java", "class C {}\n");
+
+        Path cacheFile = dir.resolve("states").resolve("file-metrics.bin");
+        var cache = FileMetricsCache.load(cacheFile);
+        assertEquals(0, cache.size());
+
+        var expected = linesOfCode(second, new NumberOfLinesOfCode());
+        linesOfCode(first, new NumberOfLinesOfCode(cache));
+        assertEquals(2, cache.getMisses());
+        assertEquals(expected, linesOfCode(second, new NumberOfLinesOfCode(cache)));
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(4, cache.size());
+        cache.save();
+
+        var loaded = FileMetricsCache.load(cacheFile);
+        assertEquals(cache.size(), loaded.size());
+        assertEquals(expected, linesOfCode(second, new NumberOfLinesOfCode(loaded)));
+        assertEquals(3, loaded.getHits());
+        assertEquals(0, loaded.getMisses());
+    }
+
+    @Test
+    void contentIdIsTheGitBlobId() throws IOException {
+        Path dir = files.createTempDirectory("file-metrics-cache");
+        write(dir, "a/A.java", "hello\n");
+        var retriever = new JavaSourceCodeRetriever(dir);
+        var file = retriever.getPathOf("a.A", ".java");
+        assertTrue(file.isPresent());
+        // git hash-object of "hello\n"
+        assertEquals("ce013625030ba8dba906f756967f9e9ca394464a", retriever.getContentId(file.get()));
+    }
+
+    @Test
+    void corruptedCacheIsIgnored() throws IOException {
+        Path file = files.createTempFile("file-metrics", ".bin");
+        Files.writeString(file, "not a cache");
+        var cache = FileMetricsCache.load(file);
+        assertEquals(0, cache.size());
+        cache.put("ce013625030ba8dba906f756967f9e9ca394464a", "linesOfCode", 1);
+        cache.save();
+        assertEquals(1L, FileMetricsCache.load(file).get("ce013625030ba8dba906f756967f9e9ca394464a", "linesOfCode").getAsLong());
+    }
+
+    private List<Long> linesOfCode(Path sourcePath, NumberOfLinesOfCode loc) {
+        var graph = TinkerGraph.open();
+        loc.setSourceRetriever(new JavaSourceCodeRetriever(sourcePath));
+        List<Long> values = new ArrayList<>();
+        for (String name : classes) {
+            Vertex vertex = graph.addVertex("class");
+            vertex.property("name", name);
+            vertex.property("ClassType", "SystemClass");
+            loc.calculate(vertex);
+            values.add(vertex.value(loc.getName()));
+        }
+        return values;
+    }
+}
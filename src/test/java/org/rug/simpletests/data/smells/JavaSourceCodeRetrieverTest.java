@@ -4,10 +4,16 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.rug.data.characteristics.comps.JavaSourceCodeRetriever;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 @Tag("unitTests")
 public class JavaSourceCodeRetrieverTest {
@@ -25,4 +31,33 @@ public class JavaSourceCodeRetrieverTest {
         System.out.println(source);
     }
 
+    @Test
+    void suffixLookupMatchesLinearScan() throws IOException {
+        var sourcePath = Paths.get("src");
+        var retriever = new JavaSourceCodeRetriever(sourcePath);
+        Set<Path> files;
+        try (var stream = Files.walk(sourcePath)) {
+            files = stream.filter(p -> p.toFile().isFile()).collect(Collectors.toSet());
+        }
+        int found = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (!name.endsWith(".java")) {
+                continue;
+            }
+            for (int depth = 1; depth <= Math.min(3, file.getNameCount()); depth++) {
+                var suffix = file.subpath(file.getNameCount() - depth, file.getNameCount()).toString();
+                var elementName = suffix.substring(0, suffix.length() - ".java".length()).replace(File.separatorChar, '.');
+                var fileName = elementName.replace('.', File.separatorChar) + ".java";
+                Optional<Path> expected = files.stream().filter(p -> p.endsWith(fileName)).findFirst();
+                assertEquals(expected, retriever.getPathOf(elementName, ".java"));
+                found++;
+            }
+        }
+        assertTrue(found > 0);
+        assertEquals(Optional.empty(), retriever.getPathOf("Retriever", ".java"));
+        assertEquals(Optional.empty(), retriever.getPathOf("org.rug.Missing", ".java"));
+        assertEquals(Optional.empty(), retriever.getPathOf("", ""));
+    }
+
 }
@@ -0,0 +1,130 @@
+package org.rug.simpletests.data.smells;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.characteristics.comps.LinesOfCodeCounter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class LinesOfCodeCounterTest {
+
+    private final Pattern linePattern = Pattern.compile("[^\\s*].*[\\n\\r]+");
+    private final LinesOfCodeCounter nonBlank = new LinesOfCodeCounter(LinesOfCodeCounter.Mode.NON_BLANK);
+    private final LinesOfCodeCounter code = new LinesOfCodeCounter(LinesOfCodeCounter.Mode.CODE);
+
+    @Test
+    void nonBlankLinesMatchThePattern() throws IOException {
+        List<Path> sources;
+        try (var walk = Files.walk(Paths.get("src"))) {
+            sources = walk.filter(p -> p.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+        assertFalse(sources.isEmpty());
+        for (Path source : sources) {
+            var bytes = Files.readAllBytes(source);
+            assertEquals(countWithPattern(new String(bytes, StandardCharsets.UTF_8)), nonBlank.count(ByteBuffer.wrap(bytes)), source.toString());
+        }
+
+        String alphabet = " \t\f\u000B*\n\r\u0085\u2028\u2029aé€\uD83D\uDE00/\"'";
+        var random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            var builder = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                int index = random.nextInt(alphabet.length());
+                if (Character.isHighSurrogate(alphabet.charAt(index))) {
+                    builder.append(alphabet, index, index + 2);
+                } else if (!Character.isLowSurrogate(alphabet.charAt(index))) {
+                    builder.append(alphabet.charAt(index));
+                }
+            }
+            String source = builder.toString();
+            assertEquals(countWithPattern(source), nonBlank.count(source), source);
+        }
+    }
+
+    @Test
+    void malformedSourcesAreRejectedAsByTheDecoder() {
+        byte[][] inputs = {
+                {'a', '\n'}, {(byte) 0xC3, (byte) 0xA9, '\n'}, {(byte) 0xC0, (byte) 0x80}, {(byte) 0xE0, (byte) 0x80, (byte) 0x80},
+                {(byte) 0xED, (byte) 0xA0, (byte) 0x80}, {(byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80},
+                {(byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80}, {(byte) 0xE2, (byte) 0x82}, {(byte) 0xFF},
+                {'a', (byte) 0x80, '\n'}, {(byte) 0xE2, (byte) 0x82, 'a'}
+        };
+        for (byte[] input : inputs) {
+            boolean decodable;
+            try {
+                StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(input));
+                decodable = true;
+            } catch (CharacterCodingException e) {
+                decodable = false;
+            }
+            if (decodable) {
+                assertDoesNotThrow(() -> nonBlank.count(ByteBuffer.wrap(input)));
+            } else {
+                assertThrows(MalformedInputException.class, () -> nonBlank.count(ByteBuffer.wrap(input)));
+                assertThrows(MalformedInputException.class, () -> code.count(ByteBuffer.wrap(input)));
+            }
+        }
+    }
+
+    @Test
+    void commentsAreNotCode() {
+        String source = "/*\n" +
+                " * Licence header\n" +
+                " */\n" +
+                "package a; // the package\n" +
+                "\n" +
+                "// a comment\n" +
+                "class A { /* inline */ int x = 4 / 2;\n" +
+                "    String s = \"/* not a comment */\"; char c = '\"'; char q = '\\'';\n" +
+                "    /* a block\n" +
+                "       comment */ int y;\n" +
+                "    int z = x\n" +
+                "        /\n" +
+                "        2;\n" +
+                "    /** doc */\n" +
+                "}";
+        assertEquals(8, code.count(source));
+        assertEquals(0, code.count(""));
+        assertEquals(0, code.count("  \n\t\r\n// only a comment"));
+        assertEquals(1, code.count("int a;"));
+        assertEquals(2, code.count("String s = \"a\\\"\n b\";"));
+    }
+
+    @Test
+    void onlyTheRemainingBytesAreCounted() throws MalformedInputException {
+        var buffer = ByteBuffer.wrap("skipped\nline\n".getBytes(StandardCharsets.UTF_8));
+        buffer.position(8);
+        assertEquals(1, nonBlank.count(buffer));
+        assertEquals(8, buffer.position());
+        assertEquals(1, nonBlank.count(buffer.asReadOnlyBuffer()));
+        var direct = ByteBuffer.allocateDirect(13).put("skipped\nline\n".getBytes(StandardCharsets.UTF_8));
+        direct.flip();
+        assertEquals(2, nonBlank.count(direct));
+    }
+
+    private long countWithPattern(String source) {
+        var matcher = linePattern.matcher(source);
+        long lines = 0;
+        while (matcher.find()) {
+            lines++;
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,85 @@
+package org.rug.simpletests.data.smells;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.characteristics.SmellCharacteristicsEngine;
+import org.rug.data.characteristics.smells.PageRank;
+import org.rug.data.smells.ArchitecturalSmell;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestData.antlr;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class SmellCharacteristicsEngineTest {
+
+    @Test
+    void parallelCharacteristicsMatchSequentialCharacteristics() {
+        for (String version : new String[]{"2.7.2", "3.3"}) {
+            var smells = antlr.getArchitecturalSmellsIn(version);
+            assertFalse(smells.isEmpty());
+
+            var sequential = new SmellCharacteristicsEngine();
+            sequential.calculate(smells);
+            List<Map<String, String>> expected = new ArrayList<>();
+            for (ArchitecturalSmell smell : smells) {
+                expected.add(new HashMap<>(smell.getCharacteristicsMap()));
+                smell.getCharacteristicsMap().clear();
+            }
+
+            var parallel = new SmellCharacteristicsEngine(4);
+            parallel.calculate(smells);
+            parallel.shutdown();
+            for (int i = 0; i < smells.size(); i++) {
+                assertEquals(expected.get(i), smells.get(i).getCharacteristicsMap());
+            }
+            assertEquals(sequential.getInvocationCounts(), parallel.getInvocationCounts());
+        }
+    }
+
+    @Test
+    void everyCharacteristicIsTimed() {
+        var smells = antlr.getArchitecturalSmellsIn("2.7.2");
+        var engine = new SmellCharacteristicsEngine(2);
+        engine.calculate(smells);
+        engine.shutdown();
+
+        var counts = engine.getInvocationCounts();
+        var times = engine.getElapsedTimes();
+        assertEquals(counts.keySet(), times.keySet());
+        for (ArchitecturalSmell.Type type : ArchitecturalSmell.Type.values()) {
+            long smellsOfType = smells.stream().filter(s -> s.getType() == type).count();
+            if (smellsOfType > 0) {
+                type.getCharacteristicsSet().forEach(c -> assertTrue(counts.get(c.getName()) >= smellsOfType));
+            }
+        }
+        long total = smells.stream().mapToLong(s -> s.getType().getCharacteristicsSet().size()).sum();
+        assertEquals(total, counts.values().stream().mapToLong(Long::longValue).sum());
+        times.values().forEach(t -> assertTrue(t >= 0));
+    }
+
+    @Test
+    void pageRanksAreCachedPerEngine() {
+        var first = new SmellCharacteristicsEngine(1, 2);
+        var second = new SmellCharacteristicsEngine(2, 1);
+        first.calculate(antlr.getArchitecturalSmellsIn("2.7.2"));
+        assertEquals(1, first.getPageRankCache().size());
+
+        second.calculate(antlr.getArchitecturalSmellsIn("3.3"));
+        second.calculate(antlr.getArchitecturalSmellsIn("3.4"));
+        second.shutdown();
+        assertEquals(1, second.getPageRankCache().size());
+        assertEquals(1, first.getPageRankCache().size());
+
+        first.calculate(antlr.getArchitecturalSmellsIn("3.3"));
+        assertEquals(2, first.getPageRankCache().size());
+        // The cache of an engine is only bound while the engine computes characteristics.
+        assertNull(PageRank.setCache(null));
+    }
+}
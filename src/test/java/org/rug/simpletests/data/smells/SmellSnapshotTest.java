@@ -0,0 +1,88 @@
+package org.rug.simpletests.data.smells;
+
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.smells.*;
+import org.rug.tracker.ASmellTracker;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestData.antlr;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class SmellSnapshotTest {
+
+    @Test
+    void snapshotsCopyTheSmells() {
+        var version = antlr.getVersionWith(2);
+        var smells = antlr.getArchitecturalSmellsIn(version);
+        Set<ArchitecturalSmell.Type> types = new HashSet<>();
+        for (var smell : smells) {
+            smell.calculateCharacteristics();
+            var snapshot = SmellSnapshot.of(smell);
+            types.add(smell.getType());
+            assertEquals(smell.getId(), snapshot.getId());
+            assertEquals(smell.getType(), snapshot.getType());
+            assertEquals(smell.getLevel(), snapshot.getLevel());
+            assertEquals(smell.getAffectedVersion(), snapshot.getAffectedVersion());
+            assertEquals(smell.getAffectedElementsNames(), new HashSet<>(snapshot.getAffectedElementsNames()));
+            assertEquals(smell.getAffectedElements().size(), snapshot.getAffectedElementsCount());
+            assertEquals(smell.getCharacteristicsMap(), snapshot.getCharacteristicsMap());
+            assertFalse(snapshot.getCharacteristicsMap().isEmpty());
+            if (smell instanceof CDSmell) {
+                assertEquals(((CDSmell) smell).getShape(), snapshot.getShape());
+                assertNull(snapshot.getCentreName());
+                assertTrue(snapshot.getDependenciesNames().isEmpty());
+            } else {
+                assertNull(snapshot.getShape());
+                assertEquals(((SingleElementSmell) smell).getCentreName(), snapshot.getCentreName());
+            }
+            if (smell instanceof UDSmell) {
+                assertEquals(((UDSmell) smell).getBadDepNames(), new HashSet<>(snapshot.getDependenciesNames()));
+            }
+            for (String name : snapshot.getAffectedElementsNames()) {
+                assertSame(name.intern(), name);
+            }
+        }
+        assertTrue(types.containsAll(Set.of(ArchitecturalSmell.Type.CD, ArchitecturalSmell.Type.UD)));
+        version.clearGraph();
+    }
+
+    @Test
+    void snapshotsHoldNoGraphElements() {
+        for (Field field : SmellSnapshot.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                assertFalse(Vertex.class.isAssignableFrom(field.getType()), field.getName());
+                assertFalse(Graph.class.isAssignableFrom(field.getType()), field.getName());
+                assertFalse(ArchitecturalSmell.class.isAssignableFrom(field.getType()), field.getName());
+            }
+        }
+    }
+
+    @Test
+    void trackersStoreSnapshots() {
+        var tracker = new ASmellTracker();
+        for (int i = 1; i <= 2; i++) {
+            var version = antlr.getVersionWith(i);
+            var smells = antlr.getArchitecturalSmellsIn(version);
+            smells.forEach(ArchitecturalSmell::calculateCharacteristics);
+            tracker.track(smells, version);
+            version.clearGraph();
+        }
+        var smellObjects = tracker.getTrackGraph().traversal().V().values(ASmellTracker.SMELL_OBJECT).toList();
+        assertFalse(smellObjects.isEmpty());
+        smellObjects.forEach(smell -> assertTrue(smell instanceof SmellSnapshot));
+        tracker.getScorer().getUnlinkedMatchScores().forEach(t -> {
+            assertEquals("2.4.0", t.getA().getAffectedVersion());
+            assertEquals("2.5.0", t.getB().getAffectedVersion());
+        });
+    }
+}
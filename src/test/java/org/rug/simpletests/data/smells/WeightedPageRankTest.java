@@ -0,0 +1,98 @@
+package org.rug.simpletests.data.smells;
+
+import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.characteristics.smells.WeightedPageRank;
+import org.rug.data.labels.EdgeLabel;
+import org.rug.data.labels.VertexLabel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestData.antlr;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class WeightedPageRankTest {
+
+    @Test
+    void ranksMatchVertexProgramOnExplodedGraph() throws ExecutionException, InterruptedException {
+        for (String versionString : new String[]{"2.7.2", "3.3"}) {
+            var graph = antlr.getVersion(versionString).getGraph();
+            for (EdgeLabel label : EdgeLabel.allDependencyEdges()) {
+                var pageRank = new WeightedPageRank(graph, VertexLabel.getTypesStrings(), label.toString(), "Weight").compute();
+                var expected = vertexProgramRanks(graph, label.toString());
+                var vertices = pageRank.getVertices();
+                var ranks = pageRank.getRanks();
+                assertEquals(expected.size(), vertices.size());
+                assertTrue(pageRank.edgeCount() > 0);
+                for (int i = 0; i < ranks.length; i++) {
+                    assertEquals(expected.get(vertices.get(i).id()), ranks[i], 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    void weightsActAsEdgeMultiplicity() {
+        Graph weighted = TinkerGraph.open();
+        Graph exploded = TinkerGraph.open();
+        for (Graph g : new Graph[]{weighted, exploded}) {
+            for (int i = 0; i < 4; i++) {
+                g.addVertex(T.id, i, T.label, VertexLabel.CLASS.toString());
+            }
+        }
+        int[][] edges = {{0, 1, 3}, {0, 2, 1}, {1, 2, 2}, {2, 0, 1}, {3, 2, 0}};
+        for (int[] e : edges) {
+            Vertex out = weighted.vertices(e[0]).next();
+            out.addEdge("dependsOn", weighted.vertices(e[1]).next(), "Weight", e[2]);
+            for (int i = 0; i < e[2]; i++) {
+                exploded.vertices(e[0]).next().addEdge("dependsOn", exploded.vertices(e[1]).next());
+            }
+        }
+        var expected = new WeightedPageRank(exploded, VertexLabel.getTypesStrings(), "dependsOn", "Weight").compute().getRanks();
+        var actual = new WeightedPageRank(weighted, VertexLabel.getTypesStrings(), "dependsOn", "Weight").compute().getRanks();
+        assertArrayEquals(expected, actual, 1e-15);
+        assertEquals(1d, Arrays.stream(actual).sum(), 1e-3);
+    }
+
+    /**
+     * Computes the PageRank with the vertex program of TinkerPop, on a copy of the graph where every weighted
+     * edge is replaced by as many edges as its weight.
+     */
+    private Map<Object, Double> vertexProgramRanks(Graph graph, String edgeLabel) throws ExecutionException, InterruptedException {
+        Graph exploded = TinkerGraph.open();
+        graph.vertices().forEachRemaining(v -> {
+            if (VertexLabel.getTypesStrings().contains(v.label())) {
+                exploded.addVertex(T.id, v.id(), T.label, v.label());
+            }
+        });
+        graph.edges().forEachRemaining(e -> {
+            var out = exploded.vertices(e.outVertex().id());
+            var in = exploded.vertices(e.inVertex().id());
+            if (e.label().equals(edgeLabel) && out.hasNext() && in.hasNext()) {
+                Vertex outVertex = out.next(), inVertex = in.next();
+                int weight = e.property("Weight").isPresent() ? e.<Integer>value("Weight") : 1;
+                for (int i = 0; i < weight; i++) {
+                    outVertex.addEdge(edgeLabel, inVertex);
+                }
+            }
+        });
+        var program = PageRankVertexProgram.build().property("centrality")
+                .edges(__.outE(edgeLabel).asAdmin()).create(exploded);
+        var result = exploded.compute().program(program).submit().get().graph();
+        Map<Object, Double> ranks = new HashMap<>();
+        result.vertices().forEachRemaining(v -> ranks.put(v.id(), v.value("centrality")));
+        return ranks;
+    }
+}
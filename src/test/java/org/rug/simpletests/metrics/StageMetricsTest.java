@@ -0,0 +1,89 @@
+package org.rug.simpletests.metrics;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.metrics.StageMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class StageMetricsTest {
+
+    @Test
+    void metersAreGroupedByVersion() {
+        var metrics = new StageMetrics();
+        assertEquals("smells", metrics.time("smells.parse", "1.0", () -> "smells"));
+        metrics.record("graph.load", "2.0", 10);
+        metrics.record("graph.load", "1.0", 30);
+        metrics.record("graph.load", "1.0", 20);
+        metrics.increment("smells.cyclicDep", "1.0", 3);
+        metrics.increment("smells.cyclicDep", "1.0", 4);
+        metrics.gauge("heap", "1.0", 100);
+        metrics.gauge("heap", "1.0", 50);
+
+        var measurements = metrics.getMeasurements();
+        assertEquals(List.of("1.0 smells.parse", "1.0 graph.load", "1.0 smells.cyclicDep", "1.0 heap", "2.0 graph.load"),
+                measurements.stream().map(m -> m.getVersion() + " " + m.getName()).collect(Collectors.toList()));
+        var load = measurements.get(1);
+        assertEquals(StageMetrics.Type.TIMER, load.getType());
+        assertEquals(2, load.getCount());
+        assertEquals(50, load.getTotal());
+        assertEquals(30, load.getMax());
+        var smells = measurements.get(2);
+        assertEquals(StageMetrics.Type.COUNTER, smells.getType());
+        assertEquals(7, smells.getTotal());
+        var heap = measurements.get(3);
+        assertEquals(StageMetrics.Type.GAUGE, heap.getType());
+        assertEquals(2, heap.getCount());
+        assertEquals(50, heap.getTotal());
+
+        assertThrows(IllegalArgumentException.class, () -> metrics.increment("graph.load", "1.0", 1));
+        metrics.clear();
+        assertTrue(metrics.getMeasurements().isEmpty());
+    }
+
+    @Test
+    void failedStagesAreTimed() {
+        var metrics = new StageMetrics();
+        assertThrows(IllegalStateException.class, () -> metrics.time("tracker.matching", "1.0", () -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(1, metrics.getMeasurements().get(0).getCount());
+        metrics.recordHeapUsage("1.0");
+        assertTrue(metrics.getMeasurements().get(1).getTotal() > 0);
+    }
+
+    @Test
+    void stagesAreTimedConcurrently() throws Exception {
+        var metrics = new StageMetrics();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        metrics.record("characteristic.smell.size", "v" + (j % 4), 1);
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        var measurements = metrics.getMeasurements();
+        assertEquals(4, measurements.size());
+        measurements.forEach(m -> assertEquals(2000, m.getCount()));
+        assertEquals(List.of("characteristic.smell.size"), new ArrayList<>(metrics.getTotalTimes().keySet()));
+    }
+}
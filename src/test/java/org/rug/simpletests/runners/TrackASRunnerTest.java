@@ -0,0 +1,143 @@
+package org.rug.simpletests.runners;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.project.Project;
+import org.rug.metrics.StageMetrics;
+import org.rug.persistence.CondensedGraphGenerator;
+import org.rug.persistence.PersistenceHub;
+import org.rug.persistence.StageMetricsGenerator;
+import org.rug.runners.TrackASRunner;
+import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.SimpleNameJaccardSimilarityLinker;
+import org.rug.tracker.VersionRuns;
+import org.rug.simpletests.TestFiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class TrackASRunnerTest {
+
+    private final TestFiles files = new TestFiles();
+
+    @AfterAll
+    void deleteTempFiles() throws IOException {
+        files.deleteAll();
+    }
+
+    private static final String[] versions = {"2.4.0", "2.5.0", "2.6.0", "2.7.0", "2.7.1", "2.7.2"};
+
+    private Path sourcesDir;
+    private Path graphMLDir;
+
+    /**
+     * Links the first versions of antlr in temporary directories, as characterising the components of all
+     * the versions takes too long.
+     */
+    @BeforeAll
+    void init() throws IOException {
+        sourcesDir = files.createTempDirectory("antlr-sources");
+        graphMLDir = files.createTempDirectory("antlr-graphs");
+        for (var version : versions) {
+            Files.createSymbolicLink(sourcesDir.resolve("antlr-" + version),
+                    Paths.get("./test-data/input/antlr", "antlr-" + version).toAbsolutePath());
+            Files.createSymbolicLink(graphMLDir.resolve("antlr-" + version + ".graphml"),
+                    Paths.get("./test-data/output/arcanOutput/antlr", "antlr-" + version + ".graphml").toAbsolutePath());
+        }
+    }
+
+    @Test
+    void pipelinedTrackingMatchesSequentialTracking() throws IOException {
+        PersistenceHub.clearAll();
+        var expected = track(0, 1);
+        var actual = track(3, 1);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void parallelCharacteristicsMatchSequentialCharacteristics() throws IOException {
+        PersistenceHub.clearAll();
+        var expected = track(0, 1);
+        assertEquals(expected, track(0, 4));
+        assertEquals(expected, track(2, 3));
+    }
+
+    @Test
+    void stagesAreMeasuredOnEveryVersion() throws IOException {
+        PersistenceHub.clearAll();
+        var outputFile = files.createTempFile("stage-metrics", ".csv");
+        PersistenceHub.register(new StageMetricsGenerator(outputFile.toString()));
+        PersistenceHub.register(new CondensedGraphGenerator(files.createTempFile("condensed-graph", ".graphml").toString()));
+        var project = new Project("antlr", Project.Type.JAVA);
+        project.addSourceDirectory(sourcesDir.toString());
+        project.addGraphMLfiles(graphMLDir.toString());
+        var runner = new TrackASRunner(project, new ASmellTracker(new SimpleNameJaccardSimilarityLinker(), 0), false, 2, 2);
+        assertEquals(0, runner.run());
+        PersistenceHub.closeAll();
+        PersistenceHub.clearAll();
+
+        Map<String, Set<String>> stagesByVersion = new TreeMap<>();
+        runner.getMetrics().getMeasurements().forEach(m ->
+                stagesByVersion.computeIfAbsent(m.getVersion(), v -> new TreeSet<>()).add(m.getName()));
+        assertEquals(versions.length + 1, stagesByVersion.size());
+        for (var version : versions) {
+            var stages = stagesByVersion.get(version);
+            for (var stage : new String[]{"graph.load", "smells.parse", "characteristic.component.linesOfCode",
+                    "characteristic.smell.size", "tracker.track", "tracker.condensedGraph", "smells.cyclicDep", StageMetrics.HEAP_USED}) {
+                assertTrue(stages.contains(stage), stage + " was not measured on " + version);
+            }
+        }
+        assertTrue(stagesByVersion.get(versions[1]).contains("tracker.matching"));
+        assertTrue(stagesByVersion.get(StageMetrics.ALL_VERSIONS).contains("generator.CondensedGraphGenerator"));
+        assertFalse(stagesByVersion.get(StageMetrics.ALL_VERSIONS).contains("generator.TrackGraphGenerator"));
+
+        var lines = Files.readAllLines(outputFile);
+        assertEquals("version,metric,type,count,total,max", lines.get(0));
+        assertEquals(runner.getMetrics().getMeasurements().size() + 1, lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith(versions[0] + ",graph.load,timer,1,")));
+    }
+
+    /**
+     * Tracks the first versions of antlr and returns, for each unique smell, its properties and characteristics in every version.
+     */
+    private Map<Long, String> track(int prefetchWindow, int characteristicsThreads) throws IOException {
+        var project = new Project("antlr", Project.Type.JAVA);
+        project.addSourceDirectory(sourcesDir.toString());
+        project.addGraphMLfiles(graphMLDir.toString());
+        assertEquals(versions.length, project.numberOfVersions());
+        var tracker = new ASmellTracker(new SimpleNameJaccardSimilarityLinker(), 0);
+        assertEquals(0, new TrackASRunner(project, tracker, false, prefetchWindow, characteristicsThreads).run());
+
+        Map<Long, String> smells = new TreeMap<>();
+        var runs = new VersionRuns(tracker.getCondensedGraph());
+        for (Vertex smell : tracker.getCondensedGraph().traversal().V().hasLabel(ASmellTracker.SMELL).toList()){
+            Map<Long, Map<String, Object>> characteristics = new TreeMap<>();
+            smell.edges(Direction.OUT, ASmellTracker.HAS_CHARACTERISTIC).forEachRemaining(e -> {
+                Map<String, Object> values = new TreeMap<>();
+                e.inVertex().properties().forEachRemaining(p -> values.put(p.key(), p.value()));
+                runs.versionsOf(e).forEach(versionIndex -> characteristics.put(versionIndex, values));
+            });
+            smells.put(smell.value(ASmellTracker.UNIQUE_SMELL_ID), smell.value(ASmellTracker.SMELL_TYPE) + " " +
+                    smell.value(ASmellTracker.FIRST_APPEARED) + " " + smell.value(ASmellTracker.LAST_DETECTED) + " " + characteristics);
+        }
+        return smells;
+    }
+}
@@ -0,0 +1,190 @@
+package org.rug.simpletests.statefulness;
+
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
+import org.rug.statefulness.ASmellTrackerStateManager;
+import org.rug.statefulness.TrackerCheckpoint;
+import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.CharacteristicsStore;
+import org.rug.tracker.MinHashSimilarityLinker;
+import org.rug.tracker.SimpleNameJaccardSimilarityLinker;
+import org.rug.simpletests.TestFiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestData.antlr;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class TrackerCheckpointTest {
+
+    private final TestFiles files = new TestFiles();
+
+    @AfterAll
+    void deleteTempFiles() throws IOException {
+        files.deleteAll();
+    }
+
+    @Test
+    void resumedTrackersLinkTheSameSmells() throws Exception {
+        int nVersions = (int) antlr.numberOfVersions();
+        var tracker = new ASmellTracker(new SimpleNameJaccardSimilarityLinker(), 3);
+        ASmellTracker resumedTracker = null;
+        var stateManager = new ASmellTrackerStateManager(files.createTempDirectory("tracker-state").toFile());
+        List<Long> expected = new ArrayList<>();
+        List<Long> actual = new ArrayList<>();
+        for (int i = 1; i <= nVersions; i++) {
+            var version = antlr.getVersionWith(i);
+            var smells = antlr.getArchitecturalSmellsIn(version);
+            smells.forEach(ArchitecturalSmell::calculateCharacteristics);
+            tracker.track(smells, version);
+            expected.add(tracker.smellsLinked());
+            if (resumedTracker != null) {
+                resumedTracker.track(smells, version);
+                actual.add(resumedTracker.smellsLinked());
+            }
+            if (i == nVersions / 2) {
+                var smellObjects = tracker.getTrackGraph().traversal().V().has(ASmellTracker.SMELL_OBJECT).count().next();
+                stateManager.saveState(tracker);
+                assertEquals(smellObjects, tracker.getTrackGraph().traversal().V().has(ASmellTracker.SMELL_OBJECT).count().next());
+                resumedTracker = stateManager.loadState(antlr, version);
+                assertEquals(tracker.currentVersion(), resumedTracker.currentVersion());
+                assertEquals(tracker.getDormantSmellsCount(), resumedTracker.getDormantSmellsCount());
+                assertEquals(idsOf(tracker.getDormantSmells().keySet()), idsOf(resumedTracker.getDormantSmells().keySet()));
+                assertEquals(new ArrayList<>(tracker.getDormantSmells().values()), new ArrayList<>(resumedTracker.getDormantSmells().values()));
+                assertEquals(new HashSet<>(idsOf(tracker.getFrontierVertices())), new HashSet<>(idsOf(resumedTracker.getFrontierVertices())));
+                assertEquals(tracker.getNextUniqueSmellId(), resumedTracker.getNextUniqueSmellId());
+                assertEquals(tracker.getCondensedGraph().traversal().V().count().next(),
+                        resumedTracker.getCondensedGraph().traversal().V().count().next());
+                assertEquals(tracker.getCondensedGraph().traversal().E().count().next(),
+                        resumedTracker.getCondensedGraph().traversal().E().count().next());
+                assertEquals(tracker.getUniqueSmellsMap().size(), resumedTracker.getUniqueSmellsMap().size());
+            }
+            version.clearGraph();
+        }
+        assertEquals(expected.subList(nVersions / 2, nVersions), actual);
+        assertEquals(tracker.getCondensedGraph().traversal().V().count().next(),
+                resumedTracker.getCondensedGraph().traversal().V().count().next());
+    }
+
+    @Test
+    void snapshotsAreRestored() throws Exception {
+        var tracker = new ASmellTracker(new SimpleNameJaccardSimilarityLinker(), 0);
+        var version = antlr.getVersionWith(2);
+        var smells = antlr.getArchitecturalSmellsIn(version);
+        smells.forEach(ArchitecturalSmell::calculateCharacteristics);
+        tracker.track(smells, version);
+        version.clearGraph();
+
+        for (boolean compress : new boolean[]{true, false}) {
+            var bytes = new ByteArrayOutputStream();
+            TrackerCheckpoint.write(tracker, bytes, compress);
+            var restored = TrackerCheckpoint.read(new ByteArrayInputStream(bytes.toByteArray()));
+            var original = snapshotsOf(tracker);
+            var copies = snapshotsOf(restored);
+            assertEquals(original.size(), copies.size());
+            for (int i = 0; i < original.size(); i++) {
+                var s = original.get(i);
+                var c = copies.get(i);
+                assertEquals(s.getType(), c.getType());
+                assertEquals(s.getLevel(), c.getLevel());
+                assertEquals(s.getShape(), c.getShape());
+                assertEquals(s.getAffectedVersion(), c.getAffectedVersion());
+                assertEquals(s.getCentreName(), c.getCentreName());
+                assertEquals(s.getAffectedElementsNames(), c.getAffectedElementsNames());
+                assertEquals(s.getDependenciesNames(), c.getDependenciesNames());
+                assertEquals(s.getAffectedElementsCount(), c.getAffectedElementsCount());
+                assertEquals(s.getCharacteristicsMap(), c.getCharacteristicsMap());
+            }
+        }
+
+        assertThrows(IOException.class, () -> TrackerCheckpoint.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7})));
+    }
+
+    @Test
+    void trackerFieldsAreRestored() throws Exception {
+        var linker = new MinHashSimilarityLinker(8, 2, false, 0.05, 3);
+        linker.setExactMatching(false);
+        var tracker = new ASmellTracker(linker, 2);
+        tracker.setCharacteristicsStore(new CharacteristicsStore());
+        for (int i = 1; i <= 3; i++) {
+            var version = antlr.getVersionWith(i);
+            var smells = antlr.getArchitecturalSmellsIn(version);
+            smells.forEach(ArchitecturalSmell::calculateCharacteristics);
+            tracker.track(smells, version);
+            version.clearGraph();
+        }
+
+        var bytes = new ByteArrayOutputStream();
+        TrackerCheckpoint.write(tracker, bytes, true);
+        var restored = TrackerCheckpoint.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertSame(MinHashSimilarityLinker.class, restored.getScorer().getClass());
+        var restoredLinker = (MinHashSimilarityLinker) restored.getScorer();
+        assertEquals(linker.getBands(), restoredLinker.getBands());
+        assertEquals(linker.getRows(), restoredLinker.getRows());
+        assertEquals(linker.isRescoring(), restoredLinker.isRescoring());
+        assertEquals(linker.getMargin(), restoredLinker.getMargin());
+        assertEquals(linker.getParallelism(), restoredLinker.getParallelism());
+        assertEquals(linker.isExactMatching(), restoredLinker.isExactMatching());
+        assertEquals(tracker.getMaxNonConsecutiveVersions(), restored.getMaxNonConsecutiveVersions());
+        assertEquals(tracker.getNextUniqueSmellId(), restored.getNextUniqueSmellId());
+
+        var store = tracker.getCharacteristicsStore();
+        var restoredStore = restored.getCharacteristicsStore();
+        assertNotNull(restoredStore);
+        assertEquals(store.getVersions(), restoredStore.getVersions());
+        assertEquals(store.getSmells(), restoredStore.getSmells());
+        assertEquals(store.runCount(), restoredStore.runCount());
+        for (long smell : store.getSmells()) {
+            for (long versionIndex : store.versionsOf(smell)) {
+                assertEquals(store.getCharacteristics(smell, versionIndex), restoredStore.getCharacteristics(smell, versionIndex));
+                assertEquals(store.getSmellId(smell, versionIndex), restoredStore.getSmellId(smell, versionIndex));
+            }
+        }
+    }
+
+    @Test
+    void checkpointsOfOtherVersionsAreRejected() throws Exception {
+        var stateManager = new ASmellTrackerStateManager(files.createTempDirectory("tracker-state").toFile());
+        assertFalse(stateManager.hasSavedState());
+        assertThrows(IOException.class, () -> stateManager.loadState(antlr, antlr.getVersionWith(1)));
+
+        var tracker = new ASmellTracker(new SimpleNameJaccardSimilarityLinker(), 0);
+        var version = antlr.getVersionWith(1);
+        tracker.track(antlr.getArchitecturalSmellsIn(version), version);
+        version.clearGraph();
+        stateManager.saveState(tracker);
+        assertTrue(stateManager.hasSavedState());
+
+        assertThrows(IllegalStateException.class, () -> stateManager.loadState(antlr, antlr.getVersionWith(2)));
+        assertEquals(version.getVersionString(), stateManager.loadState(antlr, version).currentVersion());
+    }
+
+    private List<Object> idsOf(Collection<Vertex> vertices) {
+        List<Object> ids = new ArrayList<>();
+        vertices.forEach(v -> ids.add(v.id()));
+        return ids;
+    }
+
+    private List<SmellSnapshot> snapshotsOf(ASmellTracker tracker) {
+        List<SmellSnapshot> snapshots = new ArrayList<>();
+        tracker.getTrackGraph().traversal().V().has(ASmellTracker.SMELL_OBJECT)
+                .order().by(ASmellTracker.SMELL_ID)
+                .values(ASmellTracker.SMELL_OBJECT)
+                .forEachRemaining(o -> snapshots.add((SmellSnapshot) o));
+        return snapshots;
+    }
+}
@@ -45,9 +45,15 @@ public class ASmellTrackerTest {
             pureOracle.put(v.getVersionString(), oracle[i++]);
         }
 
+        // Dormant smells expire after skipping more than three versions, and they are only linked to the smells that were
+        // not linked to a smell of the latest version. Matching all the smells ever tracked in one pass gives
+        // 93, 112, 147, 184, 182, 238 and 28 for 3.1, 3.1.3, 3.2, 3.3, 3.4, 3.5 and 4.0, where:
+        // expiry alone gives 59, 111, 147, 183, 149, 235 and 27;
+        // matching the latest version first alone gives 93, 111, 148, 186, 180, 238 and 27;
+        // both together give the values below. Filtering the dormant smells by shared element changes no value.
         antlrNonConsecOracle = new HashMap<>();
-        oracle = new long[]{0, 3, 3, 4, 5, 3, 26, 61, 61, 32, 35, 0, 113, 93, 183, 30, 112,
-                147, 184, 182, 238, 28};
+        oracle = new long[]{0, 3, 3, 4, 5, 3, 26, 61, 61, 32, 35, 0, 113, 59, 183, 30, 111,
+                148, 185, 148, 235, 27};
         i = 0;
         for(var v : antlr){
             antlrNonConsecOracle.put(v.getVersionString(), oracle[i++]);
@@ -110,6 +116,11 @@ public class ASmellTrackerTest {
             tracker.track(smells, version);
             System.out.println(version + " " + tracker.smellsLinked());
             assertEquals(oracle.get(version.getVersionString()).longValue(), tracker.smellsLinked());
+            var tailSmells = tracker.getTrackGraph().traversal().V().hasLabel(ASmellTracker.TAIL).out().toList();
+            tailSmells.forEach(v -> assertTrue(version.getVersionIndex() - v.<Long>value(ASmellTracker.VERSION_INDEX) - 1 <= 3));
+            assertEquals(tailSmells.size() - smells.size(), tracker.getDormantSmellsCount());
+            // Rebuilds the frontier and the dormant smells from the track graph, as after loading the state of the tracker.
+            tracker.setTrackGraph(tracker.getTrackGraph());
             PersistenceHub.sendToAndWrite(SmellSimilarityDataGenerator.class, tracker);
         }
         PersistenceHub.sendToAndWrite(SmellCharacteristicsGenerator.class, tracker);
@@ -0,0 +1,73 @@
+package org.rug.simpletests.tracker;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.CharacteristicsStore;
+import org.rug.tracker.SimpleNameJaccardSimilarityLinker;
+import org.rug.tracker.VersionRuns;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestData.antlr;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class CharacteristicsStoreTest {
+
+    @Test
+    void storeMatchesCondensedGraph() throws IOException, ClassNotFoundException {
+        var graphTracker = new ASmellTracker(new SimpleNameJaccardSimilarityLinker(), 3);
+        var storeTracker = new ASmellTracker(new SimpleNameJaccardSimilarityLinker(), 3);
+        storeTracker.setCharacteristicsStore(new CharacteristicsStore());
+
+        for (var version : antlr){
+            var smells = antlr.getArchitecturalSmellsIn(version);
+            smells.forEach(ArchitecturalSmell::calculateCharacteristics);
+            graphTracker.track(smells, version);
+            storeTracker.track(smells, version);
+        }
+
+        assertFalse(storeTracker.getCondensedGraph().traversal().V().hasLabel(ASmellTracker.CHARACTERISTIC).hasNext());
+
+        var file = File.createTempFile("characteristics-store", ".bin");
+        file.deleteOnExit();
+        storeTracker.getCharacteristicsStore().writeTo(file);
+        var store = CharacteristicsStore.readFrom(file);
+
+        var runs = new VersionRuns(graphTracker.getCondensedGraph());
+        long values = 0;
+        for (Vertex smell : graphTracker.getCondensedGraph().traversal().V().hasLabel(ASmellTracker.SMELL).toList()){
+            long uniqueSmellId = smell.value(ASmellTracker.UNIQUE_SMELL_ID);
+            var versions = new TreeSet<Long>();
+            var edges = smell.edges(Direction.OUT, ASmellTracker.HAS_CHARACTERISTIC);
+            while (edges.hasNext()){
+                Edge edge = edges.next();
+                Map<String, String> expected = new HashMap<>();
+                edge.inVertex().keys().forEach(k -> expected.put(k, edge.inVertex().value(k)));
+                var smellIds = VersionRuns.smellIdsOf(edge).iterator();
+                for (long versionIndex : runs.versionsOf(edge)) {
+                    versions.add(versionIndex);
+                    values += expected.size() + 1;
+                    assertEquals(expected, store.getCharacteristics(uniqueSmellId, versionIndex));
+                    assertEquals(Long.parseLong(smellIds.next()), store.getSmellId(uniqueSmellId, versionIndex));
+                    assertEquals(runs.getVersions().get(versionIndex), store.getVersions().get(versionIndex));
+                }
+                assertFalse(smellIds.hasNext());
+            }
+            assertEquals(versions, store.versionsOf(uniqueSmellId));
+        }
+        assertEquals(graphTracker.getUniqueSmellsMap().keySet(), store.getSmells());
+        assertTrue(store.runCount() < values);
+    }
+}
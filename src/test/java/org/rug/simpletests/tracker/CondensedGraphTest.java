@@ -0,0 +1,174 @@
+package org.rug.simpletests.tracker;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.tracker.ASmellTracker;
+import org.rug.tracker.SimpleNameJaccardSimilarityLinker;
+import org.rug.tracker.VersionRuns;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestData.antlr;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class CondensedGraphTest {
+
+    private ASmellTracker tracker;
+    private ASmellTracker resumedTracker;
+    private VersionRuns runs;
+
+    /**
+     * Tracks antlr twice, resuming the condensed graph writer of the second tracker halfway through.
+     */
+    @BeforeAll
+    void init(){
+        tracker = new ASmellTracker(new SimpleNameJaccardSimilarityLinker(), 3);
+        resumedTracker = new ASmellTracker(new SimpleNameJaccardSimilarityLinker(), 3);
+        long half = antlr.numberOfVersions() / 2;
+        int i = 0;
+        for (var version : antlr){
+            var smells = antlr.getArchitecturalSmellsIn(version);
+            smells.forEach(ArchitecturalSmell::calculateCharacteristics);
+            tracker.track(smells, version);
+            if (i++ == half) {
+                resumedTracker.setCondensedGraph(resumedTracker.getCondensedGraph());
+            }
+            resumedTracker.track(smells, version);
+        }
+        runs = new VersionRuns(tracker.getCondensedGraph());
+    }
+
+    @Test
+    void componentsAreWrittenOnce(){
+        var names = tracker.getCondensedGraph().traversal().V().hasLabel(ASmellTracker.COMPONENT)
+                .values(ASmellTracker.NAME).toList();
+        assertFalse(names.isEmpty());
+        assertEquals(names.size(), new HashSet<>(names).size());
+    }
+
+    @Test
+    void versionsAreWrittenOnce(){
+        assertEquals(antlr.numberOfVersions(), runs.getVersions().size());
+        assertEquals(antlr.numberOfVersions(), (long)tracker.getCondensedGraph().traversal().V().hasLabel(ASmellTracker.VERSION).count().next());
+    }
+
+    @Test
+    void smellCharacteristicsAreSharedByRuns(){
+        long edges = 0;
+        for (Vertex smell : tracker.getCondensedGraph().traversal().V().hasLabel(ASmellTracker.SMELL).toList()){
+            var smellRuns = runsOf(smell.edges(Direction.OUT, ASmellTracker.HAS_CHARACTERISTIC));
+            edges += smellRuns.size();
+            long versions = 0;
+            for (Edge edge : smellRuns) {
+                assertEquals(runs.versionsOf(edge).size(), VersionRuns.smellIdsOf(edge).size());
+                versions += runs.versionsOf(edge).size();
+            }
+            assertEquals((long)smell.value(ASmellTracker.AGE), versions);
+            assertRunsAreMaximal(smellRuns, (previous, next) -> !propertiesOf(previous.inVertex()).equals(propertiesOf(next.inVertex())));
+        }
+        assertTrue(edges < versionsOf(tracker.getCondensedGraph(), ASmellTracker.SMELL, Direction.OUT, ASmellTracker.HAS_CHARACTERISTIC));
+    }
+
+    @Test
+    void componentCharacteristicsAreSharedByRuns(){
+        long edges = 0;
+        for (Vertex component : tracker.getCondensedGraph().traversal().V().hasLabel(ASmellTracker.COMPONENT).toList()){
+            var componentRuns = runsOf(component.edges(Direction.OUT, ASmellTracker.HAS_CHARACTERISTIC));
+            edges += componentRuns.size();
+            assertFalse(componentRuns.isEmpty());
+            assertRunsAreMaximal(componentRuns, (previous, next) -> !propertiesOf(previous.inVertex()).equals(propertiesOf(next.inVertex())));
+        }
+        assertTrue(edges < versionsOf(tracker.getCondensedGraph(), ASmellTracker.COMPONENT, Direction.OUT, ASmellTracker.HAS_CHARACTERISTIC));
+    }
+
+    @Test
+    void affectedComponentsAreSharedByRuns(){
+        long edges = 0;
+        for (Vertex smell : tracker.getCondensedGraph().traversal().V().hasLabel(ASmellTracker.SMELL).toList()){
+            Map<Object, List<Edge>> affects = new HashMap<>();
+            smell.edges(Direction.OUT, ASmellTracker.AFFECTS).forEachRemaining(e ->
+                    affects.computeIfAbsent(e.inVertex().id(), id -> new ArrayList<>()).add(e));
+            for (List<Edge> componentRuns : affects.values()) {
+                edges += componentRuns.size();
+                assertRunsAreMaximal(runsOf(componentRuns.iterator()), (previous, next) -> false);
+            }
+        }
+        assertTrue(edges < versionsOf(tracker.getCondensedGraph(), ASmellTracker.SMELL, Direction.OUT, ASmellTracker.AFFECTS));
+    }
+
+    @Test
+    void resumedWriterContinuesRuns(){
+        var condensedGraph = tracker.getCondensedGraph();
+        var resumedGraph = resumedTracker.getCondensedGraph();
+        assertEquals((long)condensedGraph.traversal().V().count().next(), (long)resumedGraph.traversal().V().count().next());
+        assertEquals((long)condensedGraph.traversal().E().count().next(), (long)resumedGraph.traversal().E().count().next());
+        // The IDs of the open runs were written when the graph was read halfway, and the resumed runs kept adding to them.
+        assertEquals(smellIdsOf(condensedGraph), smellIdsOf(resumedGraph));
+    }
+
+    private Map<Long, List<String>> smellIdsOf(Graph graph){
+        Map<Long, List<String>> smellIds = new TreeMap<>();
+        graph.traversal().V().hasLabel(ASmellTracker.SMELL).forEachRemaining(smell -> {
+            List<String> ids = new ArrayList<>();
+            runsOf(smell.edges(Direction.OUT, ASmellTracker.HAS_CHARACTERISTIC)).forEach(e -> ids.addAll(VersionRuns.smellIdsOf(e)));
+            smellIds.put(smell.value(ASmellTracker.UNIQUE_SMELL_ID), ids);
+        });
+        return smellIds;
+    }
+
+    /**
+     * Sorts the given run edges by their first version and checks that they do not overlap.
+     * @param edges the edges of the runs of a single smell or component.
+     * @return the sorted edges.
+     */
+    private List<Edge> runsOf(Iterator<Edge> edges){
+        List<Edge> sorted = new ArrayList<>();
+        edges.forEachRemaining(sorted::add);
+        sorted.sort(Comparator.comparing(e -> runs.versionsOf(e).first()));
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(runs.versionsOf(sorted.get(i - 1)).last() < runs.versionsOf(sorted.get(i)).first());
+        }
+        return sorted;
+    }
+
+    /**
+     * Checks that two runs that follow each other in consecutive versions could not have been a single run.
+     * @param sortedRuns the sorted edges of the runs.
+     * @param differ whether two consecutive runs differ.
+     */
+    private void assertRunsAreMaximal(List<Edge> sortedRuns, BiPredicate<Edge, Edge> differ){
+        var versions = runs.getVersions();
+        for (int i = 1; i < sortedRuns.size(); i++) {
+            Edge previous = sortedRuns.get(i - 1);
+            Edge next = sortedRuns.get(i);
+            boolean consecutive = versions.higherKey(runs.versionsOf(previous).last()).equals(runs.versionsOf(next).first());
+            assertTrue(!consecutive || differ.test(previous, next));
+        }
+    }
+
+    private long versionsOf(Graph graph, String label, Direction direction, String edgeLabel){
+        return graph.traversal().V().hasLabel(label).toStream()
+                .flatMap(v -> {
+                    List<Edge> edges = new ArrayList<>();
+                    v.edges(direction, edgeLabel).forEachRemaining(edges::add);
+                    return edges.stream();
+                })
+                .mapToLong(e -> runs.versionsOf(e).size()).sum();
+    }
+
+    private Map<String, Object> propertiesOf(Vertex vertex){
+        Map<String, Object> properties = new HashMap<>();
+        vertex.properties().forEachRemaining(p -> properties.put(p.key(), p.value()));
+        return properties;
+    }
+}
@@ -0,0 +1,93 @@
+package org.rug.simpletests.tracker;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
+import org.rug.tracker.DormantSmellPool;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unitTests")
+public class DormantSmellPoolTest {
+
+    @Test
+    void expiresInDetectionOrder(){
+        var pool = new DormantSmellPool(1);
+        var a = cycle(4, "a.A", "b.B");
+        var b = cycle(2, "c.C", "d.D");
+        var c = cycle(3, "e.E", "f.F");
+        var d = cycle(1, "g.G", "h.H");
+        // Added out of order: the pool orders the smells by the version they were last detected in and then by id.
+        pool.add(d, 3);
+        pool.add(a, 2);
+        pool.add(c, 1);
+        pool.add(b, 2);
+        assertEquals(4, pool.size());
+
+        assertTrue(pool.expire(3).isEmpty());
+        assertEquals(List.of(c), pool.expire(4));
+        assertTrue(pool.expire(4).isEmpty());
+        assertEquals(List.of(b, a, d), pool.expire(6));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void removedSmellsDoNotExpire(){
+        var pool = new DormantSmellPool(0);
+        var a = cycle(1, "a.A", "b.B");
+        var b = cycle(2, "c.C", "d.D");
+        pool.add(a, 1);
+        pool.add(b, 1);
+        // Adding a smell twice keeps the version it was first added with.
+        pool.add(a, 5);
+        assertEquals(2, pool.size());
+
+        assertTrue(pool.remove(a));
+        assertFalse(pool.remove(a));
+        assertEquals(1, pool.size());
+        assertEquals(List.of(b), pool.expire(3));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void candidatesShareTypeAndSimpleName(){
+        var pool = new DormantSmellPool(3);
+        var a = cycle(1, "org.a.A", "org.b.B");
+        var b = cycle(2, "org.c.C", "org.d.D");
+        var c = cycle(3, "org.e.E", "org.f.F");
+        var hub = hub(4, "org.a.A", "org.g.G");
+        pool.add(c, 3);
+        pool.add(b, 2);
+        pool.add(a, 2);
+        pool.add(hub, 1);
+
+        // Names are matched by simple name, so a moved class still finds its smells.
+        assertEquals(List.of(a), pool.candidatesOf(List.of(cycle(10, "moved.A", "moved.X"))));
+        assertEquals(List.of(a, b), pool.candidatesOf(List.of(cycle(10, "x.D", "x.B"))));
+        assertEquals(List.of(a, b), pool.candidatesOf(List.of(cycle(10, "x.D", "x.Y"), cycle(11, "x.A", "x.Z"))));
+        assertTrue(pool.candidatesOf(List.of(cycle(10, "x.G", "x.Y"))).isEmpty());
+        // The centre and the dependencies of a smell are indexed too, but only for smells of the same type.
+        assertEquals(List.of(hub), pool.candidatesOf(List.of(hub(10, "x.G", "x.Y"))));
+        assertEquals(List.of(hub), pool.candidatesOf(List.of(hub(10, "x.Y", "x.A"))));
+
+        pool.remove(a);
+        assertEquals(List.of(b), pool.candidatesOf(List.of(cycle(10, "x.D", "x.B"))));
+        assertEquals(List.of(hub), pool.expire(6));
+        assertTrue(pool.candidatesOf(List.of(hub(10, "x.G", "x.A"))).isEmpty());
+        assertEquals(List.of(c), pool.candidatesOf(List.of(cycle(10, "y.E"))));
+    }
+
+    private static SmellSnapshot cycle(long id, String... elements){
+        return SmellSnapshot.restore(id, ArchitecturalSmell.Type.CD, ArchitecturalSmell.Level.CLASS, null, "1.0",
+                null, elements, new String[0], elements.length, Collections.emptyMap());
+    }
+
+    private static SmellSnapshot hub(long id, String centre, String dependency){
+        return SmellSnapshot.restore(id, ArchitecturalSmell.Type.HL, ArchitecturalSmell.Level.CLASS, null, "1.0",
+                centre, new String[]{centre}, new String[]{dependency}, 1, Collections.emptyMap());
+    }
+}
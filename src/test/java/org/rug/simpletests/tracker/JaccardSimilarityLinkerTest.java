@@ -0,0 +1,131 @@
+package org.rug.simpletests.tracker;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.project.IProject;
+import org.rug.data.project.IVersion;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
+import org.rug.tracker.ISimilarityLinker;
+import org.rug.tracker.JaccardSimilarityLinker;
+import org.rug.tracker.LinkScoreTriple;
+import org.rug.tracker.SimpleNameJaccardSimilarityLinker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestData.antlr;
+import static org.rug.simpletests.TestData.pure;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class JaccardSimilarityLinkerTest {
+
+    @Test
+    void indexedCandidatesMatchExhaustiveScoring() {
+        assertSameBestMatch(antlr, new JaccardSimilarityLinker(false), new JaccardSimilarityLinker(true));
+        assertSameBestMatch(antlr, new SimpleNameJaccardSimilarityLinker(false), new SimpleNameJaccardSimilarityLinker(true));
+        assertSameBestMatch(pure, new SimpleNameJaccardSimilarityLinker(false), new SimpleNameJaccardSimilarityLinker(true));
+    }
+
+    @Test
+    void parallelMatchingMatchesSequentialMatching() {
+        assertSameBestMatch(antlr, new SimpleNameJaccardSimilarityLinker(true, 1), new SimpleNameJaccardSimilarityLinker(true, 4));
+        assertSameBestMatch(antlr, new JaccardSimilarityLinker(false, 1), new JaccardSimilarityLinker(false, 3));
+    }
+
+    @Test
+    void parallelLinkerCanBeReusedAfterShutdown() {
+        var linker = new SimpleNameJaccardSimilarityLinker(true, 4);
+        assertSameBestMatch(antlr, new SimpleNameJaccardSimilarityLinker(true, 1), linker);
+        linker.shutdown();
+        assertSameBestMatch(antlr, new SimpleNameJaccardSimilarityLinker(true, 1), linker);
+        linker.shutdown();
+    }
+
+    @Test
+    void internedScoresMatchSetScores() {
+        var linker = new SimpleNameJaccardSimilarityLinker(true);
+        var smellsV1 = snapshotsOf(antlr.getArchitecturalSmellsIn("2.7.2"));
+        var smellsV2 = snapshotsOf(antlr.getArchitecturalSmellsIn("2.7.3"));
+        linker.bestMatch(smellsV1, smellsV2);
+        assertFalse(linker.getUnlinkedMatchScores().isEmpty());
+        for (LinkScoreTriple t : linker.getUnlinkedMatchScores()){
+            assertEquals(linker.calculateJaccardSimilarity(t.getA(), t.getB()), t.getC(), 1e-9);
+        }
+    }
+
+    @Test
+    void identicalSmellsAreLinkedBeforeScoring() {
+        var scoring = new SimpleNameJaccardSimilarityLinker(true);
+        scoring.setExactMatching(false);
+        var matching = new SimpleNameJaccardSimilarityLinker(true);
+        var smellsV1 = snapshotsOf(antlr.getArchitecturalSmellsIn("2.7.2"));
+        var smellsV2 = snapshotsOf(antlr.getArchitecturalSmellsIn("2.7.3"));
+        var expected = new ArrayList<>(scoring.bestMatch(smellsV1, smellsV2));
+        var actual = new ArrayList<>(matching.bestMatch(smellsV1, smellsV2));
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++){
+            assertSame(expected.get(i).getA(), actual.get(i).getA());
+            assertSame(expected.get(i).getB(), actual.get(i).getB());
+            assertEquals(expected.get(i).getC(), actual.get(i).getC());
+        }
+        assertTrue(actual.stream().anyMatch(t -> t.getC() == 1.0));
+        assertTrue(matching.getUnlinkedMatchScores().size() < scoring.getUnlinkedMatchScores().size());
+    }
+
+    @Test
+    void identicalSmellsKeepTheirScores() {
+        var scoring = new SimpleNameJaccardSimilarityLinker(true);
+        scoring.setExactMatching(false);
+        var matching = new SimpleNameJaccardSimilarityLinker(true);
+        var smellsV1 = snapshotsOf(antlr.getArchitecturalSmellsIn("2.7.2"));
+        var smellsV2 = snapshotsOf(antlr.getArchitecturalSmellsIn("2.7.3"));
+        var linked = matching.bestMatch(smellsV1, smellsV2);
+        scoring.bestMatch(smellsV1, smellsV2);
+        var identical = linked.stream().filter(t -> t.getC() == 1.0).collect(Collectors.toList());
+        assertFalse(identical.isEmpty());
+        var scores = matching.getUnlinkedMatchScores();
+        for (LinkScoreTriple t : identical){
+            assertTrue(scores.stream().anyMatch(s -> s.getA() == t.getA() && s.getB() == t.getB() && s.getC() == 1.0),
+                    String.format("Missing the score of %d and %d", t.getA().getId(), t.getB().getId()));
+            assertTrue(scoring.getUnlinkedMatchScores().stream().anyMatch(s -> s.getA() == t.getA() && s.getB() == t.getB() && s.getC() == 1.0));
+        }
+        assertTrue(scores.stream().noneMatch(s -> identical.stream().anyMatch(t ->
+                (s.getA() == t.getA()) != (s.getB() == t.getB()))));
+    }
+
+    private void assertSameBestMatch(IProject project, ISimilarityLinker expectedLinker, ISimilarityLinker actualLinker){
+        List<SmellSnapshot> previous = null;
+        for (IVersion version : project){
+            var smells = snapshotsOf(project.getArchitecturalSmellsIn(version));
+            if (previous != null){
+                var expected = new ArrayList<>(expectedLinker.bestMatch(previous, smells));
+                var actual = new ArrayList<>(actualLinker.bestMatch(previous, smells));
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++){
+                    LinkScoreTriple e = expected.get(i);
+                    LinkScoreTriple a = actual.get(i);
+                    assertSame(e.getA(), a.getA());
+                    assertSame(e.getB(), a.getB());
+                    assertEquals(e.getC(), a.getC());
+                }
+                var expectedScores = expectedLinker.getUnlinkedMatchScores();
+                var actualScores = actualLinker.getUnlinkedMatchScores();
+                assertEquals(expectedScores.size(), actualScores.size());
+                for (int i = 0; i < expectedScores.size(); i++){
+                    assertSame(expectedScores.get(i).getA(), actualScores.get(i).getA());
+                    assertSame(expectedScores.get(i).getB(), actualScores.get(i).getB());
+                }
+            }
+            previous = smells;
+        }
+    }
+
+    private List<SmellSnapshot> snapshotsOf(List<ArchitecturalSmell> smells){
+        return smells.stream().map(SmellSnapshot::of).collect(Collectors.toList());
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.SmellSnapshot;
 import org.rug.tracker.BestMatchSet;
 import org.rug.tracker.JaccardSimilarityLinker;
 import org.rug.tracker.JaccardTripleSet;
@@ -26,10 +27,10 @@ public class JaccardTripleSetTest {
     List<ArchitecturalSmell> smellsV1;
     List<ArchitecturalSmell> smellsV2;
 
-    ArchitecturalSmell smell1;
-    ArchitecturalSmell smell2;
-    ArchitecturalSmell smell3;
-    ArchitecturalSmell smell4;
+    SmellSnapshot smell1;
+    SmellSnapshot smell2;
+    SmellSnapshot smell3;
+    SmellSnapshot smell4;
 
     @BeforeAll
     void init() throws IOException{
@@ -44,10 +45,10 @@ public class JaccardTripleSetTest {
         assertTrue(smell2Opt.isPresent());
         assertTrue(smell3Opt.isPresent());
         assertTrue(smell4Opt.isPresent());
-        smell1 = smell1Opt.get();
-        smell2 = smell2Opt.get();
-        smell3 = smell3Opt.get();
-        smell4 = smell4Opt.get();
+        smell1 = SmellSnapshot.of(smell1Opt.get());
+        smell2 = SmellSnapshot.of(smell2Opt.get());
+        smell3 = SmellSnapshot.of(smell3Opt.get());
+        smell4 = SmellSnapshot.of(smell4Opt.get());
         assertNotEquals(smell1, smell2);
         assertNotEquals(smell1, smell3);
     }
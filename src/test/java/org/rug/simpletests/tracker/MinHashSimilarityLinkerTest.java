@@ -0,0 +1,99 @@
+package org.rug.simpletests.tracker;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.project.IProject;
+import org.rug.data.project.IVersion;
+import org.rug.data.project.Project;
+import org.rug.data.smells.SmellSnapshot;
+import org.rug.tracker.ISimilarityLinker;
+import org.rug.tracker.LinkScoreTriple;
+import org.rug.tracker.MinHashSimilarityLinker;
+import org.rug.tracker.SimpleNameJaccardSimilarityLinker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.rug.simpletests.TestData.antlr;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class MinHashSimilarityLinkerTest {
+
+    private final static Logger logger = LoggerFactory.getLogger(MinHashSimilarityLinkerTest.class);
+
+    @Test
+    void recallAgainstExactLinker() throws IOException {
+        var ant = new Project("ant");
+        ant.addGraphMLfiles("./test-data/output/arcanOutput/ant");
+        for (IProject project : List.of(antlr, ant)) {
+            double approximateRecall = recall(project, new MinHashSimilarityLinker(false, 1));
+            double rescoringRecall = recall(project, new MinHashSimilarityLinker(true, 2));
+            logger.info("MinHash recall on {}: {} approximate, {} rescoring", project.getName(),
+                    String.format("%.4f", approximateRecall), String.format("%.4f", rescoringRecall));
+            assertTrue(approximateRecall >= 0.9, String.format("Recall on %s: %.4f", project.getName(), approximateRecall));
+            assertTrue(rescoringRecall >= approximateRecall,
+                    String.format("Recall on %s: %.4f rescoring, %.4f approximate", project.getName(), rescoringRecall, approximateRecall));
+        }
+    }
+
+    @Test
+    void candidatesAreScoredExactly() {
+        var linker = new MinHashSimilarityLinker(1, 1, false, 0, 1);
+        var exactLinker = new SimpleNameJaccardSimilarityLinker(true);
+        var smellsV1 = snapshotsOf(antlr, antlr.getVersionWith(3));
+        var smellsV2 = snapshotsOf(antlr, antlr.getVersionWith(4));
+        linker.bestMatch(smellsV1, smellsV2);
+        assertFalse(linker.getUnlinkedMatchScores().isEmpty());
+        for (LinkScoreTriple t : linker.getUnlinkedMatchScores()) {
+            assertEquals(exactLinker.calculateJaccardSimilarity(t.getA(), t.getB()), t.getC(), 1e-9);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new MinHashSimilarityLinker(0, 3, false, 0, 1));
+    }
+
+    @Test
+    void rescoredSmellsAreScoredInOrder() {
+        // With a margin greater than 1, every smell is scored again against the inverted index
+        var linker = new MinHashSimilarityLinker(20, 3, true, 2, 1);
+        var exactLinker = new SimpleNameJaccardSimilarityLinker(true);
+        linker.setExactMatching(false);
+        exactLinker.setExactMatching(false);
+        var smellsV1 = snapshotsOf(antlr, antlr.getVersionWith(3));
+        var smellsV2 = snapshotsOf(antlr, antlr.getVersionWith(4));
+        assertEquals(new ArrayList<>(exactLinker.bestMatch(smellsV1, smellsV2)), new ArrayList<>(linker.bestMatch(smellsV1, smellsV2)));
+        assertEquals(exactLinker.getUnlinkedMatchScores(), linker.getUnlinkedMatchScores());
+    }
+
+    /**
+     * Computes the fraction of the links of the exact linker that are found by the given linker over every
+     * couple of consecutive versions of the given project.
+     */
+    private double recall(IProject project, ISimilarityLinker linker) {
+        var exactLinker = new SimpleNameJaccardSimilarityLinker(true);
+        List<SmellSnapshot> previous = null;
+        long expectedLinks = 0;
+        long foundLinks = 0;
+        for (IVersion version : project) {
+            var smells = snapshotsOf(project, version);
+            if (previous != null) {
+                var expected = exactLinker.bestMatch(previous, smells);
+                var actual = linker.bestMatch(previous, smells);
+                expectedLinks += expected.size();
+                foundLinks += expected.stream().filter(actual::contains).count();
+            }
+            previous = smells;
+        }
+        assertTrue(expectedLinks > 0);
+        return foundLinks / (double) expectedLinks;
+    }
+
+    private List<SmellSnapshot> snapshotsOf(IProject project, IVersion version) {
+        return project.getArchitecturalSmellsIn(version).stream().map(SmellSnapshot::of).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,40 @@
+package org.rug.simpletests.tracker;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.rug.data.smells.ArchitecturalSmell;
+import org.rug.data.smells.CDSmell;
+import org.rug.tracker.SmellFingerprint;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("unitTests")
+public class SmellFingerprintTest {
+
+    private final List<String> names = List.of("org.a", "org.b", "org.c");
+
+    @Test
+    void fingerprintDoesNotDependOnTheOrderOfTheNames() {
+        assertEquals(SmellFingerprint.of(ArchitecturalSmell.Type.CD, CDSmell.Shape.CHAIN, names),
+                SmellFingerprint.of(ArchitecturalSmell.Type.CD, CDSmell.Shape.CHAIN, List.of("org.c", "org.a", "org.b")));
+    }
+
+    @Test
+    void fingerprintDependsOnTypeAndShape() {
+        long fingerprint = SmellFingerprint.of(ArchitecturalSmell.Type.CD, CDSmell.Shape.CHAIN, names);
+        assertNotEquals(fingerprint, SmellFingerprint.of(ArchitecturalSmell.Type.CD, CDSmell.Shape.STAR, names));
+        assertNotEquals(fingerprint, SmellFingerprint.of(ArchitecturalSmell.Type.HL, null, names));
+    }
+
+    @Test
+    void fingerprintDependsOnTheBoundariesOfTheNames() {
+        assertNotEquals(SmellFingerprint.of(ArchitecturalSmell.Type.CD, CDSmell.Shape.CHAIN, names),
+                SmellFingerprint.of(ArchitecturalSmell.Type.CD, CDSmell.Shape.CHAIN, List.of("org.ab", "org.c")));
+        assertNotEquals(SmellFingerprint.of(ArchitecturalSmell.Type.HL, null, List.of("ab", "c")),
+                SmellFingerprint.of(ArchitecturalSmell.Type.HL, null, List.of("a", "bc")));
+    }
+}